@@ -0,0 +1,90 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.batch;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkReplyDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkRequestDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.util.CsvUtil;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * RemoteChunkHandler is the worker side of the remote-chunking daily transaction report: it processes the raw data
+ * of a chunk request with the {@link ReportDailyTransactionItemProcessor} and writes the processed rows, with their
+ * CSV header, to the part file named by the request.
+ * <p>
+ * The part is written to a temporary file next to it and moved into place once complete, replacing any part left by
+ * an earlier delivery of the same request. Handling a request twice therefore leaves one complete part file. Errors
+ * are returned as a failed reply, which fails the chunk on the manager.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!planner")
+public class RemoteChunkHandler {
+
+    private final ReportDailyTransactionItemProcessor reportDailyTransactionItemProcessor;
+
+    /**
+     * Processes a chunk request and writes its part file.
+     *
+     * @param request the chunk request
+     * @return a successful reply with the number of rows written, or a failed reply with the error
+     */
+    public RemoteChunkReplyDto handle(RemoteChunkRequestDto request) {
+        try {
+            List<ReportDailyTransactionDto.ProcessData> rows = new ArrayList<>(request.getItems().size());
+            for (ReportDailyTransactionDto.RawData item : request.getItems()) {
+                ReportDailyTransactionDto.ProcessData row = reportDailyTransactionItemProcessor.process(item);
+                if (row != null) {
+                    rows.add(row);
+                }
+            }
+            writePart(Path.of(request.getPartName()), rows);
+            log.info("Wrote remote chunk {} of task ID: {} with {} rows to {}", request.getSequence(),
+                    request.getTaskId(), rows.size(), request.getPartName());
+            return new RemoteChunkReplyDto(request.getSequence(), true, rows.size(), null);
+        } catch (Exception e) {
+            log.error("Failed remote chunk {} of task ID: {}", request.getSequence(), request.getTaskId(), e);
+            return new RemoteChunkReplyDto(request.getSequence(), false, 0, e.toString());
+        }
+    }
+
+    /**
+     * Writes the rows of a chunk to a temporary file and moves it over the part file.
+     *
+     * @param part the part file
+     * @param rows the processed rows
+     * @throws IOException if the part file cannot be written
+     */
+    private void writePart(Path part, List<ReportDailyTransactionDto.ProcessData> rows) throws IOException {
+        Path directory = part.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, part.getFileName().toString(), ".tmp");
+        try {
+            CsvUtil.writeToCsv(temporary.toString(), rows);
+            Files.move(temporary, part, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.batch;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.annotation.AfterStep;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkReplyDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkRequestDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.RemoteChunkTransport;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.util.CsvUtil;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * RemoteChunkItemWriter is the manager side of the remote-chunking daily transaction report: instead of processing
+ * and writing the raw data it reads, it sends it to the worker nodes through the {@link RemoteChunkTransport}.
+ * <p>
+ * Each chunk of the step is split into requests of {@code spring.report.remote-chunking.chunk-size} items, which are
+ * numbered in reading order and processed by the {@link RemoteChunkHandler} of any worker into a part file of their
+ * own. At most {@code max-in-flight} requests of the step await a reply at a time: further requests are only sent as
+ * replies come in, so a fast reader cannot flood the request queue. The chunk is only committed once all its
+ * requests have succeeded, so every committed chunk has its part files written. A failed request, or no reply for
+ * {@code reply-timeout} milliseconds, fails the chunk.
+ * </p>
+ * <p>
+ * The next request number is checkpointed in the step {@link ExecutionContext} at each chunk commit. When the step
+ * is restarted, the requests of the chunk that was in flight are sent again under the same numbers and their part
+ * files are replaced. After the step has completed, the part files are concatenated in order into the report file,
+ * and the task is finished as with the local writer (see {@link ReportDailyTransactionItemWriter#afterStep}).
+ * </p>
+ * <p>
+ * The part files are written to {@code spring.report.remote-chunking.part-dir}, which must be storage shared by the
+ * manager and all the workers. A part file missing at assembly, written where the manager cannot see it, fails the
+ * step rather than completing the task with an incomplete report.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@StepScope
+@Profile("!planner")
+public class RemoteChunkItemWriter implements ItemStreamWriter<ReportDailyTransactionDto.RawData> {
+
+    /**
+     * Key of the number of the next chunk request in the step execution context.
+     */
+    public static final String SEQUENCE_KEY = "report.remoteChunk.sequence";
+
+    private final RemoteChunkTransport remoteChunkTransport;
+    private final ReportDailyTransactionItemWriter reportDailyTransactionItemWriter;
+
+    // Number of items per chunk request.
+    @Value("${spring.report.remote-chunking.chunk-size:100}")
+    private int chunkSize;
+
+    // Maximum number of chunk requests of the step awaiting a reply.
+    @Value("${spring.report.remote-chunking.max-in-flight:8}")
+    private int maxInFlight;
+
+    // Maximum wait for the next reply, in milliseconds.
+    @Value("${spring.report.remote-chunking.reply-timeout:300000}")
+    private long replyTimeout;
+
+    // Directory of the part files, shared by the manager and the workers; required with the RabbitMQ transport.
+    @Value("${spring.report.remote-chunking.part-dir:}")
+    private String partDir;
+
+    // Reply queue of the step, open between open() and close().
+    private String replyQueue;
+    // Prefix of the part files of the step's task and copy.
+    private String partPrefix;
+    // Number of the next chunk request.
+    private long nextSequence;
+
+    /**
+     * Opens the writer: generates the report filename on the first execution of the step, resumes the request
+     * numbers from the last checkpoint and opens the reply queue of the step.
+     *
+     * @param executionContext the step execution context
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        StepExecution stepExecution = StepSynchronizationManager.getContext().getStepExecution();
+        if (!executionContext.containsKey(ReportDailyTransactionItemWriter.FILENAME_KEY)) {
+            String filename = ReportDailyTransactionItemWriter.generateFilename(stepExecution);
+            executionContext.putString(ReportDailyTransactionItemWriter.FILENAME_KEY, filename);
+            log.info("Generated filename: {}", filename);
+        }
+        if (!StringUtils.hasText(partDir)) {
+            // Only possible with the in-process transport, whose workers share the manager's file system.
+            partDir = Path.of(System.getProperty("java.io.tmpdir"), "report-parts").toString();
+        }
+        partPrefix = String.format("task-%d-%s-", TaskStateListener.taskId(stepExecution),
+                stepExecution.getJobParameters().getString("copy", "original"));
+        nextSequence = executionContext.getLong(SEQUENCE_KEY, 0L);
+        replyQueue = remoteChunkTransport.openReplyQueue();
+        log.info("Opened remote chunking of task ID: {} at chunk {} with reply queue {}",
+                TaskStateListener.taskId(stepExecution), nextSequence, replyQueue);
+    }
+
+    /**
+     * Checkpoints the number of the next chunk request, as part of the chunk commit.
+     *
+     * @param executionContext the step execution context
+     */
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(SEQUENCE_KEY, nextSequence);
+    }
+
+    /**
+     * Sends a chunk of raw transaction data to the workers as chunk requests and waits for all their replies,
+     * keeping at most {@code max-in-flight} requests awaiting a reply.
+     *
+     * @param chunk the chunk of raw transaction data
+     * @throws Exception if a request fails, no reply arrives in time or the wait is interrupted
+     */
+    @Override
+    public void write(Chunk<? extends ReportDailyTransactionDto.RawData> chunk) throws Exception {
+        List<? extends ReportDailyTransactionDto.RawData> items = chunk.getItems();
+        if (items.isEmpty()) {
+            log.debug("Empty chunk received; nothing to send.");
+            return;
+        }
+        StepExecution stepExecution = StepSynchronizationManager.getContext().getStepExecution();
+        Long taskId = TaskStateListener.taskId(stepExecution);
+
+        Set<Long> outstanding = new HashSet<>();
+        long rows = 0;
+        int from = 0;
+        while (from < items.size() || !outstanding.isEmpty()) {
+            // Send requests while the window has room, then wait for a reply to make room again.
+            while (from < items.size() && outstanding.size() < maxInFlight) {
+                int to = Math.min(from + chunkSize, items.size());
+                long sequence = nextSequence++;
+                remoteChunkTransport.send(replyQueue, new RemoteChunkRequestDto(taskId, sequence, partName(sequence),
+                        new ArrayList<ReportDailyTransactionDto.RawData>(items.subList(from, to))));
+                outstanding.add(sequence);
+                from = to;
+            }
+            RemoteChunkReplyDto reply = remoteChunkTransport.receive(replyQueue, replyTimeout);
+            if (reply == null) {
+                throw new IllegalStateException("No reply to remote chunks " + outstanding + " of task " + taskId
+                        + " within " + replyTimeout + " ms");
+            }
+            if (!outstanding.remove(reply.getSequence())) {
+                // A redelivered request may be replied to twice.
+                log.debug("Ignoring duplicate reply to remote chunk {} of task ID: {}", reply.getSequence(), taskId);
+                continue;
+            }
+            if (!reply.isSuccessful()) {
+                throw new IllegalStateException("Remote chunk " + reply.getSequence() + " of task " + taskId
+                        + " failed: " + reply.getErrorMessage());
+            }
+            rows += reply.getRowsWritten();
+        }
+
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        executionContext.putLong(ReportDailyTransactionItemWriter.ROWS_WRITTEN_KEY,
+                executionContext.getLong(ReportDailyTransactionItemWriter.ROWS_WRITTEN_KEY, 0L) + rows);
+        log.info("Workers wrote {} records of task ID: {} up to remote chunk {}", rows, taskId, nextSequence - 1);
+    }
+
+    /**
+     * Closes the reply queue of the step.
+     */
+    @Override
+    public void close() {
+        if (replyQueue != null) {
+            remoteChunkTransport.closeReplyQueue(replyQueue);
+            replyQueue = null;
+        }
+    }
+
+    /**
+     * Assembles the report file from the part files once the step has completed, and finishes the task as the local
+     * writer does. If a part file is missing, the step and the task fail. The part files are deleted once assembled,
+     * and kept for a restart if the step failed.
+     *
+     * @param stepExecution the current step execution context
+     * @return the exit status of the step
+     */
+    @AfterStep
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        List<String> parts = LongStream.range(0, executionContext.getLong(SEQUENCE_KEY, 0L))
+                .mapToObj(this::partName)
+                .toList();
+        if (BatchStatus.COMPLETED.equals(stepExecution.getStatus())) {
+            String filename = executionContext.getString(ReportDailyTransactionItemWriter.FILENAME_KEY);
+            try {
+                CsvUtil.concatenate(filename, parts);
+                log.info("Assembled {} remote chunks into CSV file: {}", parts.size(), filename);
+            } catch (IOException e) {
+                log.error("Could not assemble the remote chunks of CSV file: {}", filename, e);
+                if (!new File(filename).delete()) {
+                    log.warn("Could not delete incomplete report file: {}", filename);
+                }
+                stepExecution.setStatus(BatchStatus.FAILED);
+                stepExecution.setExitStatus(ExitStatus.FAILED.addExitDescription(e));
+                stepExecution.addFailureException(e);
+            }
+        }
+
+        ExitStatus exitStatus = reportDailyTransactionItemWriter.afterStep(stepExecution);
+        if (BatchStatus.COMPLETED.equals(stepExecution.getStatus())) {
+            for (String part : parts) {
+                File file = new File(part);
+                if (file.exists() && !file.delete()) {
+                    log.warn("Could not delete CSV part: {}", part);
+                }
+            }
+        }
+        return exitStatus;
+    }
+
+    /**
+     * Returns the path of the part file of a chunk request.
+     *
+     * @param sequence the number of the chunk request
+     * @return the part file path
+     */
+    private String partName(long sequence) {
+        return Path.of(partDir, partPrefix + String.format("%08d.csv", sequence)).toString();
+    }
+}
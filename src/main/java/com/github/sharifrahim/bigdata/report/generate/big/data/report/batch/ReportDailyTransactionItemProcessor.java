@@ -4,6 +4,7 @@ import java.math.BigDecimal;
 import java.time.format.DateTimeFormatter;
 
 import org.springframework.batch.item.ItemProcessor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionDto;
@@ -28,6 +29,7 @@ import lombok.extern.slf4j.Slf4j;
  */
 @Slf4j
 @Component
+@Profile("!planner")
 public class ReportDailyTransactionItemProcessor
         implements ItemProcessor<ReportDailyTransactionDto.RawData, ReportDailyTransactionDto.ProcessData> {
 
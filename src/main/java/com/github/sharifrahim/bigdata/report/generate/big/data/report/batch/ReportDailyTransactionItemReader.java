@@ -1,25 +1,25 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.batch;
 
-import java.time.LocalDateTime;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.annotation.BeforeStep;
-import org.springframework.batch.item.ItemReader;
+import org.springframework.batch.core.configuration.annotation.StepScope;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamReader;
 import org.springframework.batch.item.NonTransientResourceException;
 import org.springframework.batch.item.ParseException;
 import org.springframework.batch.item.UnexpectedInputException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionDto;
-import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
-import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStateMachine;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TransactionService;
 
 import lombok.RequiredArgsConstructor;
@@ -29,7 +29,15 @@ import lombok.extern.slf4j.Slf4j;
  * ReportDailyTransactionItemReader reads raw daily transaction data for report processing.
  * <p>
  * It retrieves job parameters to update the task status and to obtain the merchant email,
- * then lazily loads the transactions from the TransactionService based on that email.
+ * then loads the transactions from the TransactionService based on that email, one keyset page of
+ * {@code spring.report.checkpoint.page-size} transactions at a time.
+ * </p>
+ * <p>
+ * The reader is step scoped and checkpoints the identifier of the last transaction read in the step
+ * {@link ExecutionContext} at each chunk commit. When the step is restarted after a crash, reading continues after
+ * that transaction, so at most one chunk is read again. The day of the transactions is pinned in the execution
+ * context when the step first opens, so a report running across midnight, or resumed on a later day, still reads
+ * the transactions of a single day.
  * </p>
  * <p>
  * For more details, please visit my GitHub repository:
@@ -43,41 +51,66 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @RequiredArgsConstructor
 @Component
-public class ReportDailyTransactionItemReader implements ItemReader<ReportDailyTransactionDto.RawData> {
+@StepScope
+@Profile("!planner")
+public class ReportDailyTransactionItemReader implements ItemStreamReader<ReportDailyTransactionDto.RawData> {
+
+    /**
+     * Key of the identifier of the last transaction read in the step execution context.
+     */
+    public static final String LAST_TRANSACTION_ID_KEY = "report.lastTransactionId";
+
+    /**
+     * Key of the day of the transactions read, in ISO format, in the step execution context.
+     */
+    public static final String REPORT_DATE_KEY = "report.date";
 
     private final TransactionService transactionService;
-    private final TaskService taskService;
-    
-    // Iterator for the raw transaction data; lazily initialized.
+    private final TaskStateMachine taskStateMachine;
+
+    // Number of transactions loaded per keyset page.
+    @Value("${spring.report.checkpoint.page-size:1000}")
+    private int pageSize;
+
+    // Iterator over the current page of raw transaction data; lazily initialized.
     private Iterator<ReportDailyTransactionDto.RawData> transactionIterator;
     // Merchant email retrieved from job parameters.
     private String merchantEmail;
+    // Day of the transactions read, pinned for the whole report.
+    private LocalDate reportDate;
+    // Identifier of the last transaction read.
+    private long lastTransactionId;
+    // Whether the last page has been loaded.
+    private boolean exhausted;
     
     /**
      * Prepares the reader before the step execution.
      * <p>
      * Retrieves the task ID and merchant email from job parameters,
-     * updates the task status to PROCESSING, and sets the merchant email.
+     * moves the task to PROCESSING with a single conditional update unless the {@link TaskStateListener} reports it
+     * already is (for instance when its listener claimed it, or when this is a speculative copy of the task), and sets
+     * the merchant email.
      * </p>
      *
      * @param stepExecution the current step execution context
      */
     @BeforeStep
     public void beforeStep(StepExecution stepExecution) {
-        // Retrieve taskId from job parameters
-        Long taskId = stepExecution.getJobParameters().getLong("taskId");
-        log.debug("Starting beforeStep for taskId: {}", taskId);
-        
-        // Retrieve task using taskService and update its status
-        Optional<Task> taskOpt = taskService.getById(taskId);
-        if (taskOpt.isPresent()) {
-            Task task = taskOpt.get();
-            task.setExecutedAt(LocalDateTime.now());
-            task.setStatus(TaskStatus.PROCESSING);
-            taskService.save(task);
-            log.info("Updated task (id: {}) status to PROCESSING at {}", taskId, task.getExecutedAt());
-        } else {
+        // Retrieve the task state passed on by the TaskStateListener
+        Long taskId = TaskStateListener.taskId(stepExecution);
+        TaskStatus status = TaskStateListener.status(stepExecution);
+        log.debug("Starting beforeStep for taskId: {} in status {}", taskId, status);
+
+        // Move the task to PROCESSING unless it is already; one conditional update, no need to load the entity
+        if (status == null) {
             log.warn("No task found for taskId: {}", taskId);
+        } else if (TaskStatus.PROCESSING.equals(status)) {
+            log.debug("Task (id: {}) is already PROCESSING", taskId);
+        } else if (taskStateMachine.transition(taskId, status, TaskStatus.PROCESSING)) {
+            TaskStateListener.setStatus(stepExecution, TaskStatus.PROCESSING);
+            log.info("Updated task (id: {}) status to PROCESSING", taskId);
+        } else {
+            log.warn("Task (id: {}) is no longer {}; not moved to PROCESSING", taskId, status);
         }
         
         // Retrieve merchant email from job parameters for later use in read()
@@ -85,39 +118,68 @@ public class ReportDailyTransactionItemReader implements ItemReader<ReportDailyT
         log.debug("Merchant email set to: {}", merchantEmail);
     }
 
+    /**
+     * Opens the reader, resuming after the last checkpointed transaction when the step is restarted. The day of the
+     * transactions is pinned to the current date on the first execution, and restored on a restart.
+     *
+     * @param executionContext the step execution context
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        String date = executionContext.getString(REPORT_DATE_KEY, null);
+        reportDate = date != null ? LocalDate.parse(date) : LocalDate.now();
+        executionContext.putString(REPORT_DATE_KEY, reportDate.toString());
+        lastTransactionId = executionContext.getLong(LAST_TRANSACTION_ID_KEY, 0L);
+        if (lastTransactionId > 0) {
+            log.info("Resuming transactions for merchant: {} after transaction ID {}", merchantEmail,
+                    lastTransactionId);
+        }
+    }
+
+    /**
+     * Checkpoints the identifier of the last transaction read, as part of the chunk commit.
+     *
+     * @param executionContext the step execution context
+     */
+    @Override
+    public void update(ExecutionContext executionContext) {
+        executionContext.putLong(LAST_TRANSACTION_ID_KEY, lastTransactionId);
+    }
+
     /**
      * Reads the next raw transaction data item.
      * <p>
-     * The iterator is lazily initialized by fetching all transactions for the given merchant email.
-     * If no merchant email is provided or no data is available, returns null.
+     * The next keyset page of transactions for the given merchant email is fetched whenever the current page
+     * is used up. If no merchant email is provided or no data is available, returns null.
      * </p>
      *
      * @return the next ReportDailyTransactionDto.RawData item, or null if there are no more items
      * @throws Exception if any error occurs during data retrieval
      */
     @Override
-    @Transactional(readOnly = true)
     public ReportDailyTransactionDto.RawData read()
             throws Exception, UnexpectedInputException, ParseException, NonTransientResourceException {
 
-        // Lazy-load the iterator if it hasn't been initialized yet.
-        if (transactionIterator == null) {
+        // Load the next page once the current one is used up.
+        if ((transactionIterator == null || !transactionIterator.hasNext()) && !exhausted) {
             if (merchantEmail == null || merchantEmail.isEmpty()) {
                 log.warn("Merchant email is missing; no transactions to read.");
                 transactionIterator = Collections.emptyIterator();
+                exhausted = true;
             } else {
-                // Fetch transactions for the specified merchant email and collect into a List.
+                // Fetch the transactions following the last one read for the specified merchant email.
                 List<ReportDailyTransactionDto.RawData> transactions = transactionService
-                        .getTransactionsByMerchantEmail(merchantEmail)
-                        .collect(Collectors.toList());
-                log.info("Fetched {} transactions for merchant: {}", transactions.size(), merchantEmail);
+                        .getTransactionPageByMerchantEmail(merchantEmail, reportDate, lastTransactionId, pageSize);
+                log.debug("Fetched {} transactions for merchant: {}", transactions.size(), merchantEmail);
                 transactionIterator = transactions.iterator();
+                exhausted = transactions.size() < pageSize;
             }
         }
-        
+
         // Return the next item if available, otherwise log the completion of data reading.
         if (transactionIterator.hasNext()) {
             ReportDailyTransactionDto.RawData nextItem = transactionIterator.next();
+            lastTransactionId = nextItem.getId();
             log.debug("Returning next transaction item for merchant: {}", merchantEmail);
             return nextItem;
         } else {
@@ -1,21 +1,27 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.batch;
 
+import java.io.File;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
-import java.util.Optional;
 
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.annotation.AfterStep;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
 import org.springframework.batch.item.Chunk;
-import org.springframework.batch.item.ItemWriter;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.item.ItemStreamException;
+import org.springframework.batch.item.ItemStreamWriter;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionDto;
-import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
-import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskProgressService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStatusSink;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.util.CsvUtil;
 
 import lombok.RequiredArgsConstructor;
@@ -24,9 +30,23 @@ import lombok.extern.slf4j.Slf4j;
 /**
  * ReportDailyTransactionItemWriter writes processed transaction data into a CSV file.
  * <p>
- * This writer generates a unique filename for each job execution based on the merchant’s email 
- * and the current timestamp. It then writes the provided chunk of processed data into the CSV file.
- * Additionally, after the step, it updates the associated task's status to COMPLETED.
+ * This writer generates a unique filename for each job based on the merchant’s email, the current timestamp and
+ * the job execution. It then writes the provided chunks of processed data into the CSV file.
+ * The filename and the number of rows written so far are kept in the step {@link ExecutionContext}, where the
+ * {@link TaskProgressListener} picks the progress up.
+ * </p>
+ * <p>
+ * At each chunk commit, the length of the report file is checkpointed in the step execution context along with
+ * the position of the reader. When the step is restarted after a crash, the file is truncated to the last committed
+ * length before writing resumes, so rows written by the chunk that was in flight are not duplicated. The file is
+ * local to the node that wrote it: a restart that finds it missing or shorter than its committed length fails the
+ * step, and thus the task, rather than completing it with only the rows written after the restart.
+ * </p>
+ * <p>
+ * After the step, it finishes the associated task as COMPLETED (or FAILED if the step failed) through the
+ * {@link TaskProgressService} and records the outcome on the task's main task through the {@link TaskStatusSink}.
+ * When a speculative copy of the task runs as well, only the copy that finishes first decides the outcome; the
+ * other copy discards its report file.
  * </p>
  * <p>
  * For more details, please visit my GitHub repository:
@@ -40,19 +60,86 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @RequiredArgsConstructor
 @Component
-public class ReportDailyTransactionItemWriter implements ItemWriter<ReportDailyTransactionDto.ProcessData> {
+@Profile("!planner")
+public class ReportDailyTransactionItemWriter implements ItemStreamWriter<ReportDailyTransactionDto.ProcessData> {
+
+    /**
+     * Key of the number of rows written so far in the step execution context.
+     */
+    public static final String ROWS_WRITTEN_KEY = "report.rowsWritten";
+
+    /**
+     * Key of the report filename in the step execution context.
+     */
+    public static final String FILENAME_KEY = "report.filename";
+
+    /**
+     * Key of the committed length of the report file, in bytes, in the step execution context.
+     */
+    public static final String FILE_OFFSET_KEY = "report.fileOffset";
+
+    private final TaskProgressService taskProgressService;
+    private final TaskStatusSink taskStatusSink;
+
+    /**
+     * Opens the writer. On the first execution of the step, the report filename is generated from the merchant
+     * email job parameter, the current timestamp and the job execution ID. On a restart, the report file is
+     * truncated to its last committed length.
+     *
+     * @param executionContext the step execution context
+     * @throws ItemStreamException if the report file is missing, shorter than its committed length or cannot be
+     *                             truncated
+     */
+    @Override
+    public void open(ExecutionContext executionContext) {
+        String filename = executionContext.getString(FILENAME_KEY, null);
+        if (filename == null) {
+            filename = generateFilename(StepSynchronizationManager.getContext().getStepExecution());
+            executionContext.putString(FILENAME_KEY, filename);
+            log.info("Generated filename: {}", filename);
+            return;
+        }
+        long offset = executionContext.getLong(FILE_OFFSET_KEY, 0L);
+        try {
+            CsvUtil.truncate(filename, offset);
+            log.info("Resuming CSV file: {} from its committed length of {} bytes", filename, offset);
+        } catch (IOException e) {
+            throw new ItemStreamException("Could not resume CSV file " + filename + " from " + offset + " bytes", e);
+        }
+    }
 
-    private final TaskService taskService;
+    /**
+     * Generates the report filename of a step execution from the merchant email job parameter, the current timestamp
+     * and the job execution ID.
+     *
+     * @param stepExecution the step execution
+     * @return the report filename
+     */
+    public static String generateFilename(StepExecution stepExecution) {
+        String merchantEmail = stepExecution.getJobParameters().getString("merchantEmail");
+        String merchantName = merchantEmail.split("@")[0]; // Extract merchant name from email (portion before '@')
+        String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
+        return String.format("%s_%s_%d.csv", merchantName, timestamp, stepExecution.getJobExecutionId());
+    }
 
-    // Static filename is generated once per job execution.
-    private static String filename;
+    /**
+     * Checkpoints the length of the report file, as part of the chunk commit.
+     *
+     * @param executionContext the step execution context
+     */
+    @Override
+    public void update(ExecutionContext executionContext) {
+        String filename = executionContext.getString(FILENAME_KEY, null);
+        if (filename != null) {
+            executionContext.putLong(FILE_OFFSET_KEY, new File(filename).length());
+        }
+    }
 
     /**
      * Writes a chunk of processed transaction data to a CSV file.
      * <p>
-     * If the filename has not been generated yet, it is created using the merchant's email
-     * (extracted from the first data item) and the current timestamp. The CSV file is then
-     * populated with the processed data.
+     * The CSV file named in the step execution context is populated with the processed data, and the number of
+     * rows written is added up in the step execution context.
      * </p>
      *
      * @param chunk the chunk containing processed transaction data items
@@ -71,17 +158,14 @@ public class ReportDailyTransactionItemWriter implements ItemWriter<ReportDailyT
             return;
         }
 
-        // Generate a unique filename only once per job execution.
-        if (filename == null) {
-            String merchantEmail = dataList.get(0).getMerchantEmail();
-            String merchantName = merchantEmail.split("@")[0]; // Extract merchant name from email (portion before '@')
-            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss"));
-            filename = String.format("%s_%s.csv", merchantName, timestamp);
-            log.info("Generated filename: {}", filename);
-        }
+        // The filename was generated when the step was first opened.
+        ExecutionContext executionContext = StepSynchronizationManager.getContext().getStepExecution()
+                .getExecutionContext();
+        String filename = executionContext.getString(FILENAME_KEY);
 
         // Write the processed data to the CSV file using CsvUtil.
         CsvUtil.writeToCsv(filename, dataList);
+        executionContext.putLong(ROWS_WRITTEN_KEY, executionContext.getLong(ROWS_WRITTEN_KEY, 0L) + dataList.size());
         log.info("Successfully written {} records to CSV file: {}", dataList.size(), filename);
 
         // Placeholder for copying the file to cloud storage.
@@ -90,10 +174,11 @@ public class ReportDailyTransactionItemWriter implements ItemWriter<ReportDailyT
     }
 
     /**
-     * Updates the task status to COMPLETED after the step execution.
+     * Finishes the task as COMPLETED (or FAILED if the step failed) after the step execution.
      * <p>
-     * This method retrieves the job parameter 'taskId', fetches the corresponding Task, and updates its 
-     * completion time and status.
+     * This method takes the task and its main task from the state kept by the {@link TaskStateListener} and
+     * finishes the task. If this copy of the task decided its outcome, the outcome is recorded on the task's main
+     * task; otherwise another copy finished first and the report file of this copy is deleted.
      * </p>
      *
      * @param stepExecution the current step execution context
@@ -101,18 +186,24 @@ public class ReportDailyTransactionItemWriter implements ItemWriter<ReportDailyT
      */
     @AfterStep
     public ExitStatus afterStep(StepExecution stepExecution) {
-        // Retrieve the 'taskId' job parameter.
-        Long taskId = stepExecution.getJobParameters().getLong("taskId");
+        // Retrieve the task state passed on by the TaskStateListener.
+        Long taskId = TaskStateListener.taskId(stepExecution);
+        Long mainTaskId = TaskStateListener.mainTaskId(stepExecution);
         log.debug("After step: updating task status for taskId: {}", taskId);
 
-        // Retrieve the task and update its status if it exists.
-        Optional<Task> taskOpt = taskService.getById(taskId);
-        if (taskOpt.isPresent()) {
-            Task task = taskOpt.get();
-            task.setCompletedAt(LocalDateTime.now());
-            task.setStatus(TaskStatus.COMPLETED);
-            taskService.save(task);
-            log.info("Task (id: {}) updated to COMPLETED at {}", taskId, task.getCompletedAt());
+        // Update the task status if the task exists.
+        if (mainTaskId != null) {
+            TaskStatus outcome = BatchStatus.COMPLETED.equals(stepExecution.getStatus())
+                    ? TaskStatus.COMPLETED : TaskStatus.FAILED;
+            if (taskProgressService.finish(taskId, outcome,
+                    stepExecution.getExecutionContext().getLong(ROWS_WRITTEN_KEY, 0L))) {
+                TaskStateListener.setStatus(stepExecution, outcome);
+                taskStatusSink.recordOutcome(mainTaskId, outcome);
+                log.info("Task (id: {}) updated to {}", taskId, outcome);
+            } else {
+                discard(stepExecution.getExecutionContext().getString(FILENAME_KEY, null));
+                log.info("Task (id: {}) was finished by another copy; discarded the output of this copy", taskId);
+            }
         } else {
             log.warn("Task not found for taskId: {}", taskId);
         }
@@ -120,4 +211,15 @@ public class ReportDailyTransactionItemWriter implements ItemWriter<ReportDailyT
         // Return the step's exit status.
         return stepExecution.getExitStatus();
     }
+
+    /**
+     * Deletes the report file of a copy of a task whose outcome was decided by another copy.
+     *
+     * @param filename the report filename, or {@code null} if nothing was written
+     */
+    private void discard(String filename) {
+        if (filename != null && !new File(filename).delete()) {
+            log.warn("Could not delete report file: {}", filename);
+        }
+    }
 }
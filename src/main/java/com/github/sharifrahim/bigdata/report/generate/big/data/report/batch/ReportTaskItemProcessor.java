@@ -0,0 +1,98 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.batch;
+
+import java.time.LocalDateTime;
+
+import org.springframework.batch.item.ItemProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.ReportGenerationService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStateMachine;
+
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ReportTaskItemProcessor generates the report of a single task message for the long-running report worker job.
+ * <p>
+ * It resolves the {@link Task} referenced by the message, claims it by moving it from QUEUE to PROCESSING (see
+ * {@link TaskStateMachine}), generates its report using the {@link ReportGenerationService} and returns the task
+ * with its execution timestamps and final status (COMPLETED or FAILED) set. A failure of one report is recorded on
+ * its task and does not fail the worker step. Messages without a matching task, and duplicate messages whose task
+ * is no longer QUEUE, are filtered out. The claim is part of the chunk transaction, so it is undone with the chunk
+ * if the worker dies before the commit.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "spring.report.worker.enabled", havingValue = "true")
+@Profile("!planner")
+public class ReportTaskItemProcessor implements ItemProcessor<CreateTaskQueueMessageDto, Task> {
+
+    private final TaskService taskService;
+    private final ReportGenerationService reportGenerationService;
+    private final TaskStateMachine taskStateMachine;
+    private final EntityManager entityManager;
+
+    /**
+     * Generates the report for the task referenced by the given message.
+     *
+     * @param message the task queue message
+     * @return the processed task with its final status, or {@code null} if no matching task exists or the task
+     *         could not be claimed
+     */
+    @Override
+    public Task process(CreateTaskQueueMessageDto message) {
+        Task task = taskService.getByReferenceAndTaskTypeAndSubscriberEmail(
+                message.getMessageId(),
+                TaskType.valueOf(message.getTaskType()),
+                message.getSubscriberEmail()
+        );
+
+        if (task == null) {
+            log.error("No task found for messageId: {}, taskType: {}, subscriberEmail: {}",
+                    message.getMessageId(), message.getTaskType(), message.getSubscriberEmail());
+            return null;
+        }
+
+        // The chunk transaction must not flush the task: its outcome is written by the writer's conditional update.
+        entityManager.detach(task);
+        if (!taskStateMachine.transition(task.getId(), TaskStatus.QUEUE, TaskStatus.PROCESSING)) {
+            log.info("Task (ID: {}) is no longer QUEUE; skipping duplicate message with ID: {}", task.getId(),
+                    message.getMessageId());
+            return null;
+        }
+        // The claim incremented the version the writer finishes the task on.
+        task.setVersion(task.getVersion() + 1);
+        task.setStatus(TaskStatus.PROCESSING);
+
+        task.setExecutedAt(LocalDateTime.now());
+        try {
+            long rows = reportGenerationService.generate(task);
+            task.setStatus(TaskStatus.COMPLETED);
+            task.setRowsWritten(rows);
+            log.info("Task (ID: {}) completed with {} rows", task.getId(), rows);
+        } catch (Exception e) {
+            task.setStatus(TaskStatus.FAILED);
+            log.error("Task (ID: {}) failed. Error: {}", task.getId(), e.getMessage(), e);
+        }
+        task.setCompletedAt(LocalDateTime.now());
+        return task;
+    }
+}
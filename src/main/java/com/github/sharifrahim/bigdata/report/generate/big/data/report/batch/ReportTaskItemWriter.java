@@ -0,0 +1,67 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.batch;
+
+import java.util.List;
+
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ItemWriter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.MainTaskService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStateMachine;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ReportTaskItemWriter records the outcome of the tasks processed by the long-running report worker job.
+ * <p>
+ * The outcome of every task of a chunk is written to the {@code tasks} table within the chunk transaction, with
+ * one conditional update per task on the version at which the processor loaded it (see {@link TaskStateMachine}).
+ * A task changed in the meantime, for instance finished by a redelivery of its message on another worker, is left
+ * as it is; the outcome of every other task is recorded on its main task.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "spring.report.worker.enabled", havingValue = "true")
+@Profile("!planner")
+public class ReportTaskItemWriter implements ItemWriter<Task> {
+
+    private final TaskStateMachine taskStateMachine;
+    private final MainTaskService mainTaskService;
+
+    /**
+     * Finishes the processed tasks that were not changed since they were loaded, and records their outcome on their
+     * main tasks.
+     *
+     * @param chunk the chunk of processed tasks
+     */
+    @Override
+    public void write(Chunk<? extends Task> chunk) {
+        List<? extends Task> tasks = chunk.getItems();
+        if (tasks.isEmpty()) {
+            log.debug("Empty chunk received; nothing to write.");
+            return;
+        }
+        int recorded = 0;
+        for (Task task : tasks) {
+            if (taskStateMachine.finish(task.getId(), task.getVersion(), task.getStatus(), task.getRowsWritten())) {
+                mainTaskService.recordTaskOutcome(task.getMainTask().getId(), task.getStatus());
+                recorded++;
+            }
+        }
+        log.info("Recorded status of {} out of {} tasks", recorded, tasks.size());
+    }
+}
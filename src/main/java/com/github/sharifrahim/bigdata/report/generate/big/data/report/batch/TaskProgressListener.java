@@ -0,0 +1,73 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.batch;
+
+import org.springframework.batch.core.ChunkListener;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskProgressService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TaskProgressListener reports the progress of the daily transaction report step to the {@code tasks} table.
+ * <p>
+ * After a chunk, the number of rows written so far is read from the step execution context (maintained by the
+ * {@link ReportDailyTransactionItemWriter}). Every {@code spring.report.speculation.progress-interval} rows, it is
+ * recorded on the task, where the {@code StragglerDetector} compares it with the progress of the other tasks.
+ * </p>
+ * <p>
+ * Recording the progress is also how a copy of a task learns that another copy has finished the task first: the
+ * step is then stopped, and the writer discards the output of this copy.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!planner")
+public class TaskProgressListener implements ChunkListener {
+
+    // Key of the number of rows last recorded on the task in the step execution context.
+    private static final String ROWS_REPORTED_KEY = "report.rowsReported";
+
+    private final TaskProgressService taskProgressService;
+
+    // Number of rows written between two progress updates of a task.
+    @Value("${spring.report.speculation.progress-interval:1000}")
+    private long progressInterval;
+
+    /**
+     * Records the progress of the task on the {@code tasks} table once enough rows have been written since the last
+     * update, and stops the step if another copy of the task has finished it.
+     *
+     * @param context the chunk context
+     */
+    @Override
+    public void afterChunk(ChunkContext context) {
+        StepExecution stepExecution = context.getStepContext().getStepExecution();
+        ExecutionContext executionContext = stepExecution.getExecutionContext();
+        long rowsWritten = executionContext.getLong(ReportDailyTransactionItemWriter.ROWS_WRITTEN_KEY, 0L);
+        if (rowsWritten - executionContext.getLong(ROWS_REPORTED_KEY, 0L) < progressInterval) {
+            return;
+        }
+        executionContext.putLong(ROWS_REPORTED_KEY, rowsWritten);
+
+        Long taskId = stepExecution.getJobParameters().getLong("taskId");
+        if (!taskProgressService.recordProgress(taskId, rowsWritten)) {
+            log.info("Task ID: {} was finished by another copy after {} rows; stopping this copy", taskId, rowsWritten);
+            stepExecution.setTerminateOnly();
+        }
+    }
+}
@@ -0,0 +1,356 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.batch;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.annotation.AfterChunk;
+import org.springframework.batch.core.annotation.AfterChunkError;
+import org.springframework.batch.core.annotation.AfterStep;
+import org.springframework.batch.core.annotation.BeforeStep;
+import org.springframework.batch.core.scope.context.ChunkContext;
+import org.springframework.batch.item.ItemReader;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.job.ReportDefinitionRegistry;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.ShardMembershipManager;
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.GetResponse;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TaskQueueItemReader reads task messages from the report queues for the long-running report worker job.
+ * <p>
+ * The queues of all the report definitions (see {@link ReportDefinitionRegistry}) are polled in turn, pausing for
+ * the receive timeout after a round without any message. The reader keeps returning messages for as long as work keeps arriving, so that many merchant
+ * reports are processed within a single step execution. It ends the step (by returning {@code null}) only when the
+ * queues have been idle for the configured idle timeout or when a stop has been requested.
+ * </p>
+ * <p>
+ * When sharding is enabled, the shard queues claimed by this node (see {@link ShardMembershipManager}) are polled
+ * instead of the report queues. When lane routing is enabled, the bulk lane queue is polled as well.
+ * </p>
+ * <p>
+ * Messages are received with {@code basic.get} on a channel of the reader's own, without automatic acknowledgment,
+ * and acknowledged only once the chunk that read them has committed. If the chunk rolls back, or the worker dies
+ * before the commit, the messages of the chunk are requeued with their tasks still QUEUE. The tasks of a task
+ * envelope are buffered and read one at a time; the envelope is acknowledged with the chunk that read its last task.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.report.worker.enabled", havingValue = "true")
+@Profile("!planner")
+public class TaskQueueItemReader implements ItemReader<CreateTaskQueueMessageDto> {
+
+    private final ConnectionFactory connectionFactory;
+    private final MessageConverter messageConverter;
+    private final List<String> queueNames;
+    private final String bulkQueueName;
+    private final ObjectProvider<ShardMembershipManager> shardMembershipManager;
+
+    // Time to wait after a round of the queues without any message.
+    @Value("${spring.report.worker.receive-timeout:1000}")
+    private long receiveTimeout;
+
+    // Time without any message after which the step is allowed to complete.
+    @Value("${spring.report.worker.idle-timeout:30000}")
+    private long idleTimeout;
+
+    private final DefaultMessagePropertiesConverter messagePropertiesConverter = new DefaultMessagePropertiesConverter();
+
+    // Task messages received in an envelope and not read yet, and the delivery tag of the envelope.
+    private final Deque<CreateTaskQueueMessageDto> buffered = new ArrayDeque<>();
+    private long bufferedTag;
+
+    // Channel the messages are received on, open for the step; its deliveries are acknowledged after each chunk.
+    private Connection connection;
+    private Channel channel;
+    // Delivery tag of the last message fully read, and of the last message acknowledged.
+    private long readTag;
+    private long ackedTag;
+
+    // Index of the queue polled next.
+    private int nextQueue;
+    // Set when the worker is shutting down so that the current step completes.
+    private volatile boolean stopRequested;
+
+    /**
+     * Creates the reader for the queues of all the report definitions.
+     *
+     * @param connectionFactory             the RabbitMQ connection factory the reader's channel is created from
+     * @param reportMessageConverter        the converter of the task messages and task envelopes
+     * @param reportDefinitionRegistry      the registry of the report types, whose queues are polled
+     * @param dailyTransactionBulkQueueName the daily transaction report bulk lane queue name
+     * @param lanesEnabled                  whether lane routing is enabled
+     * @param shardMembershipManager        the shard membership, available when sharding is enabled
+     */
+    public TaskQueueItemReader(ConnectionFactory connectionFactory,
+            @Qualifier("reportMessageConverter") MessageConverter reportMessageConverter,
+            ReportDefinitionRegistry reportDefinitionRegistry,
+            @Qualifier("dailyTransactionBulkQueueName") String dailyTransactionBulkQueueName,
+            @Value("${spring.report.lanes.enabled:false}") boolean lanesEnabled,
+            ObjectProvider<ShardMembershipManager> shardMembershipManager) {
+        this.connectionFactory = connectionFactory;
+        this.messageConverter = reportMessageConverter;
+        this.queueNames = reportDefinitionRegistry.getQueueNames();
+        this.bulkQueueName = lanesEnabled ? dailyTransactionBulkQueueName : null;
+        this.shardMembershipManager = shardMembershipManager;
+    }
+
+    /**
+     * Resets the stop flag before a new step execution starts.
+     *
+     * @param stepExecution the current step execution
+     */
+    @BeforeStep
+    public void beforeStep(StepExecution stepExecution) {
+        this.stopRequested = false;
+        log.info("Report worker step {} started, polling queues: {}", stepExecution.getId(), queueNames);
+    }
+
+    /**
+     * Reads the next task message from the report queues.
+     *
+     * @return the next task message, or {@code null} when the queues have been idle for the idle timeout
+     *         or a stop has been requested
+     */
+    @Override
+    public CreateTaskQueueMessageDto read() throws IOException {
+        if (!buffered.isEmpty()) {
+            return pollBuffered();
+        }
+        long idleSince = System.currentTimeMillis();
+        int emptyPolls = 0;
+        while (!stopRequested) {
+            List<String> polledQueues = polledQueueNames();
+            if (polledQueues.isEmpty()) {
+                // No shard is claimed by this node at the moment.
+                if (!pause()) {
+                    return null;
+                }
+                if (System.currentTimeMillis() - idleSince >= idleTimeout) {
+                    log.info("No shard claimed for {} ms; completing the current worker step.", idleTimeout);
+                    return null;
+                }
+                continue;
+            }
+            String queueName = polledQueues.get(nextQueue % polledQueues.size());
+            nextQueue = (nextQueue + 1) % polledQueues.size();
+
+            GetResponse response = channel().basicGet(queueName, false);
+            if (response != null) {
+                emptyPolls = 0;
+                long deliveryTag = response.getEnvelope().getDeliveryTag();
+                Object payload = convert(response, queueName);
+                if (payload instanceof CreateTaskQueueMessageDto message) {
+                    log.debug("Received message with ID: {} from queue: {}", message.getMessageId(), queueName);
+                    readTag = deliveryTag;
+                    return message;
+                } else if (payload instanceof List<?> envelope && !envelope.isEmpty()
+                        && envelope.stream().allMatch(CreateTaskQueueMessageDto.class::isInstance)) {
+                    log.debug("Received an envelope of {} messages from queue: {}", envelope.size(), queueName);
+                    envelope.forEach(message -> buffered.add((CreateTaskQueueMessageDto) message));
+                    bufferedTag = deliveryTag;
+                    return pollBuffered();
+                } else if (payload != null) {
+                    log.warn("Discarding unexpected payload of type {} from queue: {}", payload.getClass().getName(),
+                            queueName);
+                }
+                // Discarded messages are acknowledged with the chunk.
+                readTag = deliveryTag;
+            } else if (++emptyPolls >= polledQueues.size()) {
+                emptyPolls = 0;
+                if (!pause()) {
+                    return null;
+                }
+            }
+
+            if (System.currentTimeMillis() - idleSince >= idleTimeout) {
+                log.info("No task messages received for {} ms; completing the current worker step.", idleTimeout);
+                return null;
+            }
+        }
+        log.info("Stop requested; completing the current worker step.");
+        return null;
+    }
+
+    /**
+     * Acknowledges the messages read by a chunk once it has committed.
+     *
+     * @param context the chunk context
+     */
+    @AfterChunk
+    public void afterChunk(ChunkContext context) {
+        if (channel == null || readTag <= ackedTag) {
+            return;
+        }
+        try {
+            channel.basicAck(readTag, true);
+            ackedTag = readTag;
+        } catch (IOException e) {
+            // The messages are redelivered when the channel closes; their tasks are no longer QUEUE by then.
+            log.error("Could not acknowledge task messages up to delivery tag {}: {}", readTag, e.getMessage());
+        }
+    }
+
+    /**
+     * Requeues the messages read by a chunk that rolled back, including the rest of a buffered envelope.
+     *
+     * @param context the chunk context
+     */
+    @AfterChunkError
+    public void afterChunkError(ChunkContext context) {
+        if (channel == null) {
+            return;
+        }
+        try {
+            // Delivery tag 0 with multiple set rejects every unacknowledged message of the channel.
+            channel.basicNack(0, true, true);
+        } catch (IOException e) {
+            log.error("Could not requeue the task messages of a failed chunk: {}", e.getMessage());
+        }
+        buffered.clear();
+        ackedTag = readTag = Math.max(readTag, bufferedTag);
+    }
+
+    /**
+     * Requeues the messages not acknowledged yet and closes the channel of the reader at the end of the step.
+     *
+     * @param stepExecution the current step execution
+     * @return {@code null}, leaving the exit status unchanged
+     */
+    @AfterStep
+    public ExitStatus afterStep(StepExecution stepExecution) {
+        buffered.clear();
+        if (channel != null) {
+            try {
+                if (channel.isOpen()) {
+                    channel.basicNack(0, true, true);
+                    channel.close();
+                }
+            } catch (IOException | TimeoutException e) {
+                log.warn("Could not close the channel of the report worker: {}", e.getMessage());
+            }
+            connection.close();
+            channel = null;
+            connection = null;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the next task of the buffered envelope, marking the envelope read once its last task is returned.
+     *
+     * @return the next buffered task message
+     */
+    private CreateTaskQueueMessageDto pollBuffered() {
+        CreateTaskQueueMessageDto message = buffered.poll();
+        if (buffered.isEmpty()) {
+            readTag = bufferedTag;
+        }
+        return message;
+    }
+
+    /**
+     * Returns the channel of the reader, opening it on first use. The channel is not transactional, and its
+     * deliveries are acknowledged explicitly.
+     *
+     * @return the channel of the reader
+     */
+    private Channel channel() {
+        if (channel == null || !channel.isOpen()) {
+            if (connection == null) {
+                connection = connectionFactory.createConnection();
+            }
+            channel = connection.createChannel(false);
+            readTag = 0;
+            ackedTag = 0;
+        }
+        return channel;
+    }
+
+    /**
+     * Converts a received message into a task message or task envelope.
+     *
+     * @param response  the received message
+     * @param queueName the queue it was received from
+     * @return the payload, or {@code null} if the message cannot be read
+     */
+    private Object convert(GetResponse response, String queueName) {
+        MessageProperties properties = messagePropertiesConverter.toMessageProperties(response.getProps(),
+                response.getEnvelope(), "UTF-8");
+        try {
+            return messageConverter.fromMessage(new Message(response.getBody(), properties));
+        } catch (MessageConversionException e) {
+            log.warn("Discarding unreadable message from queue: {}. Error: {}", queueName, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the queues to poll: the shard queues claimed by this node when sharding is enabled, otherwise the
+     * report queues, followed by the bulk lane queue when lane routing is enabled.
+     *
+     * @return the queues to poll
+     */
+    private List<String> polledQueueNames() {
+        ShardMembershipManager membership = shardMembershipManager.getIfAvailable();
+        List<String> polled = membership == null ? queueNames : membership.getOwnedQueueNames(queueNames);
+        if (bulkQueueName == null) {
+            return polled;
+        }
+        List<String> withBulk = new ArrayList<>(polled);
+        withBulk.add(bulkQueueName);
+        return withBulk;
+    }
+
+    /**
+     * Waits for one receive timeout.
+     *
+     * @return {@code false} if the thread was interrupted
+     */
+    private boolean pause() {
+        try {
+            Thread.sleep(receiveTimeout);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Requests the reader to stop, which completes the current step after the in-flight chunk.
+     */
+    public void stop() {
+        this.stopRequested = true;
+    }
+}
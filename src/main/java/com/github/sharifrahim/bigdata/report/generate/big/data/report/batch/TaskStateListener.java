@@ -0,0 +1,133 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.batch;
+
+import java.util.Optional;
+
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.StepExecutionListener;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TaskStateListener carries the state of the task of a report step in the step {@link ExecutionContext}, so that
+ * the readers, writers and tasklets of the step do not load the task again.
+ * <p>
+ * Before the step, the task identifier, its main task and its status are taken from the job parameters set by the
+ * report listener ({@code taskId}, {@code mainTaskId} and {@code taskStatus}). The task is only loaded if the job
+ * was launched without them. Components of the step then read the state with the static accessors, and record the
+ * status after each transition they make with {@link #setStatus}, so the expected status of the next conditional
+ * transition is known without a read.
+ * </p>
+ * <p>
+ * Must be registered on the step before the components using it.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!planner")
+public class TaskStateListener implements StepExecutionListener {
+
+    /**
+     * Key of the task identifier in the step execution context.
+     */
+    public static final String TASK_ID_KEY = "report.task.id";
+
+    /**
+     * Key of the main task identifier in the step execution context.
+     */
+    public static final String MAIN_TASK_ID_KEY = "report.task.mainTaskId";
+
+    /**
+     * Key of the last known task status in the step execution context.
+     */
+    public static final String TASK_STATUS_KEY = "report.task.status";
+
+    private final TaskService taskService;
+
+    /**
+     * Puts the state of the step's task in the step execution context.
+     *
+     * @param stepExecution the step execution
+     */
+    @Override
+    public void beforeStep(StepExecution stepExecution) {
+        JobParameters parameters = stepExecution.getJobParameters();
+        ExecutionContext context = stepExecution.getExecutionContext();
+        Long taskId = parameters.getLong("taskId");
+        context.putLong(TASK_ID_KEY, taskId);
+
+        Long mainTaskId = parameters.getLong("mainTaskId");
+        String status = parameters.getString("taskStatus");
+        if (mainTaskId == null || status == null) {
+            Optional<Task> task = taskService.getById(taskId);
+            if (task.isEmpty()) {
+                log.warn("No task found for taskId: {}", taskId);
+                return;
+            }
+            log.debug("Job of task ID: {} was launched without its state; loaded it", taskId);
+            mainTaskId = task.get().getMainTask().getId();
+            status = task.get().getStatus().name();
+        }
+        context.putLong(MAIN_TASK_ID_KEY, mainTaskId);
+        context.putString(TASK_STATUS_KEY, status);
+    }
+
+    /**
+     * Returns the identifier of the step's task.
+     *
+     * @param stepExecution the step execution
+     * @return the task identifier
+     */
+    public static Long taskId(StepExecution stepExecution) {
+        return stepExecution.getExecutionContext().getLong(TASK_ID_KEY);
+    }
+
+    /**
+     * Returns the identifier of the main task of the step's task.
+     *
+     * @param stepExecution the step execution
+     * @return the main task identifier, or {@code null} if the task does not exist
+     */
+    public static Long mainTaskId(StepExecution stepExecution) {
+        ExecutionContext context = stepExecution.getExecutionContext();
+        return context.containsKey(MAIN_TASK_ID_KEY) ? context.getLong(MAIN_TASK_ID_KEY) : null;
+    }
+
+    /**
+     * Returns the last known status of the step's task.
+     *
+     * @param stepExecution the step execution
+     * @return the task status, or {@code null} if the task does not exist
+     */
+    public static TaskStatus status(StepExecution stepExecution) {
+        String status = stepExecution.getExecutionContext().getString(TASK_STATUS_KEY, null);
+        return status != null ? TaskStatus.valueOf(status) : null;
+    }
+
+    /**
+     * Records the status of the step's task after a transition.
+     *
+     * @param stepExecution the step execution
+     * @param status        the new task status
+     */
+    public static void setStatus(StepExecution stepExecution, TaskStatus status) {
+        stepExecution.getExecutionContext().putString(TASK_STATUS_KEY, status.name());
+    }
+}
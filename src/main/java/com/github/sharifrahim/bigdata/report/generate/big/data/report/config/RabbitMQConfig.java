@@ -1,16 +1,35 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.config;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.HeadersExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.job.ReportDefinitionRegistry;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.TaskEnvelopeCodec;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.TaskEnvelopeMessageConverter;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.TaskQueueRouter;
 
 import lombok.extern.slf4j.Slf4j;
 
@@ -24,7 +43,20 @@ import lombok.extern.slf4j.Slf4j;
  * <ul>
  *   <li>The RabbitMQ connection details (username, password, host, reply timeout, etc.)</li>
  *   <li>Concurrency settings for RabbitMQ listeners</li>
- *   <li>Queue names for daily transaction report and summary messages</li>
+ *   <li>The converter of the task messages, reading both JSON and compact binary task envelopes</li>
+ *   <li>The listener container factory of the report batch listeners, when batch consumption is enabled</li>
+ *   <li>The shard queues of the report queues of all the report definitions, when sharding is enabled</li>
+ *   <li>The bulk lane queue and its listener container factory, when lane routing is enabled</li>
+ *   <li>Priority queues ({@code x-max-priority}) for all report queues, when deadline-driven priorities are
+ *       enabled</li>
+ *   <li>The retry topology of the report queues: a headers exchange routing failed messages to one retry queue per
+ *       attempt, whose increasing TTLs dead-letter the messages back to their report queue, and a dead-letter
+ *       exchange with its queue for the messages that exhausted their attempts (see
+ *       {@code ReportMessageRecoverer})</li>
+ *   <li>Virtual-thread consumers for all the listener container factories, in virtual-thread mode (see
+ *       {@link VirtualThreadSupport})</li>
+ *   <li>The remote chunk request queue and its listener container factory, when remote chunking is enabled with the
+ *       RabbitMQ transport (see {@code RabbitRemoteChunkTransport})</li>
  * </ul>
  * </p>
  * <p>
@@ -60,12 +92,84 @@ public class RabbitMQConfig {
     @Value("${spring.rabbitmq.listener.simple.max-concurrency}")
     private Integer maxConcurrentConsumers;
 
-    // Queue names for transaction reporting
-    @Value("${spring.queue.daily-transaction-report}")
-    private String dailyTransactionQueueName;
-    
-    @Value("${spring.queue.daily-transaction-report-summary}")
-    private String dailyTransactionSummaryQueueName;
+    @Value("${spring.rabbitmq.listener.simple.prefetch:250}")
+    private Integer prefetchCount;
+
+    // Batch consumption settings: messages per listener call, prefetch and wait for a partial batch.
+    @Value("${spring.report.batch-consumer.enabled:false}")
+    private boolean batchConsumerEnabled;
+
+    @Value("${spring.report.batch-consumer.batch-size:20}")
+    private Integer batchSize;
+
+    @Value("${spring.report.batch-consumer.prefetch:40}")
+    private Integer batchPrefetchCount;
+
+    @Value("${spring.report.batch-consumer.receive-timeout:1000}")
+    private Long batchReceiveTimeout;
+
+    // Bulk lane listener settings: few consumers, each holding one large report at a time.
+    @Value("${spring.report.lanes.bulk.concurrency:1}")
+    private Integer bulkConcurrentConsumers;
+
+    @Value("${spring.report.lanes.bulk.max-concurrency:2}")
+    private Integer bulkMaxConcurrentConsumers;
+
+    @Value("${spring.report.lanes.bulk.prefetch:1}")
+    private Integer bulkPrefetchCount;
+
+    // Bulk lane queue name; the report queues are those of the report definitions (see ReportDefinitionRegistry)
+    @Value("${spring.queue.daily-transaction-report-bulk:DAILY_TRANSACTION_REPORT_BULK.FIFO}")
+    private String dailyTransactionBulkQueueName;
+
+    // Transport of report tasks; the listeners are only started with the RabbitMQ transport.
+    @Value("${spring.report.transport:rabbitmq}")
+    private String transport;
+
+    // Remote chunking settings: request queue, and the workers consuming it one chunk at a time.
+    @Value("${spring.report.remote-chunking.enabled:false}")
+    private boolean remoteChunkingEnabled;
+
+    @Value("${spring.report.remote-chunking.transport:rabbitmq}")
+    private String remoteChunkTransport;
+
+    @Value("${spring.report.remote-chunking.concurrency:4}")
+    private Integer remoteChunkConcurrentConsumers;
+
+    @Value("${spring.report.remote-chunking.prefetch:1}")
+    private Integer remoteChunkPrefetchCount;
+
+    @Value("${spring.queue.remote-chunk-request:REPORT_REMOTE_CHUNK}")
+    private String remoteChunkRequestQueueName;
+
+    // Priority queue settings for deadline-driven priorities.
+    @Value("${spring.report.priority.enabled:false}")
+    private boolean priorityEnabled;
+
+    @Value("${spring.report.priority.max-priority:10}")
+    private Integer maxPriority;
+
+    // Retry topology of the report queues.
+    @Value("${spring.report.retry.exchange:REPORT_RETRY}")
+    private String retryExchangeName;
+
+    @Value("${spring.report.retry.dead-letter-exchange:REPORT_DLX}")
+    private String deadLetterExchangeName;
+
+    @Value("${spring.report.retry.dead-letter-queue:REPORT_DLQ}")
+    private String deadLetterQueueName;
+
+    @Value("${spring.report.retry.max-attempts:5}")
+    private Integer maxAttempts;
+
+    @Value("${spring.report.retry.initial-interval:PT10S}")
+    private Duration initialRetryInterval;
+
+    @Value("${spring.report.retry.multiplier:4.0}")
+    private Double retryMultiplier;
+
+    @Value("${spring.report.retry.max-interval:PT30M}")
+    private Duration maxRetryInterval;
 
     /**
      * Creates and configures a RabbitMQ {@link ConnectionFactory} using the provided
@@ -87,26 +191,143 @@ public class RabbitMQConfig {
     /**
      * Configures a {@link SimpleRabbitListenerContainerFactory} for RabbitMQ listeners.
      * <p>
-     * This factory is set up to use a JSON message converter, manual acknowledgment, and
+     * This factory is set up to use the report message converter, manual acknowledgment, and
      * concurrency settings defined in the configuration.
      * </p>
      *
      * @param connectionFactory the RabbitMQ connection factory
+     * @param virtualThreadSupport the virtual-thread mode, which runs the consumers on virtual threads
      * @return a configured {@link SimpleRabbitListenerContainerFactory} instance
      */
     @Bean
-    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory) {
+    public SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+            VirtualThreadSupport virtualThreadSupport) {
         log.debug("Configuring RabbitListenerContainerFactory with {} concurrent consumers and max {} consumers.",
                 concurrentConsumers, maxConcurrentConsumers);
         SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
         factory.setConnectionFactory(connectionFactory);
-        factory.setMessageConverter(jsonMessageConverter());
+        factory.setMessageConverter(reportMessageConverter());
         factory.setConcurrentConsumers(concurrentConsumers); // Minimum concurrent consumers
         factory.setMaxConcurrentConsumers(maxConcurrentConsumers); // Maximum concurrent consumers
+        factory.setPrefetchCount(prefetchCount); // Unacknowledged messages per consumer
+        // No listener without the broker transport, nor when the batch listeners consume the report queues
+        factory.setAutoStartup("rabbitmq".equalsIgnoreCase(transport) && !batchConsumerEnabled);
         factory.setAcknowledgeMode(AcknowledgeMode.MANUAL); // Manual acknowledgment mode for fine-grained control
+        listenOnVirtualThreads(factory, virtualThreadSupport);
+        return factory;
+    }
+
+    /**
+     * Runs the consumers of a listener container factory on virtual threads when the virtual-thread mode is active
+     * (see {@link VirtualThreadSupport}); the containers keep their default platform threads otherwise.
+     *
+     * @param factory              the listener container factory
+     * @param virtualThreadSupport the virtual-thread mode
+     */
+    private void listenOnVirtualThreads(SimpleRabbitListenerContainerFactory factory,
+            VirtualThreadSupport virtualThreadSupport) {
+        if (virtualThreadSupport.isActive()) {
+            factory.setTaskExecutor(virtualThreadSupport.taskExecutor("report-listener-"));
+        }
+    }
+
+    /**
+     * Configures the {@link SimpleRabbitListenerContainerFactory} of the bulk lane, which consumes the daily
+     * transaction reports of large merchants.
+     * <p>
+     * It has its own small concurrency and a prefetch of one by default, so that large reports never hold the
+     * consumers of the express lane (the daily transaction queue) and are not buffered behind each other on one
+     * consumer.
+     * </p>
+     *
+     * @param connectionFactory the RabbitMQ connection factory
+     * @param virtualThreadSupport the virtual-thread mode, which runs the consumers on virtual threads
+     * @return a configured {@link SimpleRabbitListenerContainerFactory} instance
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory bulkRabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+            VirtualThreadSupport virtualThreadSupport) {
+        log.debug("Configuring bulk lane RabbitListenerContainerFactory with {} concurrent consumers, max {} consumers "
+                + "and prefetch {}.", bulkConcurrentConsumers, bulkMaxConcurrentConsumers, bulkPrefetchCount);
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(reportMessageConverter());
+        factory.setConcurrentConsumers(bulkConcurrentConsumers);
+        factory.setMaxConcurrentConsumers(bulkMaxConcurrentConsumers);
+        factory.setPrefetchCount(bulkPrefetchCount);
+        factory.setAutoStartup("rabbitmq".equalsIgnoreCase(transport));
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        listenOnVirtualThreads(factory, virtualThreadSupport);
         return factory;
     }
     
+    /**
+     * Configures the {@link SimpleRabbitListenerContainerFactory} of the report batch listeners, which replace the
+     * single-message listeners of the daily transaction and daily transaction summary queues when batch consumption
+     * is enabled ({@code spring.report.batch-consumer.enabled=true}).
+     * <p>
+     * Each consumer assembles up to {@code batch-size} messages, or fewer once no message has arrived for
+     * {@code receive-timeout} milliseconds, and hands them as one list to the listener, which acknowledges them with a
+     * single multiple acknowledgment. The prefetch should hold at least one batch and preferably two, so the next
+     * batch is already buffered while the current one is processed.
+     * </p>
+     *
+     * @param connectionFactory the RabbitMQ connection factory
+     * @param virtualThreadSupport the virtual-thread mode, which runs the consumers on virtual threads
+     * @return a configured {@link SimpleRabbitListenerContainerFactory} instance
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory(ConnectionFactory connectionFactory,
+            VirtualThreadSupport virtualThreadSupport) {
+        log.debug("Configuring batch RabbitListenerContainerFactory with batches of {} messages and prefetch {}.",
+                batchSize, batchPrefetchCount);
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(reportMessageConverter());
+        factory.setConcurrentConsumers(concurrentConsumers);
+        factory.setMaxConcurrentConsumers(maxConcurrentConsumers);
+        factory.setPrefetchCount(Math.max(batchSize, batchPrefetchCount));
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(batchReceiveTimeout);
+        factory.setAutoStartup("rabbitmq".equalsIgnoreCase(transport) && batchConsumerEnabled);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        listenOnVirtualThreads(factory, virtualThreadSupport);
+        return factory;
+    }
+
+    /**
+     * Configures the {@link SimpleRabbitListenerContainerFactory} of the remote chunk workers, which consume the
+     * chunk requests of the remote-chunking report steps.
+     * <p>
+     * Each consumer holds one request at a time by default, so the chunks are spread over the consumers of all the
+     * worker nodes as they free up. Requests are acknowledged automatically once their reply has been sent, and
+     * requests that cannot be read are dropped rather than requeued; their manager then times out. Only started when
+     * remote chunking is enabled with the RabbitMQ transport.
+     * </p>
+     *
+     * @param connectionFactory the RabbitMQ connection factory
+     * @param virtualThreadSupport the virtual-thread mode, which runs the consumers on virtual threads
+     * @return a configured {@link SimpleRabbitListenerContainerFactory} instance
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory remoteChunkListenerContainerFactory(
+            ConnectionFactory connectionFactory, VirtualThreadSupport virtualThreadSupport) {
+        log.debug("Configuring remote chunk RabbitListenerContainerFactory with {} concurrent consumers and "
+                + "prefetch {}.", remoteChunkConcurrentConsumers, remoteChunkPrefetchCount);
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(reportMessageConverter());
+        factory.setConcurrentConsumers(remoteChunkConcurrentConsumers);
+        factory.setPrefetchCount(remoteChunkPrefetchCount);
+        factory.setAutoStartup(remoteChunkingEnabled && "rabbitmq".equalsIgnoreCase(remoteChunkTransport));
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(false);
+        listenOnVirtualThreads(factory, virtualThreadSupport);
+        return factory;
+    }
+
     /**
      * Creates a JSON message converter using Jackson.
      *
@@ -118,10 +339,31 @@ public class RabbitMQConfig {
         return new Jackson2JsonMessageConverter();
     }
     
+    /**
+     * Creates the converter of the report task messages, which reads and writes both formats of task messages:
+     * <ul>
+     *   <li>messages of the {@link TaskEnvelopeMessageConverter#CONTENT_TYPE} content type are compact binary
+     *       envelopes, carrying one or more task descriptors;</li>
+     *   <li>all other messages, and all messages converted without that content type, are JSON.</li>
+     * </ul>
+     * It is the primary converter, so publishers keep writing JSON unless they publish envelopes explicitly, while
+     * consumers accept both formats.
+     *
+     * @return a {@link MessageConverter} delegating on the content type
+     */
+    @Bean
+    @Primary
+    public MessageConverter reportMessageConverter() {
+        log.debug("Initializing report message converter (JSON and task envelope v{})", TaskEnvelopeCodec.VERSION);
+        ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(jsonMessageConverter());
+        converter.addDelegate(TaskEnvelopeMessageConverter.CONTENT_TYPE, new TaskEnvelopeMessageConverter());
+        return converter;
+    }
+
     /**
      * Configures the AMQP template for sending and receiving messages.
      * <p>
-     * The template uses the JSON message converter and a specified reply timeout.
+     * The template uses the report message converter and a specified reply timeout.
      * </p>
      *
      * @param connectionFactory the RabbitMQ connection factory
@@ -131,31 +373,145 @@ public class RabbitMQConfig {
     public AmqpTemplate rabbitTemplateGen(ConnectionFactory connectionFactory) {
         log.debug("Configuring RabbitTemplate with reply timeout: {} ms", replyTimeout);
         final RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
-        rabbitTemplate.setMessageConverter(jsonMessageConverter());
+        rabbitTemplate.setMessageConverter(reportMessageConverter());
         rabbitTemplate.setReplyTimeout(replyTimeout);
         rabbitTemplate.setUseDirectReplyToContainer(false);
         return rabbitTemplate;
     }
     
     /**
-     * Provides the name of the daily transaction report queue.
+     * Provides the name of the bulk lane queue for the daily transaction reports of large merchants.
      *
-     * @return the daily transaction report queue name
+     * @return the daily transaction report bulk queue name
      */
     @Bean
-    public String dailyTransactionQueueName() {
-        log.debug("Using daily transaction queue name: {}", dailyTransactionQueueName);
-        return dailyTransactionQueueName;
+    public String dailyTransactionBulkQueueName() {
+        log.debug("Using daily transaction bulk queue name: {}", dailyTransactionBulkQueueName);
+        return dailyTransactionBulkQueueName;
     }
-    
+
     /**
-     * Provides the name of the daily transaction report summary queue.
+     * Provides the name of the queue of the remote chunk requests.
      *
-     * @return the daily transaction report summary queue name
+     * @return the remote chunk request queue name
      */
     @Bean
-    public String dailyTransactionSummaryQueueName() {
-        log.debug("Using daily transaction summary queue name: {}", dailyTransactionSummaryQueueName);
-        return dailyTransactionSummaryQueueName;
+    public String remoteChunkRequestQueueName() {
+        log.debug("Using remote chunk request queue name: {}", remoteChunkRequestQueueName);
+        return remoteChunkRequestQueueName;
+    }
+
+    /**
+     * Declares the remote chunk request queue, when remote chunking is enabled
+     * ({@code spring.report.remote-chunking.enabled=true}). The reply queues are declared by the manager steps.
+     *
+     * @return the remote chunk request queue declaration
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.report.remote-chunking.enabled", havingValue = "true")
+    public Declarables remoteChunkQueues() {
+        log.debug("Declaring remote chunk request queue: {}", remoteChunkRequestQueueName);
+        return new Declarables(QueueBuilder.durable(remoteChunkRequestQueueName).build());
+    }
+
+    /**
+     * Declares the bulk lane queue, when lane routing is enabled ({@code spring.report.lanes.enabled=true}).
+     *
+     * @return the bulk lane queue declaration
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.report.lanes.enabled", havingValue = "true")
+    public Declarables reportLaneQueues() {
+        log.debug("Declaring bulk lane queue: {}", dailyTransactionBulkQueueName);
+        return new Declarables(reportQueue(dailyTransactionBulkQueueName));
+    }
+
+    /**
+     * Declares the shard queues of the report queues of all the report definitions, when sharding is enabled
+     * ({@code spring.report.sharding.enabled=true}).
+     *
+     * @param taskQueueRouter          the router defining the shard queues
+     * @param reportDefinitionRegistry the registry of the report types and their queues
+     * @return the shard queue declarations
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.report.sharding.enabled", havingValue = "true")
+    public Declarables reportShardQueues(TaskQueueRouter taskQueueRouter,
+            ReportDefinitionRegistry reportDefinitionRegistry) {
+        List<Declarable> queues = reportDefinitionRegistry.getQueueNames().stream()
+                .flatMap(queueName -> taskQueueRouter.shardQueueNames(queueName).stream())
+                .<Declarable>map(this::reportQueue)
+                .toList();
+        log.debug("Declaring {} report shard queues", queues.size());
+        return new Declarables(queues);
+    }
+
+    /**
+     * Declares the report queues of all the report definitions as priority queues, when deadline-driven priorities
+     * are enabled ({@code spring.report.priority.enabled=true}).
+     * <p>
+     * RabbitMQ cannot change the arguments of an existing queue, so queues created earlier without
+     * {@code x-max-priority} must be deleted (once drained) before enabling priorities.
+     * </p>
+     *
+     * @param reportDefinitionRegistry the registry of the report types and their queues
+     * @return the report queue declarations
+     */
+    @Bean
+    @ConditionalOnProperty(name = "spring.report.priority.enabled", havingValue = "true")
+    public Declarables reportPriorityQueues(ReportDefinitionRegistry reportDefinitionRegistry) {
+        log.debug("Declaring report queues with max priority {}", maxPriority);
+        return new Declarables(reportDefinitionRegistry.getQueueNames().stream().map(this::reportQueue).toList());
+    }
+
+    /**
+     * Declares the retry topology of the report queues.
+     * <p>
+     * Retry attempt {@code n} (1 to {@code spring.report.retry.max-attempts} - 1) is published to the retry headers
+     * exchange with the header {@code x-retry-tier=n} and the report queue as routing key. The exchange routes it to
+     * the retry queue of that attempt, which holds it for {@code initial-interval} x {@code multiplier}^(n-1) (at
+     * most {@code max-interval}) and then dead-letters it to the default exchange under its routing key, back to its
+     * report queue. Messages that exhausted their attempts are published to the dead-letter exchange, which keeps
+     * them in the dead-letter queue for inspection.
+     * </p>
+     *
+     * @return the retry exchange, queues and bindings, and the dead-letter exchange and queue
+     */
+    @Bean
+    public Declarables reportRetryTopology() {
+        HeadersExchange retryExchange = new HeadersExchange(retryExchangeName);
+        FanoutExchange deadLetterExchange = new FanoutExchange(deadLetterExchangeName);
+        Queue deadLetterQueue = QueueBuilder.durable(deadLetterQueueName).build();
+
+        List<Declarable> declarables = new ArrayList<>(List.of(retryExchange, deadLetterExchange, deadLetterQueue,
+                BindingBuilder.bind(deadLetterQueue).to(deadLetterExchange)));
+        for (int tier = 1; tier < maxAttempts; tier++) {
+            long ttl = Math.min(maxRetryInterval.toMillis(),
+                    (long) (initialRetryInterval.toMillis() * Math.pow(retryMultiplier, tier - 1)));
+            Queue retryQueue = QueueBuilder.durable(retryExchangeName + "." + tier)
+                    .ttl((int) ttl)
+                    .deadLetterExchange("")
+                    .build();
+            declarables.add(retryQueue);
+            declarables.add(BindingBuilder.bind(retryQueue).to(retryExchange)
+                    .where("x-retry-tier").matches(String.valueOf(tier)));
+            log.debug("Declaring retry queue {} with a delay of {} ms", retryQueue.getName(), ttl);
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * Builds the declaration of a durable report queue, with {@code x-max-priority} when deadline-driven priorities
+     * are enabled.
+     *
+     * @param queueName the queue name
+     * @return the queue declaration
+     */
+    private Queue reportQueue(String queueName) {
+        QueueBuilder builder = QueueBuilder.durable(queueName);
+        if (priorityEnabled) {
+            builder.maxPriority(maxPriority);
+        }
+        return builder.build();
     }
 }
@@ -0,0 +1,197 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * VirtualThreadSupport runs the blocking work of the report workers on virtual threads, enabled with
+ * {@code spring.report.virtual-threads.enabled=true}.
+ * <p>
+ * The workload is mostly blocking JDBC and file I/O, so a platform thread per report limits the number of reports a
+ * worker can run by the memory of their stacks. In virtual-thread mode:
+ * <ul>
+ *   <li>the RabbitMQ listener containers run their consumers on virtual threads (see {@code RabbitMQConfig});</li>
+ *   <li>report jobs submitted to the {@code ReportJobExecutor} each run on a new virtual thread. The report job
+ *       launcher and the report steps run synchronously on the thread of their caller, so jobs and their chunks run
+ *       on virtual threads too;</li>
+ *   <li>the connection pool becomes the real concurrency limit, so that jobs wait for a slot rather than time out
+ *       waiting for a connection. A job holds one connection at a time, for its chunk transaction or for the job
+ *       repository and claim updates made between chunks. The flushes of the status sink run in a transaction of
+ *       their own, one at a time, which a job may run itself while holding its chunk connection (see
+ *       {@code TaskStatusSinkImpl}); the lease heartbeat, the schedulers and the consumer threads need connections
+ *       too. Unless {@code spring.report.virtual-threads.max-jobs} is set, the {@code ReportJobExecutor} therefore
+ *       takes as many jobs in flight as the pool has connections less
+ *       {@code spring.report.virtual-threads.reserved-connections};</li>
+ *   <li>the pinning of carrier threads (a virtual thread blocking inside a {@code synchronized} block or a native
+ *       frame) is recorded with the {@code jdk.VirtualThreadPinned} JFR event and published as the
+ *       {@code report.virtual.threads.pinned} timer, with the top application frame logged at debug level.</li>
+ * </ul>
+ * Virtual threads need Java 21 or later. On an older runtime the mode falls back to platform threads with a warning,
+ * and everything behaves as if it were disabled.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class VirtualThreadSupport {
+
+    // Name of the JFR event recorded when a virtual thread pins its carrier thread.
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final MeterRegistry meterRegistry;
+    private final DataSource dataSource;
+
+    // Whether the virtual-thread mode is requested.
+    @Value("${spring.report.virtual-threads.enabled:false}")
+    private boolean enabled;
+
+    // Maximum number of report jobs in flight on virtual threads; 0 to derive it from the connection pool.
+    @Value("${spring.report.virtual-threads.max-jobs:0}")
+    private int maxJobs;
+
+    // Connections of the pool left to the status sink flushes and the other work than report jobs.
+    @Value("${spring.report.virtual-threads.reserved-connections:4}")
+    private int reservedConnections;
+
+    // Shortest pinning recorded by the pinning metrics.
+    @Value("${spring.report.virtual-threads.pinned-threshold:PT20MS}")
+    private Duration pinnedThreshold;
+
+    private boolean active;
+    private RecordingStream pinnedEvents;
+
+    /**
+     * Checks the runtime for virtual threads and starts recording the pinning of carrier threads.
+     */
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        int javaVersion = Runtime.version().feature();
+        if (javaVersion < 21) {
+            log.warn("Virtual threads need Java 21 or later but this is Java {}; falling back to platform threads",
+                    javaVersion);
+            return;
+        }
+        active = true;
+
+        Timer pinned = Timer.builder("report.virtual.threads.pinned")
+                .description("Time virtual threads kept their carrier thread pinned while blocked")
+                .register(meterRegistry);
+        pinnedEvents = new RecordingStream();
+        pinnedEvents.enable(PINNED_EVENT).withThreshold(pinnedThreshold).withStackTrace();
+        pinnedEvents.onEvent(PINNED_EVENT, event -> {
+            pinned.record(event.getDuration());
+            if (log.isDebugEnabled()) {
+                log.debug("Virtual thread pinned its carrier for {} ms at {}", event.getDuration().toMillis(),
+                        topFrame(event));
+            }
+        });
+        pinnedEvents.startAsync();
+        log.info("Virtual-thread mode active: up to {} report jobs in flight, pinning over {} ms recorded",
+                maxJobs(0), pinnedThreshold.toMillis());
+    }
+
+    /**
+     * Indicates whether blocking work runs on virtual threads.
+     *
+     * @return {@code true} if the mode is enabled and the runtime supports virtual threads
+     */
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Creates a task executor starting a new thread per task, virtual when the mode is active.
+     *
+     * @param threadNamePrefix the prefix of the thread names
+     * @return the task executor
+     */
+    public SimpleAsyncTaskExecutor taskExecutor(String threadNamePrefix) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(threadNamePrefix);
+        executor.setVirtualThreads(active);
+        return executor;
+    }
+
+    /**
+     * Returns the maximum number of report jobs in flight on virtual threads.
+     *
+     * @param fallback the limit to use when neither the property nor the connection pool gives one
+     * @return {@code spring.report.virtual-threads.max-jobs} if set, otherwise the maximum size of the connection
+     *         pool less the reserved connections, and at least one
+     */
+    public int maxJobs(int fallback) {
+        if (maxJobs > 0) {
+            return maxJobs;
+        }
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                int poolSize = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+                if (poolSize <= reservedConnections) {
+                    log.warn("The connection pool has {} connections, no more than the {} reserved ones; "
+                            + "running one report job at a time", poolSize, reservedConnections);
+                }
+                return Math.max(poolSize - reservedConnections, 1);
+            }
+        } catch (Exception e) {
+            log.warn("Could not read the size of the connection pool: {}", e.getMessage());
+        }
+        return fallback;
+    }
+
+    /**
+     * Stops recording the pinning of carrier threads.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (pinnedEvents != null) {
+            pinnedEvents.close();
+        }
+    }
+
+    /**
+     * Finds the top application frame of a pinning event, or its top frame if there is none.
+     *
+     * @param event the pinning event
+     * @return the frame, as {@code class.method:line}
+     */
+    private String topFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null || event.getStackTrace().getFrames().isEmpty()) {
+            return "unknown";
+        }
+        RecordedFrame top = event.getStackTrace().getFrames().get(0);
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (frame.getMethod().getType().getName().startsWith("com.github.sharifrahim")) {
+                top = frame;
+                break;
+            }
+        }
+        return top.getMethod().getType().getName() + '.' + top.getMethod().getName() + ':' + top.getLineNumber();
+    }
+}
@@ -40,11 +40,27 @@ public class TaskEnum {
      *   <li>{@code COMPLETED} – The task has completed successfully.</li>
      *   <li>{@code FAILED} – The task has failed to complete.</li>
      * </ul>
+     * A task moves from {@code QUEUE} to {@code PROCESSING}, and from either to {@code COMPLETED} or {@code FAILED},
+     * which are final. A {@code PROCESSING} task goes back to {@code QUEUE} when its database queue lease expires.
      */
     public enum TaskStatus {
         QUEUE,
         PROCESSING,
         COMPLETED,
-        FAILED
+        FAILED;
+
+        /**
+         * Indicates whether a task may move from this status to another.
+         *
+         * @param next the next status
+         * @return {@code true} if the transition is allowed
+         */
+        public boolean canTransitionTo(TaskStatus next) {
+            return switch (this) {
+                case QUEUE -> next != QUEUE;
+                case PROCESSING -> next != PROCESSING;
+                case COMPLETED, FAILED -> false;
+            };
+        }
     }
 }
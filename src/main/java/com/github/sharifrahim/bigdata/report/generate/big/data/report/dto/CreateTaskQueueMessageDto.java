@@ -44,4 +44,9 @@ public class CreateTaskQueueMessageDto implements Serializable {
      * The timestamp when the message was created. It is recommended to use ISO 8601 format.
      */
     private String timestamp;
+
+    /**
+     * Whether the message launches a speculative copy of a straggling PROCESSING task.
+     */
+    private boolean speculative;
 }
@@ -0,0 +1,84 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * EodEstimateDto represents the projected completion of the active end-of-day run.
+ * <p>
+ * It combines the remaining work of the run (in tasks, report rows and bytes) with the throughput recently
+ * observed per worker, and tells whether the run will finish by the target time and how many workers it needs
+ * to do so.
+ * </p>
+ * <p>
+ * For more information, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Data
+@Builder
+public class EodEstimateDto {
+
+    /**
+     * Identifier of the active end-of-day main task, or {@code null} if no run is active.
+     */
+    private Long mainTaskId;
+
+    /**
+     * Business date of the run.
+     */
+    private LocalDate reportDate;
+
+    /**
+     * Number of tasks of the run not finished yet (QUEUE or PROCESSING).
+     */
+    private long pendingTasks;
+
+    /**
+     * Number of tasks of the run being generated; the number of workers currently busy with the run.
+     */
+    private long activeWorkers;
+
+    /**
+     * Estimated number of report rows still to be written.
+     */
+    private long remainingRows;
+
+    /**
+     * Estimated number of report bytes still to be written.
+     */
+    private long remainingBytes;
+
+    /**
+     * Report rows written per second by one worker, as recently observed (or the configured estimate if no task
+     * completed recently).
+     */
+    private double rowsPerSecondPerWorker;
+
+    /**
+     * Projected completion time of the run with the active workers.
+     */
+    private LocalDateTime projectedCompletion;
+
+    /**
+     * Time by which the run should complete.
+     */
+    private LocalDateTime target;
+
+    /**
+     * Number of workers needed to complete the run by the target time.
+     */
+    private long workersNeeded;
+
+    /**
+     * Whether the run is projected to complete by the target time.
+     */
+    private boolean onTrack;
+}
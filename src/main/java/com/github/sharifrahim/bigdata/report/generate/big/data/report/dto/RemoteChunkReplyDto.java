@@ -0,0 +1,49 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.dto;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * RemoteChunkReplyDto represents the reply of a worker node to a {@link RemoteChunkRequestDto}.
+ * <p>
+ * A successful reply means the part file of the chunk has been written in full.
+ * </p>
+ * <p>
+ * For more information, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemoteChunkReplyDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Sequence number of the chunk replied to.
+     */
+    private long sequence;
+
+    /**
+     * Whether the chunk was processed and its part file written.
+     */
+    private boolean successful;
+
+    /**
+     * The number of report rows written to the part file.
+     */
+    private long rowsWritten;
+
+    /**
+     * The error that failed the chunk, or {@code null} if it succeeded.
+     */
+    private String errorMessage;
+}
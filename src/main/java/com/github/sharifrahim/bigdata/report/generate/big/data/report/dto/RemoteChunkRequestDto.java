@@ -0,0 +1,52 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.dto;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * RemoteChunkRequestDto represents a chunk of raw transaction data sent by the manager of a remote-chunking step to
+ * a worker node.
+ * <p>
+ * The worker processes the items and writes them as one CSV part file, named by the manager, which assembles the
+ * part files of the step into the report file in sequence order once the step has completed.
+ * </p>
+ * <p>
+ * For more information, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RemoteChunkRequestDto implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Identifier of the task whose report the chunk belongs to.
+     */
+    private Long taskId;
+
+    /**
+     * Sequence number of the chunk within the step, which orders the part files of the report.
+     */
+    private long sequence;
+
+    /**
+     * Path of the part file the processed chunk is written to, on storage shared by the manager and the workers.
+     */
+    private String partName;
+
+    /**
+     * The raw transaction data of the chunk, in reading order.
+     */
+    private List<ReportDailyTransactionDto.RawData> items;
+}
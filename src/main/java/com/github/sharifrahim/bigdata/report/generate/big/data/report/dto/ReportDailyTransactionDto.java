@@ -5,6 +5,7 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 /**
  * ReportDailyTransactionDto serves as a container for transaction data used in reporting.
@@ -32,10 +33,12 @@ public class ReportDailyTransactionDto {
      * RawData represents the raw details of a transaction.
      * <p>
      * It includes the transaction identifier, payer details, merchant email,
-     * amount, currency, and the transaction timestamp.
+     * amount, currency, and the transaction timestamp. The no-argument constructor is used when raw data is read
+     * back from a remote chunk request.
      * </p>
      */
     @Data
+    @NoArgsConstructor
     public static class RawData implements Serializable {
 
         private static final long serialVersionUID = 1L;
@@ -0,0 +1,50 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.endpoint;
+
+import java.time.LocalTime;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.EodEstimateDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.EodEstimationService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * EodEstimateEndpoint exposes the projected completion of the active end-of-day run as the {@code eodestimate}
+ * actuator endpoint.
+ * <p>
+ * The application has no web server, so the endpoint is exposed over JMX (see
+ * {@code management.endpoints.jmx.exposure.include}). Reading it returns the remaining work of the run, its
+ * projected completion time with the active workers, and the number of workers needed to complete it by the target
+ * time, so that workers can be scaled ahead of time.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@RequiredArgsConstructor
+@Component
+@Endpoint(id = "eodestimate")
+public class EodEstimateEndpoint {
+
+    private final EodEstimationService eodEstimationService;
+
+    /**
+     * Estimates the remaining work and completion time of today's active end-of-day run.
+     *
+     * @param target the time of day (HH:mm) by which the run should complete; the configured target if omitted
+     * @return the estimate
+     */
+    @ReadOperation
+    public EodEstimateDto estimate(@Nullable String target) {
+        return eodEstimationService.estimate(target != null && !target.isBlank() ? LocalTime.parse(target) : null);
+    }
+}
@@ -1,5 +1,6 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.entity;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.MainTaskEnum.MainTaskStatus;
@@ -81,6 +82,44 @@ public class MainTask {
     @Column(name = "scheduled_at")
     private LocalDateTime scheduledAt;
 
+    /**
+     * The business date the reports of this main task are generated for.
+     */
+    @Column(name = "report_date")
+    private LocalDate reportDate;
+
+    /**
+     * The total number of tasks planned for this main task.
+     */
+    @Column(name = "total_tasks", nullable = false)
+    private int totalTasks;
+
+    /**
+     * The number of tasks that have not finished yet.
+     * Updated atomically in the database as tasks finish; see {@code MainTaskRepository}.
+     */
+    @Column(name = "pending_tasks", nullable = false)
+    private int pendingTasks;
+
+    /**
+     * The number of tasks that completed successfully.
+     */
+    @Column(name = "completed_tasks", nullable = false)
+    private int completedTasks;
+
+    /**
+     * The number of tasks that failed.
+     */
+    @Column(name = "failed_tasks", nullable = false)
+    private int failedTasks;
+
+    /**
+     * Whether all tasks of this main task have been planned.
+     * The main task is only closed once planning has completed and no task is pending.
+     */
+    @Column(name = "planning_completed", nullable = false)
+    private boolean planningCompleted;
+
     /**
      * Timestamp indicating when the task was created.
      * This field is automatically set when the entity is persisted.
@@ -3,6 +3,7 @@ package com.github.sharifrahim.bigdata.report.generate.big.data.report.entity;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.SubscriberEnum.ReportType;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.SubscriberEnum.Status;
@@ -87,6 +88,13 @@ public class Subscriber {
     @Column(name = "status", nullable = false, length = 50)
     private Status status;
 
+    /**
+     * The time of day by which the subscriber's report must be delivered, or {@code null} if the subscriber has
+     * no contracted deadline. Used to prioritize the subscriber's report tasks earliest-deadline-first.
+     */
+    @Column(name = "delivery_deadline")
+    private LocalTime deliveryDeadline;
+
     /**
      * Timestamp indicating when the subscriber record was created.
      * This value is set at the time of creation and is not updated.
@@ -18,15 +18,12 @@ import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-import lombok.*;
-import javax.persistence.*;
-import java.time.LocalDateTime;
-
 /**
  * Task represents an individual task within the system.
  * <p>
@@ -112,6 +109,56 @@ public class Task {
     @Column(name = "completed_at")
     private LocalDateTime completedAt;
 
+    /**
+     * Priority of the task; tasks with a higher priority are claimed first by database queue workers.
+     */
+    @Column(name = "priority", nullable = false)
+    private int priority;
+
+    /**
+     * Identifier of the database queue worker holding the lease on this task, if any.
+     */
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    /**
+     * Timestamp at which the lease on this task expires and the task can be reclaimed.
+     */
+    @Column(name = "lease_expires_at")
+    private LocalDateTime leaseExpiresAt;
+
+    /**
+     * Number of report rows written so far by the most advanced copy of the task.
+     */
+    @Column(name = "rows_written", nullable = false)
+    private long rowsWritten;
+
+    /**
+     * Number of copies of the task being generated: 1 while PROCESSING, 2 while a speculative copy also runs.
+     */
+    @Column(name = "running_copies", nullable = false)
+    private int runningCopies;
+
+    /**
+     * Whether a speculative copy of the task has been launched.
+     */
+    @Column(name = "speculated", nullable = false)
+    private boolean speculated;
+
+    /**
+     * Whether the task was routed to the bulk lane, so that its speculative copy is routed there too.
+     */
+    @Column(name = "bulk", nullable = false)
+    private boolean bulk;
+
+    /**
+     * Optimistic lock version. Incremented by every update of the task, including the conditional statements of
+     * the {@code TaskStateMachine}, so saving a stale copy of the task fails instead of overwriting newer changes.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     /**
      * Timestamp indicating when the task was created.
      * This field is set automatically during persistence.
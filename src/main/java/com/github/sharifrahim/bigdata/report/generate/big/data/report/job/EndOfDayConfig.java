@@ -8,6 +8,7 @@ import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.transaction.PlatformTransactionManager;
 
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.tasklet.CreateReportTasklet;
@@ -45,6 +46,7 @@ import org.springframework.transaction.PlatformTransactionManager;
 @Slf4j
 @Configuration
 @EnableBatchProcessing
+@Profile("!worker")
 public class EndOfDayConfig {
 
     /**
@@ -4,15 +4,23 @@ import org.springframework.batch.core.Job;
 import org.springframework.batch.core.Step;
 import org.springframework.batch.core.configuration.annotation.EnableBatchProcessing;
 import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.launch.support.TaskExecutorJobLauncher;
 import org.springframework.batch.core.repository.JobRepository;
 import org.springframework.batch.core.step.builder.StepBuilder;
 import org.springframework.batch.item.ItemProcessor;
 import org.springframework.batch.item.ItemReader;
 import org.springframework.batch.item.ItemWriter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.transaction.PlatformTransactionManager;
 
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.batch.RemoteChunkItemWriter;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.batch.TaskProgressListener;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.batch.TaskStateListener;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionDto;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.tasklet.GenerateDailyTransactionSummaryReportTasklet;
 
@@ -26,10 +34,20 @@ import lombok.extern.slf4j.Slf4j;
  * <ul>
  *   <li>{@code generateDailyTransactionReportJob} – Processes raw transaction data in chunks using
  *       a reader, processor, and writer.</li>
+ *   <li>{@code generateDailyTransactionReportRemoteJob} – Reads the raw transaction data like the job above, and
+ *       sends it in chunks to the worker nodes, which process and write it (see {@link RemoteChunkItemWriter}).</li>
  *   <li>{@code generateDailyTransactionSummaryReportJob} – Executes a tasklet to generate the summary report.</li>
  * </ul>
  * </p>
  * <p>
+ * The report jobs run against the {@code reportJobRepository}, selected with {@code spring.report.job-repository.mode}:
+ * <ul>
+ *   <li>{@code jdbc} (default) – the JDBC job repository shared with the end-of-day planning job.</li>
+ *   <li>{@code in-memory} – an {@link InMemoryJobRepository} with bounded retention. The report jobs are never
+ *       restarted through Spring Batch, so this avoids the job metadata inserts and updates made for every report.</li>
+ * </ul>
+ * </p>
+ * <p>
  * For more details, please visit my GitHub repository:
  * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
  * </p>
@@ -41,20 +59,66 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Configuration
 @EnableBatchProcessing
+@Profile("!planner")
 public class GenerateReportConfig {
 
+    // Job repository mode for the report jobs: "jdbc" or "in-memory".
+    @Value("${spring.report.job-repository.mode:jdbc}")
+    private String jobRepositoryMode;
+
+    // Maximum number of job instances retained by the in-memory job repository.
+    @Value("${spring.report.job-repository.retention:1000}")
+    private int jobRepositoryRetention;
+
+    // Number of items read per chunk of the remote-chunking step, sent as several chunk requests.
+    @Value("${spring.report.remote-chunking.commit-interval:1000}")
+    private int remoteCommitInterval;
+
+    /**
+     * Creates the JobRepository used by the report jobs.
+     *
+     * @param jobRepository the JDBC JobRepository used by the end-of-day planning job
+     * @return an {@link InMemoryJobRepository} in {@code in-memory} mode; otherwise the JDBC JobRepository
+     */
+    @Bean
+    public JobRepository reportJobRepository(JobRepository jobRepository) {
+        if ("in-memory".equalsIgnoreCase(jobRepositoryMode)) {
+            log.info("Using in-memory job repository for report jobs with retention of {} job instances",
+                    jobRepositoryRetention);
+            return new InMemoryJobRepository(jobRepositoryRetention);
+        }
+        log.info("Using JDBC job repository for report jobs");
+        return jobRepository;
+    }
+
+    /**
+     * Creates the JobLauncher used to launch the report jobs against the {@code reportJobRepository}.
+     *
+     * @param reportJobRepository the JobRepository used by the report jobs
+     * @return a configured JobLauncher
+     * @throws Exception if the launcher cannot be initialized
+     */
+    @Bean
+    public JobLauncher reportJobLauncher(@Qualifier("reportJobRepository") JobRepository reportJobRepository)
+            throws Exception {
+        TaskExecutorJobLauncher jobLauncher = new TaskExecutorJobLauncher();
+        jobLauncher.setJobRepository(reportJobRepository);
+        jobLauncher.afterPropertiesSet();
+        return jobLauncher;
+    }
+
     /**
      * Creates the Job bean for generating the daily transaction report.
      * <p>
      * This job consists of a single step that processes items in chunks.
      * </p>
      *
-     * @param jobRepository the JobRepository used for persisting job metadata
+     * @param jobRepository the JobRepository used by the report jobs
      * @param generateDailyTransactionReportStep the step that processes the daily transaction report
      * @return a configured Job instance named "generateDailyTransactionReportJob"
      */
     @Bean
-    public Job generateDailyTransactionReportJob(JobRepository jobRepository, Step generateDailyTransactionReportStep) {
+    public Job generateDailyTransactionReportJob(@Qualifier("reportJobRepository") JobRepository jobRepository, Step generateDailyTransactionReportStep) {
         log.info("Creating Job 'generateDailyTransactionReportJob'");
         return new JobBuilder("generateDailyTransactionReportJob", jobRepository)
                 .start(generateDailyTransactionReportStep)
@@ -65,28 +129,90 @@ public class GenerateReportConfig {
      * Creates the Step bean for generating the daily transaction report.
      * <p>
      * This step uses chunk processing to read raw transaction data, process it, and write the processed data.
-     * The chunk size is set to 10.
+     * The chunk size is set to 10. The {@link TaskStateListener} passes the state of the task on to the reader and
+     * writer, and the {@link TaskProgressListener} records the progress of the task after the chunks.
      * </p>
      *
-     * @param jobRepository the JobRepository used for persisting step metadata
+     * @param jobRepository the JobRepository used by the report jobs
      * @param reader the ItemReader to read raw transaction data
      * @param processor the ItemProcessor to convert raw data to processed data
      * @param writer the ItemWriter to output the processed data
+     * @param taskProgressListener the listener recording the progress of the task
+     * @param taskStateListener the listener keeping the state of the task in the step execution context
      * @param transactionManager the PlatformTransactionManager to manage transactions for chunk processing
      * @return a configured Step instance named "generateDailyTransactionReportStep"
      */
     @Bean
-    public Step generateDailyTransactionReportStep(JobRepository jobRepository,
+    public Step generateDailyTransactionReportStep(@Qualifier("reportJobRepository") JobRepository jobRepository,
             ItemReader<ReportDailyTransactionDto.RawData> reader,
             ItemProcessor<ReportDailyTransactionDto.RawData, ReportDailyTransactionDto.ProcessData> processor,
-            ItemWriter<ReportDailyTransactionDto.ProcessData> writer, PlatformTransactionManager transactionManager) {
+            ItemWriter<ReportDailyTransactionDto.ProcessData> writer, TaskProgressListener taskProgressListener,
+            TaskStateListener taskStateListener, PlatformTransactionManager transactionManager) {
 
         log.info("Creating Step 'generateDailyTransactionReportStep' with chunk size 10");
         return new StepBuilder("generateDailyTransactionReportStep", jobRepository)
                 .<ReportDailyTransactionDto.RawData, ReportDailyTransactionDto.ProcessData>chunk(10, transactionManager)
+                // Registered before the reader and writer, whose step listeners are added when the step is built.
+                .listener(taskStateListener)
                 .reader(reader)
                 .processor(processor)
                 .writer(writer)
+                .listener(taskProgressListener)
+                .build();
+    }
+
+    /**
+     * Creates the Job bean for generating the daily transaction report with remote chunking.
+     * <p>
+     * This job consists of a single step that reads the raw transaction data and has it processed and written by
+     * the worker nodes.
+     * </p>
+     *
+     * @param jobRepository the JobRepository used by the report jobs
+     * @param generateDailyTransactionReportRemoteStep the step that sends the daily transaction report to the workers
+     * @return a configured Job instance named "generateDailyTransactionReportRemoteJob"
+     */
+    @Bean
+    public Job generateDailyTransactionReportRemoteJob(@Qualifier("reportJobRepository") JobRepository jobRepository,
+            Step generateDailyTransactionReportRemoteStep) {
+        log.info("Creating Job 'generateDailyTransactionReportRemoteJob'");
+        return new JobBuilder("generateDailyTransactionReportRemoteJob", jobRepository)
+                .start(generateDailyTransactionReportRemoteStep)
+                .build();
+    }
+
+    /**
+     * Creates the manager Step bean for generating the daily transaction report with remote chunking.
+     * <p>
+     * This step reads raw transaction data in chunks of {@code spring.report.remote-chunking.commit-interval} items
+     * with the same reader as {@code generateDailyTransactionReportStep}. It has no processor: the
+     * {@link RemoteChunkItemWriter} sends each chunk to the workers and commits it once they have written it. The
+     * listeners are those of {@code generateDailyTransactionReportStep}.
+     * </p>
+     *
+     * @param jobRepository the JobRepository used by the report jobs
+     * @param reader the ItemReader to read raw transaction data
+     * @param remoteChunkItemWriter the ItemWriter sending the raw data to the workers
+     * @param taskProgressListener the listener recording the progress of the task
+     * @param taskStateListener the listener keeping the state of the task in the step execution context
+     * @param transactionManager the PlatformTransactionManager to manage transactions for chunk processing
+     * @return a configured Step instance named "generateDailyTransactionReportRemoteStep"
+     */
+    @Bean
+    public Step generateDailyTransactionReportRemoteStep(@Qualifier("reportJobRepository") JobRepository jobRepository,
+            ItemReader<ReportDailyTransactionDto.RawData> reader, RemoteChunkItemWriter remoteChunkItemWriter,
+            TaskProgressListener taskProgressListener, TaskStateListener taskStateListener,
+            PlatformTransactionManager transactionManager) {
+
+        log.info("Creating Step 'generateDailyTransactionReportRemoteStep' with chunk size {}", remoteCommitInterval);
+        return new StepBuilder("generateDailyTransactionReportRemoteStep", jobRepository)
+                .<ReportDailyTransactionDto.RawData, ReportDailyTransactionDto.RawData>chunk(remoteCommitInterval,
+                        transactionManager)
+                // Registered before the reader and writer, whose step listeners are added when the step is built.
+                .listener(taskStateListener)
+                .reader(reader)
+                .writer(remoteChunkItemWriter)
+                .listener(taskProgressListener)
                 .build();
     }
 
@@ -96,12 +222,12 @@ public class GenerateReportConfig {
      * This job executes a single step that uses a tasklet to generate the summary report.
      * </p>
      *
-     * @param jobRepository the JobRepository used for persisting job metadata
+     * @param jobRepository the JobRepository used by the report jobs
      * @param generateDailyTransactionSummaryReportStep the step that executes the summary report tasklet
      * @return a configured Job instance named "generateDailyTransactionSummaryReportJob"
      */
     @Bean
-    public Job generateDailyTransactionSummaryReportJob(JobRepository jobRepository,
+    public Job generateDailyTransactionSummaryReportJob(@Qualifier("reportJobRepository") JobRepository jobRepository,
             Step generateDailyTransactionSummaryReportStep) {
         log.info("Creating Job 'generateDailyTransactionSummaryReportJob'");
         return new JobBuilder("generateDailyTransactionSummaryReportJob", jobRepository)
@@ -113,18 +239,23 @@ public class GenerateReportConfig {
      * Creates the Step bean for generating the daily transaction summary report.
      * <p>
      * This step uses a tasklet to generate the summary report, with a listener attached for additional monitoring.
+     * The {@link TaskStateListener} is registered first, so the state of the task is set up before the tasklet's
+     * own listener runs.
      * </p>
      *
-     * @param jobRepository the JobRepository used for persisting step metadata
+     * @param jobRepository the JobRepository used by the report jobs
      * @param generateDailyTransactionSummaryReportTasklet the tasklet that contains the logic to generate the summary report
+     * @param taskStateListener the listener keeping the state of the task in the step execution context
      * @param transactionManager the PlatformTransactionManager to manage the tasklet transaction
      * @return a configured Step instance named "generateDailyTransactionSummaryReportStep"
      */
     @Bean
-    public Step generateDailyTransactionSummaryReportStep(JobRepository jobRepository,
-            GenerateDailyTransactionSummaryReportTasklet generateDailyTransactionSummaryReportTasklet, PlatformTransactionManager transactionManager) {
+    public Step generateDailyTransactionSummaryReportStep(@Qualifier("reportJobRepository") JobRepository jobRepository,
+            GenerateDailyTransactionSummaryReportTasklet generateDailyTransactionSummaryReportTasklet,
+            TaskStateListener taskStateListener, PlatformTransactionManager transactionManager) {
         log.info("Creating Step 'generateDailyTransactionSummaryReportStep'");
         return new StepBuilder("generateDailyTransactionSummaryReportStep", jobRepository)
+                .listener(taskStateListener)
                 .listener(generateDailyTransactionSummaryReportTasklet)
                 .tasklet(generateDailyTransactionSummaryReportTasklet, transactionManager)
                 .build();
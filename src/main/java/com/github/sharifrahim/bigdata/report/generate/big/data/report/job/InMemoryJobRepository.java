@@ -0,0 +1,319 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.job;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.DefaultJobKeyGenerator;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobInstance;
+import org.springframework.batch.core.JobKeyGenerator;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.repository.JobExecutionAlreadyRunningException;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.item.ExecutionContext;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * InMemoryJobRepository is a thread-safe {@link JobRepository} that keeps job metadata in memory only.
+ * <p>
+ * It is intended for ephemeral jobs that are never restarted through Spring Batch, such as the per-merchant
+ * report jobs. Job instances, executions and step executions are held in memory with bounded retention:
+ * once more than {@code maxJobInstances} instances are held, the oldest instances that are no longer running
+ * are evicted together with their executions. No metadata is written to the database.
+ * </p>
+ * <p>
+ * Unlike Spring Batch's {@code ResourcelessJobRepository}, which only remembers the last execution, this
+ * repository supports many jobs running concurrently.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+public class InMemoryJobRepository implements JobRepository {
+
+    private final JobKeyGenerator<JobParameters> jobKeyGenerator = new DefaultJobKeyGenerator();
+    private final AtomicLong instanceIds = new AtomicLong();
+    private final AtomicLong executionIds = new AtomicLong();
+    private final AtomicLong stepExecutionIds = new AtomicLong();
+
+    // Job instances keyed by job name and identifying parameters, in creation order.
+    private final Map<String, JobInstance> instances = new LinkedHashMap<>();
+    // Job executions keyed by job instance id.
+    private final Map<Long, List<JobExecution>> executions = new LinkedHashMap<>();
+
+    private final int maxJobInstances;
+
+    /**
+     * Creates a repository retaining at most the given number of job instances.
+     *
+     * @param maxJobInstances the maximum number of job instances retained in memory
+     */
+    public InMemoryJobRepository(int maxJobInstances) {
+        this.maxJobInstances = maxJobInstances;
+    }
+
+    /**
+     * Returns the distinct names of the retained job instances.
+     */
+    @Override
+    public synchronized List<String> getJobNames() {
+        return instances.values().stream().map(JobInstance::getJobName).distinct().sorted().toList();
+    }
+
+    /**
+     * Returns a page of the retained job instances of the given job, most recent first.
+     */
+    @Override
+    public synchronized List<JobInstance> findJobInstancesByName(String jobName, int start, int count) {
+        List<JobInstance> matching = instances.values().stream()
+                .filter(instance -> instance.getJobName().equals(jobName))
+                .sorted(Comparator.comparingLong(JobInstance::getInstanceId).reversed())
+                .toList();
+        return matching.subList(Math.min(start, matching.size()), Math.min(start + count, matching.size()));
+    }
+
+    /**
+     * Returns the retained executions of the given job instance.
+     */
+    @Override
+    public synchronized List<JobExecution> findJobExecutions(JobInstance jobInstance) {
+        return new ArrayList<>(executions.getOrDefault(jobInstance.getId(), List.of()));
+    }
+
+    /**
+     * Checks whether a job instance is retained for the given job name and identifying parameters.
+     */
+    @Override
+    public synchronized boolean isJobInstanceExists(String jobName, JobParameters jobParameters) {
+        return instances.containsKey(key(jobName, jobParameters));
+    }
+
+    /**
+     * Returns the retained job instance for the given job name and identifying parameters, if any.
+     */
+    @Override
+    public synchronized JobInstance getJobInstance(String jobName, JobParameters jobParameters) {
+        return instances.get(key(jobName, jobParameters));
+    }
+
+    /**
+     * Creates a new job instance and evicts the oldest instances beyond the retention limit.
+     */
+    @Override
+    public synchronized JobInstance createJobInstance(String jobName, JobParameters jobParameters) {
+        String key = key(jobName, jobParameters);
+        if (instances.containsKey(key)) {
+            throw new IllegalStateException("JobInstance must not already exist for job: " + jobName);
+        }
+        JobInstance jobInstance = new JobInstance(instanceIds.incrementAndGet(), jobName);
+        jobInstance.incrementVersion();
+        instances.put(key, jobInstance);
+        executions.put(jobInstance.getId(), new ArrayList<>());
+        evictExpiredInstances(jobInstance);
+        return jobInstance;
+    }
+
+    /**
+     * Creates a new job execution, reusing the job instance and execution context of a previous
+     * unsuccessful execution with the same identifying parameters.
+     */
+    @Override
+    public synchronized JobExecution createJobExecution(String jobName, JobParameters jobParameters)
+            throws JobExecutionAlreadyRunningException, JobInstanceAlreadyCompleteException {
+        JobInstance jobInstance = instances.get(key(jobName, jobParameters));
+        ExecutionContext executionContext = new ExecutionContext();
+
+        if (jobInstance == null) {
+            jobInstance = createJobInstance(jobName, jobParameters);
+        } else {
+            List<JobExecution> previous = executions.get(jobInstance.getId());
+            for (JobExecution execution : previous) {
+                if (execution.isRunning()) {
+                    throw new JobExecutionAlreadyRunningException(
+                            "A job execution for this job is already running: " + jobInstance);
+                }
+                if (BatchStatus.COMPLETED.equals(execution.getStatus())
+                        || BatchStatus.ABANDONED.equals(execution.getStatus())) {
+                    throw new JobInstanceAlreadyCompleteException(
+                            "A job instance already exists and is complete for identifying parameters="
+                                    + jobParameters.getIdentifyingParameters() + ". If you want to run this job again,"
+                                    + " change the parameters.");
+                }
+            }
+            if (!previous.isEmpty()) {
+                executionContext = previous.get(previous.size() - 1).getExecutionContext();
+            }
+        }
+
+        JobExecution jobExecution = new JobExecution(jobInstance, executionIds.incrementAndGet(), jobParameters);
+        jobExecution.setExecutionContext(executionContext);
+        jobExecution.setLastUpdated(LocalDateTime.now());
+        jobExecution.incrementVersion();
+        executions.get(jobInstance.getId()).add(jobExecution);
+        return jobExecution;
+    }
+
+    /**
+     * Records the update time of the job execution, which is held by reference.
+     */
+    @Override
+    public void update(JobExecution jobExecution) {
+        jobExecution.setLastUpdated(LocalDateTime.now());
+        jobExecution.incrementVersion();
+    }
+
+    /**
+     * Assigns an identifier to the new step execution.
+     */
+    @Override
+    public void add(StepExecution stepExecution) {
+        stepExecution.setId(stepExecutionIds.incrementAndGet());
+        stepExecution.setLastUpdated(LocalDateTime.now());
+        stepExecution.incrementVersion();
+    }
+
+    /**
+     * Assigns identifiers to the new step executions.
+     */
+    @Override
+    public void addAll(Collection<StepExecution> stepExecutions) {
+        stepExecutions.forEach(this::add);
+    }
+
+    /**
+     * Records the update time of the step execution and flags it for termination when its job is stopping.
+     */
+    @Override
+    public void update(StepExecution stepExecution) {
+        stepExecution.setLastUpdated(LocalDateTime.now());
+        stepExecution.incrementVersion();
+        if (stepExecution.getJobExecution().isStopping()) {
+            stepExecution.setTerminateOnly();
+        }
+    }
+
+    /**
+     * Does nothing, as the step execution context is held by reference.
+     */
+    @Override
+    public void updateExecutionContext(StepExecution stepExecution) {
+        // Nothing to persist.
+    }
+
+    /**
+     * Does nothing, as the job execution context is held by reference.
+     */
+    @Override
+    public void updateExecutionContext(JobExecution jobExecution) {
+        // Nothing to persist.
+    }
+
+    /**
+     * Returns the most recent execution of the given step within the job instance.
+     */
+    @Override
+    public synchronized StepExecution getLastStepExecution(JobInstance jobInstance, String stepName) {
+        return executions.getOrDefault(jobInstance.getId(), List.of()).stream()
+                .flatMap(execution -> execution.getStepExecutions().stream())
+                .filter(stepExecution -> stepExecution.getStepName().equals(stepName))
+                .max(Comparator.comparing(StepExecution::getId))
+                .orElse(null);
+    }
+
+    /**
+     * Counts the executions of the given step within the job instance.
+     */
+    @Override
+    public synchronized long getStepExecutionCount(JobInstance jobInstance, String stepName) {
+        return executions.getOrDefault(jobInstance.getId(), List.of()).stream()
+                .flatMap(execution -> execution.getStepExecutions().stream())
+                .filter(stepExecution -> stepExecution.getStepName().equals(stepName))
+                .count();
+    }
+
+    /**
+     * Returns the most recent execution for the given job name and identifying parameters, if any.
+     */
+    @Override
+    public synchronized JobExecution getLastJobExecution(String jobName, JobParameters jobParameters) {
+        JobInstance jobInstance = instances.get(key(jobName, jobParameters));
+        if (jobInstance == null) {
+            return null;
+        }
+        List<JobExecution> instanceExecutions = executions.get(jobInstance.getId());
+        return instanceExecutions.isEmpty() ? null : instanceExecutions.get(instanceExecutions.size() - 1);
+    }
+
+    /**
+     * Removes the given job execution.
+     */
+    @Override
+    public synchronized void deleteJobExecution(JobExecution jobExecution) {
+        List<JobExecution> instanceExecutions = executions.get(jobExecution.getJobId());
+        if (instanceExecutions != null) {
+            instanceExecutions.remove(jobExecution);
+        }
+    }
+
+    /**
+     * Removes the given job instance together with its executions.
+     */
+    @Override
+    public synchronized void deleteJobInstance(JobInstance jobInstance) {
+        instances.values().removeIf(instance -> instance.getId().equals(jobInstance.getId()));
+        executions.remove(jobInstance.getId());
+    }
+
+    /**
+     * Evicts the oldest job instances that are not running until at most {@code maxJobInstances} are retained.
+     * The job instance just created is never evicted, although it has no running execution yet.
+     *
+     * @param created the job instance just created
+     */
+    private void evictExpiredInstances(JobInstance created) {
+        int excess = instances.size() - maxJobInstances;
+        Iterator<JobInstance> iterator = instances.values().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            JobInstance oldest = iterator.next();
+            boolean running = executions.getOrDefault(oldest.getId(), List.of()).stream()
+                    .anyMatch(JobExecution::isRunning);
+            if (!running && !oldest.getId().equals(created.getId())) {
+                iterator.remove();
+                executions.remove(oldest.getId());
+                excess--;
+            }
+        }
+        if (excess > 0) {
+            log.warn("In-memory job repository holds {} running job instances over its retention of {}",
+                    excess, maxJobInstances);
+        }
+    }
+
+    /**
+     * Builds the key identifying a job instance.
+     *
+     * @param jobName       the job name
+     * @param jobParameters the job parameters
+     * @return the job instance key
+     */
+    private String key(String jobName, JobParameters jobParameters) {
+        return jobName + "|" + jobKeyGenerator.generateKey(jobParameters);
+    }
+}
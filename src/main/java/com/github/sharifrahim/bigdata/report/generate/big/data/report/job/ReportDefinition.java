@@ -0,0 +1,78 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.job;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.SubscriberEnum.ReportType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Subscriber;
+
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * ReportDefinition declares everything the pipeline needs to know about one report type: who subscribes to it, on
+ * which queue lane its tasks travel, which job generates it, and hints on how that job uses resources.
+ * <p>
+ * Definitions are declared as beans (see {@link ReportDefinitionConfig}) and collected by the
+ * {@link ReportDefinitionRegistry}. The planning tasklet, the generic report listener and the report worker all
+ * look report types up there, so adding a report type takes a definition and its job, without touching them.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Getter
+@Builder
+public class ReportDefinition {
+
+    /**
+     * Report type subscribers subscribe to, and the planning job is launched for.
+     */
+    private final ReportType reportType;
+
+    /**
+     * Type of the tasks created for the report.
+     */
+    private final TaskType taskType;
+
+    /**
+     * Queue lane on which the tasks of the report are published (or sharded, see {@code TaskQueueRouter}).
+     */
+    private final String queueName;
+
+    /**
+     * Supplier of the subscribers for whom the report is generated today.
+     */
+    private final Supplier<List<Subscriber>> subscribers;
+
+    /**
+     * Name of the job bean generating the report of one task, whose steps assemble the reader, processor and writer
+     * (or tasklet) of the report. Only resolved on worker nodes.
+     */
+    private final String jobName;
+
+    /**
+     * Name of the job bean generating the report of one task with remote chunking, whose workers process and write
+     * the report across nodes, or {@code null} if the report has no such job. Used for the bulk lane when remote
+     * chunking is enabled. Only resolved on worker nodes.
+     */
+    private final String remoteJobName;
+
+    /**
+     * Resource hint: whether the report grows with the merchant's transactions, so that the reports of large
+     * merchants are routed to the bulk lane when lane routing is enabled.
+     */
+    private final boolean bulkRouted;
+
+    /**
+     * Resource hint: whether the job is long enough to checkpoint. Its job instance is then identified by the task
+     * and its copy, so a redelivered task resumes from its last checkpoint; otherwise every launch is a new instance.
+     */
+    private final boolean restartable;
+}
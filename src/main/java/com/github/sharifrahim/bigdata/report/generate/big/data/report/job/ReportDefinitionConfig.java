@@ -0,0 +1,85 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.job;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.SubscriberEnum.ReportType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.SubscriberService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ReportDefinitionConfig declares the {@link ReportDefinition} of each report type.
+ * <p>
+ * This configuration defines:
+ * <ul>
+ *   <li>The daily transaction report, on the {@code spring.queue.daily-transaction-report} queue, generated by the
+ *       chunk-oriented {@code generateDailyTransactionReportJob}. It grows with the merchant's transactions, so it
+ *       is routed to the bulk lane for large merchants, and it is restartable from its last checkpoint.</li>
+ *   <li>The daily transaction summary report, on the {@code spring.queue.daily-transaction-report-summary} queue,
+ *       generated by the single-tasklet {@code generateDailyTransactionSummaryReportJob}.</li>
+ * </ul>
+ * The definitions are needed on planner and worker nodes alike; the jobs they name only exist on worker nodes.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Configuration
+public class ReportDefinitionConfig {
+
+    @Value("${spring.queue.daily-transaction-report}")
+    private String dailyReportQueueName;
+
+    @Value("${spring.queue.daily-transaction-report-summary}")
+    private String dailyReportSummaryQueueName;
+
+    /**
+     * Declares the daily transaction report.
+     *
+     * @param subscriberService the service providing the active subscribers of the report
+     * @return the report definition
+     */
+    @Bean
+    public ReportDefinition dailyTransactionReportDefinition(SubscriberService subscriberService) {
+        log.info("Defining report REPORT_DAILY_TRANSACTION on queue {}", dailyReportQueueName);
+        return ReportDefinition.builder()
+                .reportType(ReportType.REPORT_DAILY_TRANSACTION)
+                .taskType(TaskType.REPORT_DAILY_TRANSACTION)
+                .queueName(dailyReportQueueName)
+                .subscribers(subscriberService::findCurrentActiveSubscribersOfDailyTransactionReport)
+                .jobName("generateDailyTransactionReportJob")
+                .remoteJobName("generateDailyTransactionReportRemoteJob")
+                .bulkRouted(true)
+                .restartable(true)
+                .build();
+    }
+
+    /**
+     * Declares the daily transaction summary report.
+     *
+     * @param subscriberService the service providing the active subscribers of the report
+     * @return the report definition
+     */
+    @Bean
+    public ReportDefinition dailyTransactionSummaryReportDefinition(SubscriberService subscriberService) {
+        log.info("Defining report REPORT_DAILY_TRANSACTION_SUMMARY on queue {}", dailyReportSummaryQueueName);
+        return ReportDefinition.builder()
+                .reportType(ReportType.REPORT_DAILY_TRANSACTION_SUMMARY)
+                .taskType(TaskType.REPORT_DAILY_TRANSACTION_SUMMARY)
+                .queueName(dailyReportSummaryQueueName)
+                .subscribers(subscriberService::findCurrentActiveSubscribersOfDailyTransactionSummaryReport)
+                .jobName("generateDailyTransactionSummaryReportJob")
+                .bulkRouted(false)
+                .restartable(false)
+                .build();
+    }
+}
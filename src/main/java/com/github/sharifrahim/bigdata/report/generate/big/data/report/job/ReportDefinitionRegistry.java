@@ -0,0 +1,131 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.job;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.batch.core.Job;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.SubscriberEnum.ReportType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ReportDefinitionRegistry collects the {@link ReportDefinition} beans and looks them up by report type, task type
+ * or queue.
+ * <p>
+ * Each report and task type must have exactly one definition, and each definition its own queue. The queue names
+ * of all the definitions are consumed by one shared pool of listener consumers (see {@code ReportTaskListener}), so
+ * consumer threads go to whichever report types have work rather than sitting idle in a pool per type.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+public class ReportDefinitionRegistry {
+
+    private final List<ReportDefinition> definitions;
+    private final BeanFactory beanFactory;
+
+    private final Map<ReportType, ReportDefinition> byReportType = new EnumMap<>(ReportType.class);
+    private final Map<TaskType, ReportDefinition> byTaskType = new EnumMap<>(TaskType.class);
+
+    /**
+     * Indexes the definitions, rejecting duplicated report types, task types and queues.
+     */
+    @PostConstruct
+    public void init() {
+        for (ReportDefinition definition : definitions) {
+            if (byReportType.put(definition.getReportType(), definition) != null
+                    || byTaskType.put(definition.getTaskType(), definition) != null) {
+                throw new IllegalStateException("Duplicate report definition for " + definition.getReportType());
+            }
+        }
+        if (definitions.stream().map(ReportDefinition::getQueueName).distinct().count() != definitions.size()) {
+            throw new IllegalStateException("Report definitions must not share a queue");
+        }
+        log.info("Registered {} report definitions on queues {}", definitions.size(), getQueueNames());
+    }
+
+    /**
+     * Returns all the report definitions.
+     *
+     * @return the definitions
+     */
+    public List<ReportDefinition> getDefinitions() {
+        return definitions;
+    }
+
+    /**
+     * Returns the definition of a report type.
+     *
+     * @param reportType the report type
+     * @return the definition
+     * @throws IllegalArgumentException if the report type has no definition
+     */
+    public ReportDefinition get(ReportType reportType) {
+        ReportDefinition definition = byReportType.get(reportType);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unsupported report type: " + reportType);
+        }
+        return definition;
+    }
+
+    /**
+     * Returns the definition of a task type.
+     *
+     * @param taskType the task type
+     * @return the definition
+     * @throws IllegalArgumentException if the task type has no definition
+     */
+    public ReportDefinition get(TaskType taskType) {
+        ReportDefinition definition = byTaskType.get(taskType);
+        if (definition == null) {
+            throw new IllegalArgumentException("Unsupported task type: " + taskType);
+        }
+        return definition;
+    }
+
+    /**
+     * Returns the queues of all the report definitions, in declaration order.
+     *
+     * @return the queue names
+     */
+    public List<String> getQueueNames() {
+        return definitions.stream().map(ReportDefinition::getQueueName).toList();
+    }
+
+    /**
+     * Returns the job generating the reports of a definition. Only available on worker nodes.
+     *
+     * @param definition the report definition
+     * @return the job
+     */
+    public Job job(ReportDefinition definition) {
+        return beanFactory.getBean(definition.getJobName(), Job.class);
+    }
+
+    /**
+     * Returns the remote-chunking job generating the reports of a definition. Only available on worker nodes.
+     *
+     * @param definition the report definition
+     * @return the job, or {@code null} if the definition has no remote-chunking job
+     */
+    public Job remoteJob(ReportDefinition definition) {
+        return definition.getRemoteJobName() != null
+                ? beanFactory.getBean(definition.getRemoteJobName(), Job.class) : null;
+    }
+}
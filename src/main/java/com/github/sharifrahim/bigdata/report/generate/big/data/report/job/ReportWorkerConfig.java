@@ -0,0 +1,93 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.job;
+
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.Step;
+import org.springframework.batch.core.job.builder.JobBuilder;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.batch.core.step.builder.StepBuilder;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.batch.ReportTaskItemProcessor;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.batch.ReportTaskItemWriter;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.batch.TaskQueueItemReader;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ReportWorkerConfig sets up the long-running report worker job, enabled with
+ * {@code spring.report.worker.enabled=true}.
+ * <p>
+ * Instead of launching one job per queue message, the worker job consumes task messages through the
+ * {@link TaskQueueItemReader} and generates many merchant reports within a single chunk-oriented step execution.
+ * This removes the per-report cost of creating a new {@code JobInstance}, {@code JobExecution} and
+ * {@code StepExecution}, while the status of each task is still recorded in the {@code tasks} table.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.report.worker.enabled", havingValue = "true")
+@Profile("!planner")
+public class ReportWorkerConfig {
+
+    // Number of task messages processed per chunk transaction.
+    @Value("${spring.report.worker.chunk-size:10}")
+    private int chunkSize;
+
+    /**
+     * Creates the Job bean for the long-running report worker.
+     *
+     * @param jobRepository    the JobRepository used by the report jobs
+     * @param reportWorkerStep the step that consumes and processes task messages
+     * @return a configured Job instance named "reportWorkerJob"
+     */
+    @Bean
+    public Job reportWorkerJob(@Qualifier("reportJobRepository") JobRepository jobRepository, Step reportWorkerStep) {
+        log.info("Creating Job 'reportWorkerJob'");
+        return new JobBuilder("reportWorkerJob", jobRepository)
+                .start(reportWorkerStep)
+                .build();
+    }
+
+    /**
+     * Creates the Step bean for the long-running report worker.
+     * <p>
+     * Each chunk reads task messages from the report queues, generates their reports and records the outcome
+     * of the tasks in one batch.
+     * </p>
+     *
+     * @param jobRepository      the JobRepository used by the report jobs
+     * @param reader             the reader consuming task messages from the report queues
+     * @param processor          the processor generating the report of each task
+     * @param writer             the writer recording the status of the processed tasks
+     * @param transactionManager the PlatformTransactionManager to manage transactions for chunk processing
+     * @return a configured Step instance named "reportWorkerStep"
+     */
+    @Bean
+    public Step reportWorkerStep(@Qualifier("reportJobRepository") JobRepository jobRepository, TaskQueueItemReader reader,
+            ReportTaskItemProcessor processor, ReportTaskItemWriter writer,
+            PlatformTransactionManager transactionManager) {
+        log.info("Creating Step 'reportWorkerStep' with chunk size {}", chunkSize);
+        return new StepBuilder("reportWorkerStep", jobRepository)
+                .<CreateTaskQueueMessageDto, Task>chunk(chunkSize, transactionManager)
+                .reader(reader)
+                .processor(processor)
+                .writer(writer)
+                .build();
+    }
+}
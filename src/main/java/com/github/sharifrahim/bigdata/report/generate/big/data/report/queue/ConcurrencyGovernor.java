@@ -0,0 +1,253 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.TreeMap;
+
+import javax.sql.DataSource;
+
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ConcurrencyGovernor adapts the number of consumers and the prefetch of the report listeners to the load on
+ * PostgreSQL, enabled with {@code spring.report.governor.enabled=true}.
+ * <p>
+ * Every {@code spring.report.governor.interval} milliseconds it applies an AIMD (additive increase, multiplicative
+ * decrease) rule to the consumer limit of the report listener, whose consumers are shared by all the report types:
+ * <ul>
+ *   <li>The database is congested when the mean report query latency (see {@link ReportQueryMonitor}) exceeds
+ *       {@code target-latency}, when more than {@code max-pending-connections} threads wait for a Hikari connection,
+ *       or when more than {@code max-error-rate} of the report queries failed.</li>
+ *   <li>On congestion, the limit is multiplied by {@code decrease-factor} and the prefetch is halved.</li>
+ *   <li>Otherwise, the limit grows by one consumer and the prefetch doubles, back up to
+ *       {@code spring.rabbitmq.listener.simple.prefetch}.</li>
+ * </ul>
+ * The limit always stays between {@code min-consumers} and the load ceiling of the current time of day, configured
+ * as {@code HH:mm=consumers} entries in {@code spring.report.governor.ceiling} (each entry applies from its time
+ * until the next one). For instance {@code 00:00=10,08:00=3,20:00=10} keeps the reports small during business hours
+ * and lets them use the spare capacity at night.
+ * </p>
+ * <p>
+ * The governor replaces the listeners' own scaling between {@code concurrency} and {@code max-concurrency}: both are
+ * set to the limit, which is all that changes on most ticks. A consumer keeps the prefetch it was started with, so a
+ * new prefetch only applies to the consumers started afterwards. Restarting the running consumers would cancel them
+ * while they hold unacknowledged deliveries, which the broker then redelivers, and block the scheduler for up to the
+ * container's shutdown timeout. The running consumers are therefore only restarted to lower their prefetch, and only
+ * while no report job is running on this worker (see {@link ReportTaskListener#runningJobs()}).
+ * </p>
+ * <p>
+ * The shard listener containers of {@link ShardMembershipManager} are not governed. Each has a single exclusive
+ * consumer, which can neither scale nor be restarted without letting the next tasks of a merchant overtake those held
+ * by the cancelled consumer. With sharding enabled, the load of a node is bounded by the number of shards it claims.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "spring.report.governor.enabled", havingValue = "true")
+@Profile("!planner")
+public class ConcurrencyGovernor {
+
+    // Identifiers of the listener containers whose consumers are governed.
+    private static final String[] LISTENER_IDS = { "reportTaskListener", "reportTaskBatchListener" };
+
+    private final RabbitListenerEndpointRegistry rabbitListenerEndpointRegistry;
+    private final ReportQueryMonitor reportQueryMonitor;
+    private final DataSource dataSource;
+    private final ObjectProvider<ReportTaskListener> reportTaskListener;
+
+    // Whether the report queues are sharded, in which case the shard listener containers are not governed.
+    @Value("${spring.report.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    // Initial consumer limit; the listeners' configured concurrency.
+    @Value("${spring.rabbitmq.listener.simple.concurrency}")
+    private int initialConsumers;
+
+    // Highest prefetch; the listeners' configured prefetch.
+    @Value("${spring.rabbitmq.listener.simple.prefetch:250}")
+    private int maxPrefetch;
+
+    // Lowest consumer limit.
+    @Value("${spring.report.governor.min-consumers:1}")
+    private int minConsumers;
+
+    // Mean report query latency above which the database is considered congested.
+    @Value("${spring.report.governor.target-latency:PT0.5S}")
+    private Duration targetLatency;
+
+    // Number of threads waiting for a pooled connection above which the database is considered congested.
+    @Value("${spring.report.governor.max-pending-connections:2}")
+    private int maxPendingConnections;
+
+    // Share of failed report queries above which the database is considered congested.
+    @Value("${spring.report.governor.max-error-rate:0.05}")
+    private double maxErrorRate;
+
+    // Factor applied to the consumer limit on congestion.
+    @Value("${spring.report.governor.decrease-factor:0.5}")
+    private double decreaseFactor;
+
+    // Load ceiling by time of day, as comma-separated HH:mm=consumers entries.
+    @Value("${spring.report.governor.ceiling:00:00=10}")
+    private String ceiling;
+
+    // Consumer limit by start time of day.
+    private final TreeMap<LocalTime, Integer> ceilings = new TreeMap<>();
+
+    private int consumers;
+    private int prefetch;
+    // Prefetch of the running consumers, as of their last restart.
+    private int consumerPrefetch;
+
+    /**
+     * Parses the load ceiling and sets the initial consumer limit and prefetch.
+     */
+    @PostConstruct
+    public void init() {
+        for (String entry : ceiling.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid governor ceiling entry (expected HH:mm=consumers): " + entry);
+            }
+            ceilings.put(LocalTime.parse(parts[0].trim()), Integer.parseInt(parts[1].trim()));
+        }
+        consumers = Math.max(minConsumers, Math.min(initialConsumers, ceilingAt(LocalTime.now())));
+        prefetch = maxPrefetch;
+        consumerPrefetch = maxPrefetch;
+        log.info("Concurrency governor started with {} consumers per listener and load ceiling {}", consumers, ceilings);
+        if (shardingEnabled) {
+            log.warn("The concurrency governor does not govern the shard listener containers");
+        }
+    }
+
+    /**
+     * Adjusts the consumer limit and prefetch of the report listeners to the current load, restarting the running
+     * consumers only to lower their prefetch while no report job is running.
+     * Runs every {@code spring.report.governor.interval} milliseconds.
+     */
+    @Scheduled(fixedDelayString = "${spring.report.governor.interval:10000}")
+    public synchronized void adjust() {
+        ReportQueryMonitor.Window window = reportQueryMonitor.drain();
+        int pendingConnections = pendingConnections();
+        boolean congested = window.meanMillis() > targetLatency.toMillis()
+                || pendingConnections > maxPendingConnections
+                || window.errorRate() > maxErrorRate;
+
+        int previousConsumers = consumers;
+        if (congested) {
+            consumers = (int) Math.floor(consumers * decreaseFactor);
+            prefetch = Math.max(1, prefetch / 2);
+        } else {
+            consumers = consumers + 1;
+            prefetch = (int) Math.min(maxPrefetch, prefetch * 2L);
+        }
+        consumers = Math.max(minConsumers, Math.min(consumers, ceilingAt(LocalTime.now())));
+
+        if (consumers != previousConsumers || congested) {
+            log.info("Governor: {} consumers per listener (was {}), prefetch {}; {} queries, mean latency {} ms, "
+                    + "error rate {}, {} threads waiting for a connection", consumers, previousConsumers, prefetch,
+                    window.queries(), String.format("%.1f", window.meanMillis()),
+                    String.format("%.3f", window.errorRate()), pendingConnections);
+        }
+        boolean restart = prefetch < consumerPrefetch && runningJobs() == 0;
+        if (restart) {
+            log.info("Governor: restarting the consumers to lower their prefetch from {} to {}", consumerPrefetch,
+                    prefetch);
+            consumerPrefetch = prefetch;
+        }
+        for (String listenerId : LISTENER_IDS) {
+            MessageListenerContainer container = rabbitListenerEndpointRegistry.getListenerContainer(listenerId);
+            if (container instanceof SimpleMessageListenerContainer simpleContainer) {
+                apply(simpleContainer, previousConsumers, restart);
+            }
+        }
+    }
+
+    /**
+     * Applies the consumer limit and prefetch to a listener container.
+     *
+     * @param container         the listener container
+     * @param previousConsumers the previous consumer limit
+     * @param restart           whether to restart the running consumers with the new prefetch
+     */
+    private void apply(SimpleMessageListenerContainer container, int previousConsumers, boolean restart) {
+        container.setPrefetchCount(prefetch);
+        // The container requires concurrent consumers <= max consumers at all times.
+        if (consumers < previousConsumers) {
+            container.setConcurrentConsumers(consumers);
+            container.setMaxConcurrentConsumers(consumers);
+        } else {
+            container.setMaxConcurrentConsumers(consumers);
+            container.setConcurrentConsumers(consumers);
+        }
+        if (restart && container.isRunning()) {
+            // Setting the queues again cancels every consumer and starts a new one with the new prefetch; no job is
+            // running, so the cancelled consumers hold no deliveries being processed.
+            container.setQueueNames(container.getQueueNames());
+        }
+    }
+
+    /**
+     * Returns the number of report jobs running on this worker.
+     *
+     * @return the number of running jobs, or 0 if the report listener is not registered
+     */
+    private int runningJobs() {
+        ReportTaskListener listener = reportTaskListener.getIfAvailable();
+        return listener != null ? listener.runningJobs() : 0;
+    }
+
+    /**
+     * Returns the load ceiling at a time of day.
+     *
+     * @param time the time of day
+     * @return the highest consumer limit allowed at that time
+     */
+    private int ceilingAt(LocalTime time) {
+        Map.Entry<LocalTime, Integer> entry = ceilings.floorEntry(time);
+        return (entry != null ? entry : ceilings.lastEntry()).getValue();
+    }
+
+    /**
+     * Returns the number of threads waiting for a connection of the Hikari pool.
+     *
+     * @return the number of waiting threads, or 0 if the data source is not a started Hikari pool
+     */
+    private int pendingConnections() {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+                return pool != null ? pool.getThreadsAwaitingConnection() : 0;
+            }
+        } catch (SQLException e) {
+            log.debug("Could not read the connection pool statistics: {}", e.getMessage());
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,112 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.TreeMap;
+
+/**
+ * ConsistentHashRing maps keys onto a set of members using consistent hashing.
+ * <p>
+ * Each member is placed on the ring at a number of virtual positions, and a key belongs to the first member found
+ * clockwise from the hash of the key. When a member joins or leaves, only the keys next to its positions move to
+ * another member; all other keys keep their member.
+ * </p>
+ * <p>
+ * Instances are not thread-safe; build a new ring whenever the set of members changes.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @param <T> the member type; its {@code toString()} identifies the member on the ring
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public class ConsistentHashRing<T> {
+
+    private final TreeMap<Long, T> ring = new TreeMap<>();
+    private final int virtualNodes;
+
+    /**
+     * Creates a ring with the given members.
+     *
+     * @param members      the members of the ring
+     * @param virtualNodes the number of positions of each member on the ring
+     */
+    public ConsistentHashRing(Collection<? extends T> members, int virtualNodes) {
+        if (virtualNodes < 1) {
+            throw new IllegalArgumentException("virtualNodes must be at least 1");
+        }
+        this.virtualNodes = virtualNodes;
+        members.forEach(this::add);
+    }
+
+    /**
+     * Adds a member to the ring.
+     *
+     * @param member the member to add
+     */
+    public void add(T member) {
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.put(hash(member + "#" + i), member);
+        }
+    }
+
+    /**
+     * Removes a member from the ring.
+     *
+     * @param member the member to remove
+     */
+    public void remove(T member) {
+        for (int i = 0; i < virtualNodes; i++) {
+            ring.remove(hash(member + "#" + i));
+        }
+    }
+
+    /**
+     * Returns the member owning the given key.
+     *
+     * @param key the key
+     * @return the owning member, or {@code null} if the ring is empty
+     */
+    public T get(String key) {
+        if (ring.isEmpty()) {
+            return null;
+        }
+        Long position = ring.ceilingKey(hash(key));
+        return ring.get(position == null ? ring.firstKey() : position);
+    }
+
+    /**
+     * Returns whether the ring has no members.
+     *
+     * @return {@code true} if the ring is empty
+     */
+    public boolean isEmpty() {
+        return ring.isEmpty();
+    }
+
+    /**
+     * Hashes a value onto the ring using the first eight bytes of its MD5 digest, which spreads similar keys
+     * (such as e-mail addresses of the same domain) evenly.
+     *
+     * @param value the value to hash
+     * @return the position on the ring
+     */
+    static long hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+            long hash = 0;
+            for (int i = 0; i < 8; i++) {
+                hash = (hash << 8) | (digest[i] & 0xFF);
+            }
+            return hash;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not available", e);
+        }
+    }
+}
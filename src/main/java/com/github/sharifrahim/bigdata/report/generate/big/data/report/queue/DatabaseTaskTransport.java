@@ -0,0 +1,41 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DatabaseTaskTransport is the transport of the database queue mode ({@code spring.report.transport=database}).
+ * <p>
+ * Nothing is published: the QUEUE task saved by the planning job, with its priority, is the queue entry, and is
+ * claimed by the {@link DatabaseTaskWorker}s.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.report.transport", havingValue = "database")
+public class DatabaseTaskTransport implements TaskTransport {
+
+    /**
+     * Does nothing, since the task row itself is the queue entry.
+     *
+     * @param queueName the queue the message would be routed to
+     * @param message   the task message
+     * @param priority  the message priority
+     */
+    @Override
+    public void publish(String queueName, CreateTaskQueueMessageDto message, Integer priority) {
+        log.debug("Task {} queued in the tasks table", message.getMessageId());
+    }
+}
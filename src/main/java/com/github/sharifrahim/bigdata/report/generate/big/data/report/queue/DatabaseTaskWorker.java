@@ -0,0 +1,208 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.ReportGenerationService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskQueueService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStatusSink;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DatabaseTaskWorker generates reports from the {@code tasks} table used as the work queue, enabled with
+ * {@code spring.report.transport=database}.
+ * <p>
+ * Each of the {@code spring.report.db-queue.concurrency} worker threads repeatedly claims a batch of QUEUE tasks
+ * through the {@link TaskQueueService}, generates their reports and completes them, and polls again after
+ * {@code spring.report.db-queue.poll-interval} milliseconds when the queue is empty. The tasks are loaded by their
+ * identifiers, so no message lookup by reference is needed.
+ * </p>
+ * <p>
+ * Claimed tasks are held under a lease of {@code spring.report.db-queue.lease}. A heartbeat renews the leases of this
+ * worker and puts the tasks of dead workers (whose leases have expired) back in the queue. A task is only completed,
+ * and counted on its main task, if this worker still holds its lease, so a reclaimed task is never counted twice.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "spring.report.transport", havingValue = "database")
+@Profile("!planner")
+public class DatabaseTaskWorker implements SmartLifecycle {
+
+    private final TaskQueueService taskQueueService;
+    private final ReportGenerationService reportGenerationService;
+    private final TaskStatusSink taskStatusSink;
+
+    // Number of worker threads.
+    @Value("${spring.report.db-queue.concurrency:4}")
+    private int concurrency;
+
+    // Maximum number of tasks claimed at once by a worker thread.
+    @Value("${spring.report.db-queue.batch-size:10}")
+    private int batchSize;
+
+    // Duration of the lease on claimed tasks.
+    @Value("${spring.report.db-queue.lease:PT5M}")
+    private Duration lease;
+
+    // Pause before polling again when no task could be claimed, in milliseconds.
+    @Value("${spring.report.db-queue.poll-interval:1000}")
+    private long pollInterval;
+
+    private final String owner = defaultOwner();
+
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    /**
+     * Starts the worker threads.
+     */
+    @Override
+    public void start() {
+        running = true;
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(concurrency,
+                runnable -> new Thread(runnable, "db-queue-worker-" + threadNumber.incrementAndGet()));
+        for (int i = 0; i < concurrency; i++) {
+            executor.execute(this::runWorker);
+        }
+        log.info("Database queue worker {} started with {} threads", owner, concurrency);
+    }
+
+    /**
+     * Stops the worker threads after their in-flight tasks.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(lease.toMillis(), TimeUnit.MILLISECONDS)) {
+                log.warn("Database queue worker {} did not finish its tasks in time; their leases will expire.", owner);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Database queue worker {} stopped", owner);
+    }
+
+    /**
+     * Indicates whether the worker threads are running.
+     *
+     * @return {@code true} if started and not yet stopped
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Renews the leases of this worker and reclaims the tasks of dead workers.
+     * Runs every {@code spring.report.db-queue.heartbeat-interval} milliseconds.
+     */
+    @Scheduled(fixedDelayString = "${spring.report.db-queue.heartbeat-interval:30000}")
+    public void heartbeat() {
+        if (!running) {
+            return;
+        }
+        try {
+            taskQueueService.renewLeases(owner, lease);
+            taskQueueService.reclaimExpiredLeases();
+        } catch (RuntimeException e) {
+            log.warn("Database queue heartbeat failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Claims and processes tasks until the worker is stopped.
+     */
+    private void runWorker() {
+        while (running) {
+            try {
+                List<Task> tasks = taskQueueService.claim(owner, batchSize, lease);
+                if (tasks.isEmpty()) {
+                    Thread.sleep(pollInterval);
+                    continue;
+                }
+                tasks.forEach(this::process);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Error claiming tasks: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(pollInterval);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Generates the report of a claimed task and completes the task.
+     *
+     * @param task the claimed task
+     */
+    private void process(Task task) {
+        TaskStatus outcome;
+        long rows = 0;
+        try {
+            rows = reportGenerationService.generate(task);
+            log.info("Generated report with {} rows for task ID: {}", rows, task.getId());
+            outcome = TaskStatus.COMPLETED;
+        } catch (Exception e) {
+            log.error("Error generating report for task ID: {}. Error: {}", task.getId(), e.getMessage(), e);
+            outcome = TaskStatus.FAILED;
+        }
+        if (taskQueueService.complete(task.getId(), owner, outcome, rows)) {
+            taskStatusSink.recordOutcome(task.getMainTask().getId(), outcome);
+        } else {
+            log.warn("Lost the lease on task ID: {}; its outcome is left to the worker that reclaimed it.", task.getId());
+        }
+    }
+
+    /**
+     * Builds a worker identifier that is unique per process.
+     *
+     * @return the worker identifier
+     */
+    private static String defaultOwner() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + ManagementFactory.getRuntimeMXBean().getPid() + "-"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Subscriber;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * DeadlinePrioritizer derives the message priority of report tasks from the delivery deadlines of their
+ * subscribers, enabled with {@code spring.report.priority.enabled=true}.
+ * <p>
+ * The tasks of a planning run are ordered earliest-deadline-first. Walking through that order, the completion time
+ * of each task is predicted from the estimated cost of the tasks before it, spread over
+ * {@code spring.report.priority.worker-capacity} parallel consumers. The cost of a task is
+ * {@code task-overhead} plus {@code row-cost-micros} for each estimated report row.
+ * <ul>
+ *   <li>Tasks predicted to meet their deadline get a priority between {@code max-priority} (earliest deadline) and
+ *       1, in deadline order.</li>
+ *   <li>Tasks predicted to miss their deadline are deferred: they get priority 0 and their cost is not counted for
+ *       the tasks after them, so a task that is late anyway does not push feasible tasks past their deadlines.</li>
+ *   <li>Tasks of subscribers without a deadline get priority 0 as well, and only use the capacity left over.</li>
+ * </ul>
+ * Deferred tasks are still published and generated; they are only consumed after the tasks that can be delivered
+ * in time.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Component
+public class DeadlinePrioritizer {
+
+    /**
+     * Priority of deferred tasks and of tasks without a deadline.
+     */
+    public static final int DEFERRED_PRIORITY = 0;
+
+    // Whether report tasks are published with a deadline-driven priority.
+    @Value("${spring.report.priority.enabled:false}")
+    private boolean enabled;
+
+    // Highest message priority; also the x-max-priority of the report queues.
+    @Value("${spring.report.priority.max-priority:10}")
+    private int maxPriority;
+
+    // Number of report tasks processed in parallel across all workers.
+    @Value("${spring.report.priority.worker-capacity:10}")
+    private int workerCapacity;
+
+    // Fixed estimated cost of a report task.
+    @Value("${spring.report.priority.task-overhead:PT1S}")
+    private Duration taskOverhead;
+
+    // Estimated cost of a report row, in microseconds.
+    @Value("${spring.report.priority.row-cost-micros:50}")
+    private long rowCostMicros;
+
+    /**
+     * Returns whether deadline-driven priorities are enabled.
+     *
+     * @return {@code true} if enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Returns the highest message priority, used as the {@code x-max-priority} of the report queues.
+     *
+     * @return the highest message priority
+     */
+    public int getMaxPriority() {
+        return maxPriority;
+    }
+
+    /**
+     * Computes the message priority of the task of each subscriber.
+     *
+     * @param subscribers   the subscribers of the planning run
+     * @param estimatedRows the estimated number of report rows keyed by subscriber email
+     * @param now           the time the tasks are published
+     * @return the priority keyed by subscriber email
+     */
+    public Map<String, Integer> prioritize(List<Subscriber> subscribers, Map<String, Long> estimatedRows,
+            LocalDateTime now) {
+        Map<String, Integer> priorities = new HashMap<>();
+        List<Subscriber> withDeadline = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.getDeliveryDeadline() == null) {
+                priorities.put(subscriber.getEmail(), DEFERRED_PRIORITY);
+            } else {
+                withDeadline.add(subscriber);
+            }
+        }
+        withDeadline.sort(Comparator.comparing(subscriber -> deadline(subscriber.getDeliveryDeadline(), now)));
+
+        // Predict completion times in EDF order; keep the feasible tasks and defer the late ones.
+        List<Subscriber> feasible = new ArrayList<>();
+        Duration scheduledWork = Duration.ZERO;
+        int deferred = 0;
+        for (Subscriber subscriber : withDeadline) {
+            Duration cost = cost(estimatedRows.getOrDefault(subscriber.getEmail(), 0L));
+            LocalDateTime predictedCompletion = now.plus(scheduledWork.dividedBy(workerCapacity)).plus(cost);
+            if (predictedCompletion.isAfter(deadline(subscriber.getDeliveryDeadline(), now))) {
+                priorities.put(subscriber.getEmail(), DEFERRED_PRIORITY);
+                deferred++;
+            } else {
+                feasible.add(subscriber);
+                scheduledWork = scheduledWork.plus(cost);
+            }
+        }
+
+        // Spread the feasible tasks over the priorities from maxPriority down to 1 in deadline order.
+        for (int rank = 0; rank < feasible.size(); rank++) {
+            int priority = maxPriority - (int) ((long) rank * maxPriority / feasible.size());
+            priorities.put(feasible.get(rank).getEmail(), priority);
+        }
+        log.info("Prioritized {} tasks: {} within their deadline, {} deferred as late, {} without deadline",
+                subscribers.size(), feasible.size(), deferred, subscribers.size() - withDeadline.size());
+        return priorities;
+    }
+
+    /**
+     * Returns the next occurrence of a delivery deadline after the given time.
+     *
+     * @param deliveryDeadline the time of day of the deadline
+     * @param now              the current time
+     * @return the deadline
+     */
+    private LocalDateTime deadline(LocalTime deliveryDeadline, LocalDateTime now) {
+        LocalDateTime deadline = now.toLocalDate().atTime(deliveryDeadline);
+        return deadline.isAfter(now) ? deadline : deadline.plusDays(1);
+    }
+
+    /**
+     * Estimates the cost of a report task.
+     *
+     * @param rows the estimated number of report rows
+     * @return the estimated cost
+     */
+    private Duration cost(long rows) {
+        return taskOverhead.plus(Duration.ofNanos(rows * rowCostMicros * 1000));
+    }
+}
@@ -0,0 +1,130 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.batch.RemoteChunkHandler;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkReplyDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkRequestDto;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * InProcessRemoteChunkTransport hands remote chunks to a worker pool in the same JVM, enabled with
+ * {@code spring.report.remote-chunking.transport=in-process}.
+ * <p>
+ * It stands in for the broker: requests are queued to {@code spring.report.remote-chunking.workers} threads running
+ * the {@link RemoteChunkHandler}, and their replies are put on an in-memory reply queue per manager step. Nothing
+ * is serialized or durable. It is meant for tests, and for trying the remote-chunking job on one machine.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!planner")
+@ConditionalOnProperty(name = "spring.report.remote-chunking.transport", havingValue = "in-process")
+public class InProcessRemoteChunkTransport implements RemoteChunkTransport {
+
+    private final RemoteChunkHandler remoteChunkHandler;
+
+    // Number of worker threads processing the chunk requests.
+    @Value("${spring.report.remote-chunking.workers:4}")
+    private int workers;
+
+    private final Map<String, BlockingQueue<RemoteChunkReplyDto>> replyQueues = new ConcurrentHashMap<>();
+    private ThreadPoolTaskExecutor executor;
+
+    /**
+     * Creates the worker pool.
+     */
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setThreadNamePrefix("remote-chunk-worker-");
+        executor.initialize();
+        log.info("In-process remote chunking started with {} workers", workers);
+    }
+
+    /**
+     * Creates an in-memory reply queue.
+     *
+     * @return the name of the reply queue
+     */
+    @Override
+    public String openReplyQueue() {
+        String replyQueue = "remote-chunk-reply-" + UUID.randomUUID();
+        replyQueues.put(replyQueue, new LinkedBlockingQueue<>());
+        return replyQueue;
+    }
+
+    /**
+     * Queues a chunk request to the worker pool, which puts its reply on the reply queue.
+     *
+     * @param replyQueue the reply queue the worker replies on
+     * @param request    the chunk request
+     * @throws IllegalStateException if the reply queue is not open
+     */
+    @Override
+    public void send(String replyQueue, RemoteChunkRequestDto request) {
+        BlockingQueue<RemoteChunkReplyDto> replies = replyQueues.get(replyQueue);
+        if (replies == null) {
+            throw new IllegalStateException("Reply queue " + replyQueue + " is not open");
+        }
+        executor.execute(() -> replies.add(remoteChunkHandler.handle(request)));
+    }
+
+    /**
+     * Takes the next reply off a reply queue, waiting for one to arrive.
+     *
+     * @param replyQueue    the reply queue
+     * @param timeoutMillis the maximum time to wait, in milliseconds
+     * @return the reply, or {@code null} if none arrived in time or the queue is not open
+     * @throws InterruptedException if the manager is interrupted while waiting
+     */
+    @Override
+    public RemoteChunkReplyDto receive(String replyQueue, long timeoutMillis) throws InterruptedException {
+        BlockingQueue<RemoteChunkReplyDto> replies = replyQueues.get(replyQueue);
+        return replies != null ? replies.poll(timeoutMillis, TimeUnit.MILLISECONDS) : null;
+    }
+
+    /**
+     * Drops a reply queue.
+     *
+     * @param replyQueue the reply queue
+     */
+    @Override
+    public void closeReplyQueue(String replyQueue) {
+        replyQueues.remove(replyQueue);
+    }
+
+    /**
+     * Shuts the worker pool down.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
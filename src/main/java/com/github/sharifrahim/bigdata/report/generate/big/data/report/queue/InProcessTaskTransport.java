@@ -0,0 +1,215 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStatusSink;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * InProcessTaskTransport hands report task messages to a worker pool in the same JVM, enabled with
+ * {@code spring.report.transport=in-process}.
+ * <p>
+ * Messages are put as objects, without serialization, on a bounded lock-free {@link RingBuffer} of
+ * {@code spring.report.in-process.capacity} slots. {@code spring.report.in-process.workers} worker threads take
+ * them off the ring and pass them to the {@link ReportTaskListener}. When the ring is full, publishing waits for a
+ * free slot, which throttles the planning job to the speed of the workers. Idle workers and waiting publishers back
+ * off exponentially, from 100 µs up to 5 ms between two attempts, so that idle workers cost little CPU.
+ * </p>
+ * <p>
+ * This transport needs no broker and is meant for single-node deployments and for end-to-end benchmarks and tests
+ * on one machine. The node must run both the planner and the worker role with the listener mode
+ * ({@code spring.report.worker.enabled=false}). Messages are not durable: the tasks of the messages left on the ring
+ * at shutdown are set to FAILED through the {@link TaskStatusSink}, so that their main task can still complete. There
+ * is no retry path either: the task of a message whose processing throws is set to FAILED the same way, instead of
+ * being left PROCESSING by the claim of its listener.
+ * Message priorities, lanes and shards do not apply.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "spring.report.transport", havingValue = "in-process")
+public class InProcessTaskTransport implements TaskTransport, SmartLifecycle {
+
+    // Shortest and longest pause of an idle worker or a blocked publisher before trying again.
+    private static final long MIN_IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long MAX_IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private final ReportTaskListener reportTaskListener;
+    private final TaskService taskService;
+    private final TaskStatusSink taskStatusSink;
+
+    // Number of slots of the ring buffer (a power of two).
+    @Value("${spring.report.in-process.capacity:4096}")
+    private int capacity;
+
+    // Number of worker threads.
+    @Value("${spring.report.in-process.workers:4}")
+    private int workers;
+
+    private RingBuffer<CreateTaskQueueMessageDto> ringBuffer;
+    private final List<Thread> workerThreads = new ArrayList<>();
+    private volatile boolean running;
+
+    /**
+     * Creates the ring buffer.
+     */
+    @PostConstruct
+    public void init() {
+        ringBuffer = new RingBuffer<>(capacity);
+    }
+
+    /**
+     * Puts a task message on the ring buffer, waiting for a free slot while the ring is full.
+     *
+     * @param queueName the queue the message is routed to (not used in-process)
+     * @param message   the task message
+     * @param priority  the message priority (not used in-process)
+     */
+    @Override
+    public void publish(String queueName, CreateTaskQueueMessageDto message, Integer priority) {
+        long parkNanos = MIN_IDLE_PARK_NANOS;
+        while (!ringBuffer.offer(message)) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Interrupted while waiting for a free slot for message "
+                        + message.getMessageId());
+            }
+            parkNanos = backOff(parkNanos);
+        }
+    }
+
+    /**
+     * Starts the worker threads.
+     */
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            Thread thread = new Thread(this::runWorker, "in-process-worker-" + (i + 1));
+            workerThreads.add(thread);
+            thread.start();
+        }
+        log.info("In-process transport started with {} workers and a ring of {} slots", workers, capacity);
+    }
+
+    /**
+     * Stops the worker threads after their in-flight messages, and fails the tasks of the messages left on the ring.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        for (Thread thread : workerThreads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        workerThreads.clear();
+        log.info("In-process transport stopped with {} messages left on the ring", ringBuffer.size());
+        failLeftMessages();
+    }
+
+    /**
+     * Indicates whether the worker threads are running.
+     *
+     * @return {@code true} if started and not yet stopped
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Takes messages off the ring buffer and processes them until the transport is stopped.
+     */
+    private void runWorker() {
+        long parkNanos = MIN_IDLE_PARK_NANOS;
+        while (running) {
+            CreateTaskQueueMessageDto message = ringBuffer.poll();
+            if (message == null) {
+                parkNanos = backOff(parkNanos);
+                continue;
+            }
+            parkNanos = MIN_IDLE_PARK_NANOS;
+            try {
+                reportTaskListener.process(message);
+            } catch (Exception e) {
+                log.error("Error processing message with ID: {}. Error: {}", message.getMessageId(), e.getMessage(), e);
+                if (!message.isSpeculative()) {
+                    failTask(message, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sets the tasks of the messages left on the ring to FAILED, as no worker will process them any more.
+     * Speculative messages are dropped, as their task is still processed by its original copy.
+     */
+    private void failLeftMessages() {
+        CreateTaskQueueMessageDto message;
+        while ((message = ringBuffer.poll()) != null) {
+            if (!message.isSpeculative()) {
+                failTask(message, false);
+            }
+        }
+    }
+
+    /**
+     * Sets the task of a message to FAILED, unless it has already finished. The in-process transport has no retry
+     * path, so a task whose message cannot be processed would otherwise never finish, nor would its main task.
+     *
+     * @param message the task message
+     * @param claimed whether the task may have been claimed (set to PROCESSING) by the failed attempt
+     */
+    private void failTask(CreateTaskQueueMessageDto message, boolean claimed) {
+        try {
+            Task task = taskService.getByReferenceAndTaskTypeAndSubscriberEmail(message.getMessageId(),
+                    TaskType.valueOf(message.getTaskType()), message.getSubscriberEmail());
+            if (task != null && (TaskStatus.QUEUE.equals(task.getStatus())
+                    || claimed && TaskStatus.PROCESSING.equals(task.getStatus()))) {
+                taskStatusSink.finish(task.getId(), task.getMainTask().getId(), TaskStatus.FAILED, null);
+                log.info("Task (ID: {}) set to FAILED", task.getId());
+            }
+        } catch (RuntimeException e) {
+            log.error("Could not fail the task of message with ID: {}. Error: {}", message.getMessageId(),
+                    e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Pauses an idle worker or a blocked publisher, and doubles the pause for the next attempt.
+     *
+     * @param parkNanos the pause, in nanoseconds
+     * @return the next pause, at most {@link #MAX_IDLE_PARK_NANOS}
+     */
+    private static long backOff(long parkNanos) {
+        LockSupport.parkNanos(parkNanos);
+        return Math.min(parkNanos * 2, MAX_IDLE_PARK_NANOS);
+    }
+}
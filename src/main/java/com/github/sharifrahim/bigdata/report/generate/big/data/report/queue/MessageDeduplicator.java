@@ -0,0 +1,148 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskProgressService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * MessageDeduplicator makes the report listeners idempotent, so that a duplicated or redelivered task message does
+ * not generate its report a second time.
+ * <p>
+ * Messages are keyed on their task reference (reference, task type and subscriber email) and checked in two
+ * stages:
+ * <ul>
+ *   <li>An in-memory filter holds the keys of the tasks this worker has claimed or seen finished, up to
+ *       {@code spring.report.dedup.cache-size} keys (least recently added first out). A message found there is
+ *       dropped without touching the database.</li>
+ *   <li>Otherwise, the task is claimed with a conditional QUEUE to PROCESSING transition on the {@code tasks} table
+ *       (see {@link TaskProgressService#claim(Long)}), which only one delivery can win across all workers.</li>
+ * </ul>
+ * A message that loses the claim is a duplicate, unless its task is PROCESSING and the message is a redelivery
+ * (after a worker crash) or a retry (see {@link ReportMessageRecoverer}): its report job is then resumed.
+ * Speculative copies are not deduplicated.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!planner")
+public class MessageDeduplicator {
+
+    private final TaskProgressService taskProgressService;
+    private final TaskService taskService;
+
+    // Maximum number of task keys held by the in-memory filter.
+    @Value("${spring.report.dedup.cache-size:100000}")
+    private int cacheSize;
+
+    // Keys of the tasks claimed or seen finished by this worker, in insertion order.
+    private Set<String> seen;
+
+    /**
+     * Creates the bounded in-memory filter.
+     */
+    @PostConstruct
+    public void init() {
+        seen = Collections.synchronizedSet(Collections.newSetFromMap(new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        }));
+    }
+
+    /**
+     * Checks the in-memory filter for a message.
+     *
+     * @param message the task message
+     * @return {@code true} if the message is a known duplicate and can be dropped
+     */
+    public boolean isDuplicate(CreateTaskQueueMessageDto message) {
+        return !message.isSpeculative() && seen.contains(key(message));
+    }
+
+    /**
+     * Claims the task of a message for generation.
+     *
+     * @param message     the task message
+     * @param task        the task referenced by the message
+     * @param redelivered whether the message is a redelivery or a retry of an earlier attempt
+     * @return {@code true} if the report of the task is to be generated; {@code false} if the message is a duplicate
+     */
+    public boolean claim(CreateTaskQueueMessageDto message, Task task, boolean redelivered) {
+        String key = key(message);
+        if (taskProgressService.claim(task.getId())) {
+            seen.add(key);
+            return true;
+        }
+        TaskStatus status = taskService.getById(task.getId()).map(Task::getStatus).orElse(null);
+        if (TaskStatus.PROCESSING.equals(status) && redelivered) {
+            log.info("Task (ID: {}) is PROCESSING and its message was redelivered; resuming it", task.getId());
+            seen.add(key);
+            return true;
+        }
+        if (!TaskStatus.PROCESSING.equals(status)) {
+            seen.add(key);
+        }
+        log.info("Task (ID: {}) is {}; dropping duplicate message {}", task.getId(), status, message.getMessageId());
+        return false;
+    }
+
+    /**
+     * Removes a message from the in-memory filter after a failed attempt, so that its retry is not dropped.
+     *
+     * @param message the task message
+     */
+    public void release(CreateTaskQueueMessageDto message) {
+        if (!message.isSpeculative()) {
+            seen.remove(key(message));
+        }
+    }
+
+    /**
+     * Tells whether a message is a redelivery by the broker or a retry of an earlier attempt.
+     *
+     * @param amqpMessage the raw AMQP message
+     * @return {@code true} if an earlier delivery of the message may have started its task
+     */
+    public boolean isRedelivery(Message amqpMessage) {
+        MessageProperties properties = amqpMessage.getMessageProperties();
+        return Boolean.TRUE.equals(properties.isRedelivered())
+                || properties.getHeader(ReportMessageRecoverer.RETRY_COUNT_HEADER) != null;
+    }
+
+    /**
+     * Builds the deduplication key of a message from its task reference.
+     *
+     * @param message the task message
+     * @return the key
+     */
+    private String key(CreateTaskQueueMessageDto message) {
+        return message.getMessageId() + '|' + message.getTaskType() + '|' + message.getSubscriberEmail();
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.batch.RemoteChunkHandler;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkReplyDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkRequestDto;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * RabbitRemoteChunkTransport carries remote chunks through RabbitMQ, the default remote-chunking transport
+ * ({@code spring.report.remote-chunking.transport=rabbitmq}).
+ * <p>
+ * Managers publish their chunk requests as JSON to the durable request queue
+ * ({@code spring.queue.remote-chunk-request}), with the name of their reply queue as the {@code reply-to} property.
+ * Each manager step declares its own server-named, exclusive and auto-deleted reply queue, so replies of a crashed
+ * manager disappear with its connection. The workers consume the request queue with the
+ * {@code remoteChunkListenerContainerFactory}, whose prefetch of one spreads the chunks over all the worker nodes,
+ * and the reply returned by the {@link RemoteChunkHandler} is sent to the {@code reply-to} queue.
+ * </p>
+ * <p>
+ * A request is acknowledged once its reply is sent, so the request of a worker that crashes is redelivered to
+ * another worker, which writes the part file again.
+ * </p>
+ * <p>
+ * {@code spring.report.remote-chunking.part-dir} must be set when remote chunking is enabled with this transport.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!planner")
+@ConditionalOnProperty(name = "spring.report.remote-chunking.transport", havingValue = "rabbitmq",
+        matchIfMissing = true)
+public class RabbitRemoteChunkTransport implements RemoteChunkTransport {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final AmqpAdmin amqpAdmin;
+    private final RemoteChunkHandler remoteChunkHandler;
+
+    // Queue of the chunk requests, shared by all the managers and workers.
+    @Value("${spring.queue.remote-chunk-request:REPORT_REMOTE_CHUNK}")
+    private String requestQueueName;
+
+    // Whether remote chunking is enabled.
+    @Value("${spring.report.remote-chunking.enabled:false}")
+    private boolean enabled;
+
+    // Directory of the part files, which must be shared by all the nodes.
+    @Value("${spring.report.remote-chunking.part-dir:}")
+    private String partDir;
+
+    /**
+     * Refuses to start remote chunking without a part directory. Each node's default temporary directory would
+     * hide the part files written by the workers from the manager.
+     *
+     * @throws IllegalStateException if remote chunking is enabled without {@code part-dir}
+     */
+    @PostConstruct
+    public void init() {
+        if (enabled && !StringUtils.hasText(partDir)) {
+            throw new IllegalStateException("spring.report.remote-chunking.part-dir must be set to storage shared by "
+                    + "all the nodes to use the rabbitmq remote-chunking transport");
+        }
+    }
+
+    /**
+     * Declares a server-named, exclusive and auto-deleted reply queue.
+     *
+     * @return the name of the reply queue
+     */
+    @Override
+    public String openReplyQueue() {
+        String replyQueue = amqpAdmin.declareQueue(new AnonymousQueue());
+        log.debug("Declared remote chunk reply queue: {}", replyQueue);
+        return replyQueue;
+    }
+
+    /**
+     * Publishes a chunk request to the request queue.
+     *
+     * @param replyQueue the reply queue the worker replies on
+     * @param request    the chunk request
+     */
+    @Override
+    public void send(String replyQueue, RemoteChunkRequestDto request) {
+        rabbitTemplate.convertAndSend(requestQueueName, request, amqpMessage -> {
+            amqpMessage.getMessageProperties().setReplyTo(replyQueue);
+            return amqpMessage;
+        });
+    }
+
+    /**
+     * Receives the next reply from a reply queue.
+     *
+     * @param replyQueue    the reply queue
+     * @param timeoutMillis the maximum time to wait, in milliseconds
+     * @return the reply, or {@code null} if none arrived in time
+     */
+    @Override
+    public RemoteChunkReplyDto receive(String replyQueue, long timeoutMillis) {
+        return (RemoteChunkReplyDto) rabbitTemplate.receiveAndConvert(replyQueue, timeoutMillis);
+    }
+
+    /**
+     * Deletes a reply queue.
+     *
+     * @param replyQueue the reply queue
+     */
+    @Override
+    public void closeReplyQueue(String replyQueue) {
+        amqpAdmin.deleteQueue(replyQueue);
+        log.debug("Deleted remote chunk reply queue: {}", replyQueue);
+    }
+
+    /**
+     * Receives a chunk request on a worker and processes it. The reply is sent to the {@code reply-to} queue of the
+     * request. Only started when remote chunking is enabled with this transport.
+     *
+     * @param request the chunk request
+     * @return the reply to the manager
+     */
+    @RabbitListener(id = "remoteChunkListener", queues = "#{@remoteChunkRequestQueueName}",
+            containerFactory = "remoteChunkListenerContainerFactory")
+    public RemoteChunkReplyDto receiveRequest(RemoteChunkRequestDto request) {
+        log.debug("Received remote chunk {} of task ID: {} with {} items", request.getSequence(),
+                request.getTaskId(), request.getItems().size());
+        return remoteChunkHandler.handle(request);
+    }
+}
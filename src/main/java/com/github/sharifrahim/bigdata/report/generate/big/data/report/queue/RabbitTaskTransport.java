@@ -0,0 +1,91 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.util.List;
+
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * RabbitTaskTransport publishes report task messages to the RabbitMQ report queues as JSON, with the message
+ * priority set when one is given. This is the default transport.
+ * <p>
+ * With {@code spring.report.wire-format=envelope}, the task messages published together by the planning job are
+ * packed into compact binary envelopes of up to {@code spring.report.envelope-size} tasks each (see
+ * {@link TaskEnvelopeCodec}) instead, which the listeners read alongside JSON.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "spring.report.transport", havingValue = "rabbitmq", matchIfMissing = true)
+public class RabbitTaskTransport implements TaskTransport {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final TaskEnvelopeMessageConverter taskEnvelopeMessageConverter = new TaskEnvelopeMessageConverter();
+
+    // Format of the messages published together: json (one message per task) or envelope.
+    @Value("${spring.report.wire-format:json}")
+    private String wireFormat;
+
+    // Maximum number of tasks per envelope.
+    @Value("${spring.report.envelope-size:100}")
+    private int envelopeSize;
+
+    /**
+     * Publishes a task message to a RabbitMQ queue.
+     *
+     * @param queueName the queue the message is published to
+     * @param message   the task message
+     * @param priority  the message priority, or {@code null} for the default priority
+     */
+    @Override
+    public void publish(String queueName, CreateTaskQueueMessageDto message, Integer priority) {
+        rabbitTemplate.convertAndSend(queueName, message, amqpMessage -> {
+            if (priority != null) {
+                amqpMessage.getMessageProperties().setPriority(priority);
+            }
+            return amqpMessage;
+        });
+        log.debug("Published message {} to queue {}", message.getMessageId(), queueName);
+    }
+
+    /**
+     * Publishes task messages to a RabbitMQ queue, packed into envelopes when the envelope wire format is enabled.
+     *
+     * @param queueName the queue the messages are published to
+     * @param messages  the task messages
+     * @param priority  the priority of the messages, or {@code null} for the default priority
+     */
+    @Override
+    public void publishAll(String queueName, List<CreateTaskQueueMessageDto> messages, Integer priority) {
+        if (!"envelope".equalsIgnoreCase(wireFormat)) {
+            TaskTransport.super.publishAll(queueName, messages, priority);
+            return;
+        }
+        for (int from = 0; from < messages.size(); from += envelopeSize) {
+            List<CreateTaskQueueMessageDto> envelope = messages.subList(from, Math.min(from + envelopeSize, messages.size()));
+            MessageProperties properties = new MessageProperties();
+            if (priority != null) {
+                properties.setPriority(priority);
+            }
+            rabbitTemplate.send(queueName, taskEnvelopeMessageConverter.toMessage(envelope, properties));
+            log.debug("Published an envelope of {} messages to queue {}", envelope.size(), queueName);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkReplyDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkRequestDto;
+
+/**
+ * RemoteChunkTransport carries the chunk requests of a remote-chunking manager step to the worker nodes, and their
+ * replies back to the manager.
+ * <p>
+ * Requests of all managers share one request queue, consumed by the workers, while each manager step receives its
+ * replies on a reply queue of its own. The implementation is selected with
+ * {@code spring.report.remote-chunking.transport}:
+ * <ul>
+ *   <li>{@code rabbitmq} (default) – {@link RabbitRemoteChunkTransport}, through a RabbitMQ queue.</li>
+ *   <li>{@code in-process} – {@link InProcessRemoteChunkTransport}, through a worker pool in the same JVM.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public interface RemoteChunkTransport {
+
+    /**
+     * Opens a reply queue for a manager step.
+     *
+     * @return the name of the reply queue
+     */
+    String openReplyQueue();
+
+    /**
+     * Sends a chunk request to the workers.
+     *
+     * @param replyQueue the reply queue the worker replies on
+     * @param request    the chunk request
+     */
+    void send(String replyQueue, RemoteChunkRequestDto request);
+
+    /**
+     * Receives the next reply from a reply queue, waiting for one to arrive.
+     *
+     * @param replyQueue    the reply queue
+     * @param timeoutMillis the maximum time to wait, in milliseconds
+     * @return the reply, or {@code null} if none arrived in time
+     * @throws InterruptedException if the manager is interrupted while waiting
+     */
+    RemoteChunkReplyDto receive(String replyQueue, long timeoutMillis) throws InterruptedException;
+
+    /**
+     * Closes a reply queue, dropping any reply left on it.
+     *
+     * @param replyQueue the reply queue
+     */
+    void closeReplyQueue(String replyQueue);
+}
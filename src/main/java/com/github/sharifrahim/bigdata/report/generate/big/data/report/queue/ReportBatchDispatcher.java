@@ -0,0 +1,411 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessagePropertiesBuilder;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+import com.rabbitmq.client.Channel;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ReportBatchDispatcher dispatches the task messages consumed by the report listeners: the batches of the batch
+ * listeners, enabled with {@code spring.report.batch-consumer.enabled=true}, and the single messages of the other
+ * listeners as batches of one.
+ * <p>
+ * The messages of a batch are handled as a group:
+ * <ul>
+ *   <li>Each message is converted; a message that cannot be converted is dead-lettered. A task envelope (see
+ *       {@link TaskEnvelopeMessageConverter}) is expanded into its task descriptors, which are then handled like
+ *       separate messages sharing one delivery tag.</li>
+ *   <li>Known duplicates are dropped (see {@link MessageDeduplicator}).</li>
+ *   <li>The tasks of the remaining messages are resolved with a single {@code IN (...)} query.</li>
+ *   <li>Each message is handed with its task to the listener; a failed message is republished for a retry (see
+ *       {@link ReportMessageRecoverer}). A failed descriptor of an envelope is republished on its own. A
+ *       speculative copy reaching the worker that runs the original is requeued as is.</li>
+ *   <li>The whole batch is acknowledged with a single {@code basicAck(multiple=true)} up to its last delivery tag.
+ *       A message that could not be republished is requeued on its own first, and is then no longer outstanding, so
+ *       the multiple acknowledgment skips it.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * When report jobs are launched asynchronously ({@code spring.report.async-launch.enabled=true}), each message is
+ * submitted to the {@link ReportJobExecutor} instead of being handled on the consumer thread, and the delivery tag is
+ * tracked with its channel. A delivery is acknowledged on its own ({@code multiple=false}, since later deliveries may
+ * still be in flight) once the jobs of all its descriptors have finished; a failed job is sent to the retry path as
+ * above when it finishes.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!planner")
+public class ReportBatchDispatcher {
+
+    private final MessageConverter reportMessageConverter;
+    private final TaskService taskService;
+    private final MessageDeduplicator messageDeduplicator;
+    private final ReportMessageRecoverer reportMessageRecoverer;
+    private final ReportJobExecutor reportJobExecutor;
+
+    /**
+     * Handles a task message whose task has already been resolved.
+     */
+    @FunctionalInterface
+    public interface TaskMessageHandler {
+
+        /**
+         * Handles a task message.
+         *
+         * @param message     the task message
+         * @param task        the task referenced by the message, or {@code null} if it does not exist
+         * @param redelivered whether the message is a redelivery or a retry of an earlier attempt
+         * @throws Exception if the message cannot be processed
+         */
+        void handle(CreateTaskQueueMessageDto message, Task task, boolean redelivered) throws Exception;
+    }
+
+    /**
+     * Dispatches a batch of task messages to a handler and acknowledges the batch, or hands the messages to the
+     * report job executor and acknowledges each of them once its jobs have finished.
+     *
+     * @param batch   the raw AMQP messages of the batch, in delivery order
+     * @param channel the RabbitMQ channel the batch was received on
+     * @param handler the handler of each message
+     * @throws IOException if the batch can neither be acknowledged nor requeued
+     */
+    public void dispatch(List<Message> batch, Channel channel, TaskMessageHandler handler) throws IOException {
+        // Convert the messages, dead-lettering those that cannot be, and drop the known duplicates.
+        List<Delivery> deliveries = new ArrayList<>(batch.size());
+        List<Item> items = new ArrayList<>(batch.size());
+        for (Message amqpMessage : batch) {
+            Delivery delivery = new Delivery(amqpMessage, channel);
+            deliveries.add(delivery);
+            List<CreateTaskQueueMessageDto> descriptors;
+            try {
+                descriptors = descriptors(amqpMessage);
+            } catch (Exception e) {
+                deadLetter(delivery, e);
+                continue;
+            }
+            delivery.envelope = descriptors.size() > 1;
+            for (CreateTaskQueueMessageDto message : descriptors) {
+                if (messageDeduplicator.isDuplicate(message)) {
+                    log.info("Dropping duplicate message with ID: {} for subscriber: {}", message.getMessageId(),
+                            message.getSubscriberEmail());
+                    continue;
+                }
+                items.add(new Item(delivery, message));
+            }
+        }
+
+        // Resolve the tasks of the whole batch at once.
+        Map<String, Task> tasks = resolveTasks(items);
+
+        if (reportJobExecutor.isEnabled()) {
+            dispatchAsync(deliveries, items, tasks, handler);
+            return;
+        }
+
+        for (Item item : items) {
+            handle(item, tasks, handler);
+        }
+
+        // Acknowledge the batch in one frame, up to its last delivery tag still outstanding.
+        long lastTag = -1;
+        for (Delivery delivery : deliveries) {
+            if (!delivery.settled.get()) {
+                lastTag = Math.max(lastTag, delivery.tag());
+            }
+        }
+        if (lastTag >= 0) {
+            reportMessageRecoverer.acknowledgeUpTo(channel, lastTag);
+        }
+        log.debug("Dispatched a batch of {} messages ({} processed)", batch.size(), items.size());
+    }
+
+    /**
+     * Submits the messages of a batch to the report job executor. Each delivery is acknowledged on its own once the
+     * jobs of all its descriptors have finished; a delivery left without anything to run is acknowledged right away.
+     *
+     * @param deliveries the deliveries of the batch
+     * @param items      the task messages to handle, with their delivery
+     * @param tasks      the tasks by task reference key
+     * @param handler    the handler of each message
+     */
+    private void dispatchAsync(List<Delivery> deliveries, List<Item> items, Map<String, Task> tasks,
+            TaskMessageHandler handler) {
+        for (Item item : items) {
+            item.delivery().outstanding.incrementAndGet();
+        }
+        for (Delivery delivery : deliveries) {
+            if (delivery.outstanding.get() == 0) {
+                acknowledge(delivery);
+            }
+        }
+        for (Item item : items) {
+            try {
+                reportJobExecutor.submit(() -> {
+                    handle(item, tasks, handler);
+                    complete(item.delivery());
+                });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                retry(item, e);
+                complete(item.delivery());
+            } catch (RuntimeException e) {
+                retry(item, e);
+                complete(item.delivery());
+            }
+        }
+        log.debug("Submitted {} report jobs ({} in flight)", items.size(), reportJobExecutor.inFlight());
+    }
+
+    /**
+     * Hands a task message with its task to the handler, and sends it to the retry path if it fails.
+     *
+     * @param item    the task message, with its delivery
+     * @param tasks   the tasks by task reference key
+     * @param handler the handler of the message
+     */
+    private void handle(Item item, Map<String, Task> tasks, TaskMessageHandler handler) {
+        CreateTaskQueueMessageDto message = item.message();
+        try {
+            handler.handle(message, tasks.get(key(message.getMessageId(), message.getTaskType(),
+                    message.getSubscriberEmail())), messageDeduplicator.isRedelivery(item.delivery().amqpMessage));
+        } catch (TaskStillRunningException e) {
+            if (message.isSpeculative() && !item.delivery().envelope) {
+                // The original runs on this worker; return the copy to its queue for another worker.
+                log.info("Requeuing speculative copy of message with ID: {}: {}", message.getMessageId(),
+                        e.getMessage());
+                requeue(item.delivery());
+            } else {
+                log.info("Deferring message with ID: {}: {}", message.getMessageId(), e.getMessage());
+                retry(item, e);
+            }
+        } catch (Exception e) {
+            log.error("Error processing message with ID: {}. Error: {}", message.getMessageId(), e.getMessage(), e);
+            retry(item, e);
+        }
+    }
+
+    /**
+     * Republishes a failed task message for a retry (see {@link ReportMessageRecoverer}), or requeues its delivery
+     * if that fails. A failed descriptor of an envelope is republished on its own.
+     *
+     * @param item  the task message, with its delivery
+     * @param cause the error of the attempt
+     */
+    private void retry(Item item, Exception cause) {
+        Delivery delivery = item.delivery();
+        CreateTaskQueueMessageDto message = item.message();
+        try {
+            reportMessageRecoverer.republish(
+                    delivery.envelope ? single(delivery.amqpMessage, message) : delivery.amqpMessage, message, cause);
+        } catch (Exception republishError) {
+            log.error("Could not recover message {}; requeuing it. Error: {}", message.getMessageId(),
+                    republishError.getMessage(), republishError);
+            requeue(delivery);
+        }
+    }
+
+    /**
+     * Records that a job of a delivery has finished, and acknowledges the delivery after its last one.
+     *
+     * @param delivery the delivery
+     */
+    private void complete(Delivery delivery) {
+        if (delivery.outstanding.decrementAndGet() == 0) {
+            acknowledge(delivery);
+        }
+    }
+
+    /**
+     * Acknowledges a single delivery, unless it has already been settled. A delivery whose channel has closed in the
+     * meantime is redelivered by the broker, and then dropped or resumed (see {@link MessageDeduplicator}).
+     *
+     * @param delivery the delivery
+     */
+    private void acknowledge(Delivery delivery) {
+        if (!delivery.settled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            delivery.channel.basicAck(delivery.tag(), false);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not acknowledge delivery {}; it will be redelivered. Error: {}", delivery.tag(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Requeues a single delivery, unless it has already been settled.
+     *
+     * @param delivery the delivery
+     */
+    private void requeue(Delivery delivery) {
+        if (!delivery.settled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            delivery.channel.basicNack(delivery.tag(), false, true);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not requeue delivery {}; it will be redelivered. Error: {}", delivery.tag(),
+                    e.getMessage());
+        }
+    }
+
+    /**
+     * Converts a message into its task descriptors: the single task message of a JSON message or of an envelope of
+     * one, or the task messages of an envelope of several.
+     *
+     * @param amqpMessage the raw AMQP message
+     * @return the task messages
+     * @throws IllegalArgumentException if the message does not carry task messages
+     */
+    private List<CreateTaskQueueMessageDto> descriptors(Message amqpMessage) {
+        Object payload = reportMessageConverter.fromMessage(amqpMessage);
+        if (payload instanceof CreateTaskQueueMessageDto message) {
+            return List.of(message);
+        }
+        if (payload instanceof List<?> list && list.stream().allMatch(CreateTaskQueueMessageDto.class::isInstance)) {
+            return list.stream().map(CreateTaskQueueMessageDto.class::cast).toList();
+        }
+        throw new IllegalArgumentException("Unexpected payload of type " + payload.getClass().getName());
+    }
+
+    /**
+     * Builds a message carrying a single descriptor of an envelope, with the properties of the envelope, so that the
+     * descriptor can be retried on its own.
+     *
+     * @param envelope the envelope message
+     * @param message  the task message of the descriptor
+     * @return the single-descriptor envelope message
+     */
+    private Message single(Message envelope, CreateTaskQueueMessageDto message) {
+        return reportMessageConverter.toMessage(message,
+                MessagePropertiesBuilder.fromClonedProperties(envelope.getMessageProperties()).build());
+    }
+
+    /**
+     * Resolves the tasks referenced by a batch of messages with a single query.
+     *
+     * @param items the task messages, with their delivery
+     * @return the tasks by task reference key
+     */
+    private Map<String, Task> resolveTasks(List<Item> items) {
+        Set<String> references = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (Item item : items) {
+            references.add(item.message().getMessageId());
+            emails.add(item.message().getSubscriberEmail());
+        }
+        Map<String, Task> tasks = new HashMap<>();
+        if (references.isEmpty()) {
+            return tasks;
+        }
+        for (Task task : taskService.getByReferencesAndSubscriberEmails(references, emails)) {
+            tasks.put(key(task.getReference(), task.getType().name(), task.getSubscriberEmail()), task);
+        }
+        return tasks;
+    }
+
+    /**
+     * Dead-letters a message that cannot be converted, or requeues it if that fails.
+     *
+     * @param delivery the delivery of the message
+     * @param cause    the conversion error
+     */
+    private void deadLetter(Delivery delivery, Exception cause) {
+        try {
+            reportMessageRecoverer.deadLetter(delivery.amqpMessage, cause);
+        } catch (Exception e) {
+            log.error("Could not dead-letter message with delivery tag {}; requeuing it. Error: {}", delivery.tag(),
+                    e.getMessage(), e);
+            requeue(delivery);
+        }
+    }
+
+    /**
+     * Builds the key of a task reference.
+     *
+     * @param reference       the task reference
+     * @param taskType        the task type
+     * @param subscriberEmail the subscriber email
+     * @return the key
+     */
+    private String key(String reference, String taskType, String subscriberEmail) {
+        return reference + '|' + taskType + '|' + subscriberEmail;
+    }
+
+    /**
+     * A delivery of the batch, with its settlement state.
+     */
+    private static final class Delivery {
+
+        private final Message amqpMessage;
+        private final Channel channel;
+
+        // Whether the message is a task envelope of several descriptors.
+        private boolean envelope;
+
+        // Number of descriptors whose job has not finished yet.
+        private final AtomicInteger outstanding = new AtomicInteger();
+
+        // Whether the delivery has been acknowledged or requeued.
+        private final AtomicBoolean settled = new AtomicBoolean();
+
+        /**
+         * Creates a delivery.
+         *
+         * @param amqpMessage the raw AMQP message
+         * @param channel     the RabbitMQ channel the message was received on
+         */
+        private Delivery(Message amqpMessage, Channel channel) {
+            this.amqpMessage = amqpMessage;
+            this.channel = channel;
+        }
+
+        /**
+         * Returns the delivery tag of the message.
+         *
+         * @return the delivery tag
+         */
+        private long tag() {
+            return amqpMessage.getMessageProperties().getDeliveryTag();
+        }
+    }
+
+    /**
+     * A task message to handle, with the delivery it came in.
+     *
+     * @param delivery the delivery
+     * @param message  the task message
+     */
+    private record Item(Delivery delivery, CreateTaskQueueMessageDto message) {
+    }
+}
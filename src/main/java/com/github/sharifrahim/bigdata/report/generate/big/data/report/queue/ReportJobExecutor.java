@@ -0,0 +1,156 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.util.concurrent.Semaphore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.config.VirtualThreadSupport;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ReportJobExecutor runs report jobs off the RabbitMQ consumer threads, enabled with
+ * {@code spring.report.async-launch.enabled=true}.
+ * <p>
+ * Jobs run on a dedicated pool of {@code spring.report.async-launch.max-jobs} threads. At most that many jobs are in
+ * flight at a time: submitting a job while all the slots are taken blocks the consumer thread until one frees up,
+ * which stops the consumer from taking more deliveries than the pool can run, and leaves the rest of the messages on
+ * the broker for the other workers. A few consumer threads can so keep many report jobs in flight, and the report
+ * concurrency of a worker is set by the size of this pool rather than by its listener threads.
+ * </p>
+ * <p>
+ * In virtual-thread mode (see {@link VirtualThreadSupport}), each job runs on a new virtual thread instead, and the
+ * number of jobs in flight is bounded by the size of the connection pool, less the connections reserved for the
+ * rest of the worker, unless {@code spring.report.virtual-threads.max-jobs} is set.
+ * </p>
+ * <p>
+ * At shutdown, the pool stops taking jobs and waits up to {@code spring.report.async-launch.shutdown-timeout} for the
+ * running ones. The messages of the jobs cut short are redelivered, and their jobs are resumed (see
+ * {@link MessageDeduplicator}).
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!planner")
+public class ReportJobExecutor {
+
+    private final VirtualThreadSupport virtualThreadSupport;
+
+    // Whether report jobs are launched off the consumer threads.
+    @Value("${spring.report.async-launch.enabled:false}")
+    private boolean enabled;
+
+    // Maximum number of report jobs in flight on this worker.
+    @Value("${spring.report.async-launch.max-jobs:32}")
+    private int maxJobs;
+
+    // Time given to the running jobs to finish at shutdown, in seconds.
+    @Value("${spring.report.async-launch.shutdown-timeout:300}")
+    private int shutdownTimeout;
+
+    private TaskExecutor executor;
+    private Semaphore slots;
+
+    /**
+     * Creates the job pool, or the virtual-thread executor, if asynchronous launches are enabled.
+     */
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        if (virtualThreadSupport.isActive()) {
+            maxJobs = virtualThreadSupport.maxJobs(maxJobs);
+            SimpleAsyncTaskExecutor virtualExecutor = virtualThreadSupport.taskExecutor("report-job-");
+            virtualExecutor.setTaskTerminationTimeout(shutdownTimeout * 1000L);
+            executor = virtualExecutor;
+        } else {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setCorePoolSize(maxJobs);
+            pool.setMaxPoolSize(maxJobs);
+            // A slot is freed just before its thread goes back to the pool, so a few jobs may briefly wait for a
+            // thread.
+            pool.setQueueCapacity(maxJobs);
+            pool.setThreadNamePrefix("report-job-");
+            pool.setWaitForTasksToCompleteOnShutdown(true);
+            pool.setAwaitTerminationSeconds(shutdownTimeout);
+            pool.initialize();
+            executor = pool;
+        }
+        slots = new Semaphore(maxJobs);
+        log.info("Report jobs are launched asynchronously on {} threads, up to {} at a time",
+                virtualThreadSupport.isActive() ? "virtual" : "platform", maxJobs);
+    }
+
+    /**
+     * Indicates whether report jobs are launched off the consumer threads.
+     *
+     * @return {@code true} if jobs are to be submitted to this executor
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Submits a report job, waiting for a free slot while {@code max-jobs} jobs are in flight.
+     *
+     * @param job the job, which must handle its own errors
+     * @throws InterruptedException if the consumer thread is interrupted while waiting for a slot
+     */
+    public void submit(Runnable job) throws InterruptedException {
+        slots.acquire();
+        try {
+            executor.execute(() -> {
+                try {
+                    job.run();
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RuntimeException e) {
+            slots.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of report jobs in flight.
+     *
+     * @return the number of taken slots, or 0 if asynchronous launches are disabled
+     */
+    public int inFlight() {
+        return enabled ? maxJobs - slots.availablePermits() : 0;
+    }
+
+    /**
+     * Shuts the job pool down, waiting for the running jobs.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            log.info("Waiting for {} report jobs in flight", inFlight());
+        }
+        if (executor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (executor instanceof SimpleAsyncTaskExecutor virtualExecutor) {
+            virtualExecutor.close();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.io.IOException;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStatusSink;
+import com.rabbitmq.client.Channel;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ReportMessageRecoverer settles the report task messages consumed by the RabbitMQ listeners.
+ * <p>
+ * A processed message is acknowledged. A message whose processing failed is not requeued at the head of its queue,
+ * where it would be redelivered at once in a hot loop; instead it is republished through the retry topology declared
+ * by {@code RabbitMQConfig}:
+ * <ul>
+ *   <li>The number of retries already made is carried in the {@code x-retry-count} header.</li>
+ *   <li>While fewer than {@code spring.report.retry.max-attempts} attempts have been made, the message is published
+ *       to the retry queue of its next attempt, which delays it with an increasing TTL and then returns it to its
+ *       report queue.</li>
+ *   <li>Once the attempts are exhausted, its task is marked FAILED and recorded as such on its main task (unless it
+ *       had already finished, or the message was a speculative copy), and the message is published to the
+ *       dead-letter exchange.</li>
+ *   <li>A redelivered message whose task is still running (see {@link TaskStillRunningException}) is published to
+ *       the retry queue after the one it last went through, without counting an attempt.</li>
+ * </ul>
+ * The original delivery is only acknowledged once the message has been republished; if republishing fails, it is
+ * requeued instead, so a message is never lost.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!planner")
+public class ReportMessageRecoverer {
+
+    // Header carrying the number of retries already made for a message.
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+
+    // Header selecting the retry queue of an attempt on the retry exchange.
+    public static final String RETRY_TIER_HEADER = "x-retry-tier";
+
+    // Header carrying the error of the last attempt of a dead-lettered message.
+    public static final String ERROR_HEADER = "x-exception-message";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final TaskService taskService;
+    private final TaskStatusSink taskStatusSink;
+
+    @Value("${spring.report.retry.exchange:REPORT_RETRY}")
+    private String retryExchangeName;
+
+    @Value("${spring.report.retry.dead-letter-exchange:REPORT_DLX}")
+    private String deadLetterExchangeName;
+
+    // Number of attempts, the first delivery included, before a message is dead-lettered.
+    @Value("${spring.report.retry.max-attempts:5}")
+    private int maxAttempts;
+
+    /**
+     * Acknowledges, in one frame, all the unacknowledged messages of a channel up to a delivery tag.
+     *
+     * @param channel     the RabbitMQ channel the messages were received on
+     * @param deliveryTag the delivery tag of the last message to acknowledge
+     * @throws IOException if the acknowledgment cannot be sent
+     */
+    public void acknowledgeUpTo(Channel channel, long deliveryTag) throws IOException {
+        channel.basicAck(deliveryTag, true);
+    }
+
+    /**
+     * Republishes a message whose processing failed, to the retry queue of its next attempt or, once its attempts
+     * are exhausted, to the dead-letter exchange. The original delivery is left to the caller to acknowledge.
+     *
+     * @param amqpMessage the raw AMQP message
+     * @param message     the task message
+     * @param cause       the processing error
+     */
+    public void republish(Message amqpMessage, CreateTaskQueueMessageDto message, Exception cause) {
+        Object retries = amqpMessage.getMessageProperties().getHeader(RETRY_COUNT_HEADER);
+        int attempt = (retries instanceof Number count ? count.intValue() : 0) + 1;
+        if (cause instanceof TaskStillRunningException) {
+            defer(amqpMessage, attempt - 1);
+            log.info("Task of message {} is still running; checking it again after a delay", message.getMessageId());
+        } else if (attempt < maxAttempts) {
+            retry(amqpMessage, attempt);
+            log.warn("Message {} failed on attempt {} of {}; retrying it after a delay. Error: {}",
+                    message.getMessageId(), attempt, maxAttempts, cause.getMessage());
+        } else {
+            giveUp(amqpMessage, message, cause);
+            log.error("Message {} failed {} times; dead-lettered to {}", message.getMessageId(), attempt,
+                    deadLetterExchangeName);
+        }
+    }
+
+    /**
+     * Publishes a message that cannot be processed at all, such as one whose payload cannot be converted, straight
+     * to the dead-letter exchange. The original delivery is left to the caller to acknowledge.
+     *
+     * @param amqpMessage the raw AMQP message
+     * @param cause       the error
+     */
+    public void deadLetter(Message amqpMessage, Exception cause) {
+        MessageProperties properties = amqpMessage.getMessageProperties();
+        properties.setHeader(ERROR_HEADER, String.valueOf(cause.getMessage()));
+        rabbitTemplate.send(deadLetterExchangeName, properties.getConsumerQueue(), amqpMessage);
+        log.error("Message with delivery tag {} cannot be processed; dead-lettered to {}. Error: {}",
+                properties.getDeliveryTag(), deadLetterExchangeName, cause.getMessage());
+    }
+
+    /**
+     * Publishes a copy of a message to the retry queue of its next attempt, to be returned to its report queue.
+     *
+     * @param amqpMessage the raw AMQP message
+     * @param attempt     the number of the failed attempt, which is also the number of retries made so far
+     */
+    private void retry(Message amqpMessage, int attempt) {
+        MessageProperties properties = amqpMessage.getMessageProperties();
+        properties.setHeader(RETRY_COUNT_HEADER, attempt);
+        properties.setHeader(RETRY_TIER_HEADER, String.valueOf(attempt));
+        rabbitTemplate.send(retryExchangeName, properties.getConsumerQueue(), amqpMessage);
+    }
+
+    /**
+     * Publishes a copy of a message whose task is still running to the retry queue after the one it last went
+     * through, without counting an attempt. The retry count header is kept, so that the message is still seen as a
+     * retry (see {@link MessageDeduplicator#isRedelivery(Message)}) when it returns.
+     *
+     * @param amqpMessage the raw AMQP message
+     * @param retries     the number of retries made so far
+     */
+    private void defer(Message amqpMessage, int retries) {
+        MessageProperties properties = amqpMessage.getMessageProperties();
+        Object tier = properties.getHeader(RETRY_TIER_HEADER);
+        int next = Math.min((tier == null ? 0 : Integer.parseInt(tier.toString())) + 1, Math.max(maxAttempts - 1, 1));
+        properties.setHeader(RETRY_COUNT_HEADER, retries);
+        properties.setHeader(RETRY_TIER_HEADER, String.valueOf(next));
+        rabbitTemplate.send(retryExchangeName, properties.getConsumerQueue(), amqpMessage);
+    }
+
+    /**
+     * Marks the task of a message FAILED and publishes the message to the dead-letter exchange.
+     *
+     * @param amqpMessage the raw AMQP message
+     * @param message     the task message
+     * @param cause       the error of the last attempt
+     */
+    private void giveUp(Message amqpMessage, CreateTaskQueueMessageDto message, Exception cause) {
+        if (!message.isSpeculative()) {
+            Task task = taskService.getByReferenceAndTaskTypeAndSubscriberEmail(message.getMessageId(),
+                    TaskType.valueOf(message.getTaskType()), message.getSubscriberEmail());
+            if (task != null && !TaskStatus.COMPLETED.equals(task.getStatus())
+                    && !TaskStatus.FAILED.equals(task.getStatus())) {
+                taskStatusSink.finish(task.getId(), task.getMainTask().getId(), TaskStatus.FAILED, null);
+                log.info("Task (ID: {}) set to FAILED", task.getId());
+            }
+        }
+        MessageProperties properties = amqpMessage.getMessageProperties();
+        properties.getHeaders().remove(RETRY_TIER_HEADER);
+        properties.setHeader(ERROR_HEADER, String.valueOf(cause.getMessage()));
+        rabbitTemplate.send(deadLetterExchangeName, properties.getConsumerQueue(), amqpMessage);
+    }
+}
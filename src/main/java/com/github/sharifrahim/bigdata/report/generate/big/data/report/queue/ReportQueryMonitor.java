@@ -0,0 +1,85 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * ReportQueryMonitor accumulates the latency and failures of the report queries run against the transaction table
+ * for the {@link ConcurrencyGovernor}.
+ * <p>
+ * Queries are recorded without locking from any number of threads. The governor drains the accumulated statistics
+ * once per control interval, so every {@link Window} covers the queries of one interval.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Component
+public class ReportQueryMonitor {
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a report query.
+     *
+     * @param nanos  the duration of the query, in nanoseconds
+     * @param failed whether the query failed
+     */
+    public void record(long nanos, boolean failed) {
+        queries.increment();
+        if (failed) {
+            failures.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * Returns the statistics of the queries recorded since the previous call and starts a new window.
+     *
+     * @return the statistics of the window
+     */
+    public Window drain() {
+        return new Window(queries.sumThenReset(), failures.sumThenReset(), totalNanos.sumThenReset(),
+                maxNanos.getAndSet(0));
+    }
+
+    /**
+     * Statistics of the report queries of one control interval.
+     *
+     * @param queries    the number of queries
+     * @param failures   the number of failed queries
+     * @param totalNanos the total duration of the queries, in nanoseconds
+     * @param maxNanos   the duration of the slowest query, in nanoseconds
+     */
+    public record Window(long queries, long failures, long totalNanos, long maxNanos) {
+
+        /**
+         * Returns the mean query latency.
+         *
+         * @return the mean latency in milliseconds, or 0 if no query was recorded
+         */
+        public double meanMillis() {
+            return queries == 0 ? 0 : totalNanos / 1_000_000.0 / queries;
+        }
+
+        /**
+         * Returns the share of failed queries.
+         *
+         * @return the error rate between 0 and 1, or 0 if no query was recorded
+         */
+        public double errorRate() {
+            return queries == 0 ? 0 : (double) failures / queries;
+        }
+    }
+}
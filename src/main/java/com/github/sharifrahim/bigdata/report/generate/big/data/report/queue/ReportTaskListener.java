@@ -0,0 +1,358 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.ExitStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.batch.core.repository.JobInstanceAlreadyCompleteException;
+import org.springframework.batch.core.repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.job.ReportDefinition;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.job.ReportDefinitionRegistry;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+import com.rabbitmq.client.Channel;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ReportTaskListener consumes the task messages of every report type (see {@link ReportDefinitionRegistry}) and
+ * launches the report job of each task.
+ * <p>
+ * One listener container consumes the queues of all the report definitions, so its consumers are shared across
+ * report types according to demand: a busy report type can use all of them while the others are idle, instead of
+ * each type holding a fixed pool of its own. {@code spring.rabbitmq.listener.simple.concurrency} and
+ * {@code max-concurrency} therefore size the consumers of all the report types together.
+ * </p>
+ * <p>
+ * Upon receiving a {@code CreateTaskQueueMessageDto} message, it:
+ * <ul>
+ *   <li>Retrieves the corresponding {@code Task} based on the message's reference, task type, and subscriber email.</li>
+ *   <li>Claims the task, updating its execution timestamp and status to PROCESSING; duplicate and redelivered
+ *       messages of a task already claimed or finished are dropped (see {@link MessageDeduplicator}).</li>
+ *   <li>Looks up the definition of the task type, builds the job parameters and launches its report job using the
+ *       {@link JobLauncher}.</li>
+ *   <li>Acknowledges the message once the job has run. If any exception occurs, the message is retried after an
+ *       increasing delay and dead-lettered once its attempts are exhausted (see {@link ReportMessageRecoverer}).</li>
+ * </ul>
+ * </p>
+ * <p>
+ * A speculative message (see {@code StragglerDetector}) launches a second copy of a task that is already
+ * PROCESSING on a slow worker. It leaves the task untouched, is dropped if the task has finished in the meantime,
+ * and is requeued for another worker if this worker is running the original copy itself (see
+ * {@link TaskStillRunningException}).
+ * </p>
+ * <p>
+ * The job of a restartable report (see {@link ReportDefinition#isRestartable()}), such as the daily transaction
+ * report, is identified by the task and its copy, so a message redelivered after a worker crash
+ * restarts the job instance of the crashed worker: its interrupted execution is marked FAILED, and the restarted
+ * step resumes from the reader position and file offset checkpointed at its last chunk commit. This requires the
+ * JDBC job repository ({@code spring.report.job-repository.mode=jdbc}).
+ * </p>
+ * <p>
+ * A message is also redelivered while its job is still running, when only the channel it arrived on has closed
+ * (a consumer restart, a network blip, or an asynchronous job outliving its consumer). The worker running a job
+ * therefore holds a lease on its task (see {@link TaskLeaseManager}), and a redelivery finding the job running on
+ * this worker or under another worker's unexpired lease is deferred with a {@link TaskStillRunningException}
+ * instead of restarting it.
+ * </p>
+ * <p>
+ * When lane routing is enabled ({@code spring.report.lanes.enabled=true}), the reports of large merchants are
+ * published on the bulk lane queue instead, which this listener also consumes through the
+ * {@code bulkRabbitListenerContainerFactory} with its own concurrency and prefetch, so that large reports never hold
+ * the shared consumers.
+ * </p>
+ * <p>
+ * The listener is not registered when the long-running report worker job is enabled
+ * ({@code spring.report.worker.enabled=true}), which consumes the same queues.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ * 
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "spring.report.worker.enabled", havingValue = "false", matchIfMissing = true)
+@Profile("!planner")
+public class ReportTaskListener {
+
+    private final JobLauncher reportJobLauncher;
+    private final JobRepository reportJobRepository;
+    private final ReportDefinitionRegistry reportDefinitionRegistry;
+    private final TaskService taskService;
+    private final MessageDeduplicator messageDeduplicator;
+    private final ReportBatchDispatcher reportBatchDispatcher;
+    private final TaskLeaseManager taskLeaseManager;
+
+    // Whether the reports of the bulk lane are generated with the remote-chunking job of their definition.
+    @Value("${spring.report.remote-chunking.enabled:false}")
+    private boolean remoteChunkingEnabled;
+
+    // Tasks whose report job is running on this worker.
+    private final Set<Long> runningTasks = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Receives messages from the queues of all the report definitions and processes them as batches of one (see
+     * {@link ReportBatchDispatcher}), so that task envelopes carrying several tasks are handled too.
+     *
+     * @param amqpMessage the raw AMQP message, JSON or task envelope
+     * @param channel     the RabbitMQ channel for message acknowledgment
+     * @throws IOException if the message can neither be acknowledged nor requeued
+     */
+    @RabbitListener(id = "reportTaskListener", queues = "#{@reportDefinitionRegistry.queueNames}",
+            containerFactory = "rabbitListenerContainerFactory")
+    public void receiveMessage(Message amqpMessage, Channel channel) throws IOException {
+        reportBatchDispatcher.dispatch(List.of(amqpMessage), channel, this::generate);
+    }
+
+    /**
+     * Receives messages from the bulk lane queue and processes them like those of the report queues, with the
+     * remote-chunking job of their definition when remote chunking is enabled. Only started when lane routing is
+     * enabled with the RabbitMQ transport.
+     *
+     * @param amqpMessage the raw AMQP message, JSON or task envelope
+     * @param channel     the RabbitMQ channel for message acknowledgment
+     * @throws IOException if the message can neither be acknowledged nor requeued
+     */
+    @RabbitListener(queues = "#{@dailyTransactionBulkQueueName}", containerFactory = "bulkRabbitListenerContainerFactory",
+            autoStartup = "#{${spring.report.lanes.enabled:false} and '${spring.report.transport:rabbitmq}' == 'rabbitmq'}")
+    public void receiveBulkMessage(Message amqpMessage, Channel channel) throws IOException {
+        reportBatchDispatcher.dispatch(List.of(amqpMessage), channel, this::generateBulk);
+    }
+
+    /**
+     * Receives batches of up to {@code spring.report.batch-consumer.batch-size} messages from the queues of all the
+     * report definitions, dispatches them as a group and acknowledges them at once (see
+     * {@link ReportBatchDispatcher}). Only started when batch consumption is enabled with the RabbitMQ transport,
+     * instead of {@link #receiveMessage}.
+     *
+     * @param batch   the raw AMQP messages of the batch
+     * @param channel the RabbitMQ channel for message acknowledgment
+     * @throws IOException if the batch can neither be acknowledged nor requeued
+     */
+    @RabbitListener(id = "reportTaskBatchListener", queues = "#{@reportDefinitionRegistry.queueNames}",
+            containerFactory = "batchRabbitListenerContainerFactory")
+    public void receiveBatch(List<Message> batch, Channel channel) throws IOException {
+        log.info("Received a batch of {} messages", batch.size());
+        reportBatchDispatcher.dispatch(batch, channel, this::generate);
+    }
+
+    /**
+     * Returns the number of report jobs running on this worker.
+     *
+     * @return the number of tasks whose report job is running
+     */
+    public int runningJobs() {
+        return runningTasks.size();
+    }
+
+    /**
+     * Generates the report of the task referenced by a message, which is delivered for the first time. Used by the
+     * in-process transport, which has no RabbitMQ channel.
+     *
+     * @param message the task message
+     * @throws Exception if the task is not found or the job cannot be launched
+     */
+    public void process(CreateTaskQueueMessageDto message) throws Exception {
+        process(message, false);
+    }
+
+    /**
+     * Generates the report of the task referenced by a message: looks up the task, claims it (setting it to
+     * PROCESSING) and launches its report job. Duplicate messages are dropped (see {@link MessageDeduplicator}).
+     *
+     * @param message     the task message
+     * @param redelivered whether the message is a redelivery or a retry of an earlier attempt
+     * @throws Exception if the task is not found or the job cannot be launched
+     */
+    public void process(CreateTaskQueueMessageDto message, boolean redelivered) throws Exception {
+        log.info("Received {} message with ID: {} for subscriber: {}", message.getTaskType(), message.getMessageId(),
+                message.getSubscriberEmail());
+
+        if (messageDeduplicator.isDuplicate(message)) {
+            log.info("Dropping duplicate message with ID: {} for subscriber: {}", message.getMessageId(),
+                    message.getSubscriberEmail());
+            return;
+        }
+
+        // Retrieve the corresponding task using the message details.
+        Task task = taskService.getByReferenceAndTaskTypeAndSubscriberEmail(
+                message.getMessageId(),
+                TaskType.valueOf(message.getTaskType()),
+                message.getSubscriberEmail()
+        );
+        generate(message, task, redelivered);
+    }
+
+    /**
+     * Generates the report of a task of the bulk lane, with the remote-chunking job of its definition when remote
+     * chunking is enabled and the definition has one.
+     *
+     * @param message     the task message
+     * @param task        the task referenced by the message, or {@code null} if it does not exist
+     * @param redelivered whether the message is a redelivery or a retry of an earlier attempt
+     * @throws Exception if the task is not found or the job cannot be launched
+     */
+    private void generateBulk(CreateTaskQueueMessageDto message, Task task, boolean redelivered) throws Exception {
+        generate(message, task, redelivered, remoteChunkingEnabled);
+    }
+
+    /**
+     * Generates the report of a task with the report job of its definition.
+     *
+     * @param message     the task message
+     * @param task        the task referenced by the message, or {@code null} if it does not exist
+     * @param redelivered whether the message is a redelivery or a retry of an earlier attempt
+     * @throws Exception if the task is not found or the job cannot be launched
+     */
+    private void generate(CreateTaskQueueMessageDto message, Task task, boolean redelivered) throws Exception {
+        generate(message, task, redelivered, false);
+    }
+
+    /**
+     * Generates the report of a task: claims it (setting it to PROCESSING) and launches the report job of its
+     * definition. Also used for the messages of a batch, whose tasks are resolved at once.
+     *
+     * @param message     the task message
+     * @param task        the task referenced by the message, or {@code null} if it does not exist
+     * @param redelivered whether the message is a redelivery or a retry of an earlier attempt
+     * @param remote      whether to launch the remote-chunking job of the definition, if it has one
+     * @throws Exception if the task is not found or the job cannot be launched
+     */
+    private void generate(CreateTaskQueueMessageDto message, Task task, boolean redelivered, boolean remote)
+            throws Exception {
+        if (task == null) {
+            log.error("No task found for messageId: {}, taskType: {}, subscriberEmail: {}",
+                    message.getMessageId(), message.getTaskType(), message.getSubscriberEmail());
+            throw new Exception("Task not found");
+        }
+        ReportDefinition definition = reportDefinitionRegistry.get(task.getType());
+
+        if (message.isSpeculative()) {
+            // A speculative copy runs alongside the original, which owns the task's status.
+            if (!TaskStatus.PROCESSING.equals(task.getStatus())) {
+                log.info("Task (ID: {}) already finished as {}; dropping its speculative copy", task.getId(),
+                        task.getStatus());
+                return;
+            }
+            if (runningTasks.contains(task.getId())) {
+                throw new TaskStillRunningException(task.getId());
+            }
+            log.info("Starting a speculative copy of task ID: {}", task.getId());
+        } else {
+            // A redelivery must not restart a job that is still running, here or on another live worker.
+            if (runningTasks.contains(task.getId())
+                    || redelivered && taskLeaseManager.isHeldElsewhere(task.getId())) {
+                throw new TaskStillRunningException(task.getId());
+            }
+            // Claim the task, setting its status to PROCESSING, unless another delivery has claimed it.
+            if (!messageDeduplicator.claim(message, task, redelivered)) {
+                return;
+            }
+            log.info("Task (ID: {}) updated to PROCESSING", task.getId());
+        }
+
+        // Build job parameters with the task details; a restartable job instance is identified by the task and its
+        // copy, any other by its launch time. The task is now PROCESSING; its state is passed on to the job steps
+        // (see TaskStateListener) so that they do not load it again.
+        JobParameters parameters = definition.isRestartable()
+                ? new JobParametersBuilder()
+                        .addLong("taskId", task.getId())
+                        .addString("merchantEmail", task.getSubscriberEmail())
+                        .addString("copy", message.isSpeculative() ? "speculative" : "original")
+                        .addLong("time", System.currentTimeMillis(), false)
+                        .addLong("mainTaskId", task.getMainTask().getId(), false)
+                        .addString("taskStatus", TaskStatus.PROCESSING.name(), false)
+                        .toJobParameters()
+                : new JobParametersBuilder()
+                        .addLong("taskId", task.getId())
+                        .addString("merchantEmail", task.getSubscriberEmail())
+                        .addLong("time", System.currentTimeMillis())
+                        .addLong("mainTaskId", task.getMainTask().getId(), false)
+                        .addString("taskStatus", TaskStatus.PROCESSING.name(), false)
+                        .toJobParameters();
+
+        // Launch the report job, restarting it if a crashed worker left it unfinished.
+        Job job = remote && definition.getRemoteJobName() != null
+                ? reportDefinitionRegistry.remoteJob(definition)
+                : reportDefinitionRegistry.job(definition);
+        runningTasks.add(task.getId());
+        try {
+            if (!message.isSpeculative()) {
+                taskLeaseManager.acquire(task.getId());
+            }
+            if (definition.isRestartable()) {
+                failInterruptedExecution(job, parameters);
+            }
+            reportJobLauncher.run(job, parameters);
+        } catch (JobInstanceAlreadyCompleteException e) {
+            log.warn("Report job of task ID: {} has already completed; nothing to do", task.getId());
+            return;
+        } catch (Exception e) {
+            messageDeduplicator.release(message);
+            throw e;
+        } finally {
+            if (!message.isSpeculative()) {
+                taskLeaseManager.release(task.getId());
+            }
+            runningTasks.remove(task.getId());
+        }
+        log.info("Launched job '{}' for task ID: {}", job.getName(), task.getId());
+    }
+
+    /**
+     * Marks the last execution of the report job instance as FAILED if it is still running, so that the instance
+     * can be restarted. Such an execution was interrupted by the crash of the worker running it: the job is not
+     * running on this worker, and the lease of the worker that ran it has expired (see {@link TaskLeaseManager}).
+     *
+     * @param job        the report job
+     * @param parameters the identifying job parameters of the report job instance
+     */
+    private void failInterruptedExecution(Job job, JobParameters parameters) {
+        JobExecution lastExecution = reportJobRepository.getLastJobExecution(job.getName(), parameters);
+        if (lastExecution == null || !lastExecution.isRunning()) {
+            return;
+        }
+        log.warn("Job execution {} of task ID: {} was interrupted; restarting it from its last checkpoint",
+                lastExecution.getId(), parameters.getLong("taskId"));
+        LocalDateTime now = LocalDateTime.now();
+        for (StepExecution stepExecution : lastExecution.getStepExecutions()) {
+            if (stepExecution.getStatus().isRunning()) {
+                stepExecution.setStatus(BatchStatus.FAILED);
+                stepExecution.setExitStatus(ExitStatus.FAILED);
+                stepExecution.setEndTime(now);
+                reportJobRepository.update(stepExecution);
+            }
+        }
+        lastExecution.setStatus(BatchStatus.FAILED);
+        lastExecution.setExitStatus(ExitStatus.FAILED.addExitDescription("Interrupted by a worker crash"));
+        lastExecution.setEndTime(now);
+        reportJobRepository.update(lastExecution);
+    }
+}
@@ -0,0 +1,119 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.batch.TaskQueueItemReader;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ReportWorkerLauncher keeps the long-running {@code reportWorkerJob} running while the application is up.
+ * <p>
+ * The job is launched on a dedicated thread once the application context has started. Whenever its step
+ * completes (because the queues have been idle or the step failed), the job is launched again, so a new
+ * {@code JobInstance} is only created after an idle period rather than for every queue message.
+ * On shutdown the reader is asked to stop, which lets the in-flight chunk complete.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "spring.report.worker.enabled", havingValue = "true")
+@Profile("!planner")
+public class ReportWorkerLauncher implements SmartLifecycle {
+
+    private final JobLauncher reportJobLauncher;
+    private final Job reportWorkerJob;
+    private final TaskQueueItemReader taskQueueItemReader;
+
+    // Delay before relaunching the worker job after it failed.
+    @Value("${spring.report.worker.restart-delay:5000}")
+    private long restartDelay;
+
+    private volatile boolean running;
+    private Thread workerThread;
+
+    /**
+     * Starts the worker thread that keeps the report worker job running.
+     */
+    @Override
+    public void start() {
+        running = true;
+        workerThread = new Thread(this::runWorker, "report-worker");
+        workerThread.start();
+        log.info("Report worker launcher started");
+    }
+
+    /**
+     * Stops the report worker job after its in-flight chunk and waits for the worker thread to finish.
+     */
+    @Override
+    public void stop() {
+        running = false;
+        taskQueueItemReader.stop();
+        try {
+            workerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Report worker launcher stopped");
+    }
+
+    /**
+     * Indicates whether the worker thread is running.
+     *
+     * @return {@code true} if the launcher has been started and not yet stopped
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Launches the report worker job repeatedly until the launcher is stopped.
+     */
+    private void runWorker() {
+        while (running) {
+            try {
+                JobParameters parameters = new JobParametersBuilder()
+                        .addLong("time", System.currentTimeMillis())
+                        .toJobParameters();
+                JobExecution execution = reportJobLauncher.run(reportWorkerJob, parameters);
+                log.info("Report worker job execution {} finished with status {}", execution.getId(), execution.getStatus());
+                if (BatchStatus.FAILED.equals(execution.getStatus())) {
+                    Thread.sleep(restartDelay);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("Error launching report worker job: {}", e.getMessage(), e);
+                try {
+                    Thread.sleep(restartDelay);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * RingBuffer is a bounded, lock-free, multi-producer multi-consumer queue.
+ * <p>
+ * Each slot of the ring carries a sequence number telling producers and consumers whether the slot is free for the
+ * current lap or holds an element of it. Producers and consumers claim positions with a compare-and-set on their own
+ * counter and never block each other; a full ring rejects {@link #offer(Object)} and an empty ring returns
+ * {@code null} from {@link #poll()}, leaving back-pressure and idling to the caller.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @param <E> the element type
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public class RingBuffer<E> {
+
+    private final int mask;
+    private final AtomicReferenceArray<E> elements;
+    private final AtomicLongArray sequences;
+    private final AtomicLong enqueuePosition = new AtomicLong();
+    private final AtomicLong dequeuePosition = new AtomicLong();
+
+    /**
+     * Creates a ring buffer.
+     *
+     * @param capacity the capacity, a power of two of at least 2
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two of at least 2: " + capacity);
+        }
+        this.mask = capacity - 1;
+        this.elements = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an element if the ring is not full.
+     *
+     * @param element the element, not {@code null}
+     * @return {@code true} if the element was added; {@code false} if the ring is full
+     */
+    public boolean offer(E element) {
+        if (element == null) {
+            throw new IllegalArgumentException("element must not be null");
+        }
+        long position = enqueuePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (enqueuePosition.compareAndSet(position, position + 1)) {
+                    elements.set(index, element);
+                    // Publish the slot to consumers of this lap.
+                    sequences.set(index, position + 1);
+                    return true;
+                }
+                position = enqueuePosition.get();
+            } else if (difference < 0) {
+                // The slot still holds an element of the previous lap.
+                return false;
+            } else {
+                position = enqueuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Removes the oldest element if the ring is not empty.
+     *
+     * @return the oldest element, or {@code null} if the ring is empty
+     */
+    public E poll() {
+        long position = dequeuePosition.get();
+        while (true) {
+            int index = (int) (position & mask);
+            long difference = sequences.get(index) - (position + 1);
+            if (difference == 0) {
+                if (dequeuePosition.compareAndSet(position, position + 1)) {
+                    E element = elements.get(index);
+                    elements.set(index, null);
+                    // Free the slot for producers of the next lap.
+                    sequences.set(index, position + mask + 1);
+                    return element;
+                }
+                position = dequeuePosition.get();
+            } else if (difference < 0) {
+                // The slot has not been filled in this lap yet.
+                return null;
+            } else {
+                position = dequeuePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Returns the approximate number of elements in the ring.
+     *
+     * @return the approximate size
+     */
+    public int size() {
+        long size = enqueuePosition.get() - dequeuePosition.get();
+        return (int) Math.max(0, Math.min(size, mask + 1));
+    }
+
+    /**
+     * Returns the capacity of the ring.
+     *
+     * @return the capacity
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,312 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.job.ReportDefinitionRegistry;
+import com.rabbitmq.client.Channel;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ShardMembershipManager assigns the shard queues (see {@link TaskQueueRouter}) to the running worker nodes,
+ * enabled with {@code spring.report.sharding.enabled=true}.
+ * <p>
+ * Every worker node registers itself in the {@code worker_nodes} table and refreshes its heartbeat every
+ * {@code spring.report.sharding.heartbeat-interval} milliseconds. Nodes whose heartbeat is older than
+ * {@code spring.report.sharding.node-timeout} are removed. On every heartbeat, each node places the live nodes on a
+ * consistent hash ring and claims the shards that map to itself, so shards rebalance when nodes join or leave and
+ * only the shards of the joining or leaving node move.
+ * </p>
+ * <p>
+ * In listener mode, the node starts one listener container per claimed shard, consuming the shard queues of all the
+ * report queues with a single exclusive consumer and handing the messages to the {@link ReportTaskListener}. The
+ * exclusive consumer keeps the tasks of a merchant in order and guarantees that a shard is consumed by one node
+ * only: while the previous owner of a shard has not released it yet, the new owner keeps retrying. The containers are
+ * created by the {@code rabbitListenerContainerFactory}, or by the {@code batchRabbitListenerContainerFactory} when
+ * batch consumption is enabled, so they share the executor, prefetch and batch settings of the report listeners; only
+ * their concurrency is forced to one exclusive consumer. With the
+ * long-running report worker job, the {@code TaskQueueItemReader} polls the shard queues claimed by this node.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.report.sharding.enabled", havingValue = "true")
+@Profile("!planner")
+public class ShardMembershipManager implements SmartLifecycle {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskQueueRouter taskQueueRouter;
+    private final SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory;
+    private final SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory;
+    private final ObjectProvider<ReportTaskListener> reportTaskListener;
+    private final ReportDefinitionRegistry reportDefinitionRegistry;
+
+    // Identifier of this node in the worker_nodes table; defaults to host name, process id and a random suffix.
+    @Value("${spring.report.sharding.node-id:}")
+    private String nodeId;
+
+    // Time without heartbeat after which a node is considered gone, in milliseconds.
+    @Value("${spring.report.sharding.node-timeout:30000}")
+    private long nodeTimeout;
+
+    // Whether the shard queues are consumed in batches, like the report queues.
+    @Value("${spring.report.batch-consumer.enabled:false}")
+    private boolean batchConsumerEnabled;
+
+    // Number of positions of each node on the hash ring.
+    @Value("${spring.report.sharding.virtual-nodes:64}")
+    private int virtualNodes;
+
+    // Listener containers of the shards claimed by this node, keyed by shard.
+    private final Map<Integer, SimpleMessageListenerContainer> containers = new TreeMap<>();
+
+    private volatile Set<Integer> ownedShards = Set.of();
+    private volatile boolean running;
+
+    /**
+     * Creates the membership manager.
+     *
+     * @param jdbcTemplate             the JdbcTemplate used to maintain the worker_nodes table
+     * @param taskQueueRouter          the router defining the shard queues
+     * @param rabbitListenerContainerFactory      the factory of the report listener containers
+     * @param batchRabbitListenerContainerFactory the factory of the report batch listener containers
+     * @param reportTaskListener                  the report listener (listener mode only)
+     * @param reportDefinitionRegistry            the registry of the report types, whose queues are sharded
+     */
+    public ShardMembershipManager(JdbcTemplate jdbcTemplate, TaskQueueRouter taskQueueRouter,
+            @Qualifier("rabbitListenerContainerFactory")
+            SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory,
+            @Qualifier("batchRabbitListenerContainerFactory")
+            SimpleRabbitListenerContainerFactory batchRabbitListenerContainerFactory,
+            ObjectProvider<ReportTaskListener> reportTaskListener, ReportDefinitionRegistry reportDefinitionRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.taskQueueRouter = taskQueueRouter;
+        this.rabbitListenerContainerFactory = rabbitListenerContainerFactory;
+        this.batchRabbitListenerContainerFactory = batchRabbitListenerContainerFactory;
+        this.reportTaskListener = reportTaskListener;
+        this.reportDefinitionRegistry = reportDefinitionRegistry;
+    }
+
+    /**
+     * Returns the shard queues of the given report queues currently claimed by this node.
+     *
+     * @param queueNames the report queues
+     * @return the claimed shard queue names
+     */
+    public List<String> getOwnedQueueNames(List<String> queueNames) {
+        List<String> owned = new ArrayList<>();
+        for (Integer shard : ownedShards) {
+            queueNames.forEach(queueName -> owned.add(taskQueueRouter.shardQueueName(queueName, shard)));
+        }
+        return owned;
+    }
+
+    /**
+     * Refreshes the heartbeat of this node and rebalances the shards across the live nodes.
+     * Runs every {@code spring.report.sharding.heartbeat-interval} milliseconds.
+     */
+    @Scheduled(fixedDelayString = "${spring.report.sharding.heartbeat-interval:5000}")
+    public synchronized void heartbeat() {
+        if (!running) {
+            return;
+        }
+        try {
+            jdbcTemplate.update("""
+                    INSERT INTO worker_nodes (node_id, heartbeat_at) VALUES (?, NOW())
+                    ON CONFLICT (node_id) DO UPDATE SET heartbeat_at = NOW()
+                    """, nodeId);
+            int expired = jdbcTemplate.update(
+                    "DELETE FROM worker_nodes WHERE heartbeat_at < NOW() - (? * INTERVAL '1 millisecond')", nodeTimeout);
+            if (expired > 0) {
+                log.info("Removed {} worker nodes without heartbeat", expired);
+            }
+            List<String> liveNodes = jdbcTemplate.queryForList(
+                    "SELECT node_id FROM worker_nodes ORDER BY node_id", String.class);
+            rebalance(liveNodes);
+        } catch (RuntimeException e) {
+            // Keep the current shards; if the database stays unreachable, other nodes expire this node.
+            log.warn("Failed to refresh the worker node membership: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Registers this node and claims its shards.
+     */
+    @Override
+    public synchronized void start() {
+        if (nodeId == null || nodeId.isBlank()) {
+            nodeId = defaultNodeId();
+        }
+        running = true;
+        log.info("Worker node {} joining the shard membership", nodeId);
+        heartbeat();
+    }
+
+    /**
+     * Releases the shards of this node and leaves the membership, so that the other nodes take the shards over
+     * on their next heartbeat.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        rebalance(List.of());
+        try {
+            jdbcTemplate.update("DELETE FROM worker_nodes WHERE node_id = ?", nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Failed to unregister worker node {}: {}", nodeId, e.getMessage());
+        }
+        log.info("Worker node {} left the shard membership", nodeId);
+    }
+
+    /**
+     * Returns whether this node takes part in the shard membership.
+     *
+     * @return {@code true} if started
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Claims the shards mapped to this node on the hash ring of the live nodes and releases the others.
+     *
+     * @param liveNodes the live nodes
+     */
+    private void rebalance(List<String> liveNodes) {
+        ConsistentHashRing<String> nodeRing = new ConsistentHashRing<>(liveNodes, virtualNodes);
+        Set<Integer> claimed = new TreeSet<>();
+        IntStream.range(0, taskQueueRouter.getShardCount())
+                .filter(shard -> nodeId.equals(nodeRing.get("shard-" + shard)))
+                .forEach(claimed::add);
+        if (claimed.equals(ownedShards)) {
+            return;
+        }
+        log.info("Worker node {} rebalanced across {} live nodes: shards {} (previously {})",
+                nodeId, liveNodes.size(), claimed, ownedShards);
+        ownedShards = Set.copyOf(claimed);
+
+        if (reportTaskListener.getIfAvailable() == null) {
+            // Worker job mode: the TaskQueueItemReader polls the claimed shard queues.
+            return;
+        }
+        containers.keySet().removeIf(shard -> {
+            if (claimed.contains(shard)) {
+                return false;
+            }
+            containers.get(shard).stop();
+            log.info("Released shard {}", shard);
+            return true;
+        });
+        for (Integer shard : claimed) {
+            containers.computeIfAbsent(shard, this::startContainer);
+        }
+    }
+
+    /**
+     * Starts an exclusive, single-consumer listener container for the shard queues of a shard, created by the
+     * listener container factory of the report queues.
+     *
+     * @param shard the shard
+     * @return the started container
+     */
+    private SimpleMessageListenerContainer startContainer(Integer shard) {
+        SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+        endpoint.setId("shardListener-" + shard);
+        endpoint.setQueueNames(reportDefinitionRegistry.getQueueNames().stream()
+                .map(queueName -> taskQueueRouter.shardQueueName(queueName, shard))
+                .toArray(String[]::new));
+        SimpleMessageListenerContainer container;
+        if (batchConsumerEnabled) {
+            endpoint.setMessageListener((ChannelAwareBatchMessageListener) this::onBatch);
+            container = batchRabbitListenerContainerFactory.createListenerContainer(endpoint);
+        } else {
+            endpoint.setMessageListener((ChannelAwareMessageListener) this::onMessage);
+            container = rabbitListenerContainerFactory.createListenerContainer(endpoint);
+        }
+        // The container requires concurrent consumers <= max consumers, and one consumer when exclusive.
+        container.setConcurrentConsumers(1);
+        container.setMaxConcurrentConsumers(1);
+        container.setExclusive(true);
+        container.afterPropertiesSet();
+        container.start();
+        log.info("Claimed shard {}", shard);
+        return container;
+    }
+
+    /**
+     * Hands a message from a shard queue over to the report listener.
+     *
+     * @param message the message
+     * @param channel the channel the message was received on
+     * @throws Exception if the listener fails
+     */
+    private void onMessage(Message message, Channel channel) throws Exception {
+        reportTaskListener.getObject().receiveMessage(message, channel);
+    }
+
+    /**
+     * Hands a batch of messages from the shard queues over to the report listener.
+     *
+     * @param messages the messages of the batch
+     * @param channel  the channel the messages were received on
+     */
+    private void onBatch(List<Message> messages, Channel channel) {
+        try {
+            reportTaskListener.getObject().receiveBatch(messages, channel);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds a node identifier that is unique per process.
+     *
+     * @return the node identifier
+     */
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + ManagementFactory.getRuntimeMXBean().getPid() + "-"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -0,0 +1,286 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+
+/**
+ * TaskEnvelopeCodec encodes a list of task messages into a compact, versioned binary envelope, and decodes it back.
+ * <p>
+ * Version 1 of the envelope is laid out as follows (varints are unsigned LEB128):
+ * <ul>
+ *   <li>the version byte, then the number of task descriptors as a varint;</li>
+ *   <li>per descriptor, a flags byte ({@code 0x01} speculative, {@code 0x02} UUID message id, {@code 0x04} numeric
+ *       timestamp), then:
+ *       <ul>
+ *         <li>the message id, as 16 bytes when it is a UUID, as a string otherwise;</li>
+ *         <li>the task type, as a reference into the envelope's dictionary of task types (0 introduces a new entry,
+ *             written as a string right after);</li>
+ *         <li>the subscriber email, as a string;</li>
+ *         <li>the timestamp, as a zigzag varint of the seconds elapsed since the previous descriptor's timestamp when
+ *             it is in the {@code yyyy-MM-dd HH:mm:ss} format, as a string otherwise.</li>
+ *       </ul></li>
+ * </ul>
+ * Strings are written as a varint of their UTF-8 length plus one (0 stands for {@code null}) followed by their bytes.
+ * Compared to JSON, the field names, the textual UUIDs and timestamps, and the repeated task types disappear, and the
+ * AMQP properties of one message are shared by all the descriptors of the envelope.
+ * </p>
+ * <p>
+ * Instances are stateless and thread-safe.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public class TaskEnvelopeCodec {
+
+    // Current version of the envelope format.
+    public static final int VERSION = 1;
+
+    private static final int SPECULATIVE = 0x01;
+    private static final int UUID_MESSAGE_ID = 0x02;
+    private static final int NUMERIC_TIMESTAMP = 0x04;
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Encodes task messages into an envelope.
+     *
+     * @param messages the task messages
+     * @return the encoded envelope
+     */
+    public byte[] encode(List<CreateTaskQueueMessageDto> messages) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + messages.size() * 48);
+        out.write(VERSION);
+        writeVarint(out, messages.size());
+
+        Map<String, Integer> taskTypes = new HashMap<>();
+        long previousSeconds = 0;
+        for (CreateTaskQueueMessageDto message : messages) {
+            UUID uuid = parseUuid(message.getMessageId());
+            Long seconds = parseTimestamp(message.getTimestamp());
+            int flags = (message.isSpeculative() ? SPECULATIVE : 0)
+                    | (uuid != null ? UUID_MESSAGE_ID : 0)
+                    | (seconds != null ? NUMERIC_TIMESTAMP : 0);
+            out.write(flags);
+
+            if (uuid != null) {
+                writeLong(out, uuid.getMostSignificantBits());
+                writeLong(out, uuid.getLeastSignificantBits());
+            } else {
+                writeString(out, message.getMessageId());
+            }
+
+            Integer taskType = taskTypes.get(message.getTaskType());
+            if (taskType != null) {
+                writeVarint(out, taskType);
+            } else {
+                writeVarint(out, 0);
+                writeString(out, message.getTaskType());
+                taskTypes.put(message.getTaskType(), taskTypes.size() + 1);
+            }
+
+            writeString(out, message.getSubscriberEmail());
+
+            if (seconds != null) {
+                long delta = seconds - previousSeconds;
+                writeVarint(out, (delta << 1) ^ (delta >> 63));
+                previousSeconds = seconds;
+            } else {
+                writeString(out, message.getTimestamp());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Decodes an envelope into task messages.
+     *
+     * @param envelope the encoded envelope
+     * @return the task messages, in encoding order
+     * @throws IllegalArgumentException if the envelope has an unsupported version or is malformed
+     */
+    public List<CreateTaskQueueMessageDto> decode(byte[] envelope) {
+        ByteBuffer in = ByteBuffer.wrap(envelope);
+        try {
+            int version = in.get() & 0xFF;
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported task envelope version: " + version);
+            }
+            // Every descriptor takes at least one byte, so a larger count cannot be honest.
+            long count = readVarint(in);
+            if (count < 0 || count > in.remaining()) {
+                throw new IllegalArgumentException("Malformed task envelope: " + count + " tasks in "
+                        + in.remaining() + " bytes");
+            }
+            List<CreateTaskQueueMessageDto> messages = new ArrayList<>((int) count);
+            List<String> taskTypes = new ArrayList<>();
+            long previousSeconds = 0;
+            for (int i = 0; i < count; i++) {
+                int flags = in.get();
+                CreateTaskQueueMessageDto message = new CreateTaskQueueMessageDto();
+                message.setSpeculative((flags & SPECULATIVE) != 0);
+
+                if ((flags & UUID_MESSAGE_ID) != 0) {
+                    message.setMessageId(new UUID(in.getLong(), in.getLong()).toString());
+                } else {
+                    message.setMessageId(readString(in));
+                }
+
+                int taskType = (int) readVarint(in);
+                if (taskType == 0) {
+                    taskTypes.add(readString(in));
+                    taskType = taskTypes.size();
+                }
+                message.setTaskType(taskTypes.get(taskType - 1));
+
+                message.setSubscriberEmail(readString(in));
+
+                if ((flags & NUMERIC_TIMESTAMP) != 0) {
+                    long zigzag = readVarint(in);
+                    previousSeconds += (zigzag >>> 1) ^ -(zigzag & 1);
+                    message.setTimestamp(LocalDateTime.ofEpochSecond(previousSeconds, 0, ZoneOffset.UTC)
+                            .format(TIMESTAMP_FORMAT));
+                } else {
+                    message.setTimestamp(readString(in));
+                }
+                messages.add(message);
+            }
+            return messages;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Malformed task envelope", e);
+        }
+    }
+
+    /**
+     * Parses a message id as a UUID, if it is one in its canonical form.
+     *
+     * @param messageId the message id
+     * @return the UUID, or {@code null} if the id does not round-trip as a UUID
+     */
+    private UUID parseUuid(String messageId) {
+        if (messageId == null || messageId.length() != 36) {
+            return null;
+        }
+        try {
+            UUID uuid = UUID.fromString(messageId);
+            return uuid.toString().equals(messageId) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses a timestamp in the {@code yyyy-MM-dd HH:mm:ss} format into epoch seconds.
+     *
+     * @param timestamp the timestamp
+     * @return the epoch seconds, or {@code null} if the timestamp does not round-trip in that format
+     */
+    private Long parseTimestamp(String timestamp) {
+        if (timestamp == null) {
+            return null;
+        }
+        try {
+            LocalDateTime dateTime = LocalDateTime.parse(timestamp, TIMESTAMP_FORMAT);
+            return dateTime.format(TIMESTAMP_FORMAT).equals(timestamp) ? dateTime.toEpochSecond(ZoneOffset.UTC) : null;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes a string as a varint of its UTF-8 length plus one, followed by its bytes.
+     *
+     * @param out   the output
+     * @param value the string, possibly {@code null}
+     */
+    private void writeString(ByteArrayOutputStream out, String value) {
+        if (value == null) {
+            writeVarint(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length + 1L);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     *
+     * @param in the input
+     * @return the string, possibly {@code null}
+     */
+    private String readString(ByteBuffer in) {
+        long length = readVarint(in);
+        if (length == 0) {
+            return null;
+        }
+        if (length < 0 || length - 1 > in.remaining()) {
+            throw new IllegalArgumentException("Malformed task envelope: string exceeds the envelope");
+        }
+        byte[] bytes = new byte[(int) (length - 1)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes an unsigned varint.
+     *
+     * @param out   the output
+     * @param value the value
+     */
+    private void writeVarint(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * Reads an unsigned varint.
+     *
+     * @param in the input
+     * @return the value
+     */
+    private long readVarint(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Malformed task envelope: varint too long");
+    }
+
+    /**
+     * Writes a long in big-endian order.
+     *
+     * @param out   the output
+     * @param value the value
+     */
+    private void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.util.List;
+
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+
+/**
+ * TaskEnvelopeMessageConverter converts task messages to and from the compact binary envelope of
+ * {@link TaskEnvelopeCodec}, under the {@value #CONTENT_TYPE} content type.
+ * <p>
+ * It converts a single {@link CreateTaskQueueMessageDto} or a list of them into one AMQP message. An envelope is
+ * converted back into a single {@link CreateTaskQueueMessageDto} when it carries one descriptor, and into a list
+ * otherwise. It is registered next to the JSON converter (see {@code RabbitMQConfig}), which remains the converter of
+ * all the other content types, so JSON and envelope messages can be mixed on the same queues.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public class TaskEnvelopeMessageConverter implements MessageConverter {
+
+    // Content type of the task envelopes, with their format version.
+    public static final String CONTENT_TYPE = "application/x-report-task-envelope;v=" + TaskEnvelopeCodec.VERSION;
+
+    private final TaskEnvelopeCodec codec = new TaskEnvelopeCodec();
+
+    /**
+     * Converts a task message, or a list of task messages, into an envelope message.
+     *
+     * @param object            a {@link CreateTaskQueueMessageDto} or a list of them
+     * @param messageProperties the properties of the message
+     * @return the envelope message
+     * @throws MessageConversionException if the object is not a task message nor a list of them
+     */
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        List<CreateTaskQueueMessageDto> messages;
+        if (object instanceof CreateTaskQueueMessageDto message) {
+            messages = List.of(message);
+        } else if (object instanceof List<?> list && list.stream().allMatch(CreateTaskQueueMessageDto.class::isInstance)) {
+            messages = list.stream().map(CreateTaskQueueMessageDto.class::cast).toList();
+        } else {
+            throw new MessageConversionException("Cannot convert " + object.getClass().getName() + " to a task envelope");
+        }
+        byte[] body = codec.encode(messages);
+        messageProperties.setContentType(CONTENT_TYPE);
+        messageProperties.setContentLength(body.length);
+        return new Message(body, messageProperties);
+    }
+
+    /**
+     * Converts an envelope message back into its task messages.
+     *
+     * @param message the envelope message
+     * @return a {@link CreateTaskQueueMessageDto} if the envelope carries one descriptor, a list of them otherwise
+     * @throws MessageConversionException if the envelope cannot be decoded
+     */
+    @Override
+    public Object fromMessage(Message message) {
+        try {
+            List<CreateTaskQueueMessageDto> messages = codec.decode(message.getBody());
+            return messages.size() == 1 ? messages.get(0) : messages;
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException("Cannot decode task envelope", e);
+        }
+    }
+}
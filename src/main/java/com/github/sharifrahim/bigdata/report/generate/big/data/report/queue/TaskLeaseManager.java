@@ -0,0 +1,144 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TaskLeaseManager records which worker node is running the report job of a task, so that a redelivered message
+ * can tell a live execution from one interrupted by a crash.
+ * <p>
+ * While the {@link ReportTaskListener} runs the job of a task, this node holds a lease on the task row
+ * ({@code lease_owner} and {@code lease_expires_at}) of {@code spring.report.job-lease.duration}, renewed every
+ * {@code spring.report.job-lease.heartbeat-interval} milliseconds and cleared when the job returns. A redelivery
+ * finding the lease of another node unexpired knows the original execution is still alive, even though its
+ * channel has closed; once the node is gone, its lease expires and the execution can be failed and restarted.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!planner")
+public class TaskLeaseManager {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Duration of the lease on the tasks whose job runs on this node.
+    @Value("${spring.report.job-lease.duration:PT2M}")
+    private Duration lease;
+
+    private final String owner = defaultOwner();
+
+    // Tasks whose job runs on this node.
+    private final Set<Long> held = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Takes the lease of a PROCESSING task whose job is about to run on this node.
+     *
+     * @param taskId the task identifier
+     */
+    public void acquire(Long taskId) {
+        held.add(taskId);
+        jdbcTemplate.update("""
+                UPDATE tasks SET lease_owner = ?, lease_expires_at = NOW() + (? * INTERVAL '1 millisecond'),
+                    version = version + 1
+                WHERE id = ? AND status = 'PROCESSING'
+                """, owner, lease.toMillis(), taskId);
+    }
+
+    /**
+     * Clears the lease of a task whose job has returned on this node.
+     *
+     * @param taskId the task identifier
+     */
+    public void release(Long taskId) {
+        held.remove(taskId);
+        try {
+            jdbcTemplate.update("""
+                    UPDATE tasks SET lease_owner = NULL, lease_expires_at = NULL, version = version + 1
+                    WHERE id = ? AND lease_owner = ?
+                    """, taskId, owner);
+        } catch (RuntimeException e) {
+            // No longer renewed, the lease expires on its own.
+            log.warn("Could not release the lease of task ID: {}: {}", taskId, e.getMessage());
+        }
+    }
+
+    /**
+     * Tells whether the job of a task is running on another live node.
+     *
+     * @param taskId the task identifier
+     * @return {@code true} if another node holds an unexpired lease on the task
+     */
+    public boolean isHeldElsewhere(Long taskId) {
+        Integer count = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM tasks
+                WHERE id = ? AND lease_owner <> ? AND lease_expires_at > NOW()
+                """, Integer.class, taskId, owner);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Renews the leases of the tasks whose job runs on this node.
+     * Runs every {@code spring.report.job-lease.heartbeat-interval} milliseconds.
+     */
+    @Scheduled(fixedDelayString = "${spring.report.job-lease.heartbeat-interval:30000}")
+    public void heartbeat() {
+        List<Long> taskIds = new ArrayList<>(held);
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        List<Object> params = new ArrayList<>(taskIds.size() + 2);
+        params.add(lease.toMillis());
+        params.add(owner);
+        params.addAll(taskIds);
+        try {
+            int renewed = jdbcTemplate.update("""
+                    UPDATE tasks SET lease_expires_at = NOW() + (? * INTERVAL '1 millisecond'), version = version + 1
+                    WHERE lease_owner = ? AND id IN (%s)
+                    """.formatted(String.join(", ", Collections.nCopies(taskIds.size(), "?"))), params.toArray());
+            log.debug("Renewed the leases of {} out of {} running report jobs", renewed, taskIds.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew the leases of the running report jobs: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Builds a lease owner identifier that is unique per process.
+     *
+     * @return the owner identifier
+     */
+    private static String defaultOwner() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        return host + "-" + ManagementFactory.getRuntimeMXBean().getPid() + "-"
+                + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
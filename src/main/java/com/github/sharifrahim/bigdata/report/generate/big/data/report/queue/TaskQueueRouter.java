@@ -0,0 +1,111 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TaskQueueRouter decides on which queue a report task message is published.
+ * <p>
+ * When sharding is enabled ({@code spring.report.sharding.enabled=true}), every report queue is split into
+ * {@code spring.report.sharding.shard-count} shard queues named {@code <queue>.shard-<n>}, and each message is routed
+ * by the consistent hash of its subscriber email. All tasks of a merchant therefore land on the same shard queue,
+ * which is consumed by a single worker node at a time (see {@link ShardMembershipManager}). When sharding is
+ * disabled, messages are published on the report queue itself.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@Component
+public class TaskQueueRouter {
+
+    // Whether report queues are split into shard queues.
+    @Value("${spring.report.sharding.enabled:false}")
+    private boolean shardingEnabled;
+
+    // Number of shard queues per report queue.
+    @Value("${spring.report.sharding.shard-count:8}")
+    private int shardCount;
+
+    // Number of positions of each shard on the hash ring.
+    @Value("${spring.report.sharding.virtual-nodes:64}")
+    private int virtualNodes;
+
+    private ConsistentHashRing<Integer> shardRing;
+
+    /**
+     * Builds the hash ring of the shards.
+     */
+    @PostConstruct
+    public void init() {
+        shardRing = new ConsistentHashRing<>(IntStream.range(0, shardCount).boxed().toList(), virtualNodes);
+        if (shardingEnabled) {
+            log.info("Routing report tasks across {} shard queues per report queue", shardCount);
+        }
+    }
+
+    /**
+     * Returns the queue on which the task of a subscriber is published.
+     *
+     * @param queueName       the report queue
+     * @param subscriberEmail the subscriber email
+     * @return the shard queue of the subscriber if sharding is enabled; otherwise the report queue
+     */
+    public String route(String queueName, String subscriberEmail) {
+        if (!shardingEnabled) {
+            return queueName;
+        }
+        return shardQueueName(queueName, shardRing.get(subscriberEmail));
+    }
+
+    /**
+     * Returns whether report queues are split into shard queues.
+     *
+     * @return {@code true} if sharding is enabled
+     */
+    public boolean isShardingEnabled() {
+        return shardingEnabled;
+    }
+
+    /**
+     * Returns the number of shard queues per report queue.
+     *
+     * @return the shard count
+     */
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    /**
+     * Returns the names of all shard queues of a report queue.
+     *
+     * @param queueName the report queue
+     * @return the shard queue names, ordered by shard
+     */
+    public List<String> shardQueueNames(String queueName) {
+        return IntStream.range(0, shardCount).mapToObj(shard -> shardQueueName(queueName, shard)).toList();
+    }
+
+    /**
+     * Returns the name of a shard queue of a report queue.
+     *
+     * @param queueName the report queue
+     * @param shard     the shard number
+     * @return the shard queue name
+     */
+    public String shardQueueName(String queueName, int shard) {
+        return queueName + ".shard-" + shard;
+    }
+}
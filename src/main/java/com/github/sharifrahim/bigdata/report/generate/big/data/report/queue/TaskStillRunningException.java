@@ -0,0 +1,31 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+/**
+ * TaskStillRunningException is thrown when a redelivered task message finds the report job of its task still
+ * running, on this worker or on another live one (see {@link TaskLeaseManager}), or when a speculative copy reaches
+ * the worker running the original.
+ * <p>
+ * The message is deferred to a retry queue without counting an attempt (see {@link ReportMessageRecoverer}), so that
+ * it is dropped once the running job has finished the task, or resumes it if the job's worker dies in the meantime.
+ * A speculative copy is requeued as is instead, for another worker to pick up (see {@link ReportBatchDispatcher}).
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public class TaskStillRunningException extends RuntimeException {
+
+    /**
+     * Creates the exception for a task.
+     *
+     * @param taskId the task identifier
+     */
+    public TaskStillRunningException(Long taskId) {
+        super("Report job of task " + taskId + " is still running");
+    }
+}
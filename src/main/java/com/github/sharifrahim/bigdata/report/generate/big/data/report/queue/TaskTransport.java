@@ -0,0 +1,49 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import java.util.List;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+
+/**
+ * TaskTransport delivers report task messages from the planning job to the report workers.
+ * <p>
+ * The implementation is selected with {@code spring.report.transport}:
+ * <ul>
+ *   <li>{@code rabbitmq} (default) – {@link RabbitTaskTransport}, publishing to the RabbitMQ report queues.</li>
+ *   <li>{@code database} – {@link DatabaseTaskTransport}, where the QUEUE task row itself is claimed by the
+ *       database queue workers.</li>
+ *   <li>{@code in-process} – {@link InProcessTaskTransport}, handing messages to a worker pool in the same JVM.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public interface TaskTransport {
+
+    /**
+     * Publishes a task message.
+     *
+     * @param queueName the queue the message is routed to
+     * @param message   the task message
+     * @param priority  the message priority, or {@code null} for the default priority
+     */
+    void publish(String queueName, CreateTaskQueueMessageDto message, Integer priority);
+
+    /**
+     * Publishes task messages routed to the same queue with the same priority. Transports that can carry several
+     * tasks per message override it; by default the messages are published one by one.
+     *
+     * @param queueName the queue the messages are routed to
+     * @param messages  the task messages
+     * @param priority  the priority of the messages, or {@code null} for the default priority
+     */
+    default void publishAll(String queueName, List<CreateTaskQueueMessageDto> messages, Integer priority) {
+        messages.forEach(message -> publish(queueName, message, priority));
+    }
+}
@@ -1,8 +1,16 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.repository;
 
+import java.time.LocalDate;
+import java.util.Optional;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.MainTaskEnum.MainTaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.MainTaskEnum.MainTaskType;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.MainTask;
 
 /**
@@ -13,14 +21,103 @@ import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Mai
  * provide the implementation at runtime.
  * </p>
  * <p>
+ * It also defines the atomic counter updates used to track the completion of a main task's tasks. Each update is
+ * a single conditional statement, so concurrent workers never need to read the main task or scan its tasks, and
+ * the main task is closed by the statement that records its last pending task.
+ * </p>
+ * <p>
  * For more information, please visit my GitHub repository:
  * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
  * </p>
- * 
+ *
  * @author Sharif
  * @version 1.0
  * @since 2025
  */
 @Repository
 public interface MainTaskRepository extends JpaRepository<MainTask, Long> {
+
+    /**
+     * Finds the most recent main task of the given type and status for a report date.
+     *
+     * @param type       the main task type
+     * @param reportDate the report date
+     * @param status     the main task status
+     * @return an {@link Optional} containing the most recent matching main task, if any
+     */
+    Optional<MainTask> findFirstByTypeAndReportDateAndStatusOrderByIdDesc(MainTaskType type, LocalDate reportDate,
+            MainTaskStatus status);
+
+    /**
+     * Adds newly planned tasks to the total and pending counters of a main task.
+     *
+     * @param id    the main task identifier
+     * @param count the number of planned tasks
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query(value = """
+           UPDATE main_tasks
+           SET total_tasks = total_tasks + :count,
+               pending_tasks = pending_tasks + :count,
+               updated_at = NOW()
+           WHERE id = :id
+           """, nativeQuery = true)
+    int addPendingTasks(@Param("id") Long id, @Param("count") int count);
+
+    /**
+     * Records finished tasks of a pending main task and closes the main task when planning has completed and
+     * no task is pending anymore. The main task becomes FAILED if any of its tasks failed, COMPLETED otherwise.
+     *
+     * @param id        the main task identifier
+     * @param completed the number of tasks that completed successfully
+     * @param failed    the number of tasks that failed
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query(value = """
+           UPDATE main_tasks
+           SET pending_tasks = pending_tasks - (:completed + :failed),
+               completed_tasks = completed_tasks + :completed,
+               failed_tasks = failed_tasks + :failed,
+               status = CASE
+                   WHEN planning_completed AND pending_tasks - (:completed + :failed) <= 0
+                   THEN CASE WHEN failed_tasks + :failed > 0 THEN 'FAILED' ELSE 'COMPLETED' END
+                   ELSE status END,
+               updated_at = NOW()
+           WHERE id = :id AND status = 'PENDING'
+           """, nativeQuery = true)
+    int recordTaskOutcomes(@Param("id") Long id, @Param("completed") int completed, @Param("failed") int failed);
+
+    /**
+     * Marks the planning of a pending main task as completed, closing it straight away if no task is pending.
+     *
+     * @param id the main task identifier
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query(value = """
+           UPDATE main_tasks
+           SET planning_completed = TRUE,
+               status = CASE
+                   WHEN pending_tasks <= 0
+                   THEN CASE WHEN failed_tasks > 0 THEN 'FAILED' ELSE 'COMPLETED' END
+                   ELSE status END,
+               updated_at = NOW()
+           WHERE id = :id AND status = 'PENDING'
+           """, nativeQuery = true)
+    int completePlanning(@Param("id") Long id);
+
+    /**
+     * Marks a pending main task as FAILED.
+     *
+     * @param id the main task identifier
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query(value = """
+           UPDATE main_tasks SET status = 'FAILED', updated_at = NOW()
+           WHERE id = :id AND status = 'PENDING'
+           """, nativeQuery = true)
+    int failPending(@Param("id") Long id);
 }
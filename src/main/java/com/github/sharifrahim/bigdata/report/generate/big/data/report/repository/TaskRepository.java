@@ -1,10 +1,13 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
 
@@ -40,4 +43,22 @@ public interface TaskRepository extends JpaRepository<Task, Long> {
      * @return an {@link Optional} containing the Task if found; otherwise, an empty {@link Optional}
      */
     Optional<Task> findByReferenceAndTypeAndSubscriberEmail(String reference, TaskType type, String subscriberEmail);
+
+    /**
+     * Retrieves the Tasks of the given task type in the given status.
+     *
+     * @param type   the type of the tasks as defined in the {@link TaskType} enum
+     * @param status the status of the tasks
+     * @return the matching Tasks
+     */
+    List<Task> findByTypeAndStatus(TaskType type, TaskStatus status);
+
+    /**
+     * Retrieves, in a single query, the Tasks of any of the given references and subscriber emails.
+     *
+     * @param references       the task references
+     * @param subscriberEmails the subscriber emails
+     * @return the Tasks whose reference and subscriber email are both among the given ones
+     */
+    List<Task> findByReferenceInAndSubscriberEmailIn(Collection<String> references, Collection<String> subscriberEmails);
 }
@@ -5,6 +5,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -60,6 +61,38 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             @Param("startOfDay") LocalDateTime startOfDay,
             @Param("startOfNextDay") LocalDateTime startOfNextDay);
 
+    /**
+     * Finds a page of transactions for a given merchant email and date range, using keyset pagination.
+     * <p>
+     * This query selects, in ascending identifier order, up to {@code limit} matching transactions whose identifier
+     * is greater than {@code afterId}. Resuming from the identifier of the last transaction read costs the same
+     * index range scan wherever the page starts, unlike an offset.
+     * </p>
+     *
+     * @param merchantEmail  the merchant email to filter transactions by
+     * @param startOfDay     the start of the day (inclusive)
+     * @param startOfNextDay the start of the next day (exclusive)
+     * @param afterId        the identifier of the last transaction already read, or 0 to start from the first
+     * @param limit          the maximum number of transactions returned
+     * @return a list of {@code ReportDailyTransactionDto.RawData} objects ordered by transaction identifier
+     */
+    @Query("""
+           SELECT new com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionDto$RawData(
+               t.id, t.payerName, t.payerEmail, t.merchantEmail, t.amount, t.currency, t.transactionDate)
+           FROM Transaction t
+           WHERE t.merchantEmail = :merchantEmail
+             AND t.transactionDate >= :startOfDay
+             AND t.transactionDate < :startOfNextDay
+             AND t.id > :afterId
+           ORDER BY t.id
+           """)
+    List<ReportDailyTransactionDto.RawData> findTransactionPageByMerchantEmailAndDate(
+            @Param("merchantEmail") String merchantEmail,
+            @Param("startOfDay") LocalDateTime startOfDay,
+            @Param("startOfNextDay") LocalDateTime startOfNextDay,
+            @Param("afterId") long afterId,
+            Limit limit);
+
     /**
      * Retrieves the daily summary of transactions for a given merchant and date.
      * <p>
@@ -92,4 +125,26 @@ public interface TransactionRepository extends JpaRepository<Transaction, Long>
             @Param("date") LocalDate date,
             @Param("startOfDay") LocalDateTime startOfDay,
             @Param("startOfNextDay") LocalDateTime startOfNextDay);
+
+    /**
+     * Counts the transactions of each merchant within a date range.
+     * <p>
+     * Used to estimate the number of rows of each merchant's daily transaction report with a single query.
+     * Each element of the result is an array of the merchant email and its transaction count.
+     * </p>
+     *
+     * @param startOfDay     the start of the day (inclusive)
+     * @param startOfNextDay the start of the next day (exclusive)
+     * @return a list of {@code [merchantEmail, count]} pairs
+     */
+    @Query("""
+           SELECT t.merchantEmail, COUNT(t)
+           FROM Transaction t
+           WHERE t.transactionDate >= :startOfDay
+             AND t.transactionDate < :startOfNextDay
+           GROUP BY t.merchantEmail
+           """)
+    List<Object[]> countTransactionsPerMerchant(
+            @Param("startOfDay") LocalDateTime startOfDay,
+            @Param("startOfNextDay") LocalDateTime startOfNextDay);
 }
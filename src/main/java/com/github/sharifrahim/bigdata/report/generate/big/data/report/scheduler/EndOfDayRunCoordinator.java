@@ -0,0 +1,95 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.scheduler;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.MainTaskEnum.MainTaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.MainTaskEnum.MainTaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.MainTask;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.MainTaskService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * EndOfDayRunCoordinator decides whether a new end-of-day run may start for a report date.
+ * <p>
+ * A run is represented by a REPORT_EOD {@link MainTask}, which stays PENDING until all of its tasks have finished
+ * (see the counters on {@link MainTask}). While a run is active for a report date, further requests to start a run
+ * for the same date are coalesced into the active run and skipped, so overlapping runs never pile up duplicate work.
+ * A run that has been active for longer than {@code spring.report.eod.max-run-duration} is considered stale and is
+ * marked FAILED, so that a lost run does not block the report date forever.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!worker")
+public class EndOfDayRunCoordinator {
+
+    private final MainTaskService mainTaskService;
+
+    // Maximum duration of a run before it is considered stale.
+    @Value("${spring.report.eod.max-run-duration:PT2H}")
+    private Duration maxRunDuration;
+
+    /**
+     * Starts a new end-of-day run for the report date unless one is already active.
+     *
+     * @param reportDate the report date
+     * @return the PENDING main task of the new run, or an empty {@link Optional} if a run is already active
+     */
+    public synchronized Optional<MainTask> tryStartRun(LocalDate reportDate) {
+        Optional<MainTask> active = mainTaskService.findActive(MainTaskType.REPORT_EOD, reportDate);
+        if (active.isPresent()) {
+            MainTask activeRun = active.get();
+            if (activeRun.getCreatedAt().plus(maxRunDuration).isAfter(LocalDateTime.now())) {
+                log.info("End-of-day run (MainTask ID: {}) is still active for {} with {} pending tasks; "
+                        + "coalescing this run into it.", activeRun.getId(), reportDate, activeRun.getPendingTasks());
+                return Optional.empty();
+            }
+            log.warn("End-of-day run (MainTask ID: {}) for {} exceeded {}; marking it as FAILED.",
+                    activeRun.getId(), reportDate, maxRunDuration);
+            mainTaskService.fail(activeRun.getId());
+        }
+
+        MainTask mainTask = new MainTask();
+        mainTask.setStatus(MainTaskStatus.PENDING);
+        mainTask.setType(MainTaskType.REPORT_EOD);
+        mainTask.setReportDate(reportDate);
+        mainTask.setScheduledAt(LocalDateTime.now());
+        mainTaskService.save(mainTask);
+        log.info("Started end-of-day run (MainTask ID: {}) for {}", mainTask.getId(), reportDate);
+        return Optional.of(mainTask);
+    }
+
+    /**
+     * Completes the planning of a run. The run closes as soon as its last pending task finishes, or straight away
+     * if it has no pending tasks. If planning failed, the run is marked FAILED.
+     *
+     * @param mainTask          the main task of the run
+     * @param planningSucceeded whether all planning jobs of the run completed successfully
+     */
+    public void finishPlanning(MainTask mainTask, boolean planningSucceeded) {
+        if (planningSucceeded) {
+            mainTaskService.completePlanning(mainTask.getId());
+        } else {
+            log.error("Planning of end-of-day run (MainTask ID: {}) failed; marking it as FAILED.", mainTask.getId());
+            mainTaskService.fail(mainTask.getId());
+        }
+    }
+}
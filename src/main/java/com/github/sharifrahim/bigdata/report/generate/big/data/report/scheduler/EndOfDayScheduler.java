@@ -1,19 +1,21 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.scheduler;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Optional;
 
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.Job;
+import org.springframework.batch.core.JobExecution;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.JobParametersBuilder;
 import org.springframework.batch.core.launch.JobLauncher;
+import org.springframework.context.annotation.Profile;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
-import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.MainTaskEnum.MainTaskStatus;
-import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.MainTaskEnum.MainTaskType;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.SubscriberEnum.ReportType;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.MainTask;
-import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.MainTaskService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,13 +25,17 @@ import lombok.extern.slf4j.Slf4j;
  * <p>
  * This component runs at a fixed rate (every minute) and performs the following steps:
  * <ul>
- *   <li>Creates a new MainTask with status PENDING and type REPORT_EOD, and saves it using {@link MainTaskService}.</li>
+ *   <li>Skips the execution unless this instance is the leader (see {@link LeaderElection}), so that exactly one
+ *       instance plans each run when several instances are deployed.</li>
+ *   <li>Asks the {@link EndOfDayRunCoordinator} to start a new run for today, which creates a new MainTask with
+ *       status PENDING and type REPORT_EOD. If a run is still active for today, this execution is skipped.</li>
  *   <li>Launches two job executions of the createReportJob:
  *       <ul>
  *           <li>The first execution uses the report type REPORT_DAILY_TRANSACTION.</li>
  *           <li>The second execution uses the report type REPORT_DAILY_TRANSACTION_SUMMARY.</li>
  *       </ul>
  *   </li>
+ *   <li>Completes the planning of the run, so that the MainTask is closed once its last task finishes.</li>
  * </ul>
  * </p>
  * <p>
@@ -44,51 +50,64 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @RequiredArgsConstructor
 @Component
+@Profile("!worker")
 public class EndOfDayScheduler {
 
     private final JobLauncher jobLauncher;
     private final Job createReportJob;
-    private final MainTaskService mainTaskService;
+    private final EndOfDayRunCoordinator endOfDayRunCoordinator;
+    private final LeaderElection leaderElection;
 
     /**
      * Schedules the historical fetch and report generation every minute.
      * <p>
-     * This method creates a new MainTask record with status PENDING and type REPORT_EOD,
-     * then launches two executions of the createReportJob with different report types to generate
-     * the end-of-day reports.
+     * This method starts a new run (a MainTask record with status PENDING and type REPORT_EOD) unless one is
+     * still active for today, then launches two executions of the createReportJob with different report types
+     * to generate the end-of-day reports.
      * </p>
      */
     @Scheduled(fixedRate = 60000) // 60000 milliseconds = 1 minute
     public void scheduleHistoricalFetch() {
+        if (!leaderElection.isLeader()) {
+            log.debug("This instance is not the leader; skipping end-of-day report generation.");
+            return;
+        }
         try {
             log.info("Starting scheduled end-of-day report generation at {}", LocalDateTime.now());
 
-            // Create a new main task for end-of-day reporting.
-            MainTask mainTask = new MainTask();
-            mainTask.setStatus(MainTaskStatus.PENDING);
-            mainTask.setType(MainTaskType.REPORT_EOD);
-            mainTask.setScheduledAt(LocalDateTime.now());
-            mainTaskService.save(mainTask);
-            log.info("Created MainTask with ID {} and status PENDING", mainTask.getId());
+            // Start a new run for today, unless one is still active.
+            Optional<MainTask> run = endOfDayRunCoordinator.tryStartRun(LocalDate.now());
+            if (run.isEmpty()) {
+                return;
+            }
+            MainTask mainTask = run.get();
 
-            // Launch first job execution with report type REPORT_DAILY_TRANSACTION.
-            JobParameters parameters1 = new JobParametersBuilder()
-                    .addLong("time", System.currentTimeMillis())
-                    .addLong("mainTaskId", mainTask.getId())
-                    .addString("reportType", ReportType.REPORT_DAILY_TRANSACTION.name())
-                    .toJobParameters();
-            jobLauncher.run(createReportJob, parameters1);
-            log.info("Launched createReportJob for REPORT_DAILY_TRANSACTION with MainTask ID {}", mainTask.getId());
+            boolean planningSucceeded = false;
+            try {
+                // Launch first job execution with report type REPORT_DAILY_TRANSACTION.
+                JobParameters parameters1 = new JobParametersBuilder()
+                        .addLong("time", System.currentTimeMillis())
+                        .addLong("mainTaskId", mainTask.getId())
+                        .addString("reportType", ReportType.REPORT_DAILY_TRANSACTION.name())
+                        .toJobParameters();
+                JobExecution execution1 = jobLauncher.run(createReportJob, parameters1);
+                log.info("Launched createReportJob for REPORT_DAILY_TRANSACTION with MainTask ID {}", mainTask.getId());
 
-            // Launch second job execution with report type REPORT_DAILY_TRANSACTION_SUMMARY.
-            JobParameters parameters2 = new JobParametersBuilder()
-                    .addLong("time", System.currentTimeMillis() + 1) // Slight difference for uniqueness.
-                    .addLong("mainTaskId", mainTask.getId())
-                    .addString("reportType", ReportType.REPORT_DAILY_TRANSACTION_SUMMARY.name())
-                    .toJobParameters();
-            jobLauncher.run(createReportJob, parameters2);
-            log.info("Launched createReportJob for REPORT_DAILY_TRANSACTION_SUMMARY with MainTask ID {}", mainTask.getId());
+                // Launch second job execution with report type REPORT_DAILY_TRANSACTION_SUMMARY.
+                JobParameters parameters2 = new JobParametersBuilder()
+                        .addLong("time", System.currentTimeMillis() + 1) // Slight difference for uniqueness.
+                        .addLong("mainTaskId", mainTask.getId())
+                        .addString("reportType", ReportType.REPORT_DAILY_TRANSACTION_SUMMARY.name())
+                        .toJobParameters();
+                JobExecution execution2 = jobLauncher.run(createReportJob, parameters2);
+                log.info("Launched createReportJob for REPORT_DAILY_TRANSACTION_SUMMARY with MainTask ID {}", mainTask.getId());
 
+                planningSucceeded = BatchStatus.COMPLETED.equals(execution1.getStatus())
+                        && BatchStatus.COMPLETED.equals(execution2.getStatus());
+            } finally {
+                // Close the run once its last task finishes (or fail it if planning failed).
+                endOfDayRunCoordinator.finishPlanning(mainTask, planningSucceeded);
+            }
         } catch (Exception e) {
             log.error("Error during scheduled report generation: {}", e.getMessage(), e);
         }
@@ -0,0 +1,105 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.scheduler;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.HousekeepingService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HousekeepingScheduler keeps the {@code tasks}, {@code main_tasks} and Spring Batch metadata tables small,
+ * enabled with {@code spring.report.housekeeping.enabled=true}.
+ * <p>
+ * On every run (by default nightly, see {@code spring.report.housekeeping.cron}) on the leader instance
+ * (see {@link LeaderElection}) it:
+ * <ul>
+ *   <li>Creates the upcoming daily partitions of the {@code tasks} table and drops expired ones, when
+ *       partitioning is enabled.</li>
+ *   <li>Archives and purges finished tasks older than {@code retention-days}.</li>
+ *   <li>Archives and purges main tasks older than {@code retention-days} that no longer have any tasks.</li>
+ *   <li>Purges Spring Batch job executions that ended more than {@code batch-retention-days} ago.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "spring.report.housekeeping.enabled", havingValue = "true")
+@Profile("!worker")
+public class HousekeepingScheduler {
+
+    private final HousekeepingService housekeepingService;
+    private final LeaderElection leaderElection;
+
+    // Number of days finished tasks and main tasks are kept in the live tables.
+    @Value("${spring.report.housekeeping.retention-days:7}")
+    private int retentionDays;
+
+    // Number of days Spring Batch job executions are kept.
+    @Value("${spring.report.housekeeping.batch-retention-days:7}")
+    private int batchRetentionDays;
+
+    // Whether the tasks table is managed as daily partitions.
+    @Value("${spring.report.housekeeping.partitioning.enabled:false}")
+    private boolean partitioningEnabled;
+
+    // Number of days ahead for which tasks partitions are created.
+    @Value("${spring.report.housekeeping.partitioning.precreate-days:3}")
+    private int precreateDays;
+
+    /**
+     * Runs the housekeeping of the task and batch metadata tables.
+     */
+    @Scheduled(cron = "${spring.report.housekeeping.cron:0 30 2 * * *}")
+    public void runHousekeeping() {
+        if (!leaderElection.isLeader()) {
+            log.debug("This instance is not the leader; skipping housekeeping.");
+            return;
+        }
+        log.info("Starting housekeeping at {}", LocalDateTime.now());
+        LocalDate today = LocalDate.now();
+        LocalDateTime cutoff = today.minusDays(retentionDays).atStartOfDay();
+
+        // Each step runs on its own, so that a failing step does not skip the others.
+        if (partitioningEnabled) {
+            runStep("partition creation", () -> housekeepingService.createTaskPartitions(today, precreateDays));
+            runStep("partition drop", () -> housekeepingService.dropExpiredTaskPartitions(cutoff.toLocalDate()));
+        }
+        runStep("task purge", () -> housekeepingService.purgeFinishedTasks(cutoff));
+        runStep("main task purge", () -> housekeepingService.purgeMainTasks(cutoff));
+        runStep("batch metadata purge",
+                () -> housekeepingService.purgeBatchMetadata(today.minusDays(batchRetentionDays).atStartOfDay()));
+
+        log.info("Housekeeping completed at {}", LocalDateTime.now());
+    }
+
+    /**
+     * Runs one housekeeping step, logging its failure instead of propagating it.
+     *
+     * @param name the name of the step, for the log
+     * @param step the step
+     */
+    private void runStep(String name, Runnable step) {
+        try {
+            step.run();
+        } catch (Exception e) {
+            log.error("Error during housekeeping {}: {}", name, e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.scheduler;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * LeaderElection elects a single leader among all running instances of the application using a PostgreSQL
+ * session-level advisory lock.
+ * <p>
+ * Every instance periodically tries to take the advisory lock {@code spring.report.leader.lock-key} on a dedicated
+ * connection. The instance holding the lock is the leader and is the only one that plans end-of-day runs and runs
+ * the housekeeping. The leader checks its connection on every heartbeat and steps down as soon as the connection is
+ * lost. Because PostgreSQL releases a session-level advisory lock when its session ends, the lock becomes available
+ * as soon as a leader dies, and another instance takes over within one heartbeat interval.
+ * </p>
+ * <p>
+ * With {@code spring.report.leader.enabled=false}, every instance considers itself the leader, which is the
+ * behaviour of a single-instance deployment.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@Profile("!worker")
+public class LeaderElection implements SmartLifecycle {
+
+    private final DataSource dataSource;
+
+    // Whether leader election is enabled; when disabled every instance is the leader.
+    @Value("${spring.report.leader.enabled:true}")
+    private boolean enabled;
+
+    // Key of the PostgreSQL advisory lock shared by all instances.
+    @Value("${spring.report.leader.lock-key:7262027}")
+    private long lockKey;
+
+    // Dedicated connection holding the advisory lock while this instance is the leader.
+    private Connection lockConnection;
+
+    private volatile boolean leader;
+    private volatile boolean running;
+
+    /**
+     * Returns whether this instance is currently the leader.
+     *
+     * @return {@code true} if this instance is the leader
+     */
+    public boolean isLeader() {
+        return !enabled || leader;
+    }
+
+    /**
+     * Verifies the leadership of this instance, or tries to become the leader if no instance holds the lock.
+     * Runs every {@code spring.report.leader.heartbeat-interval} milliseconds.
+     */
+    @Scheduled(fixedDelayString = "${spring.report.leader.heartbeat-interval:5000}")
+    public synchronized void heartbeat() {
+        if (!enabled || !running) {
+            return;
+        }
+        if (leader) {
+            if (!isConnectionAlive()) {
+                log.warn("Lost the connection holding the leader lock; stepping down.");
+                release();
+            }
+            return;
+        }
+        tryAcquire();
+    }
+
+    /**
+     * Starts taking part in the leader election.
+     */
+    @Override
+    public synchronized void start() {
+        running = true;
+        if (enabled) {
+            tryAcquire();
+        }
+    }
+
+    /**
+     * Stops taking part in the leader election and releases the leader lock, if held.
+     */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        if (leader) {
+            log.info("Releasing the leader lock on shutdown.");
+        }
+        release();
+    }
+
+    /**
+     * Returns whether this instance takes part in the leader election.
+     *
+     * @return {@code true} if started
+     */
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Tries to take the advisory lock on a dedicated connection without blocking.
+     */
+    private void tryAcquire() {
+        try {
+            if (lockConnection == null || lockConnection.isClosed()) {
+                lockConnection = dataSource.getConnection();
+                lockConnection.setAutoCommit(true);
+            }
+            try (PreparedStatement statement = lockConnection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+                statement.setLong(1, lockKey);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    leader = resultSet.next() && resultSet.getBoolean(1);
+                }
+            }
+            if (leader) {
+                log.info("Acquired the leader lock {}; this instance is now the leader.", lockKey);
+            } else {
+                // Do not keep a pooled connection while another instance is the leader.
+                closeConnection();
+            }
+        } catch (SQLException e) {
+            log.warn("Failed to acquire the leader lock: {}", e.getMessage());
+            release();
+        }
+    }
+
+    /**
+     * Checks that the connection holding the advisory lock is still usable.
+     *
+     * @return {@code true} if the connection is alive
+     */
+    private boolean isConnectionAlive() {
+        try (PreparedStatement statement = lockConnection.prepareStatement("SELECT 1")) {
+            statement.execute();
+            return true;
+        } catch (SQLException e) {
+            log.debug("Leader lock connection check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Gives up the leadership. The advisory lock is unlocked explicitly, since closing a pooled connection only
+     * returns it to the pool and keeps its database session (and the lock) alive.
+     */
+    private void release() {
+        leader = false;
+        if (lockConnection == null) {
+            return;
+        }
+        try (PreparedStatement statement = lockConnection.prepareStatement("SELECT pg_advisory_unlock_all()")) {
+            statement.execute();
+        } catch (SQLException e) {
+            log.debug("Failed to unlock the leader lock; the session is presumably gone: {}", e.getMessage());
+        }
+        closeConnection();
+    }
+
+    /**
+     * Closes the dedicated connection, ignoring failures.
+     */
+    private void closeConnection() {
+        if (lockConnection == null) {
+            return;
+        }
+        try {
+            lockConnection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close the leader lock connection: {}", e.getMessage());
+        } finally {
+            lockConnection = null;
+        }
+    }
+}
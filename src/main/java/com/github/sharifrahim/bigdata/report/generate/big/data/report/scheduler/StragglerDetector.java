@@ -0,0 +1,178 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.scheduler;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.job.ReportDefinitionRegistry;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.TaskQueueRouter;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.TaskTransport;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskProgressService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * StragglerDetector launches speculative copies of straggling daily transaction report tasks, enabled with
+ * {@code spring.report.speculation.enabled=true}.
+ * <p>
+ * Every {@code spring.report.speculation.check-interval} milliseconds on the leader instance (see
+ * {@link LeaderElection}), it computes the rate (rows written per second) of every PROCESSING daily transaction
+ * report task from the progress recorded by the workers. The expected rate is the median rate of the tasks that
+ * have run for at least {@code min-runtime}, provided there are {@code min-peers} of them. A task running slower
+ * than {@code slowness-ratio} times the expected rate is a straggler, typically because its worker suffers from GC
+ * pressure, a slow disk or a noisy neighbour.
+ * </p>
+ * <p>
+ * A speculative copy of each straggler is published on the queue its task was routed to: the bulk lane queue for a
+ * task of the bulk lane, or the queue of its report definition (or the subscriber's shard queue, see
+ * {@link TaskQueueRouter}) otherwise. Another worker picks it up; a worker already running the original requeues
+ * it. At most one copy is launched per task, and at most
+ * {@code max-speculative} tasks run with a copy at a time. Whichever copy finishes first decides the outcome of the
+ * task; the other copy is stopped and discards its report file. Only applies to the listener mode of the RabbitMQ
+ * transport.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "spring.report.speculation.enabled", havingValue = "true")
+@Profile("!worker")
+public class StragglerDetector {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final TaskProgressService taskProgressService;
+    private final TaskTransport taskTransport;
+    private final LeaderElection leaderElection;
+    private final ReportDefinitionRegistry reportDefinitionRegistry;
+    private final TaskQueueRouter taskQueueRouter;
+
+    @Value("${spring.queue.daily-transaction-report-bulk:DAILY_TRANSACTION_REPORT_BULK.FIFO}")
+    private String dailyReportBulkQueueName;
+
+    // Time a task must have run before its rate is compared with the expected rate.
+    @Value("${spring.report.speculation.min-runtime:PT2M}")
+    private Duration minRuntime;
+
+    // Fraction of the expected rate below which a task is a straggler.
+    @Value("${spring.report.speculation.slowness-ratio:0.5}")
+    private double slownessRatio;
+
+    // Minimum number of tasks the expected rate is computed from.
+    @Value("${spring.report.speculation.min-peers:3}")
+    private int minPeers;
+
+    // Maximum number of tasks running with a speculative copy at a time.
+    @Value("${spring.report.speculation.max-speculative:10}")
+    private int maxSpeculative;
+
+    /**
+     * Detects straggling tasks and launches their speculative copies.
+     */
+    @Scheduled(fixedDelayString = "${spring.report.speculation.check-interval:30000}")
+    public void detectStragglers() {
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        try {
+            List<Task> processing = taskProgressService.findProcessing(TaskType.REPORT_DAILY_TRANSACTION);
+            LocalDateTime now = LocalDateTime.now();
+
+            List<Task> measured = new ArrayList<>();
+            int speculating = 0;
+            for (Task task : processing) {
+                if (task.isSpeculated()) {
+                    speculating++;
+                } else if (task.getExecutedAt() != null
+                        && !Duration.between(task.getExecutedAt(), now).minus(minRuntime).isNegative()) {
+                    measured.add(task);
+                }
+            }
+            if (measured.size() < minPeers) {
+                return;
+            }
+            double expectedRate = medianRate(measured, now);
+
+            for (Task task : measured) {
+                if (speculating >= maxSpeculative) {
+                    log.info("{} tasks already run with a speculative copy; not launching more", speculating);
+                    return;
+                }
+                double rate = rate(task, now);
+                if (rate < slownessRatio * expectedRate && taskProgressService.markSpeculated(task.getId())) {
+                    launchCopy(task);
+                    speculating++;
+                    log.warn("Task ID: {} is straggling at {} rows/s against {} rows/s expected; launched a "
+                            + "speculative copy", task.getId(), String.format("%.1f", rate),
+                            String.format("%.1f", expectedRate));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Error detecting straggling tasks: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Publishes a speculative copy of a task on the queue of its lane.
+     *
+     * @param task the straggling task
+     */
+    private void launchCopy(Task task) {
+        CreateTaskQueueMessageDto msg = new CreateTaskQueueMessageDto();
+        msg.setMessageId(task.getReference());
+        msg.setSubscriberEmail(task.getSubscriberEmail());
+        msg.setTaskType(task.getType().name());
+        msg.setTimestamp(LocalDateTime.now().format(TIMESTAMP));
+        msg.setSpeculative(true);
+        String queueName = task.isBulk()
+                ? dailyReportBulkQueueName
+                : taskQueueRouter.route(reportDefinitionRegistry.get(task.getType()).getQueueName(),
+                        task.getSubscriberEmail());
+        taskTransport.publish(queueName, msg, task.getPriority());
+    }
+
+    /**
+     * Computes the median rate of the given tasks.
+     *
+     * @param tasks the tasks, not empty
+     * @param now   the current time
+     * @return the median rate, in rows per second
+     */
+    private double medianRate(List<Task> tasks, LocalDateTime now) {
+        double[] rates = tasks.stream().mapToDouble(task -> rate(task, now)).sorted().toArray();
+        int middle = rates.length / 2;
+        return rates.length % 2 == 1 ? rates[middle] : (rates[middle - 1] + rates[middle]) / 2;
+    }
+
+    /**
+     * Computes the rate of a task since it started.
+     *
+     * @param task the task
+     * @param now  the current time
+     * @return the rate, in rows per second
+     */
+    private double rate(Task task, LocalDateTime now) {
+        double seconds = Math.max(1, Duration.between(task.getExecutedAt(), now).toSeconds());
+        return task.getRowsWritten() / seconds;
+    }
+}
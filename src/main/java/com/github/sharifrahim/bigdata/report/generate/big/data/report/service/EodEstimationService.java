@@ -0,0 +1,27 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service;
+
+import java.time.LocalTime;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.EodEstimateDto;
+
+/**
+ * EodEstimationService projects the completion of the active end-of-day run.
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public interface EodEstimationService {
+
+    /**
+     * Estimates the remaining work and the completion time of today's active end-of-day run.
+     *
+     * @param target the time of day by which the run should complete, or {@code null} for the configured target
+     * @return the estimate
+     */
+    EodEstimateDto estimate(LocalTime target);
+}
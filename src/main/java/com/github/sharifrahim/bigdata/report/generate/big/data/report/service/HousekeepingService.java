@@ -0,0 +1,67 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * HousekeepingService defines operations for keeping the {@code tasks}, {@code main_tasks} and Spring Batch
+ * metadata tables small.
+ * <p>
+ * All purge operations work in bounded batches, with a pause between batches, so that housekeeping never holds
+ * long locks or competes with report generation for the database.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public interface HousekeepingService {
+
+    /**
+     * Archives (if enabled) and deletes COMPLETED and FAILED tasks last updated before the cutoff.
+     *
+     * @param cutoff tasks last updated before this time are purged
+     * @return the number of tasks purged
+     */
+    long purgeFinishedTasks(LocalDateTime cutoff);
+
+    /**
+     * Archives (if enabled) and deletes main tasks created before the cutoff that no longer have any tasks.
+     *
+     * @param cutoff main tasks created before this time are purged
+     * @return the number of main tasks purged
+     */
+    long purgeMainTasks(LocalDateTime cutoff);
+
+    /**
+     * Deletes finished Spring Batch job executions that ended before the cutoff, together with their step
+     * executions, execution contexts, parameters and orphaned job instances.
+     *
+     * @param cutoff job executions that ended before this time are purged
+     * @return the number of job executions purged
+     */
+    long purgeBatchMetadata(LocalDateTime cutoff);
+
+    /**
+     * Creates the daily partitions of the {@code tasks} table from tomorrow up to the given number of days ahead.
+     * Today's rows are already in the default partition, so today's partition cannot be created. Does nothing if the
+     * {@code tasks} table is not partitioned.
+     *
+     * @param today         the current date
+     * @param precreateDays the number of days ahead for which partitions are created
+     */
+    void createTaskPartitions(LocalDate today, int precreateDays);
+
+    /**
+     * Archives (if enabled), detaches and drops the daily partitions of the {@code tasks} table that only hold
+     * data from before the cutoff date. Does nothing if the {@code tasks} table is not partitioned.
+     *
+     * @param cutoff partitions ending on or before this date are dropped
+     * @return the number of partitions dropped
+     */
+    int dropExpiredTaskPartitions(LocalDate cutoff);
+}
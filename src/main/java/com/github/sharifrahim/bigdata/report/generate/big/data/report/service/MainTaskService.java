@@ -1,11 +1,17 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.service;
 
+import java.time.LocalDate;
+import java.util.Optional;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.MainTaskEnum.MainTaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.MainTask;
 
 /**
  * MainTaskService defines operations for managing {@link MainTask} entities.
  * <p>
- * This service interface provides methods for saving and retrieving MainTask records.
+ * This service interface provides methods for saving and retrieving MainTask records, and for tracking the
+ * completion of a main task through its pending, completed and failed task counters.
  * </p>
  * <p>
  * For more details, please visit my GitHub repository:
@@ -32,4 +38,43 @@ public interface MainTaskService {
      * @return the MainTask entity if found, otherwise {@code null}
      */
     MainTask findById(Long mainTaskId);
+
+    /**
+     * Retrieves the active (PENDING) main task of the given type for a report date.
+     *
+     * @param type       the main task type
+     * @param reportDate the report date
+     * @return an {@link Optional} containing the active main task, if any
+     */
+    Optional<MainTask> findActive(MainTaskType type, LocalDate reportDate);
+
+    /**
+     * Adds newly planned tasks to the pending counter of a main task.
+     *
+     * @param mainTaskId the unique identifier of the MainTask
+     * @param count      the number of planned tasks
+     */
+    void addPendingTasks(Long mainTaskId, int count);
+
+    /**
+     * Records the outcome of a finished task, closing the main task when it was the last pending task.
+     *
+     * @param mainTaskId the unique identifier of the MainTask
+     * @param outcome    the final task status, COMPLETED or FAILED
+     */
+    void recordTaskOutcome(Long mainTaskId, TaskStatus outcome);
+
+    /**
+     * Marks the planning of a main task as completed, closing it straight away if no task is pending.
+     *
+     * @param mainTaskId the unique identifier of the MainTask
+     */
+    void completePlanning(Long mainTaskId);
+
+    /**
+     * Marks a pending main task as FAILED.
+     *
+     * @param mainTaskId the unique identifier of the MainTask
+     */
+    void fail(Long mainTaskId);
 }
@@ -0,0 +1,30 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+
+/**
+ * ReportGenerationService defines the operation for generating the report file of a single {@link Task}.
+ * <p>
+ * It is used by the long-running report worker job, which processes many tasks within one step execution
+ * instead of launching a dedicated job per task.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public interface ReportGenerationService {
+
+    /**
+     * Generates the report for the given task based on its task type.
+     *
+     * @param task the task describing the report type and the subscriber (merchant) email
+     * @return the number of rows written to the report file
+     * @throws Exception if an error occurs while reading the data or writing the report file
+     */
+    long generate(Task task) throws Exception;
+}
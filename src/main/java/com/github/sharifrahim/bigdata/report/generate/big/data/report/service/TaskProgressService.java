@@ -0,0 +1,77 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service;
+
+import java.util.List;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+
+/**
+ * TaskProgressService tracks the progress of PROCESSING tasks and arbitrates between the copies of a task when a
+ * speculative copy has been launched for a straggler.
+ * <p>
+ * Each copy reports the number of rows it has written. The first copy to finish decides the outcome of the task;
+ * the other copy notices on its next progress report that the task is no longer PROCESSING and stops.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public interface TaskProgressService {
+
+    /**
+     * Claims a QUEUE task for generation: sets it to PROCESSING and resets its progress, in a single conditional
+     * statement. Only one of several deliveries of the task's message can claim it.
+     *
+     * @param taskId the task identifier
+     * @return {@code true} if the task was claimed; {@code false} if it is no longer in the queue
+     */
+    boolean claim(Long taskId);
+
+    /**
+     * Records the number of rows written by a copy of a PROCESSING task. The task keeps the progress of its most
+     * advanced copy.
+     *
+     * @param taskId      the task identifier
+     * @param rowsWritten the number of rows written by the copy
+     * @return {@code true} if the task is still PROCESSING; {@code false} if another copy has finished it
+     */
+    boolean recordProgress(Long taskId, long rowsWritten);
+
+    /**
+     * Finishes a copy of a PROCESSING task.
+     * <p>
+     * A successful copy completes the task if no other copy has finished it yet. A failed copy only fails the task
+     * when it was the last copy running, so a speculative copy can still complete a task whose original failed.
+     * </p>
+     *
+     * @param taskId  the task identifier
+     * @param outcome the outcome of the copy, COMPLETED or FAILED
+     * @param rows    the number of report rows written by the copy
+     * @return {@code true} if this copy decided the outcome of the task; {@code false} if its output is to be
+     *         discarded
+     */
+    boolean finish(Long taskId, TaskStatus outcome, long rows);
+
+    /**
+     * Retrieves the PROCESSING tasks of a task type.
+     *
+     * @param type the task type
+     * @return the PROCESSING tasks
+     */
+    List<Task> findProcessing(TaskType type);
+
+    /**
+     * Marks a PROCESSING task as speculated and counts its speculative copy, unless a speculative copy has already
+     * been launched.
+     *
+     * @param taskId the task identifier
+     * @return {@code true} if a speculative copy may be launched
+     */
+    boolean markSpeculated(Long taskId);
+}
@@ -0,0 +1,64 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service;
+
+import java.time.Duration;
+import java.util.List;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+
+/**
+ * TaskQueueService defines the operations of the database queue transport, in which the {@code tasks} table itself
+ * is the work queue.
+ * <p>
+ * Workers claim QUEUE tasks under a lease, renew the leases of the tasks they are working on, and complete them.
+ * Tasks whose lease expired, because their worker died, are put back in the queue.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public interface TaskQueueService {
+
+    /**
+     * Claims up to {@code batchSize} QUEUE tasks, highest priority first, and marks them PROCESSING under a lease
+     * held by the given worker. Tasks locked by another worker's claim are skipped.
+     *
+     * @param owner     the worker identifier
+     * @param batchSize the maximum number of tasks to claim
+     * @param lease     the lease duration
+     * @return the claimed tasks
+     */
+    List<Task> claim(String owner, int batchSize, Duration lease);
+
+    /**
+     * Extends the leases of all PROCESSING tasks held by the given worker.
+     *
+     * @param owner the worker identifier
+     * @param lease the lease duration from now
+     * @return the number of renewed leases
+     */
+    int renewLeases(String owner, Duration lease);
+
+    /**
+     * Completes a task with the given outcome, provided the worker still holds its lease.
+     *
+     * @param taskId the task identifier
+     * @param owner  the worker identifier
+     * @param status the outcome, COMPLETED or FAILED
+     * @param rows   the number of report rows written
+     * @return {@code true} if the task was completed; {@code false} if the lease was lost to another worker
+     */
+    boolean complete(Long taskId, String owner, TaskStatus status, long rows);
+
+    /**
+     * Puts PROCESSING tasks whose lease has expired back in the queue.
+     *
+     * @return the number of reclaimed tasks
+     */
+    int reclaimExpiredLeases();
+}
@@ -1,5 +1,7 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.service;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
@@ -12,6 +14,7 @@ import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Tas
  * <ul>
  *   <li>Retrieve a Task by its unique identifier.</li>
  *   <li>Persist a Task entity.</li>
+ *   <li>Persist a batch of Task entities.</li>
  *   <li>Retrieve a Task based on its reference, task type, and subscriber email.</li>
  * </ul>
  * </p>
@@ -54,4 +57,14 @@ public interface TaskService {
      * @return the Task that matches the provided criteria
      */
     Task getByReferenceAndTaskTypeAndSubscriberEmail(String ref, TaskType taskType, String email);
+
+    /**
+     * Retrieves, in a single query, the Tasks of any of the given references and subscriber emails. Used to resolve
+     * the tasks of a batch of task messages at once.
+     *
+     * @param refs   the task references
+     * @param emails the subscriber emails
+     * @return the Tasks whose reference and subscriber email are both among the given ones
+     */
+    List<Task> getByReferencesAndSubscriberEmails(Collection<String> refs, Collection<String> emails);
 }
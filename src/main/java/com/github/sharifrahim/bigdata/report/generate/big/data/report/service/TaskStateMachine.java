@@ -0,0 +1,46 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+
+/**
+ * TaskStateMachine moves tasks between statuses with single conditional statements.
+ * <p>
+ * A transition is only applied if the task is still in the status (or at the version) the caller last saw, so two
+ * deliveries of the same task racing each other cannot both move it: the second one sees no updated row. No read of
+ * the task is needed before the transition, and the transitions allowed are those of
+ * {@link TaskStatus#canTransitionTo(TaskStatus)}. Every statement on the {@code tasks} table increments its
+ * {@code version} column, so a stale entity saved through JPA afterwards fails instead of overwriting the row.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public interface TaskStateMachine {
+
+    /**
+     * Moves a task from the status the caller expects it in to another status.
+     *
+     * @param taskId the task identifier
+     * @param from   the status the task is expected in
+     * @param to     the new status
+     * @return {@code true} if the task moved; {@code false} if it was no longer in {@code from}
+     * @throws IllegalStateException if the transition is not allowed
+     */
+    boolean transition(Long taskId, TaskStatus from, TaskStatus to);
+
+    /**
+     * Finishes a task loaded at a given version, provided no one has changed it since.
+     *
+     * @param taskId  the task identifier
+     * @param version the version at which the task was loaded
+     * @param outcome the outcome of the task, COMPLETED or FAILED
+     * @param rows    the number of report rows written
+     * @return {@code true} if the task was finished; {@code false} if it was changed since it was loaded
+     */
+    boolean finish(Long taskId, Long version, TaskStatus outcome, long rows);
+}
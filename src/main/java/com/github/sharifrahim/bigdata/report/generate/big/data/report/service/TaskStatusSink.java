@@ -0,0 +1,61 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+
+/**
+ * TaskStatusSink records the status transitions of tasks and the task outcomes of main tasks without a round trip
+ * per transition.
+ * <p>
+ * Transitions are coalesced in memory per task, so a task that starts and finishes between two flushes is written
+ * once with its last status, and outcomes are summed per main task. They are flushed together on a short interval
+ * as batched statements. Transitions only move a task forward ({@code QUEUE} → {@code PROCESSING} →
+ * {@code COMPLETED}/{@code FAILED}), so a late flush never overwrites a status written by another path.
+ * </p>
+ * <p>
+ * How long a caller waits for its transition to be written is set by the durability mode (see
+ * {@code spring.report.status-sink.durability}).
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+public interface TaskStatusSink {
+
+    /**
+     * Records that a QUEUE task started processing. Never waits for the transition to be written, except in
+     * {@code sync} mode.
+     *
+     * @param taskId the task identifier
+     */
+    void processing(Long taskId);
+
+    /**
+     * Records the outcome of a QUEUE or PROCESSING task, and counts it on the task's main task once the task has
+     * actually been finished by this transition.
+     *
+     * @param taskId     the task identifier
+     * @param mainTaskId the identifier of the task's main task
+     * @param outcome    the outcome of the task, COMPLETED or FAILED
+     * @param rows       the number of report rows written, or {@code null} to keep the recorded progress
+     */
+    void finish(Long taskId, Long mainTaskId, TaskStatus outcome, Long rows);
+
+    /**
+     * Counts the outcome of a task already finished by another path (see {@code TaskProgressService#finish}) on
+     * its main task.
+     *
+     * @param mainTaskId the identifier of the task's main task
+     * @param outcome    the outcome of the task, COMPLETED or FAILED
+     */
+    void recordOutcome(Long mainTaskId, TaskStatus outcome);
+
+    /**
+     * Writes all the pending transitions and outcomes.
+     */
+    void flush();
+}
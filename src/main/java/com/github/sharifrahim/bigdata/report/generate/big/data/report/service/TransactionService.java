@@ -1,6 +1,8 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.service;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionDto;
@@ -13,6 +15,7 @@ import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.Report
  * <ul>
  *   <li>Retrieve a stream of raw transaction data for a specific merchant email.</li>
  *   <li>Retrieve a list of aggregated transaction summary data for a specific merchant email.</li>
+ *   <li>Count today's transactions of every merchant.</li>
  * </ul>
  * </p>
  * <p>
@@ -38,6 +41,19 @@ public interface TransactionService {
      */
     Stream<ReportDailyTransactionDto.RawData> getTransactionsByMerchantEmail(String merchantEmail);
 
+    /**
+     * Retrieves the next page of raw transaction data of a day for the specified merchant email, in ascending
+     * transaction identifier order, starting after the given transaction.
+     *
+     * @param merchantEmail the merchant's email used to filter the transactions
+     * @param reportDate    the day of the transactions
+     * @param afterId       the identifier of the last transaction already read, or 0 to start from the first
+     * @param pageSize      the maximum number of transactions returned
+     * @return a page of raw transaction data; empty when all transactions have been read
+     */
+    List<ReportDailyTransactionDto.RawData> getTransactionPageByMerchantEmail(String merchantEmail,
+            LocalDate reportDate, long afterId, int pageSize);
+
     /**
      * Retrieves a summary of transactions for the specified merchant email.
      * <p>
@@ -50,4 +66,12 @@ public interface TransactionService {
      * @return a list of aggregated transaction summary data
      */
     List<ReportDailyTransactionSummaryDto.RawData> getTransactionsSummaryByMerchantEmail(String merchantEmail);
+
+    /**
+     * Counts today's transactions of every merchant that has any, which estimates the number of rows of each
+     * merchant's daily transaction report.
+     *
+     * @return the number of transactions keyed by merchant email
+     */
+    Map<String, Long> countTransactionsPerMerchant();
 }
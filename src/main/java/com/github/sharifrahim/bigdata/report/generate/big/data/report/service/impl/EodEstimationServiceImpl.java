@@ -0,0 +1,177 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service.impl;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.MainTaskEnum.MainTaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.EodEstimateDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.MainTask;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.EodEstimationService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.MainTaskService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TransactionService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * EodEstimationServiceImpl projects the completion of the active end-of-day run from the {@code tasks} table.
+ * <p>
+ * The remaining work is the estimated number of rows (today's transaction count of the merchant) of every pending
+ * daily transaction report task, minus the rows already written by the tasks being generated, plus
+ * {@code spring.report.priority.task-overhead} per pending task. Bytes are estimated with
+ * {@code spring.report.estimator.bytes-per-row}.
+ * </p>
+ * <p>
+ * The throughput of one worker is the number of rows per second of the daily transaction reports completed within
+ * the last {@code spring.report.estimator.throughput-window}. Without such reports it falls back to the estimate of
+ * {@code spring.report.priority.row-cost-micros}. The run is projected to spread over the workers currently
+ * generating its tasks, and the number of workers needed is the remaining work divided by the time left until the
+ * target.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class EodEstimationServiceImpl implements EodEstimationService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MainTaskService mainTaskService;
+    private final TransactionService transactionService;
+
+    // Default time of day by which the end-of-day run should complete.
+    @Value("${spring.report.estimator.target:06:00}")
+    private LocalTime defaultTarget;
+
+    // Period of completed reports the worker throughput is measured over.
+    @Value("${spring.report.estimator.throughput-window:PT15M}")
+    private Duration throughputWindow;
+
+    // Average size of a report row, in bytes.
+    @Value("${spring.report.estimator.bytes-per-row:120}")
+    private long bytesPerRow;
+
+    // Fixed estimated cost of a report task.
+    @Value("${spring.report.priority.task-overhead:PT1S}")
+    private Duration taskOverhead;
+
+    // Estimated cost of a report row, in microseconds; used when no throughput has been observed.
+    @Value("${spring.report.priority.row-cost-micros:50}")
+    private long rowCostMicros;
+
+    /**
+     * Estimates the remaining work and the completion time of today's active end-of-day run.
+     *
+     * @param target the time of day by which the run should complete, or {@code null} for the configured target
+     * @return the estimate
+     */
+    @Override
+    public EodEstimateDto estimate(LocalTime target) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime targetTime = nextOccurrence(target != null ? target : defaultTarget, now);
+        double rowsPerSecond = observedRowsPerSecond();
+
+        Optional<MainTask> run = mainTaskService.findActive(MainTaskType.REPORT_EOD, now.toLocalDate());
+        if (run.isEmpty()) {
+            return EodEstimateDto.builder()
+                    .reportDate(now.toLocalDate())
+                    .rowsPerSecondPerWorker(rowsPerSecond)
+                    .projectedCompletion(now)
+                    .target(targetTime)
+                    .onTrack(true)
+                    .build();
+        }
+        MainTask mainTask = run.get();
+
+        // Remaining rows of the pending tasks, from the per-merchant estimates and the progress of running tasks.
+        Map<String, Long> estimatedRows = transactionService.countTransactionsPerMerchant();
+        List<Map<String, Object>> pending = jdbcTemplate.queryForList("""
+                SELECT type, status, subscriber_email, rows_written FROM tasks
+                WHERE main_task_id = ? AND status IN ('QUEUE', 'PROCESSING')
+                """, mainTask.getId());
+        long remainingRows = 0;
+        long activeWorkers = 0;
+        for (Map<String, Object> task : pending) {
+            if (TaskStatus.PROCESSING.name().equals(task.get("status"))) {
+                activeWorkers++;
+            }
+            if (TaskType.REPORT_DAILY_TRANSACTION.name().equals(task.get("type"))) {
+                long estimate = estimatedRows.getOrDefault((String) task.get("subscriber_email"), 0L);
+                remainingRows += Math.max(0, estimate - ((Number) task.get("rows_written")).longValue());
+            }
+        }
+
+        // Work left for a single worker, then spread over the active workers and the time left until the target.
+        double workSeconds = remainingRows / rowsPerSecond + pending.size() * (taskOverhead.toMillis() / 1000.0);
+        LocalDateTime projectedCompletion = now.plus(
+                Duration.ofMillis((long) (workSeconds * 1000 / Math.max(1, activeWorkers))));
+        double secondsToTarget = Duration.between(now, targetTime).toMillis() / 1000.0;
+        long workersNeeded = workSeconds == 0 ? 0 : (long) Math.ceil(workSeconds / Math.max(1, secondsToTarget));
+
+        EodEstimateDto estimate = EodEstimateDto.builder()
+                .mainTaskId(mainTask.getId())
+                .reportDate(mainTask.getReportDate())
+                .pendingTasks(pending.size())
+                .activeWorkers(activeWorkers)
+                .remainingRows(remainingRows)
+                .remainingBytes(remainingRows * bytesPerRow)
+                .rowsPerSecondPerWorker(rowsPerSecond)
+                .projectedCompletion(projectedCompletion)
+                .target(targetTime)
+                .workersNeeded(workersNeeded)
+                .onTrack(!projectedCompletion.isAfter(targetTime))
+                .build();
+        log.debug("End-of-day estimate: {}", estimate);
+        return estimate;
+    }
+
+    /**
+     * Measures the rows written per second by one worker over the recently completed daily transaction reports.
+     *
+     * @return the observed throughput, or the configured estimate if no report completed recently
+     */
+    private double observedRowsPerSecond() {
+        Map<String, Object> observed = jdbcTemplate.queryForMap("""
+                SELECT COALESCE(SUM(rows_written), 0) AS rows,
+                       COALESCE(SUM(EXTRACT(EPOCH FROM (completed_at - executed_at))), 0) AS seconds
+                FROM tasks
+                WHERE type = 'REPORT_DAILY_TRANSACTION' AND status = 'COMPLETED'
+                  AND completed_at >= NOW() - (? * INTERVAL '1 millisecond')
+                """, throughputWindow.toMillis());
+        long rows = ((Number) observed.get("rows")).longValue();
+        double seconds = ((Number) observed.get("seconds")).doubleValue();
+        if (rows > 0 && seconds > 0) {
+            return rows / seconds;
+        }
+        return 1_000_000.0 / Math.max(1, rowCostMicros);
+    }
+
+    /**
+     * Returns the next occurrence of a time of day after the given time.
+     *
+     * @param time the time of day
+     * @param now  the current time
+     * @return the next occurrence
+     */
+    private LocalDateTime nextOccurrence(LocalTime time, LocalDateTime now) {
+        LocalDateTime next = now.toLocalDate().atTime(time);
+        return next.isAfter(now) ? next : next.plusDays(1);
+    }
+}
@@ -0,0 +1,299 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.HousekeepingService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * HousekeepingServiceImpl archives and purges old rows of the {@code tasks}, {@code main_tasks} and Spring Batch
+ * metadata tables using plain JDBC statements against PostgreSQL.
+ * <p>
+ * Each purge runs in batches of {@code spring.report.housekeeping.batch-size} rows, each in its own transaction,
+ * pausing {@code spring.report.housekeeping.pause} milliseconds between batches and stopping after
+ * {@code spring.report.housekeeping.max-batches} batches. Remaining rows are picked up by the next run.
+ * When {@code spring.report.housekeeping.archive} is enabled, tasks and main tasks are moved into
+ * {@code tasks_archive} and {@code main_tasks_archive} in the same statement that deletes them.
+ * </p>
+ * <p>
+ * When the {@code tasks} table is created from {@code schema-partitioned.sql}, it is range-partitioned by
+ * {@code created_at} into daily partitions named {@code tasks_pYYYYMMDD}, which can be dropped as a whole instead of
+ * being deleted row by row.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class HousekeepingServiceImpl implements HousekeepingService {
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String PARTITION_PREFIX = "tasks_p";
+
+    private static final String DELETE_FINISHED_TASKS = """
+            DELETE FROM tasks WHERE id IN (
+                SELECT id FROM tasks
+                WHERE status IN ('COMPLETED', 'FAILED') AND updated_at < ?
+                ORDER BY id LIMIT ?)
+            """;
+
+    private static final String DELETE_MAIN_TASKS = """
+            DELETE FROM main_tasks WHERE id IN (
+                SELECT m.id FROM main_tasks m
+                WHERE m.created_at < ?
+                  AND NOT EXISTS (SELECT 1 FROM tasks t WHERE t.main_task_id = m.id)
+                ORDER BY m.id LIMIT ?)
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Maximum number of rows purged per batch.
+    @Value("${spring.report.housekeeping.batch-size:1000}")
+    private int batchSize;
+
+    // Maximum number of batches per purge operation and run.
+    @Value("${spring.report.housekeeping.max-batches:100}")
+    private int maxBatches;
+
+    // Pause between two batches in milliseconds.
+    @Value("${spring.report.housekeeping.pause:200}")
+    private long pause;
+
+    // Whether purged tasks and main tasks are copied into the archive tables.
+    @Value("${spring.report.housekeeping.archive:true}")
+    private boolean archive;
+
+    /**
+     * Archives (if enabled) and deletes COMPLETED and FAILED tasks last updated before the cutoff.
+     *
+     * @param cutoff tasks last updated before this time are purged
+     * @return the number of tasks purged
+     */
+    @Override
+    public long purgeFinishedTasks(LocalDateTime cutoff) {
+        String sql = archive ? archiveStatement(DELETE_FINISHED_TASKS, "tasks_archive") : DELETE_FINISHED_TASKS;
+        long purged = runInBatches("tasks", () -> jdbcTemplate.update(sql, cutoff, batchSize));
+        log.info("Purged {} finished tasks last updated before {}", purged, cutoff);
+        return purged;
+    }
+
+    /**
+     * Archives (if enabled) and deletes main tasks created before the cutoff that no longer have any tasks.
+     *
+     * @param cutoff main tasks created before this time are purged
+     * @return the number of main tasks purged
+     */
+    @Override
+    public long purgeMainTasks(LocalDateTime cutoff) {
+        String sql = archive ? archiveStatement(DELETE_MAIN_TASKS, "main_tasks_archive") : DELETE_MAIN_TASKS;
+        long purged = runInBatches("main_tasks", () -> jdbcTemplate.update(sql, cutoff, batchSize));
+        log.info("Purged {} main tasks created before {}", purged, cutoff);
+        return purged;
+    }
+
+    /**
+     * Deletes finished Spring Batch job executions that ended before the cutoff, together with their step
+     * executions, execution contexts, parameters and orphaned job instances.
+     *
+     * @param cutoff job executions that ended before this time are purged
+     * @return the number of job executions purged
+     */
+    @Override
+    public long purgeBatchMetadata(LocalDateTime cutoff) {
+        long purged = runInBatches("batch metadata", () -> purgeBatchMetadataBatch(cutoff));
+        log.info("Purged {} Spring Batch job executions that ended before {}", purged, cutoff);
+        return purged;
+    }
+
+    /**
+     * Creates the daily partitions of the {@code tasks} table from tomorrow up to the given number of days ahead.
+     * <p>
+     * Today's partition is never created: the EOD scheduler has already put today's tasks in the default partition,
+     * and PostgreSQL refuses a partition whose range overlaps rows of the default partition. Those rows stay in the
+     * default partition and are purged row by row. A partition that cannot be created is logged and skipped.
+     * </p>
+     *
+     * @param today         the current date
+     * @param precreateDays the number of days ahead for which partitions are created
+     */
+    @Override
+    public void createTaskPartitions(LocalDate today, int precreateDays) {
+        if (!isTasksPartitioned()) {
+            log.warn("The tasks table is not partitioned; skipping partition creation.");
+            return;
+        }
+        for (int i = 1; i <= precreateDays; i++) {
+            LocalDate day = today.plusDays(i);
+            String partition = PARTITION_PREFIX + day.format(PARTITION_SUFFIX);
+            try {
+                jdbcTemplate.execute(String.format(
+                        "CREATE TABLE IF NOT EXISTS %s PARTITION OF tasks FOR VALUES FROM ('%s') TO ('%s')",
+                        partition, day, day.plusDays(1)));
+                log.debug("Ensured tasks partition {}", partition);
+            } catch (DataAccessException e) {
+                log.error("Could not create tasks partition {}: {}", partition, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Archives (if enabled), detaches and drops the daily partitions of the {@code tasks} table that only hold
+     * data from before the cutoff date.
+     *
+     * @param cutoff partitions ending on or before this date are dropped
+     * @return the number of partitions dropped
+     */
+    @Override
+    public int dropExpiredTaskPartitions(LocalDate cutoff) {
+        if (!isTasksPartitioned()) {
+            log.warn("The tasks table is not partitioned; skipping partition drop.");
+            return 0;
+        }
+        List<String> partitions = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                JOIN pg_class p ON p.oid = i.inhparent
+                WHERE p.relname = 'tasks' AND c.relname LIKE 'tasks\\_p%'
+                ORDER BY c.relname
+                """, String.class);
+
+        int dropped = 0;
+        for (String partition : partitions) {
+            LocalDate day;
+            try {
+                day = LocalDate.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+            } catch (RuntimeException e) {
+                log.debug("Skipping partition with unexpected name: {}", partition);
+                continue;
+            }
+            if (day.plusDays(1).isAfter(cutoff)) {
+                continue;
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.execute("ALTER TABLE tasks DETACH PARTITION " + partition);
+                if (archive) {
+                    jdbcTemplate.execute("INSERT INTO tasks_archive SELECT * FROM " + partition);
+                }
+                jdbcTemplate.execute("DROP TABLE " + partition);
+            });
+            log.info("Dropped tasks partition {}", partition);
+            dropped++;
+        }
+        return dropped;
+    }
+
+    /**
+     * Deletes one batch of finished job executions and their dependent rows in a single transaction.
+     *
+     * @param cutoff job executions that ended before this time are purged
+     * @return the number of job executions purged
+     */
+    private long purgeBatchMetadataBatch(LocalDateTime cutoff) {
+        Long purged = transactionTemplate.execute(status -> {
+            List<Map<String, Object>> rows = jdbcTemplate.queryForList("""
+                    SELECT job_execution_id, job_instance_id FROM batch_job_execution
+                    WHERE end_time < ? AND status IN ('COMPLETED', 'FAILED', 'STOPPED', 'ABANDONED')
+                    ORDER BY job_execution_id LIMIT ?
+                    """, cutoff, batchSize);
+            if (rows.isEmpty()) {
+                return 0L;
+            }
+            Map<String, Object> params = Map.of(
+                    "executionIds", rows.stream().map(row -> row.get("job_execution_id")).toList(),
+                    "instanceIds", rows.stream().map(row -> row.get("job_instance_id")).distinct().toList());
+
+            namedParameterJdbcTemplate.update("""
+                    DELETE FROM batch_step_execution_context WHERE step_execution_id IN (
+                        SELECT step_execution_id FROM batch_step_execution WHERE job_execution_id IN (:executionIds))
+                    """, params);
+            namedParameterJdbcTemplate.update(
+                    "DELETE FROM batch_step_execution WHERE job_execution_id IN (:executionIds)", params);
+            namedParameterJdbcTemplate.update(
+                    "DELETE FROM batch_job_execution_context WHERE job_execution_id IN (:executionIds)", params);
+            namedParameterJdbcTemplate.update(
+                    "DELETE FROM batch_job_execution_params WHERE job_execution_id IN (:executionIds)", params);
+            namedParameterJdbcTemplate.update(
+                    "DELETE FROM batch_job_execution WHERE job_execution_id IN (:executionIds)", params);
+            namedParameterJdbcTemplate.update("""
+                    DELETE FROM batch_job_instance i WHERE i.job_instance_id IN (:instanceIds)
+                      AND NOT EXISTS (SELECT 1 FROM batch_job_execution e WHERE e.job_instance_id = i.job_instance_id)
+                    """, params);
+            return (long) rows.size();
+        });
+        return purged == null ? 0 : purged;
+    }
+
+    /**
+     * Runs a batch operation repeatedly until it purges less than a full batch or the batch limit is reached,
+     * pausing between batches.
+     *
+     * @param target a description of the purged rows, for logging
+     * @param batch  the operation purging one batch and returning the number of rows purged
+     * @return the total number of rows purged
+     */
+    private long runInBatches(String target, LongSupplier batch) {
+        long total = 0;
+        for (int i = 0; i < maxBatches; i++) {
+            long purged = batch.getAsLong();
+            total += purged;
+            log.debug("Purged batch {} of {} ({} rows)", i + 1, target, purged);
+            if (purged < batchSize) {
+                return total;
+            }
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return total;
+            }
+        }
+        log.info("Reached the limit of {} batches for {}; the remainder is purged on the next run.", maxBatches, target);
+        return total;
+    }
+
+    /**
+     * Wraps a delete statement so that the deleted rows are inserted into the archive table.
+     *
+     * @param deleteStatement the delete statement
+     * @param archiveTable    the archive table receiving the deleted rows
+     * @return the archiving statement
+     */
+    private String archiveStatement(String deleteStatement, String archiveTable) {
+        return "WITH moved AS (" + deleteStatement + " RETURNING *) INSERT INTO " + archiveTable + " SELECT * FROM moved";
+    }
+
+    /**
+     * Checks whether the {@code tasks} table is a partitioned table.
+     *
+     * @return {@code true} if the {@code tasks} table is partitioned
+     */
+    private boolean isTasksPartitioned() {
+        Boolean partitioned = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid "
+                        + "WHERE c.relname = 'tasks')", Boolean.class);
+        return Boolean.TRUE.equals(partitioned);
+    }
+}
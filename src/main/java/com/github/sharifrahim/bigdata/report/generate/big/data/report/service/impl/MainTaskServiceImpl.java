@@ -1,16 +1,20 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.service.impl;
 
+import java.time.LocalDate;
+import java.util.Optional;
+
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.MainTaskEnum.MainTaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.MainTaskEnum.MainTaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.MainTask;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.repository.MainTaskRepository;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.MainTaskService;
 
-import lombok.RequiredArgsConstructor;
-
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Component;
 
 /**
  * MainTaskServiceImpl provides implementations for managing {@link MainTask} entities.
@@ -65,5 +69,73 @@ public class MainTaskServiceImpl implements MainTaskService {
         log.info("MainTask retrieved: {}", mainTask);
         return mainTask;
     }
-}
 
+    /**
+     * Retrieves the active (PENDING) main task of the given type for a report date.
+     *
+     * @param type       the main task type
+     * @param reportDate the report date
+     * @return an {@link Optional} containing the most recent active main task, if any
+     */
+    @Override
+    public Optional<MainTask> findActive(MainTaskType type, LocalDate reportDate) {
+        log.debug("Retrieving active MainTask of type {} for report date {}", type, reportDate);
+        return mainTaskRepository.findFirstByTypeAndReportDateAndStatusOrderByIdDesc(type, reportDate,
+                MainTaskStatus.PENDING);
+    }
+
+    /**
+     * Adds newly planned tasks to the pending counter of a main task.
+     *
+     * @param mainTaskId the unique identifier of the MainTask
+     * @param count      the number of planned tasks
+     */
+    @Override
+    @Transactional
+    public void addPendingTasks(Long mainTaskId, int count) {
+        mainTaskRepository.addPendingTasks(mainTaskId, count);
+        log.info("Added {} pending tasks to MainTask ID: {}", count, mainTaskId);
+    }
+
+    /**
+     * Records the outcome of a finished task, closing the main task when it was the last pending task.
+     *
+     * @param mainTaskId the unique identifier of the MainTask
+     * @param outcome    the final task status, COMPLETED or FAILED
+     */
+    @Override
+    @Transactional
+    public void recordTaskOutcome(Long mainTaskId, TaskStatus outcome) {
+        boolean failed = TaskStatus.FAILED.equals(outcome);
+        int updated = mainTaskRepository.recordTaskOutcomes(mainTaskId, failed ? 0 : 1, failed ? 1 : 0);
+        if (updated == 0) {
+            log.warn("MainTask ID: {} is not pending; task outcome {} not recorded", mainTaskId, outcome);
+        } else {
+            log.debug("Recorded task outcome {} for MainTask ID: {}", outcome, mainTaskId);
+        }
+    }
+
+    /**
+     * Marks the planning of a main task as completed, closing it straight away if no task is pending.
+     *
+     * @param mainTaskId the unique identifier of the MainTask
+     */
+    @Override
+    @Transactional
+    public void completePlanning(Long mainTaskId) {
+        mainTaskRepository.completePlanning(mainTaskId);
+        log.info("Planning completed for MainTask ID: {}", mainTaskId);
+    }
+
+    /**
+     * Marks a pending main task as FAILED.
+     *
+     * @param mainTaskId the unique identifier of the MainTask
+     */
+    @Override
+    @Transactional
+    public void fail(Long mainTaskId) {
+        mainTaskRepository.failPending(mainTaskId);
+        log.warn("MainTask ID: {} marked as FAILED", mainTaskId);
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service.impl;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.batch.ReportDailyTransactionItemProcessor;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionSummaryDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.ReportGenerationService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TransactionService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.util.CsvUtil;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * ReportGenerationServiceImpl generates the CSV report of a single {@link Task}.
+ * <p>
+ * Daily transaction reports are streamed from the {@link TransactionService}, converted using the
+ * {@link ReportDailyTransactionItemProcessor} and written to the CSV file in batches, so that large merchants
+ * never have to be held in memory. Daily transaction summary reports are written in one go.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+@Profile("!planner")
+public class ReportGenerationServiceImpl implements ReportGenerationService {
+
+    private static final DateTimeFormatter FILE_TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
+    private final TransactionService transactionService;
+    private final ReportDailyTransactionItemProcessor dailyTransactionItemProcessor;
+
+    // Number of rows buffered before they are appended to the CSV file.
+    @Value("${spring.report.worker.write-batch-size:500}")
+    private int writeBatchSize;
+
+    /**
+     * Generates the report for the given task based on its task type.
+     * <p>
+     * The method runs in a read-only transaction so that the transaction stream stays open while it is consumed.
+     * </p>
+     *
+     * @param task the task describing the report type and the subscriber (merchant) email
+     * @return the number of rows written to the report file
+     * @throws Exception if an error occurs while reading the data or writing the report file
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public long generate(Task task) throws Exception {
+        if (TaskType.REPORT_DAILY_TRANSACTION.equals(task.getType())) {
+            return generateDailyTransactionReport(task.getSubscriberEmail());
+        } else if (TaskType.REPORT_DAILY_TRANSACTION_SUMMARY.equals(task.getType())) {
+            return generateDailyTransactionSummaryReport(task.getSubscriberEmail());
+        }
+        log.error("Unsupported task type: {}", task.getType());
+        throw new IllegalArgumentException("Unsupported task type: " + task.getType());
+    }
+
+    /**
+     * Streams the merchant's transactions and appends them to the CSV file in batches.
+     *
+     * @param merchantEmail the merchant email used to filter the transactions
+     * @return the number of rows written
+     * @throws Exception if an error occurs during processing or writing
+     */
+    private long generateDailyTransactionReport(String merchantEmail) throws Exception {
+        String filename = buildFilename(merchantEmail, "");
+        long written = 0;
+        List<ReportDailyTransactionDto.ProcessData> buffer = new ArrayList<>(writeBatchSize);
+
+        try (Stream<ReportDailyTransactionDto.RawData> transactions = transactionService
+                .getTransactionsByMerchantEmail(merchantEmail)) {
+            Iterator<ReportDailyTransactionDto.RawData> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                ReportDailyTransactionDto.ProcessData processed = dailyTransactionItemProcessor.process(iterator.next());
+                if (processed == null) {
+                    continue;
+                }
+                buffer.add(processed);
+                if (buffer.size() >= writeBatchSize) {
+                    CsvUtil.writeToCsv(filename, buffer);
+                    written += buffer.size();
+                    buffer.clear();
+                }
+            }
+        }
+
+        if (!buffer.isEmpty()) {
+            CsvUtil.writeToCsv(filename, buffer);
+            written += buffer.size();
+        }
+        log.info("Daily transaction report for merchant: {} written to {} ({} rows)", merchantEmail, filename, written);
+        return written;
+    }
+
+    /**
+     * Writes the merchant's transaction summary to the CSV file.
+     *
+     * @param merchantEmail the merchant email used to filter the transactions
+     * @return the number of rows written
+     * @throws Exception if an error occurs during writing
+     */
+    private long generateDailyTransactionSummaryReport(String merchantEmail) throws Exception {
+        String filename = buildFilename(merchantEmail, "summary_");
+        List<ReportDailyTransactionSummaryDto.RawData> summaryList = transactionService
+                .getTransactionsSummaryByMerchantEmail(merchantEmail);
+        CsvUtil.writeToCsv(filename, summaryList);
+        log.info("Daily transaction summary report for merchant: {} written to {} ({} rows)", merchantEmail, filename,
+                summaryList.size());
+        return summaryList.size();
+    }
+
+    /**
+     * Builds the report filename from the merchant name (portion of the email before '@') and the current timestamp.
+     *
+     * @param merchantEmail the merchant email
+     * @param infix         a report-specific infix placed between the merchant name and the timestamp
+     * @return the report filename
+     */
+    private String buildFilename(String merchantEmail, String infix) {
+        String merchantName = merchantEmail.split("@")[0];
+        return String.format("%s_%s%s.csv", merchantName, infix, LocalDateTime.now().format(FILE_TIMESTAMP));
+    }
+}
@@ -0,0 +1,132 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service.impl;
+
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskType;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.repository.TaskRepository;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskProgressService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStateMachine;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TaskProgressServiceImpl tracks task progress and arbitrates between task copies on PostgreSQL.
+ * <p>
+ * Every operation is a single conditional statement on the task row, so the copies of a task, which run on
+ * different workers, never need to coordinate otherwise: the row lock taken by the statement serializes them, and
+ * the {@code status = 'PROCESSING'} condition lets only the first finishing copy through.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class TaskProgressServiceImpl implements TaskProgressService {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskRepository taskRepository;
+    private final TaskStateMachine taskStateMachine;
+
+    /**
+     * Claims a QUEUE task for generation, setting it to PROCESSING.
+     *
+     * @param taskId the task identifier
+     * @return {@code true} if the task was claimed; {@code false} if it is no longer in the queue
+     */
+    @Override
+    public boolean claim(Long taskId) {
+        return taskStateMachine.transition(taskId, TaskStatus.QUEUE, TaskStatus.PROCESSING);
+    }
+
+    /**
+     * Records the number of rows written by a copy of a PROCESSING task.
+     *
+     * @param taskId      the task identifier
+     * @param rowsWritten the number of rows written by the copy
+     * @return {@code true} if the task is still PROCESSING; {@code false} if another copy has finished it
+     */
+    @Override
+    public boolean recordProgress(Long taskId, long rowsWritten) {
+        int updated = jdbcTemplate.update("""
+                UPDATE tasks SET rows_written = GREATEST(rows_written, ?), version = version + 1, updated_at = NOW()
+                WHERE id = ? AND status = 'PROCESSING'
+                """, rowsWritten, taskId);
+        return updated == 1;
+    }
+
+    /**
+     * Finishes a copy of a PROCESSING task.
+     *
+     * @param taskId  the task identifier
+     * @param outcome the outcome of the copy, COMPLETED or FAILED
+     * @param rows    the number of report rows written by the copy
+     * @return {@code true} if this copy decided the outcome of the task; {@code false} if its output is to be
+     *         discarded
+     */
+    @Override
+    public boolean finish(Long taskId, TaskStatus outcome, long rows) {
+        if (TaskStatus.COMPLETED.equals(outcome)) {
+            int updated = jdbcTemplate.update("""
+                    UPDATE tasks
+                    SET status = 'COMPLETED', rows_written = ?, completed_at = NOW(), updated_at = NOW(),
+                        running_copies = GREATEST(running_copies - 1, 0), version = version + 1
+                    WHERE id = ? AND status = 'PROCESSING'
+                    """, rows, taskId);
+            return updated == 1;
+        }
+        List<String> statuses = jdbcTemplate.queryForList("""
+                UPDATE tasks
+                SET status = CASE WHEN running_copies <= 1 THEN 'FAILED' ELSE status END,
+                    completed_at = CASE WHEN running_copies <= 1 THEN NOW() ELSE completed_at END,
+                    running_copies = GREATEST(running_copies - 1, 0),
+                    version = version + 1,
+                    updated_at = NOW()
+                WHERE id = ? AND status = 'PROCESSING'
+                RETURNING status
+                """, String.class, taskId);
+        if (!statuses.isEmpty() && TaskStatus.PROCESSING.name().equals(statuses.get(0))) {
+            log.warn("A copy of task ID: {} failed; leaving the task to its other copy", taskId);
+        }
+        return !statuses.isEmpty() && TaskStatus.FAILED.name().equals(statuses.get(0));
+    }
+
+    /**
+     * Retrieves the PROCESSING tasks of a task type.
+     *
+     * @param type the task type
+     * @return the PROCESSING tasks
+     */
+    @Override
+    public List<Task> findProcessing(TaskType type) {
+        return taskRepository.findByTypeAndStatus(type, TaskStatus.PROCESSING);
+    }
+
+    /**
+     * Marks a PROCESSING task as speculated and counts its speculative copy.
+     *
+     * @param taskId the task identifier
+     * @return {@code true} if a speculative copy may be launched
+     */
+    @Override
+    public boolean markSpeculated(Long taskId) {
+        int updated = jdbcTemplate.update("""
+                UPDATE tasks
+                SET speculated = TRUE, running_copies = running_copies + 1, version = version + 1, updated_at = NOW()
+                WHERE id = ? AND status = 'PROCESSING' AND NOT speculated
+                """, taskId);
+        return updated == 1;
+    }
+}
@@ -0,0 +1,129 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service.impl;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.repository.TaskRepository;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskQueueService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TaskQueueServiceImpl implements the database queue transport on PostgreSQL.
+ * <p>
+ * Tasks are claimed with a single {@code UPDATE ... WHERE id IN (SELECT ... FOR UPDATE SKIP LOCKED LIMIT n)}
+ * statement, so concurrent workers never block on or claim the same tasks. The inner select walks the partial
+ * index {@code idx_tasks_claimable}, which only contains QUEUE tasks, so a claim costs O(log n) regardless of the
+ * number of finished tasks in the table. Expired leases are found through {@code idx_tasks_lease_expires_at}.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class TaskQueueServiceImpl implements TaskQueueService {
+
+    private static final String CLAIM_TASKS = """
+            UPDATE tasks
+            SET status = 'PROCESSING', lease_owner = ?, lease_expires_at = NOW() + (? * INTERVAL '1 millisecond'),
+                executed_at = NOW(), version = version + 1, updated_at = NOW()
+            WHERE id IN (
+                SELECT id FROM tasks
+                WHERE status = 'QUEUE'
+                ORDER BY priority DESC, id
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED)
+            RETURNING id
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TaskRepository taskRepository;
+
+    /**
+     * Claims up to {@code batchSize} QUEUE tasks under a lease held by the given worker.
+     *
+     * @param owner     the worker identifier
+     * @param batchSize the maximum number of tasks to claim
+     * @param lease     the lease duration
+     * @return the claimed tasks
+     */
+    @Transactional
+    @Override
+    public List<Task> claim(String owner, int batchSize, Duration lease) {
+        List<Long> ids = jdbcTemplate.queryForList(CLAIM_TASKS, Long.class, owner, lease.toMillis(), batchSize);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        log.debug("Worker {} claimed {} tasks", owner, ids.size());
+        return taskRepository.findAllById(ids);
+    }
+
+    /**
+     * Extends the leases of all PROCESSING tasks held by the given worker.
+     *
+     * @param owner the worker identifier
+     * @param lease the lease duration from now
+     * @return the number of renewed leases
+     */
+    @Override
+    public int renewLeases(String owner, Duration lease) {
+        return jdbcTemplate.update("""
+                UPDATE tasks SET lease_expires_at = NOW() + (? * INTERVAL '1 millisecond'), version = version + 1
+                WHERE status = 'PROCESSING' AND lease_owner = ?
+                """, lease.toMillis(), owner);
+    }
+
+    /**
+     * Completes a task with the given outcome, provided the worker still holds its lease.
+     *
+     * @param taskId the task identifier
+     * @param owner  the worker identifier
+     * @param status the outcome, COMPLETED or FAILED
+     * @param rows   the number of report rows written
+     * @return {@code true} if the task was completed; {@code false} if the lease was lost to another worker
+     */
+    @Override
+    public boolean complete(Long taskId, String owner, TaskStatus status, long rows) {
+        int updated = jdbcTemplate.update("""
+                UPDATE tasks
+                SET status = ?, rows_written = ?, completed_at = NOW(), updated_at = NOW(), lease_owner = NULL,
+                    lease_expires_at = NULL, version = version + 1
+                WHERE id = ? AND status = 'PROCESSING' AND lease_owner = ?
+                """, status.name(), rows, taskId, owner);
+        return updated == 1;
+    }
+
+    /**
+     * Puts PROCESSING tasks whose lease has expired back in the queue. Tasks processed through RabbitMQ have no
+     * lease and are never reclaimed.
+     *
+     * @return the number of reclaimed tasks
+     */
+    @Override
+    public int reclaimExpiredLeases() {
+        int reclaimed = jdbcTemplate.update("""
+                UPDATE tasks
+                SET status = 'QUEUE', lease_owner = NULL, lease_expires_at = NULL, version = version + 1,
+                    updated_at = NOW()
+                WHERE status = 'PROCESSING' AND lease_expires_at < NOW()
+                """);
+        if (reclaimed > 0) {
+            log.warn("Reclaimed {} tasks with an expired lease", reclaimed);
+        }
+        return reclaimed;
+    }
+}
@@ -1,5 +1,7 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.service.impl;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.stereotype.Component;
@@ -88,4 +90,17 @@ public class TaskServiceImpl implements TaskService {
             return null;
         }
     }
+
+    /**
+     * Retrieves, in a single query, the Tasks of any of the given references and subscriber emails.
+     *
+     * @param refs   the task references
+     * @param emails the subscriber emails
+     * @return the Tasks whose reference and subscriber email are both among the given ones
+     */
+    @Override
+    public List<Task> getByReferencesAndSubscriberEmails(Collection<String> refs, Collection<String> emails) {
+        log.debug("Fetching Tasks of {} references and {} subscriber emails", refs.size(), emails.size());
+        return taskRepository.findByReferenceInAndSubscriberEmailIn(refs, emails);
+    }
 }
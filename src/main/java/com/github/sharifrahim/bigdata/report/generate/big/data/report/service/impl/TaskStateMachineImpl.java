@@ -0,0 +1,102 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service.impl;
+
+import java.time.LocalDateTime;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStateMachine;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TaskStateMachineImpl applies task transitions as conditional updates on PostgreSQL.
+ * <p>
+ * Each transition is one {@code UPDATE tasks ... WHERE id = ? AND status = ?} (or {@code AND version = ?})
+ * statement, which also sets the timestamps of the new status and increments the version of the row. The row lock
+ * taken by the statement serializes concurrent transitions, and the condition lets only the first one through.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class TaskStateMachineImpl implements TaskStateMachine {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Moves a task from the status the caller expects it in to another status.
+     *
+     * @param taskId the task identifier
+     * @param from   the status the task is expected in
+     * @param to     the new status
+     * @return {@code true} if the task moved; {@code false} if it was no longer in {@code from}
+     * @throws IllegalStateException if the transition is not allowed
+     */
+    @Override
+    public boolean transition(Long taskId, TaskStatus from, TaskStatus to) {
+        if (!from.canTransitionTo(to)) {
+            throw new IllegalStateException("Task " + taskId + " cannot move from " + from + " to " + to);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int updated = switch (to) {
+            case PROCESSING -> jdbcTemplate.update("""
+                    UPDATE tasks
+                    SET status = ?, executed_at = ?, rows_written = 0, running_copies = 1, version = version + 1,
+                        updated_at = NOW()
+                    WHERE id = ? AND status = ?
+                    """, to.name(), now, taskId, from.name());
+            case COMPLETED, FAILED -> jdbcTemplate.update("""
+                    UPDATE tasks
+                    SET status = ?, completed_at = ?, running_copies = 0, version = version + 1, updated_at = NOW()
+                    WHERE id = ? AND status = ?
+                    """, to.name(), now, taskId, from.name());
+            case QUEUE -> jdbcTemplate.update("""
+                    UPDATE tasks
+                    SET status = ?, lease_owner = NULL, lease_expires_at = NULL, running_copies = 0,
+                        version = version + 1, updated_at = NOW()
+                    WHERE id = ? AND status = ?
+                    """, to.name(), taskId, from.name());
+        };
+        if (updated == 0) {
+            log.debug("Task ID: {} is no longer {}; not moved to {}", taskId, from, to);
+        }
+        return updated == 1;
+    }
+
+    /**
+     * Finishes a task loaded at a given version, provided no one has changed it since.
+     *
+     * @param taskId  the task identifier
+     * @param version the version at which the task was loaded
+     * @param outcome the outcome of the task, COMPLETED or FAILED
+     * @param rows    the number of report rows written
+     * @return {@code true} if the task was finished; {@code false} if it was changed since it was loaded
+     */
+    @Override
+    public boolean finish(Long taskId, Long version, TaskStatus outcome, long rows) {
+        if (!TaskStatus.COMPLETED.equals(outcome) && !TaskStatus.FAILED.equals(outcome)) {
+            throw new IllegalArgumentException("Not an outcome: " + outcome);
+        }
+        int updated = jdbcTemplate.update("""
+                UPDATE tasks
+                SET status = ?, rows_written = ?, completed_at = ?, running_copies = 0, version = version + 1,
+                    updated_at = NOW()
+                WHERE id = ? AND version = ? AND status IN ('QUEUE', 'PROCESSING')
+                """, outcome.name(), rows, LocalDateTime.now(), taskId, version);
+        if (updated == 0) {
+            log.warn("Task ID: {} was changed since version {}; outcome {} not recorded", taskId, version, outcome);
+        }
+        return updated == 1;
+    }
+}
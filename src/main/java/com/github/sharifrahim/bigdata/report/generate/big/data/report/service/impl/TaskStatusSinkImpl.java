@@ -0,0 +1,540 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.repository.MainTaskRepository;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStatusSink;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * TaskStatusSinkImpl coalesces task status transitions in memory and writes them behind, in batches, on PostgreSQL.
+ * <p>
+ * Pending transitions and outcomes are collected in a batch. Every {@code spring.report.status-sink.flush-interval}
+ * milliseconds, the batch is swapped for an empty one and written in one transaction: the transitions with
+ * {@code UPDATE tasks ... FROM (VALUES ...)} statements of up to {@code statement-size} tasks, and the outcomes with
+ * one update per main task, which also relieves the contention of all the workers on the main task row. Outcomes
+ * of {@link #finish} are only counted for the tasks the statement actually moved forward, so a task finished twice
+ * is counted once.
+ * </p>
+ * <p>
+ * The durability mode ({@code spring.report.status-sink.durability}) sets when a caller returns:
+ * <ul>
+ *   <li>{@code group} (default): outcomes wait for the flush of their batch, so that a report is durably finished
+ *       before its message is acknowledged; callers finishing at the same time share one flush (group commit). A
+ *       caller whose batch is not flushed within the interval flushes it itself. {@code PROCESSING} transitions do
+ *       not wait, as the task was already claimed by its listener.</li>
+ *   <li>{@code sync}: every call is written before it returns, as before write-behind.</li>
+ *   <li>{@code async}: no call waits. Transitions pending when a worker crashes are lost, leaving their tasks
+ *       {@code PROCESSING} with their messages acknowledged.</li>
+ * </ul>
+ * A failed flush is put back in front of the pending transitions and retried on the next flush, and callers waiting
+ * for it keep waiting: they only get an error for a write that can no longer succeed. Failed flushes are counted per
+ * transition and per main task outcome, so transitions recorded after a failure start from zero. Once an entry of a
+ * batch has failed {@code max-flush-attempts} times, the transitions and outcomes of the batch are written one by
+ * one, each in its own transaction; the entries that still fail are retried again if they have attempts left, and
+ * logged and dropped otherwise, so that one bad row cannot hold back every later transition. Callers of a batch
+ * with dropped entries get the error of its last flush. When more than {@code max-pending} tasks are pending,
+ * callers flush themselves.
+ * </p>
+ * <p>
+ * For more details, please visit my GitHub repository:
+ * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
+ * </p>
+ *
+ * @author Sharif
+ * @version 1.0
+ * @since 2025
+ */
+@Slf4j
+@RequiredArgsConstructor
+@Service
+public class TaskStatusSinkImpl implements TaskStatusSink {
+
+    private static final String UPDATE_TASKS = """
+            UPDATE tasks t
+            SET status = v.status,
+                executed_at = COALESCE(v.executed_at, t.executed_at),
+                completed_at = COALESCE(v.completed_at, t.completed_at),
+                rows_written = COALESCE(v.rows_written, t.rows_written),
+                running_copies = CASE WHEN v.status = 'PROCESSING' THEN 1 ELSE 0 END,
+                version = t.version + 1,
+                updated_at = NOW()
+            FROM (VALUES %s) AS v(id, status, executed_at, completed_at, rows_written)
+            WHERE t.id = v.id
+              AND (t.status = 'QUEUE' OR (t.status = 'PROCESSING' AND v.status IN ('COMPLETED', 'FAILED')))
+            RETURNING t.id
+            """;
+
+    private static final String VALUES_ROW = "(?::bigint, ?, ?::timestamp, ?::timestamp, ?::bigint)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final MainTaskRepository mainTaskRepository;
+
+    // Durability mode: group, sync or async.
+    @Value("${spring.report.status-sink.durability:group}")
+    private String durability;
+
+    // Interval between two flushes, in milliseconds.
+    @Value("${spring.report.status-sink.flush-interval:100}")
+    private long flushInterval;
+
+    // Maximum number of tasks updated per statement.
+    @Value("${spring.report.status-sink.statement-size:500}")
+    private int statementSize;
+
+    // Number of pending tasks above which callers flush themselves.
+    @Value("${spring.report.status-sink.max-pending:10000}")
+    private int maxPending;
+
+    // Number of failed flushes of a transition or outcome after which its batch is written one by one.
+    @Value("${spring.report.status-sink.max-flush-attempts:10}")
+    private int maxFlushAttempts;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private TransactionTemplate transactionTemplate;
+    private Batch pending = new Batch();
+
+    /**
+     * Validates the durability mode and prepares the flush transactions.
+     */
+    @PostConstruct
+    public void init() {
+        if (!List.of("group", "sync", "async").contains(durability)) {
+            throw new IllegalStateException("Unsupported status sink durability: " + durability);
+        }
+        // A flush may run on the thread of a caller inside a chunk transaction, and must not join it: the batch
+        // holds the transitions of other callers too.
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        log.info("Task status updates are written behind every {} ms in {} mode", flushInterval, durability);
+    }
+
+    /**
+     * Records that a QUEUE task started processing.
+     *
+     * @param taskId the task identifier
+     */
+    @Override
+    public void processing(Long taskId) {
+        Batch batch = add(new Transition(TaskStatus.PROCESSING, null, LocalDateTime.now(), null, null, 0), taskId);
+        if ("sync".equals(durability)) {
+            await(batch);
+        }
+    }
+
+    /**
+     * Records the outcome of a QUEUE or PROCESSING task, counted on its main task once written.
+     *
+     * @param taskId     the task identifier
+     * @param mainTaskId the identifier of the task's main task
+     * @param outcome    the outcome of the task, COMPLETED or FAILED
+     * @param rows       the number of report rows written, or {@code null} to keep the recorded progress
+     */
+    @Override
+    public void finish(Long taskId, Long mainTaskId, TaskStatus outcome, Long rows) {
+        Batch batch = add(new Transition(outcome, mainTaskId, null, LocalDateTime.now(), rows, 0), taskId);
+        if (!"async".equals(durability)) {
+            await(batch);
+        }
+    }
+
+    /**
+     * Counts the outcome of a task already finished by another path on its main task.
+     *
+     * @param mainTaskId the identifier of the task's main task
+     * @param outcome    the outcome of the task, COMPLETED or FAILED
+     */
+    @Override
+    public void recordOutcome(Long mainTaskId, TaskStatus outcome) {
+        Batch batch;
+        synchronized (this) {
+            pending.outcomes.merge(mainTaskId, Outcomes.of(outcome), Outcomes::plus);
+            batch = pending;
+        }
+        if (!"async".equals(durability)) {
+            await(batch);
+        }
+    }
+
+    /**
+     * Writes the pending batch in one transaction. Flushes are serialized, so when this method returns, every
+     * transition recorded before it was called has been written or has failed.
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${spring.report.status-sink.flush-interval:100}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Batch batch;
+            synchronized (this) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                batch = pending;
+                pending = new Batch();
+            }
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(batch));
+                batch.flushed.complete(null);
+                log.debug("Flushed {} task transitions and the outcomes of {} main tasks", batch.transitions.size(),
+                        batch.outcomes.size());
+            } catch (RuntimeException e) {
+                batch.transitions.replaceAll((taskId, transition) -> transition.afterFailedFlush());
+                batch.outcomes.replaceAll((mainTaskId, outcomes) -> outcomes.afterFailedFlush());
+                int attempts = batch.attempts();
+                if (attempts < maxFlushAttempts) {
+                    log.warn("Could not flush {} task transitions (attempt {} of {}); retrying on the next flush. "
+                            + "Error: {}", batch.transitions.size(), attempts, maxFlushAttempts, e.getMessage());
+                    requeue(batch);
+                } else {
+                    log.error("Could not flush {} task transitions after {} attempts; writing them one by one. "
+                            + "Error: {}", batch.transitions.size(), attempts, e.getMessage());
+                    writeOneByOne(batch, e);
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the pending transitions at shutdown.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Coalesces a transition into the pending batch.
+     *
+     * @param transition the transition
+     * @param taskId     the task identifier
+     * @return the batch the transition belongs to
+     */
+    private Batch add(Transition transition, Long taskId) {
+        Batch batch;
+        int size;
+        synchronized (this) {
+            pending.transitions.merge(taskId, transition, Transition::then);
+            batch = pending;
+            size = pending.transitions.size();
+        }
+        if (size > maxPending) {
+            flush();
+        }
+        return batch;
+    }
+
+    /**
+     * Waits for a batch to be flushed, flushing it on this thread if it is not flushed within the flush interval,
+     * and again after each interval while it is being retried.
+     *
+     * @param batch the batch
+     * @throws IllegalStateException if entries of the batch were dropped
+     */
+    private void await(Batch batch) {
+        try {
+            if (!"sync".equals(durability)) {
+                try {
+                    batch.flushed.get(flushInterval, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    log.trace("Batch not flushed within {} ms; flushing it", flushInterval);
+                }
+            }
+            while (true) {
+                flush();
+                try {
+                    batch.flushed.get(flushInterval, TimeUnit.MILLISECONDS);
+                    return;
+                } catch (TimeoutException e) {
+                    log.trace("Batch still being retried after {} ms; flushing it again", flushInterval);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for task status updates", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not write task status updates", e.getCause());
+        }
+    }
+
+    /**
+     * Writes the transitions and outcomes of a batch with an entry that failed too many times one by one, each in
+     * its own transaction. Those that fail are put back in front of the pending ones if they have attempts left, and
+     * dropped otherwise. The callers of the batch are released once the entries put back are written too.
+     *
+     * @param batch the failed batch
+     * @param cause the error of its last flush, given to its callers if anything was dropped
+     */
+    private void writeOneByOne(Batch batch, RuntimeException cause) {
+        Batch retry = new Batch();
+        int dropped = 0;
+        for (Map.Entry<Long, Transition> entry : batch.transitions.entrySet()) {
+            Batch single = new Batch();
+            single.transitions.put(entry.getKey(), entry.getValue());
+            if (writeAlone(single)) {
+                continue;
+            }
+            if (entry.getValue().attempts() < maxFlushAttempts) {
+                retry.transitions.put(entry.getKey(), entry.getValue());
+            } else {
+                log.error("Dropped the {} transition of task ID: {}", entry.getValue().status(), entry.getKey());
+                dropped++;
+            }
+        }
+        for (Map.Entry<Long, Outcomes> entry : batch.outcomes.entrySet()) {
+            Batch single = new Batch();
+            single.outcomes.put(entry.getKey(), entry.getValue());
+            if (writeAlone(single)) {
+                continue;
+            }
+            if (entry.getValue().attempts() < maxFlushAttempts) {
+                retry.outcomes.put(entry.getKey(), entry.getValue());
+            } else {
+                log.error("Dropped {} task outcomes of MainTask ID: {}",
+                        entry.getValue().completed() + entry.getValue().failed(), entry.getKey());
+                dropped++;
+            }
+        }
+        boolean complete = dropped == 0;
+        if (!retry.isEmpty()) {
+            requeue(retry);
+        } else {
+            retry.flushed.complete(null);
+        }
+        retry.flushed.whenComplete((result, error) -> {
+            if (complete && error == null) {
+                batch.flushed.complete(null);
+            } else {
+                batch.flushed.completeExceptionally(error != null ? error : cause);
+            }
+        });
+    }
+
+    /**
+     * Writes a batch in its own transaction.
+     *
+     * @param batch the batch
+     * @return {@code true} if the batch was written
+     */
+    private boolean writeAlone(Batch batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> write(batch));
+            return true;
+        } catch (RuntimeException e) {
+            log.debug("Could not write task status update: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes the transitions of a batch, then the outcomes of the main tasks, including those of the tasks the
+     * transitions finished.
+     *
+     * @param batch the batch
+     */
+    private void write(Batch batch) {
+        Map<Long, int[]> outcomes = new HashMap<>();
+        batch.outcomes.forEach((mainTaskId, counts) ->
+                outcomes.put(mainTaskId, new int[] {counts.completed(), counts.failed()}));
+
+        List<Map.Entry<Long, Transition>> transitions = new ArrayList<>(batch.transitions.entrySet());
+        for (int from = 0; from < transitions.size(); from += statementSize) {
+            List<Map.Entry<Long, Transition>> chunk =
+                    transitions.subList(from, Math.min(from + statementSize, transitions.size()));
+            List<Object> params = new ArrayList<>(chunk.size() * 5);
+            for (Map.Entry<Long, Transition> entry : chunk) {
+                Transition transition = entry.getValue();
+                params.add(entry.getKey());
+                params.add(transition.status().name());
+                params.add(transition.executedAt());
+                params.add(transition.completedAt());
+                params.add(transition.rows());
+            }
+            String sql = UPDATE_TASKS.formatted(String.join(", ", Collections.nCopies(chunk.size(), VALUES_ROW)));
+            for (Long taskId : jdbcTemplate.queryForList(sql, Long.class, params.toArray())) {
+                Transition transition = batch.transitions.get(taskId);
+                if (transition.mainTaskId() != null && !TaskStatus.PROCESSING.equals(transition.status())) {
+                    outcomes.computeIfAbsent(transition.mainTaskId(), id -> new int[2])
+                            [TaskStatus.FAILED.equals(transition.status()) ? 1 : 0]++;
+                }
+            }
+        }
+
+        outcomes.forEach((mainTaskId, counts) -> {
+            if (mainTaskRepository.recordTaskOutcomes(mainTaskId, counts[0], counts[1]) == 0) {
+                log.warn("MainTask ID: {} is not pending; {} task outcomes not recorded", mainTaskId,
+                        counts[0] + counts[1]);
+            }
+        });
+    }
+
+    /**
+     * Puts a failed batch back in front of the pending transitions and outcomes.
+     *
+     * @param batch the failed batch
+     */
+    private synchronized void requeue(Batch batch) {
+        Batch current = pending;
+        pending = new Batch();
+        pending.transitions.putAll(batch.transitions);
+        current.transitions.forEach((taskId, transition) -> pending.transitions.merge(taskId, transition,
+                Transition::then));
+        pending.outcomes.putAll(batch.outcomes);
+        current.outcomes.forEach((mainTaskId, counts) -> pending.outcomes.merge(mainTaskId, counts, Outcomes::plus));
+        // Callers of the failed and of the current batch now wait for the merged one.
+        pending.flushed.whenComplete((result, error) -> {
+            for (Batch merged : List.of(batch, current)) {
+                if (error == null) {
+                    merged.flushed.complete(null);
+                } else {
+                    merged.flushed.completeExceptionally(error);
+                }
+            }
+        });
+    }
+
+    /**
+     * Transitions and outcomes pending between two flushes, with the future completed when they are flushed.
+     */
+    private static final class Batch {
+
+        private final Map<Long, Transition> transitions = new LinkedHashMap<>();
+        private final Map<Long, Outcomes> outcomes = new HashMap<>();
+        private final CompletableFuture<Void> flushed = new CompletableFuture<>();
+
+        /**
+         * @return {@code true} if nothing is pending
+         */
+        private boolean isEmpty() {
+            return transitions.isEmpty() && outcomes.isEmpty();
+        }
+
+        /**
+         * @return the largest number of failed flushes of a transition or outcome of this batch
+         */
+        private int attempts() {
+            int attempts = 0;
+            for (Transition transition : transitions.values()) {
+                attempts = Math.max(attempts, transition.attempts());
+            }
+            for (Outcomes counts : outcomes.values()) {
+                attempts = Math.max(attempts, counts.attempts());
+            }
+            return attempts;
+        }
+    }
+
+    /**
+     * Pending task outcomes of a main task.
+     *
+     * @param completed the number of COMPLETED tasks
+     * @param failed    the number of FAILED tasks
+     * @param attempts  the number of failed flushes of these outcomes
+     */
+    private record Outcomes(int completed, int failed, int attempts) {
+
+        /**
+         * @param outcome the outcome of a task, COMPLETED or FAILED
+         * @return the outcomes of that one task
+         */
+        private static Outcomes of(TaskStatus outcome) {
+            return TaskStatus.FAILED.equals(outcome) ? new Outcomes(0, 1, 0) : new Outcomes(1, 0, 0);
+        }
+
+        /**
+         * Adds up these outcomes with others of the same main task.
+         *
+         * @param other the other outcomes
+         * @return the added up outcomes, with the larger number of failed flushes
+         */
+        private Outcomes plus(Outcomes other) {
+            return new Outcomes(completed + other.completed, failed + other.failed,
+                    Math.max(attempts, other.attempts));
+        }
+
+        /**
+         * @return these outcomes after one more failed flush
+         */
+        private Outcomes afterFailedFlush() {
+            return new Outcomes(completed, failed, attempts + 1);
+        }
+    }
+
+    /**
+     * A pending status transition of a task.
+     *
+     * @param status      the status the task moves to
+     * @param mainTaskId  the main task on which a final status is counted, or {@code null}
+     * @param executedAt  the execution start time, or {@code null} to keep it
+     * @param completedAt the completion time, or {@code null} to keep it
+     * @param rows        the number of report rows written, or {@code null} to keep it
+     * @param attempts    the number of failed flushes of this transition
+     */
+    private record Transition(TaskStatus status, Long mainTaskId, LocalDateTime executedAt,
+            LocalDateTime completedAt, Long rows, int attempts) {
+
+        /**
+         * Coalesces this transition with a later one of the same task. The further status wins; a final status
+         * never goes back to PROCESSING. The row of the task has failed as many flushes as the earlier transition.
+         *
+         * @param later the later transition
+         * @return the coalesced transition
+         */
+        private Transition then(Transition later) {
+            Transition ahead = rank(later.status) >= rank(status) ? later : this;
+            return new Transition(ahead.status,
+                    ahead.mainTaskId != null ? ahead.mainTaskId : mainTaskId,
+                    executedAt != null ? executedAt : later.executedAt,
+                    ahead.completedAt,
+                    ahead.rows,
+                    Math.max(attempts, later.attempts));
+        }
+
+        /**
+         * @return this transition after one more failed flush
+         */
+        private Transition afterFailedFlush() {
+            return new Transition(status, mainTaskId, executedAt, completedAt, rows, attempts + 1);
+        }
+
+        /**
+         * @param status a task status
+         * @return the position of the status in the life cycle of a task
+         */
+        private static int rank(TaskStatus status) {
+            return switch (status) {
+                case QUEUE -> 0;
+                case PROCESSING -> 1;
+                case COMPLETED, FAILED -> 2;
+            };
+        }
+    }
+}
@@ -2,14 +2,18 @@ package com.github.sharifrahim.bigdata.report.generate.big.data.report.service.i
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionDto;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionSummaryDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.ReportQueryMonitor;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.repository.TransactionRepository;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TransactionService;
 
@@ -24,9 +28,14 @@ import lombok.extern.slf4j.Slf4j;
  * <ul>
  *   <li>Fetch raw transaction data for a given merchant email within the current day.</li>
  *   <li>Retrieve a summarized view of transactions for a given merchant email for the current day.</li>
+ *   <li>Count the transactions of every merchant for the current day.</li>
  * </ul>
  * </p>
  * <p>
+ * The latency and failures of the paged transaction and summary queries are recorded on the
+ * {@link ReportQueryMonitor}, which drives the {@code ConcurrencyGovernor}.
+ * </p>
+ * <p>
  * For more details, please visit my GitHub repository:
  * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
  * </p>
@@ -41,6 +50,7 @@ import lombok.extern.slf4j.Slf4j;
 public class TransactionServiceImpl implements TransactionService {
 
     private final TransactionRepository transactionRepository;
+    private final ReportQueryMonitor reportQueryMonitor;
 
     /**
      * Retrieves a stream of raw transaction data for the specified merchant email.
@@ -62,6 +72,34 @@ public class TransactionServiceImpl implements TransactionService {
         return transactionRepository.findTransactionByMerchantEmailAndDate(merchantEmail, startOfDay, startOfNextDay);
     }
 
+    /**
+     * Retrieves the next page of a day's transactions for the specified merchant email, starting after the given
+     * transaction.
+     *
+     * @param merchantEmail the merchant's email address used to filter transactions
+     * @param reportDate    the day of the transactions
+     * @param afterId       the identifier of the last transaction already read, or 0 to start from the first
+     * @param pageSize      the maximum number of transactions returned
+     * @return a page of raw transaction data ordered by transaction identifier
+     */
+    @Override
+    public List<ReportDailyTransactionDto.RawData> getTransactionPageByMerchantEmail(String merchantEmail,
+            LocalDate reportDate, long afterId, int pageSize) {
+        log.debug("Fetching up to {} transactions of {} for merchant: {} after transaction ID {}", pageSize,
+                reportDate, merchantEmail, afterId);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            List<ReportDailyTransactionDto.RawData> page = transactionRepository.findTransactionPageByMerchantEmailAndDate(
+                    merchantEmail, reportDate.atStartOfDay(), reportDate.plusDays(1).atStartOfDay(), afterId,
+                    Limit.of(pageSize));
+            failed = false;
+            return page;
+        } finally {
+            reportQueryMonitor.record(System.nanoTime() - start, failed);
+        }
+    }
+
     /**
      * Retrieves a summarized list of transactions for the specified merchant email.
      * <p>
@@ -79,6 +117,34 @@ public class TransactionServiceImpl implements TransactionService {
         LocalDateTime startOfDay = today.atStartOfDay();
         LocalDateTime startOfNextDay = today.plusDays(1).atStartOfDay();
         log.info("Fetching transaction summary for merchant: {} for date: {} ({} to {})", merchantEmail, today, startOfDay, startOfNextDay);
-        return transactionRepository.findDailySummaryByMerchantAndDate(merchantEmail, today, startOfDay, startOfNextDay);
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            List<ReportDailyTransactionSummaryDto.RawData> summary = transactionRepository
+                    .findDailySummaryByMerchantAndDate(merchantEmail, today, startOfDay, startOfNextDay);
+            failed = false;
+            return summary;
+        } finally {
+            reportQueryMonitor.record(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Counts the transactions of every merchant for the current day with a single grouped query.
+     *
+     * @return the number of transactions keyed by merchant email
+     */
+    @Transactional(readOnly = true)
+    @Override
+    public Map<String, Long> countTransactionsPerMerchant() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime startOfDay = today.atStartOfDay();
+        LocalDateTime startOfNextDay = today.plusDays(1).atStartOfDay();
+        Map<String, Long> counts = new HashMap<>();
+        for (Object[] row : transactionRepository.countTransactionsPerMerchant(startOfDay, startOfNextDay)) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        log.info("Counted transactions of {} merchants between {} and {}", counts.size(), startOfDay, startOfNextDay);
+        return counts;
     }
 }
@@ -2,10 +2,13 @@ package com.github.sharifrahim.bigdata.report.generate.big.data.report.tasklet;
 
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.batch.core.JobParameters;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.StepExecution;
@@ -13,6 +16,7 @@ import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.core.scope.context.StepContext;
 import org.springframework.batch.repeat.RepeatStatus;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
@@ -23,21 +27,52 @@ import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.Create
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.MainTask;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Subscriber;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.job.ReportDefinition;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.job.ReportDefinitionRegistry;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.DeadlinePrioritizer;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.TaskQueueRouter;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.TaskTransport;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.MainTaskService;
-import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.SubscriberService;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TransactionService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 /**
  * CreateReportTasklet is a Spring Batch tasklet responsible for creating tasks and sending messages
- * to the appropriate RabbitMQ queues for daily transaction reports.
+ * to the appropriate queues for daily transaction reports through the configured {@link TaskTransport}.
  * <p>
  * It retrieves job parameters to identify the main task and report type, then queries active subscribers,
  * creates corresponding tasks, and sends messages to the appropriate queue.
  * </p>
  * <p>
+ * The subscribers, task type and queue of each report type come from its {@link ReportDefinition} (see
+ * {@link ReportDefinitionRegistry}).
+ * </p>
+ * <p>
+ * When lane routing is enabled ({@code spring.report.lanes.enabled=true}), each report routed by size (see
+ * {@link ReportDefinition#isBulkRouted()}, such as the daily transaction report) is classified by its estimated row
+ * count (the merchant's number of transactions today). Reports with at least
+ * {@code spring.report.lanes.bulk-threshold} rows go to the bulk lane queue, all others to the queue of their report
+ * type (the express lane), so that a few large exports cannot hold the consumers of thousands of small reports.
+ * The bulk lane is not sharded.
+ * </p>
+ * <p>
+ * When deadline-driven priorities are enabled ({@code spring.report.priority.enabled=true}), each message is
+ * published with the priority computed by the {@link DeadlinePrioritizer} from the subscribers' delivery deadlines.
+ * </p>
+ * <p>
+ * With the database queue transport ({@code spring.report.transport=database}), no message is published: the QUEUE
+ * task itself, with its priority, is claimed by the database queue workers. With the in-process transport
+ * ({@code spring.report.transport=in-process}), messages are handed to a worker pool in the same JVM.
+ * </p>
+ * <p>
+ * Messages are published in groups of up to {@code spring.report.envelope-size} messages sharing a target queue and
+ * a priority, which the RabbitMQ transport packs into task envelopes when the envelope wire format is enabled
+ * ({@code spring.report.wire-format=envelope}).
+ * </p>
+ * <p>
  * For more details, please visit my GitHub repository:
  * <a href="https://github.com/sharifrahim">https://github.com/sharifrahim</a>
  * </p>
@@ -49,29 +84,45 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @RequiredArgsConstructor
 @Component
+@Profile("!worker")
 public class CreateReportTasklet implements org.springframework.batch.core.step.tasklet.Tasklet {
 
     private final MainTaskService mainTaskService;
     private final TaskService taskService;
-    private final SubscriberService subscriberService;
-    private final RabbitTemplate rabbitTemplate;
+    private final TaskTransport taskTransport;
+    private final TaskQueueRouter taskQueueRouter;
+    private final TransactionService transactionService;
+    private final DeadlinePrioritizer deadlinePrioritizer;
+    private final ReportDefinitionRegistry reportDefinitionRegistry;
+
+    @Value("${spring.queue.daily-transaction-report-bulk:DAILY_TRANSACTION_REPORT_BULK.FIFO}")
+    private String dailyReportBulkQueueName;
 
-    @Value("${spring.queue.daily-transaction-report}")
-    private String dailyReportQueueName;
+    // Whether daily transaction reports are split into a bulk and an express lane.
+    @Value("${spring.report.lanes.enabled:false}")
+    private boolean lanesEnabled;
 
-    @Value("${spring.queue.daily-transaction-report-summary}")
-    private String dailyReportSummaryQueueName;
+    // Maximum number of messages published together.
+    @Value("${spring.report.envelope-size:100}")
+    private int envelopeSize;
+
+    // Estimated row count from which a daily transaction report goes to the bulk lane.
+    @Value("${spring.report.lanes.bulk-threshold:100000}")
+    private long bulkThreshold;
 
     /**
-     * Executes the tasklet to create tasks and send messages to RabbitMQ queues.
+     * Executes the tasklet to create tasks and send messages to the report queues.
      * <p>
      * This method performs the following steps:
      * <ol>
      *   <li>Retrieves job parameters (mainTaskId and reportType).</li>
      *   <li>Fetches the corresponding {@link MainTask} and converts the reportType parameter into {@link ReportType}.</li>
-     *   <li>Determines the appropriate subscriber list, task type, and queue name based on reportType.</li>
+     *   <li>Looks up the {@link ReportDefinition} of the reportType, which gives the subscriber list, task type,
+     *       and queue name.</li>
+     *   <li>Adds the number of planned tasks to the pending counter of the {@link MainTask}.</li>
      *   <li>For each active subscriber, creates a new {@link Task} with status QUEUE and a unique reference,
-     *       then sends a message to the corresponding RabbitMQ queue.</li>
+     *       then sends a message to the corresponding queue (or to the subscriber's shard queue when
+     *       sharding is enabled, see {@link TaskQueueRouter}).</li>
      * </ol>
      * </p>
      *
@@ -95,25 +146,12 @@ public class CreateReportTasklet implements org.springframework.batch.core.step.
         ReportType reportType = ReportType.valueOf(reportTypeCode);
         log.debug("Retrieved MainTask: {}", mainTask);
 
-        List<Subscriber> subscriberList = null;
-        TaskType taskType = null;
-        String queueName = null;
-
-        // Determine subscribers, task type, and queue name based on report type.
-        if (ReportType.REPORT_DAILY_TRANSACTION.equals(reportType)) {
-            subscriberList = subscriberService.findCurrentActiveSubscribersOfDailyTransactionReport();
-            taskType = TaskType.REPORT_DAILY_TRANSACTION;
-            queueName = dailyReportQueueName;
-            log.info("Report type is REPORT_DAILY_TRANSACTION. Using queue: {}", queueName);
-        } else if (ReportType.REPORT_DAILY_TRANSACTION_SUMMARY.equals(reportType)) {
-            subscriberList = subscriberService.findCurrentActiveSubscribersOfDailyTransactionSummaryReport();
-            taskType = TaskType.REPORT_DAILY_TRANSACTION_SUMMARY;
-            queueName = dailyReportSummaryQueueName;
-            log.info("Report type is REPORT_DAILY_TRANSACTION_SUMMARY. Using queue: {}", queueName);
-        } else {
-            log.error("Unsupported report type: {}", reportType);
-            throw new IllegalArgumentException("Unsupported report type: " + reportType);
-        }
+        // Determine subscribers, task type, and queue name from the definition of the report type.
+        ReportDefinition definition = reportDefinitionRegistry.get(reportType);
+        List<Subscriber> subscriberList = definition.getSubscribers().get();
+        TaskType taskType = definition.getTaskType();
+        String queueName = definition.getQueueName();
+        log.info("Report type is {}. Using queue: {}", reportType, queueName);
 
         // If no active subscribers, finish execution.
         if (CollectionUtils.isEmpty(subscriberList)) {
@@ -121,8 +159,22 @@ public class CreateReportTasklet implements org.springframework.batch.core.step.
             return RepeatStatus.FINISHED;
         }
 
+        // Estimate the size of each report for lane routing and deadline-driven priorities.
+        boolean laneRouted = lanesEnabled && definition.isBulkRouted();
+        Map<String, Long> estimatedRows = laneRouted || deadlinePrioritizer.isEnabled()
+                ? transactionService.countTransactionsPerMerchant()
+                : Map.of();
+        Map<String, Integer> priorities = deadlinePrioritizer.isEnabled()
+                ? deadlinePrioritizer.prioritize(subscriberList, estimatedRows, LocalDateTime.now())
+                : Map.of();
+
+        // Register the planned tasks on the main task before any of them can finish.
+        mainTaskService.addPendingTasks(mainTaskId, subscriberList.size());
+
         // Iterate over each subscriber, create a task and send a message to the queue.
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+        // Messages awaiting publication, by target queue and priority.
+        Map<String, Map<Integer, List<CreateTaskQueueMessageDto>>> unpublished = new LinkedHashMap<>();
         for (Subscriber eachSubscriber : subscriberList) {
             // Create and save task
             Task task = new Task();
@@ -132,6 +184,8 @@ public class CreateReportTasklet implements org.springframework.batch.core.step.
             task.setQueuedAt(LocalDateTime.now());
             task.setReference(UUID.randomUUID().toString());
             task.setSubscriberEmail(eachSubscriber.getEmail());
+            task.setPriority(priorities.getOrDefault(eachSubscriber.getEmail(), DeadlinePrioritizer.DEFERRED_PRIORITY));
+            task.setBulk(laneRouted && estimatedRows.getOrDefault(task.getSubscriberEmail(), 0L) >= bulkThreshold);
             taskService.save(task);
             log.info("Created Task with reference: {} for subscriber: {}", task.getReference(), eachSubscriber.getEmail());
 
@@ -143,13 +197,39 @@ public class CreateReportTasklet implements org.springframework.batch.core.step.
             msg.setTimestamp(task.getQueuedAt().format(formatter));
             log.debug("Built message DTO: {}", msg);
 
-            // Post message to the appropriate queue.
-            rabbitTemplate.convertAndSend(queueName, msg);
-            log.info("Message sent to queue {} for Task reference: {}", queueName, task.getReference());
+            // Post message to the appropriate queue (or its shard queue for the subscriber).
+            String targetQueue = task.isBulk()
+                    ? dailyReportBulkQueueName
+                    : taskQueueRouter.route(queueName, task.getSubscriberEmail());
+            Integer priority = priorities.get(task.getSubscriberEmail());
+            List<CreateTaskQueueMessageDto> group = unpublished
+                    .computeIfAbsent(targetQueue, queue -> new HashMap<>())
+                    .computeIfAbsent(priority, p -> new ArrayList<>());
+            group.add(msg);
+            if (group.size() >= envelopeSize) {
+                publish(targetQueue, priority, group);
+            }
         }
+        unpublished.forEach((targetQueue, groups) -> groups.forEach((priority, group) -> {
+            if (!group.isEmpty()) {
+                publish(targetQueue, priority, group);
+            }
+        }));
 
         log.info("Tasklet execution completed successfully for MainTask ID: {}", mainTaskId);
         return RepeatStatus.FINISHED;
     }
-}
 
+    /**
+     * Publishes a group of messages sharing a target queue and a priority, then clears the group.
+     *
+     * @param targetQueue the queue the messages are routed to
+     * @param priority    the priority of the messages, or {@code null} for the default priority
+     * @param group       the messages
+     */
+    private void publish(String targetQueue, Integer priority, List<CreateTaskQueueMessageDto> group) {
+        taskTransport.publishAll(targetQueue, group, priority);
+        log.info("{} messages sent to queue {}", group.size(), targetQueue);
+        group.clear();
+    }
+}
@@ -1,22 +1,22 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.tasklet;
 
-import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
+import org.springframework.batch.core.BatchStatus;
 import org.springframework.batch.core.ExitStatus;
 import org.springframework.batch.core.StepContribution;
 import org.springframework.batch.core.StepExecution;
 import org.springframework.batch.core.StepExecutionListener;
 import org.springframework.batch.core.scope.context.ChunkContext;
 import org.springframework.batch.repeat.RepeatStatus;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.batch.TaskStateListener;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionSummaryDto;
-import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
-import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStatusSink;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TransactionService;
 import com.github.sharifrahim.bigdata.report.generate.big.data.report.util.CsvUtil;
 
@@ -28,14 +28,16 @@ import lombok.extern.slf4j.Slf4j;
  * <p>
  * This tasklet performs the following operations:
  * <ol>
- *   <li>Before the step execution, it retrieves the main task using the provided job parameter "taskId" and sets
- *       its status to PROCESSING. It also fetches the merchant email from job parameters and retrieves the transaction
- *       summary list for that merchant via {@link TransactionService}.</li>
+ *   <li>Before the step execution, it sets the task to PROCESSING unless the state kept by the
+ *       {@link TaskStateListener} shows it already is. It also fetches the merchant email from job parameters and
+ *       retrieves the transaction summary list for that merchant via {@link TransactionService}.</li>
  *   <li>During execution, it writes the fetched transaction summary data to a CSV file using {@link CsvUtil}.
  *       (An additional step to copy the file to cloud storage can be implemented.)</li>
- *   <li>After the step execution, it updates the main task, setting the completed timestamp and marking its status
- *       as COMPLETED.</li>
+ *   <li>After the step execution, it marks the task COMPLETED (or FAILED if the step failed), and records the
+ *       outcome on the task's main task.</li>
  * </ol>
+ * Both status updates go through the {@link TaskStatusSink}, which writes them in batches with those of the other
+ * reports and coalesces them when the report is generated between two flushes.
  * </p>
  * <p>
  * For more details, please visit my GitHub repository:
@@ -49,20 +51,20 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @RequiredArgsConstructor
 @Component
+@Profile("!planner")
 public class GenerateDailyTransactionSummaryReportTasklet implements org.springframework.batch.core.step.tasklet.Tasklet, StepExecutionListener {
 
     private final TransactionService transactionService;
-    private final TaskService taskService;
+    private final TaskStatusSink taskStatusSink;
     
     // Holds the transaction summary data for the merchant.
     private List<ReportDailyTransactionSummaryDto.RawData> transactionSummaryList;
-    // The MainTask associated with this job execution.
-    private Task task;
     
     /**
      * Called before the step execution to set up the necessary data.
      * <p>
-     * This method retrieves the main task using the job parameter "taskId" and updates its status to PROCESSING.
+     * This method takes the task state kept by the {@link TaskStateListener} and moves the task to PROCESSING
+     * unless it already is, without loading it.
      * It also retrieves the merchant email from job parameters, and if provided, fetches the transaction summary data.
      * </p>
      *
@@ -70,19 +72,17 @@ public class GenerateDailyTransactionSummaryReportTasklet implements org.springf
      */
     @Override
     public void beforeStep(StepExecution stepExecution) {
-        // Retrieve task id from the Job Parameters.
-        Long taskId = stepExecution.getJobParameters().getLong("taskId");
-        log.info("BeforeStep: Retrieving MainTask with ID: {}", taskId);
+        // Retrieve the task state passed on by the TaskStateListener.
+        Long taskId = TaskStateListener.taskId(stepExecution);
+        TaskStatus status = TaskStateListener.status(stepExecution);
+        log.info("BeforeStep: Task with ID: {} is {}", taskId, status);
         
-        Optional<Task> taskOpt = taskService.getById(taskId);
-        if (taskOpt.isPresent()) {
-            task = taskOpt.get();
-            task.setExecutedAt(LocalDateTime.now());
-            task.setStatus(TaskStatus.PROCESSING);
-            taskService.save(task);
-            log.info("MainTask with ID {} set to PROCESSING", task.getId());
-        } else {
-            log.warn("No MainTask found for ID: {}", taskId);
+        if (status == null) {
+            log.warn("No Task found for ID: {}", taskId);
+        } else if (!TaskStatus.PROCESSING.equals(status)) {
+            taskStatusSink.processing(taskId);
+            TaskStateListener.setStatus(stepExecution, TaskStatus.PROCESSING);
+            log.info("Task with ID {} set to PROCESSING", taskId);
         }
         
         // Retrieve merchant email from the Job Parameters.
@@ -127,9 +127,10 @@ public class GenerateDailyTransactionSummaryReportTasklet implements org.springf
     }
     
     /**
-     * Called after the step execution to update the MainTask status.
+     * Called after the step execution to update the task status.
      * <p>
-     * This method updates the MainTask's createdAt timestamp and marks its status as COMPLETED.
+     * This method marks the task COMPLETED (or FAILED if the step failed) and records the outcome on the task's main
+     * task, through the {@link TaskStatusSink}.
      * </p>
      *
      * @param stepExecution the current step execution context
@@ -137,11 +138,18 @@ public class GenerateDailyTransactionSummaryReportTasklet implements org.springf
      */
     @Override
     public ExitStatus afterStep(StepExecution stepExecution) {
-        log.info("AfterStep: Updating MainTask with ID {} to COMPLETED", task.getId());
-        task.setCreatedAt(LocalDateTime.now());
-        task.setStatus(TaskStatus.COMPLETED);
-        taskService.save(task);
-        log.info("MainTask with ID {} updated successfully", task.getId());
+        Long taskId = TaskStateListener.taskId(stepExecution);
+        Long mainTaskId = TaskStateListener.mainTaskId(stepExecution);
+        if (mainTaskId == null) {
+            log.warn("AfterStep: No task to update");
+            return stepExecution.getExitStatus();
+        }
+        TaskStatus outcome = BatchStatus.COMPLETED.equals(stepExecution.getStatus())
+                ? TaskStatus.COMPLETED : TaskStatus.FAILED;
+        log.info("AfterStep: Updating task with ID {} to {}", taskId, outcome);
+        taskStatusSink.finish(taskId, mainTaskId, outcome, null);
+        TaskStateListener.setStatus(stepExecution, outcome);
+        log.info("Task with ID {} updated successfully", taskId);
         return stepExecution.getExitStatus();
     }
 }
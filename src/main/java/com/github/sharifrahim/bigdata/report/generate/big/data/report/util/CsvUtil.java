@@ -1,9 +1,16 @@
 package com.github.sharifrahim.bigdata.report.generate.big.data.report.util;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
 import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.util.List;
 
 import com.opencsv.CSVWriter;
@@ -32,7 +39,7 @@ public class CsvUtil {
     /**
      * Writes the data list to a CSV file.
      * <p>
-     * If the file doesn't exist, a header row is created using the field names of the first object.
+     * If the file doesn't exist or is empty, a header row is created using the field names of the first object.
      * Each object in the list is then written as a CSV row by accessing its field values via reflection.
      * </p>
      *
@@ -48,7 +55,7 @@ public class CsvUtil {
         }
 
         File file = new File(filename);
-        boolean fileExists = file.exists();
+        boolean fileExists = file.exists() && file.length() > 0;
         log.info("Writing CSV to file: {} (File exists: {})", filename, fileExists);
 
         try (FileWriter fileWriter = new FileWriter(file, true);
@@ -88,4 +95,90 @@ public class CsvUtil {
             throw e;
         }
     }
+
+    /**
+     * Truncates a CSV file to the given length, discarding anything written after it.
+     * <p>
+     * Used to roll a report file back to its last committed length when a report is resumed after a crash.
+     * A file that is missing, or shorter than the length, has lost committed rows (for instance because the report
+     * is resumed on another node), so it fails the truncation instead of being resumed as a partial report.
+     * Nothing has been committed at a length of zero, so a missing file is then left to be created.
+     * </p>
+     *
+     * @param filename the name of the CSV file
+     * @param length   the length to truncate the file to, in bytes
+     * @throws NoSuchFileException if the file does not exist and the length is not zero
+     * @throws IOException         if the file is shorter than the length, or an I/O error occurs during truncation
+     */
+    public static void truncate(String filename, long length) throws IOException {
+        File file = new File(filename);
+        if (!file.exists()) {
+            if (length > 0) {
+                throw new NoSuchFileException(filename, null, "committed length is " + length + " bytes");
+            }
+            return;
+        }
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            if (randomAccessFile.length() < length) {
+                throw new IOException("CSV file " + filename + " is " + randomAccessFile.length()
+                        + " bytes long, shorter than its committed length of " + length + " bytes");
+            }
+            if (randomAccessFile.length() > length) {
+                log.info("Truncating CSV file {} from {} to {} bytes", filename, randomAccessFile.length(), length);
+                randomAccessFile.setLength(length);
+            }
+        }
+    }
+
+    /**
+     * Concatenates CSV part files into one CSV file, in the given order.
+     * <p>
+     * The target file is created, or overwritten if it exists. Each part is expected to start with the same header
+     * row: the header of the first part is kept and those of the others are skipped. Empty parts, such as those of
+     * chunks without rows, are skipped too. A missing part fails the concatenation, since the file would be
+     * incomplete.
+     * </p>
+     *
+     * @param filename the name of the CSV file to create
+     * @param parts    the names of the CSV part files, in order
+     * @throws NoSuchFileException if a part does not exist
+     * @throws IOException         if an I/O error occurs during reading or writing
+     */
+    public static void concatenate(String filename, List<String> parts) throws IOException {
+        boolean headerWritten = false;
+        try (OutputStream out = Files.newOutputStream(Path.of(filename))) {
+            for (String part : parts) {
+                Path path = Path.of(part);
+                if (!Files.exists(path)) {
+                    throw new NoSuchFileException(part, null, "CSV part is missing");
+                }
+                if (Files.size(path) == 0) {
+                    log.debug("CSV part {} is empty; skipping it.", part);
+                    continue;
+                }
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(path))) {
+                    if (headerWritten) {
+                        skipLine(in);
+                    }
+                    in.transferTo(out);
+                }
+                headerWritten = true;
+            }
+        }
+        log.info("Concatenated {} CSV parts into file: {}", parts.size(), filename);
+    }
+
+    /**
+     * Skips the first row of a CSV file, up to and including its line break. Only used for header rows, whose
+     * field names hold no line breaks.
+     *
+     * @param in the CSV input
+     * @throws IOException if an I/O error occurs during reading
+     */
+    private static void skipLine(InputStream in) throws IOException {
+        int b = in.read();
+        while (b != -1 && b != '\n') {
+            b = in.read();
+        }
+    }
 }
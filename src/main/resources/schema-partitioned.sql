@@ -0,0 +1,95 @@
+-- Alternative schema with a time-partitioned tasks table.
+-- Enable with spring.sql.init.schema-locations=classpath:schema-partitioned.sql
+-- and spring.report.housekeeping.partitioning.enabled=true.
+
+-- 1. Create main_tasks table
+CREATE TABLE main_tasks (
+    id              BIGSERIAL       PRIMARY KEY,
+    type  VARCHAR(50)     NOT NULL,              -- Type of the main task
+    description     TEXT            NULL,                  -- Optional description
+    status          VARCHAR(50)     NOT NULL DEFAULT 'pending', -- Status of the main task
+    scheduled_at    TIMESTAMP       NULL,                  -- Scheduled start time
+    report_date     DATE            NULL,                  -- Business date the reports are generated for
+    total_tasks     INT             NOT NULL DEFAULT 0,    -- Number of planned tasks
+    pending_tasks   INT             NOT NULL DEFAULT 0,    -- Number of tasks not finished yet
+    completed_tasks INT             NOT NULL DEFAULT 0,    -- Number of completed tasks
+    failed_tasks    INT             NOT NULL DEFAULT 0,    -- Number of failed tasks
+    planning_completed BOOLEAN      NOT NULL DEFAULT FALSE, -- Whether all tasks have been planned
+    created_at      TIMESTAMP       NOT NULL DEFAULT NOW(), -- Creation timestamp
+    updated_at      TIMESTAMP       NOT NULL DEFAULT NOW()  -- Last updated timestamp
+);
+
+CREATE INDEX idx_main_tasks_type_report_date_status ON main_tasks (type, report_date, status);
+
+-- 2. Create tasks table, range-partitioned by created_at so that old tasks can be dropped as whole partitions.
+--    The primary key must include the partition key. Daily partitions (tasks_pYYYYMMDD) are created ahead of time
+--    by the housekeeping job; rows outside of them land in the default partition.
+CREATE TABLE tasks (
+    id              BIGSERIAL       NOT NULL,
+    reference       VARCHAR(255)    NOT NULL,              -- Unique reference for queue/external
+    main_task_id    BIGINT          NOT NULL,              -- Foreign key to main_tasks
+    type       		VARCHAR(50)     NOT NULL,              -- Type of the sub-task
+    status          VARCHAR(50)     NOT NULL DEFAULT 'pending', -- Status of the sub-task
+    queued_at       TIMESTAMP       NULL,                  -- Time the sub-task was queued
+    executed_at     TIMESTAMP       NULL,                  -- Execution start time
+    completed_at    TIMESTAMP       NULL,                  -- Completion time
+    created_at      TIMESTAMP       NOT NULL DEFAULT NOW(), -- Creation timestamp
+    updated_at      TIMESTAMP       NOT NULL DEFAULT NOW(), -- Last updated timestamp
+    subscriber_email VARCHAR(255)   NULL,                  -- Email of the subscriber
+    priority        INT             NOT NULL DEFAULT 0,    -- Claim priority (database queue transport)
+    lease_owner     VARCHAR(255)    NULL,                  -- Worker holding the lease (database queue transport)
+    lease_expires_at TIMESTAMP      NULL,                  -- Lease expiry (database queue transport)
+    rows_written    BIGINT          NOT NULL DEFAULT 0,    -- Report rows written so far (progress)
+    running_copies  INT             NOT NULL DEFAULT 0,    -- Copies of the task being generated
+    speculated      BOOLEAN         NOT NULL DEFAULT FALSE, -- Whether a speculative copy has been launched
+    bulk            BOOLEAN         NOT NULL DEFAULT FALSE, -- Whether the task was routed to the bulk lane
+    version         BIGINT          NOT NULL DEFAULT 0,    -- Optimistic lock version, incremented by every update
+    CONSTRAINT pk_tasks PRIMARY KEY (id, created_at),
+    CONSTRAINT fk_main_task
+        FOREIGN KEY (main_task_id)
+        REFERENCES main_tasks (id)
+        ON DELETE CASCADE
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE tasks_default PARTITION OF tasks DEFAULT;
+
+CREATE TABLE subscribers (
+    id               BIGSERIAL       PRIMARY KEY,
+    email            VARCHAR(255)    NOT NULL,
+    report_type      VARCHAR(100)    NOT NULL,
+    period_from      DATE            NOT NULL,
+    period_to        DATE            NOT NULL,
+    status           VARCHAR(50)     NOT NULL DEFAULT 'active',
+    delivery_deadline TIME           NULL,                  -- Time of day the report must be delivered by
+    created_at       TIMESTAMP       NOT NULL DEFAULT NOW(),
+    updated_at       TIMESTAMP       NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE transaction (
+    id SERIAL PRIMARY KEY,
+    payer_name VARCHAR(255) NOT NULL,
+    payer_email VARCHAR(255) NOT NULL,
+    merchant_email VARCHAR(255) NOT NULL,
+    amount NUMERIC(10,2) NOT NULL,
+    currency VARCHAR(10) NOT NULL,
+    transaction_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- 3. Indexes used by task lookups and housekeeping
+CREATE INDEX idx_tasks_reference ON tasks (reference);
+CREATE INDEX idx_tasks_main_task_id ON tasks (main_task_id);
+CREATE INDEX idx_tasks_status_updated_at ON tasks (status, updated_at);
+-- Partial indexes of the database queue transport: the next claimable tasks and the expired leases.
+CREATE INDEX idx_tasks_claimable ON tasks (priority DESC, id) WHERE status = 'QUEUE';
+CREATE INDEX idx_tasks_lease_expires_at ON tasks (lease_expires_at) WHERE status = 'PROCESSING';
+
+-- 4. Archive tables for housekeeping (same columns as the live tables, without constraints)
+CREATE TABLE tasks_archive (LIKE tasks INCLUDING DEFAULTS);
+CREATE TABLE main_tasks_archive (LIKE main_tasks INCLUDING DEFAULTS);
+
+-- 5. Worker node membership used to assign shard queues to worker nodes
+CREATE TABLE worker_nodes (
+    node_id         VARCHAR(255)    PRIMARY KEY,           -- Identifier of the worker node
+    heartbeat_at    TIMESTAMP       NOT NULL DEFAULT NOW(), -- Last heartbeat of the node
+    started_at      TIMESTAMP       NOT NULL DEFAULT NOW()  -- Time the node joined
+);
@@ -0,0 +1,211 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobParametersBuilder;
+import org.springframework.batch.core.StepExecution;
+import org.springframework.batch.core.scope.context.StepSynchronizationManager;
+import org.springframework.batch.item.Chunk;
+import org.springframework.batch.item.ExecutionContext;
+import org.springframework.batch.test.MetaDataInstanceFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkReplyDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.RemoteChunkRequestDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.ReportDailyTransactionDto.RawData;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.InProcessRemoteChunkTransport;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.queue.RemoteChunkTransport;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskProgressService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskStatusSink;
+
+class RemoteChunkingTest {
+
+	@TempDir
+	Path dir;
+
+	private InProcessRemoteChunkTransport broker;
+	private CountingTransport transport;
+	private TaskProgressService taskProgressService;
+	private RemoteChunkItemWriter writer;
+	private StepExecution stepExecution;
+	private Path report;
+
+	@BeforeEach
+	void setUp() {
+		broker = new InProcessRemoteChunkTransport(new RemoteChunkHandler(new ReportDailyTransactionItemProcessor()));
+		ReflectionTestUtils.setField(broker, "workers", 4);
+		broker.init();
+		transport = new CountingTransport(broker);
+
+		taskProgressService = mock(TaskProgressService.class);
+		when(taskProgressService.finish(eq(7L), eq(TaskStatus.COMPLETED), anyLong())).thenReturn(true);
+		writer = new RemoteChunkItemWriter(transport,
+				new ReportDailyTransactionItemWriter(taskProgressService, mock(TaskStatusSink.class)));
+		ReflectionTestUtils.setField(writer, "chunkSize", 10);
+		ReflectionTestUtils.setField(writer, "maxInFlight", 3);
+		ReflectionTestUtils.setField(writer, "replyTimeout", 5000L);
+		ReflectionTestUtils.setField(writer, "partDir", dir.resolve("parts").toString());
+
+		stepExecution = MetaDataInstanceFactory.createStepExecution(new JobParametersBuilder()
+				.addLong("taskId", 7L)
+				.addString("merchantEmail", "bulk@merchant.com")
+				.addString("copy", "original")
+				.addLong("mainTaskId", 3L, false)
+				.addString("taskStatus", TaskStatus.PROCESSING.name(), false)
+				.toJobParameters());
+		new TaskStateListener(mock(TaskService.class)).beforeStep(stepExecution);
+		report = dir.resolve("report.csv");
+		stepExecution.getExecutionContext().putString(ReportDailyTransactionItemWriter.FILENAME_KEY, report.toString());
+		StepSynchronizationManager.register(stepExecution);
+	}
+
+	@AfterEach
+	void tearDown() {
+		StepSynchronizationManager.close();
+		broker.shutdown();
+	}
+
+	@Test
+	void assemblesRemoteChunksInOrderWithBoundedRequestsInFlight() throws Exception {
+		ExecutionContext context = stepExecution.getExecutionContext();
+		writer.open(context);
+		writer.write(new Chunk<>(rawData(0, 45)));
+		writer.update(context);
+		writer.write(new Chunk<>(rawData(45, 30)));
+		writer.update(context);
+		stepExecution.setStatus(BatchStatus.COMPLETED);
+		writer.afterStep(stepExecution);
+		writer.close();
+
+		assertEquals(3, transport.maxInFlight.get());
+		assertEquals(8, context.getLong(RemoteChunkItemWriter.SEQUENCE_KEY));
+		assertEquals(75, context.getLong(ReportDailyTransactionItemWriter.ROWS_WRITTEN_KEY));
+		List<String> lines = Files.readAllLines(report);
+		assertEquals(76, lines.size());
+		assertTrue(lines.get(0).contains("\"payerName\""));
+		for (int i = 0; i < 75; i++) {
+			assertTrue(lines.get(i + 1).contains("\"payer-" + i + "\""), lines.get(i + 1));
+		}
+		try (var parts = Files.list(dir.resolve("parts"))) {
+			assertEquals(0, parts.count());
+		}
+		verify(taskProgressService).finish(7L, TaskStatus.COMPLETED, 75L);
+	}
+
+	@Test
+	void failsStepWhenPartIsMissing() throws Exception {
+		ExecutionContext context = stepExecution.getExecutionContext();
+		writer.open(context);
+		writer.write(new Chunk<>(rawData(0, 30)));
+		writer.update(context);
+		Files.delete(dir.resolve("parts").resolve("task-7-original-00000001.csv"));
+		stepExecution.setStatus(BatchStatus.COMPLETED);
+		writer.afterStep(stepExecution);
+		writer.close();
+
+		assertEquals(BatchStatus.FAILED, stepExecution.getStatus());
+		verify(taskProgressService).finish(7L, TaskStatus.FAILED, 30L);
+		try (var parts = Files.list(dir.resolve("parts"))) {
+			assertEquals(2, parts.count());
+		}
+	}
+
+	@Test
+	void failsChunkWhenWorkerFails() {
+		List<RawData> items = rawData(0, 25);
+		items.get(17).setTransactionDate(null);
+		writer.open(stepExecution.getExecutionContext());
+
+		IllegalStateException e = assertThrows(IllegalStateException.class, () -> writer.write(new Chunk<>(items)));
+		assertTrue(e.getMessage().startsWith("Remote chunk 1 of task 7 failed"), e.getMessage());
+		writer.close();
+	}
+
+	@Test
+	void restartResendsUncommittedChunksUnderTheSameNumbers() throws Exception {
+		ExecutionContext context = stepExecution.getExecutionContext();
+		writer.open(context);
+		writer.write(new Chunk<>(rawData(0, 20)));
+		writer.update(context);
+		writer.write(new Chunk<>(rawData(20, 20)));
+		writer.close();
+
+		writer.open(context);
+		writer.write(new Chunk<>(rawData(20, 20)));
+		writer.update(context);
+		stepExecution.setStatus(BatchStatus.COMPLETED);
+		writer.afterStep(stepExecution);
+		writer.close();
+
+		List<String> lines = Files.readAllLines(report);
+		assertEquals(41, lines.size());
+		assertTrue(lines.get(40).contains("\"payer-39\""));
+	}
+
+	private static List<RawData> rawData(int from, int count) {
+		List<RawData> items = new ArrayList<>();
+		for (int i = from; i < from + count; i++) {
+			items.add(new RawData(i, "payer-" + i, "payer" + i + "@mail.com", "bulk@merchant.com",
+					BigDecimal.valueOf(i, 2), "MYR", LocalDateTime.of(2025, 1, 1, 12, 0).plusMinutes(i)));
+		}
+		return items;
+	}
+
+	private static final class CountingTransport implements RemoteChunkTransport {
+
+		private final RemoteChunkTransport delegate;
+		private final AtomicInteger inFlight = new AtomicInteger();
+		private final AtomicInteger maxInFlight = new AtomicInteger();
+
+		CountingTransport(RemoteChunkTransport delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public String openReplyQueue() {
+			return delegate.openReplyQueue();
+		}
+
+		@Override
+		public void send(String replyQueue, RemoteChunkRequestDto request) {
+			maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+			delegate.send(replyQueue, request);
+		}
+
+		@Override
+		public RemoteChunkReplyDto receive(String replyQueue, long timeoutMillis) throws InterruptedException {
+			RemoteChunkReplyDto reply = delegate.receive(replyQueue, timeoutMillis);
+			if (reply != null) {
+				inFlight.decrementAndGet();
+			}
+			return reply;
+		}
+
+		@Override
+		public void closeReplyQueue(String replyQueue) {
+			delegate.closeReplyQueue(replyQueue);
+		}
+	}
+}
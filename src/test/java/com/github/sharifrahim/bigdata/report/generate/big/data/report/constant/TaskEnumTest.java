@@ -0,0 +1,35 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.constant;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+
+class TaskEnumTest {
+
+	@Test
+	void queuedTaskMovesToAnyOtherStatus() {
+		assertTrue(TaskStatus.QUEUE.canTransitionTo(TaskStatus.PROCESSING));
+		assertTrue(TaskStatus.QUEUE.canTransitionTo(TaskStatus.COMPLETED));
+		assertTrue(TaskStatus.QUEUE.canTransitionTo(TaskStatus.FAILED));
+		assertFalse(TaskStatus.QUEUE.canTransitionTo(TaskStatus.QUEUE));
+	}
+
+	@Test
+	void processingTaskFinishesOrGoesBackToTheQueue() {
+		assertTrue(TaskStatus.PROCESSING.canTransitionTo(TaskStatus.COMPLETED));
+		assertTrue(TaskStatus.PROCESSING.canTransitionTo(TaskStatus.FAILED));
+		assertTrue(TaskStatus.PROCESSING.canTransitionTo(TaskStatus.QUEUE));
+		assertFalse(TaskStatus.PROCESSING.canTransitionTo(TaskStatus.PROCESSING));
+	}
+
+	@Test
+	void finishedTaskNeverMoves() {
+		for (TaskStatus next : TaskStatus.values()) {
+			assertFalse(TaskStatus.COMPLETED.canTransitionTo(next));
+			assertFalse(TaskStatus.FAILED.canTransitionTo(next));
+		}
+	}
+}
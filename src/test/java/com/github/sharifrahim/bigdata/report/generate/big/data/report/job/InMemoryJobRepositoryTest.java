@@ -0,0 +1,47 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.batch.core.BatchStatus;
+import org.springframework.batch.core.JobExecution;
+import org.springframework.batch.core.JobParameters;
+import org.springframework.batch.core.JobParametersBuilder;
+
+class InMemoryJobRepositoryTest {
+
+	@Test
+	void keepsNewInstanceWhenRunningInstancesExceedRetention() throws Exception {
+		InMemoryJobRepository repository = new InMemoryJobRepository(2);
+		for (long taskId = 1; taskId <= 3; taskId++) {
+			repository.createJobExecution("reportJob", parameters(taskId)).setStatus(BatchStatus.STARTED);
+		}
+
+		JobExecution execution = repository.createJobExecution("reportJob", parameters(4));
+		assertNotNull(execution.getJobInstance());
+		assertTrue(repository.isJobInstanceExists("reportJob", parameters(4)));
+		assertEquals(execution, repository.getLastJobExecution("reportJob", parameters(4)));
+		for (long taskId = 1; taskId <= 3; taskId++) {
+			assertTrue(repository.isJobInstanceExists("reportJob", parameters(taskId)));
+		}
+	}
+
+	@Test
+	void evictsOldestFinishedInstancesBeyondRetention() throws Exception {
+		InMemoryJobRepository repository = new InMemoryJobRepository(2);
+		for (long taskId = 1; taskId <= 3; taskId++) {
+			repository.createJobExecution("reportJob", parameters(taskId)).setStatus(BatchStatus.COMPLETED);
+		}
+
+		assertFalse(repository.isJobInstanceExists("reportJob", parameters(1)));
+		assertTrue(repository.isJobInstanceExists("reportJob", parameters(2)));
+		assertTrue(repository.isJobInstanceExists("reportJob", parameters(3)));
+	}
+
+	private static JobParameters parameters(long taskId) {
+		return new JobParametersBuilder().addLong("taskId", taskId).toJobParameters();
+	}
+}
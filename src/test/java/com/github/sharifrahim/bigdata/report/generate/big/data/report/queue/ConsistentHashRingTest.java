@@ -0,0 +1,76 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+
+	private static final int KEYS = 10_000;
+
+	@Test
+	void emptyRingOwnsNothing() {
+		ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of(), 16);
+		assertTrue(ring.isEmpty());
+		assertNull(ring.get("merchant@example.com"));
+	}
+
+	@Test
+	void rejectsFewerThanOneVirtualNode() {
+		assertThrows(IllegalArgumentException.class, () -> new ConsistentHashRing<>(List.of("a"), 0));
+	}
+
+	@Test
+	void sameMembersGiveSameOwner() {
+		ConsistentHashRing<String> first = new ConsistentHashRing<>(List.of("a", "b", "c"), 64);
+		ConsistentHashRing<String> second = new ConsistentHashRing<>(List.of("c", "a", "b"), 64);
+		for (int i = 0; i < KEYS; i++) {
+			String key = "merchant" + i + "@example.com";
+			assertEquals(first.get(key), second.get(key));
+		}
+	}
+
+	@Test
+	void spreadsKeysEvenlyAcrossMembers() {
+		List<Integer> shards = List.of(0, 1, 2, 3);
+		ConsistentHashRing<Integer> ring = new ConsistentHashRing<>(shards, 128);
+		Map<Integer, Integer> counts = new HashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			counts.merge(ring.get("merchant" + i + "@example.com"), 1, Integer::sum);
+		}
+		assertEquals(shards.size(), counts.size());
+		counts.values().forEach(count -> assertTrue(count > KEYS / shards.size() / 2,
+				"shard owns too few keys: " + counts));
+	}
+
+	@Test
+	void removingAMemberOnlyMovesItsKeys() {
+		ConsistentHashRing<String> ring = new ConsistentHashRing<>(List.of("a", "b", "c"), 64);
+		Map<String, String> before = new HashMap<>();
+		for (int i = 0; i < KEYS; i++) {
+			String key = "merchant" + i + "@example.com";
+			before.put(key, ring.get(key));
+		}
+
+		ring.remove("b");
+		before.forEach((key, owner) -> {
+			String now = ring.get(key);
+			if ("b".equals(owner)) {
+				assertNotEquals("b", now);
+			} else {
+				assertEquals(owner, now);
+			}
+		});
+
+		ring.add("b");
+		before.forEach((key, owner) -> assertEquals(owner, ring.get(key)));
+	}
+}
@@ -0,0 +1,132 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.entity.Task;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskProgressService;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+
+class MessageDeduplicatorTest {
+
+	private TaskProgressService taskProgressService;
+	private TaskService taskService;
+	private MessageDeduplicator deduplicator;
+
+	@BeforeEach
+	void setUp() {
+		taskProgressService = mock(TaskProgressService.class);
+		taskService = mock(TaskService.class);
+		deduplicator = new MessageDeduplicator(taskProgressService, taskService);
+		ReflectionTestUtils.setField(deduplicator, "cacheSize", 2);
+		deduplicator.init();
+	}
+
+	@Test
+	void claimsQueuedTaskAndDropsItsDuplicates() {
+		CreateTaskQueueMessageDto message = message("ref-1", false);
+		when(taskProgressService.claim(1L)).thenReturn(true);
+
+		assertFalse(deduplicator.isDuplicate(message));
+		assertTrue(deduplicator.claim(message, task(1L), false));
+		assertTrue(deduplicator.isDuplicate(message("ref-1", false)));
+	}
+
+	@Test
+	void dropsMessageOfFinishedTask() {
+		CreateTaskQueueMessageDto message = message("ref-1", false);
+		withStatus(1L, TaskStatus.COMPLETED);
+
+		assertFalse(deduplicator.claim(message, task(1L), true));
+		assertTrue(deduplicator.isDuplicate(message));
+	}
+
+	@Test
+	void resumesProcessingTaskOnlyOnRedelivery() {
+		withStatus(1L, TaskStatus.PROCESSING);
+
+		assertFalse(deduplicator.claim(message("ref-1", false), task(1L), false));
+		// A running task is not cached, so that its redelivery is not filtered out.
+		assertFalse(deduplicator.isDuplicate(message("ref-1", false)));
+		assertTrue(deduplicator.claim(message("ref-1", false), task(1L), true));
+	}
+
+	@Test
+	void releaseLetsTheRetryThrough() {
+		CreateTaskQueueMessageDto message = message("ref-1", false);
+		when(taskProgressService.claim(1L)).thenReturn(true);
+		deduplicator.claim(message, task(1L), false);
+
+		deduplicator.release(message);
+
+		assertFalse(deduplicator.isDuplicate(message));
+	}
+
+	@Test
+	void neverDropsSpeculativeCopies() {
+		when(taskProgressService.claim(1L)).thenReturn(true);
+		deduplicator.claim(message("ref-1", false), task(1L), false);
+
+		assertFalse(deduplicator.isDuplicate(message("ref-1", true)));
+	}
+
+	@Test
+	void forgetsTheOldestKeysBeyondTheCacheSize() {
+		when(taskProgressService.claim(1L)).thenReturn(true);
+		when(taskProgressService.claim(2L)).thenReturn(true);
+		when(taskProgressService.claim(3L)).thenReturn(true);
+		deduplicator.claim(message("ref-1", false), task(1L), false);
+		deduplicator.claim(message("ref-2", false), task(2L), false);
+		deduplicator.claim(message("ref-3", false), task(3L), false);
+
+		assertFalse(deduplicator.isDuplicate(message("ref-1", false)));
+		assertTrue(deduplicator.isDuplicate(message("ref-2", false)));
+		assertTrue(deduplicator.isDuplicate(message("ref-3", false)));
+	}
+
+	@Test
+	void recognizesBrokerRedeliveriesAndRetries() {
+		MessageProperties first = new MessageProperties();
+		MessageProperties redelivered = new MessageProperties();
+		redelivered.setRedelivered(true);
+		MessageProperties retried = new MessageProperties();
+		retried.setHeader(ReportMessageRecoverer.RETRY_COUNT_HEADER, 0);
+
+		assertFalse(deduplicator.isRedelivery(new Message(new byte[0], first)));
+		assertTrue(deduplicator.isRedelivery(new Message(new byte[0], redelivered)));
+		assertTrue(deduplicator.isRedelivery(new Message(new byte[0], retried)));
+	}
+
+	private void withStatus(Long taskId, TaskStatus status) {
+		Task task = task(taskId);
+		task.setStatus(status);
+		when(taskService.getById(taskId)).thenReturn(Optional.of(task));
+	}
+
+	private static Task task(Long id) {
+		Task task = new Task();
+		task.setId(id);
+		return task;
+	}
+
+	private static CreateTaskQueueMessageDto message(String reference, boolean speculative) {
+		CreateTaskQueueMessageDto message = new CreateTaskQueueMessageDto();
+		message.setMessageId(reference);
+		message.setTaskType("REPORT_DAILY_TRANSACTION");
+		message.setSubscriberEmail("merchant@example.com");
+		message.setSpeculative(speculative);
+		return message;
+	}
+}
@@ -0,0 +1,180 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.service.TaskService;
+import com.rabbitmq.client.Channel;
+
+class ReportBatchDispatcherTest {
+
+	private MessageConverter messageConverter;
+	private MessageDeduplicator messageDeduplicator;
+	private ReportMessageRecoverer reportMessageRecoverer;
+	private ReportJobExecutor reportJobExecutor;
+	private Channel channel;
+	private ReportBatchDispatcher dispatcher;
+
+	// References of the messages handed to the handler, in call order.
+	private final List<String> handled = new ArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		messageConverter = mock(MessageConverter.class);
+		messageDeduplicator = mock(MessageDeduplicator.class);
+		reportMessageRecoverer = mock(ReportMessageRecoverer.class);
+		reportJobExecutor = mock(ReportJobExecutor.class);
+		channel = mock(Channel.class);
+		dispatcher = new ReportBatchDispatcher(messageConverter, mock(TaskService.class), messageDeduplicator,
+				reportMessageRecoverer, reportJobExecutor);
+	}
+
+	@Test
+	void acknowledgesTheBatchUpToItsLastTag() throws Exception {
+		dispatcher.dispatch(List.of(message(1, "ref-1"), message(2, "ref-2"), message(3, "ref-3")), channel,
+				(message, task, redelivered) -> handled.add(message.getMessageId()));
+
+		assertEquals(List.of("ref-1", "ref-2", "ref-3"), handled);
+		verify(reportMessageRecoverer).acknowledgeUpTo(channel, 3);
+		verify(channel, never()).basicNack(anyLong(), anyBoolean(), anyBoolean());
+	}
+
+	@Test
+	void coversDroppedAndDeadLetteredMessagesWithTheBatchAck() throws Exception {
+		Message unreadable = new Message(new byte[0], properties(2));
+		when(messageConverter.fromMessage(unreadable)).thenThrow(new MessageConversionException("bad payload"));
+		Message duplicate = message(3, "ref-3");
+		when(messageDeduplicator.isDuplicate(any())).thenAnswer(
+				invocation -> "ref-3".equals(invocation.<CreateTaskQueueMessageDto>getArgument(0).getMessageId()));
+
+		dispatcher.dispatch(List.of(message(1, "ref-1"), unreadable, duplicate), channel,
+				(message, task, redelivered) -> handled.add(message.getMessageId()));
+
+		assertEquals(List.of("ref-1"), handled);
+		verify(reportMessageRecoverer).deadLetter(same(unreadable), any());
+		verify(reportMessageRecoverer).acknowledgeUpTo(channel, 3);
+	}
+
+	@Test
+	void skipsTheRequeuedTagsWhenAcknowledgingTheBatch() throws Exception {
+		Message failing = message(3, "ref-3");
+		doThrow(new AmqpException("broker down")).when(reportMessageRecoverer).republish(same(failing), any(), any());
+
+		dispatcher.dispatch(List.of(message(1, "ref-1"), message(2, "ref-2"), failing), channel,
+				(message, task, redelivered) -> {
+					if ("ref-3".equals(message.getMessageId())) {
+						throw new IllegalStateException("job failed");
+					}
+				});
+
+		verify(channel).basicNack(3, false, true);
+		verify(reportMessageRecoverer).acknowledgeUpTo(channel, 2);
+	}
+
+	@Test
+	void sendsNoBatchAckWhenEveryDeliveryIsSettled() throws Exception {
+		Message failing = message(1, "ref-1");
+		doThrow(new AmqpException("broker down")).when(reportMessageRecoverer).republish(same(failing), any(), any());
+
+		dispatcher.dispatch(List.of(failing), channel, (message, task, redelivered) -> {
+			throw new IllegalStateException("job failed");
+		});
+
+		verify(channel).basicNack(1, false, true);
+		verify(reportMessageRecoverer, never()).acknowledgeUpTo(any(), anyLong());
+	}
+
+	@Test
+	void requeuesASpeculativeCopyOfARunningTask() throws Exception {
+		CreateTaskQueueMessageDto speculative = dto("ref-2");
+		speculative.setSpeculative(true);
+		Message copy = new Message(new byte[0], properties(2));
+		when(messageConverter.fromMessage(copy)).thenReturn(speculative);
+
+		dispatcher.dispatch(List.of(message(1, "ref-1"), copy), channel, (message, task, redelivered) -> {
+			if (message.isSpeculative()) {
+				throw new TaskStillRunningException(2L);
+			}
+		});
+
+		verify(channel).basicNack(2, false, true);
+		verify(reportMessageRecoverer, never()).republish(any(), any(), any());
+		verify(reportMessageRecoverer).acknowledgeUpTo(channel, 1);
+	}
+
+	@Test
+	void acknowledgesEachDeliveryOnceItsJobsHaveFinished() throws Exception {
+		when(reportJobExecutor.isEnabled()).thenReturn(true);
+		List<Runnable> jobs = new ArrayList<>();
+		doAnswer(invocation -> jobs.add(invocation.getArgument(0))).when(reportJobExecutor).submit(any());
+		Message envelope = new Message(new byte[0], properties(1));
+		when(messageConverter.fromMessage(envelope)).thenReturn(List.of(dto("ref-1"), dto("ref-2")));
+
+		dispatcher.dispatch(List.of(envelope, message(2, "ref-3")), channel,
+				(message, task, redelivered) -> handled.add(message.getMessageId()));
+
+		assertEquals(3, jobs.size());
+		jobs.get(2).run();
+		verify(channel).basicAck(2, false);
+		jobs.get(0).run();
+		verify(channel, never()).basicAck(eq(1L), anyBoolean());
+		jobs.get(1).run();
+		verify(channel).basicAck(1, false);
+		verify(reportMessageRecoverer, never()).acknowledgeUpTo(any(), anyLong());
+	}
+
+	@Test
+	void acknowledgesADeliveryWithNothingToRunRightAway() throws Exception {
+		when(reportJobExecutor.isEnabled()).thenReturn(true);
+		when(messageDeduplicator.isDuplicate(any())).thenReturn(true);
+
+		dispatcher.dispatch(List.of(message(1, "ref-1")), channel,
+				(message, task, redelivered) -> handled.add(message.getMessageId()));
+
+		assertEquals(List.of(), handled);
+		verify(reportJobExecutor, never()).submit(any());
+		verify(channel).basicAck(1, false);
+	}
+
+	private Message message(long deliveryTag, String reference) {
+		Message message = new Message(new byte[0], properties(deliveryTag));
+		when(messageConverter.fromMessage(message)).thenReturn(dto(reference));
+		return message;
+	}
+
+	private static MessageProperties properties(long deliveryTag) {
+		MessageProperties properties = new MessageProperties();
+		properties.setDeliveryTag(deliveryTag);
+		return properties;
+	}
+
+	private static CreateTaskQueueMessageDto dto(String reference) {
+		CreateTaskQueueMessageDto message = new CreateTaskQueueMessageDto();
+		message.setMessageId(reference);
+		message.setTaskType("REPORT_DAILY_TRANSACTION");
+		message.setSubscriberEmail("merchant@example.com");
+		return message;
+	}
+}
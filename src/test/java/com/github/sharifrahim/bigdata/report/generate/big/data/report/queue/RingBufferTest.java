@@ -0,0 +1,99 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+class RingBufferTest {
+
+	@Test
+	void pollsInInsertionOrder() {
+		RingBuffer<Integer> ring = new RingBuffer<>(4);
+		for (int round = 0; round < 3; round++) {
+			assertTrue(ring.offer(1));
+			assertTrue(ring.offer(2));
+			assertTrue(ring.offer(3));
+			assertEquals(1, ring.poll());
+			assertEquals(2, ring.poll());
+			assertEquals(3, ring.poll());
+		}
+	}
+
+	@Test
+	void rejectsOfferWhenFullAndReturnsNullWhenEmpty() {
+		RingBuffer<Integer> ring = new RingBuffer<>(2);
+		assertNull(ring.poll());
+		assertTrue(ring.offer(1));
+		assertTrue(ring.offer(2));
+		assertFalse(ring.offer(3));
+		assertEquals(2, ring.size());
+		assertEquals(1, ring.poll());
+		assertTrue(ring.offer(3));
+		assertEquals(2, ring.poll());
+		assertEquals(3, ring.poll());
+		assertNull(ring.poll());
+		assertEquals(0, ring.size());
+	}
+
+	@Test
+	void rejectsCapacityThatIsNotAPowerOfTwo() {
+		assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(3));
+		assertThrows(IllegalArgumentException.class, () -> new RingBuffer<>(1));
+	}
+
+	@Test
+	void deliversEveryElementOnceWithConcurrentProducersAndConsumers() throws InterruptedException {
+		int producers = 4;
+		int consumers = 4;
+		int perProducer = 20_000;
+		long total = (long) producers * perProducer;
+		RingBuffer<Integer> ring = new RingBuffer<>(64);
+		AtomicInteger consumed = new AtomicInteger();
+		AtomicLong sum = new AtomicLong();
+		CountDownLatch done = new CountDownLatch(producers + consumers);
+		List<Thread> threads = new ArrayList<>();
+
+		for (int p = 0; p < producers; p++) {
+			threads.add(new Thread(() -> {
+				for (int i = 1; i <= perProducer; i++) {
+					while (!ring.offer(i)) {
+						Thread.yield();
+					}
+				}
+				done.countDown();
+			}));
+		}
+		for (int c = 0; c < consumers; c++) {
+			threads.add(new Thread(() -> {
+				while (consumed.get() < total) {
+					Integer element = ring.poll();
+					if (element == null) {
+						Thread.yield();
+						continue;
+					}
+					sum.addAndGet(element);
+					consumed.incrementAndGet();
+				}
+				done.countDown();
+			}));
+		}
+		threads.forEach(Thread::start);
+
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		assertEquals(total, consumed.get());
+		assertEquals(producers * ((long) perProducer * (perProducer + 1) / 2), sum.get());
+		assertNull(ring.poll());
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.dto.CreateTaskQueueMessageDto;
+
+class TaskEnvelopeCodecTest {
+
+	private final TaskEnvelopeCodec codec = new TaskEnvelopeCodec();
+
+	@Test
+	void roundTripsMessages() {
+		List<CreateTaskQueueMessageDto> messages = List.of(
+				message(UUID.randomUUID().toString(), "REPORT_DAILY_TRANSACTION", "a@example.com", "2025-01-31 23:59:59", false),
+				message("not-a-uuid", "REPORT_DAILY_TRANSACTION", "b@example.com", "2025-01-01 00:00:00", true),
+				message(UUID.randomUUID().toString(), "REPORT_DAILY_TRANSACTION_SUMMARY", "ünïcødé@example.com", "2025-01-01T00:00", false),
+				message(null, "REPORT_DAILY_TRANSACTION_SUMMARY", null, null, false));
+
+		assertEquals(messages, codec.decode(codec.encode(messages)));
+		assertEquals(List.of(), codec.decode(codec.encode(List.of())));
+	}
+
+	@Test
+	void rejectsUnsupportedVersionAndTruncatedEnvelopes() {
+		byte[] envelope = codec.encode(List.of(message(UUID.randomUUID().toString(), "REPORT_DAILY_TRANSACTION",
+				"a@example.com", "2025-01-01 00:00:00", false)));
+
+		byte[] otherVersion = envelope.clone();
+		otherVersion[0] = (byte) (TaskEnvelopeCodec.VERSION + 1);
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(otherVersion));
+
+		byte[] truncated = new byte[envelope.length - 3];
+		System.arraycopy(envelope, 0, truncated, 0, truncated.length);
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(truncated));
+	}
+
+	@Test
+	void convertsAlongsideJson() {
+		ContentTypeDelegatingMessageConverter converter = new ContentTypeDelegatingMessageConverter(
+				new Jackson2JsonMessageConverter());
+		converter.addDelegate(TaskEnvelopeMessageConverter.CONTENT_TYPE, new TaskEnvelopeMessageConverter());
+		List<CreateTaskQueueMessageDto> messages = messages(3);
+
+		Message json = converter.toMessage(messages.get(0), new MessageProperties());
+		assertEquals(messages.get(0), converter.fromMessage(json));
+
+		MessageProperties properties = new MessageProperties();
+		properties.setContentType(TaskEnvelopeMessageConverter.CONTENT_TYPE);
+		assertEquals(messages.get(0), converter.fromMessage(converter.toMessage(messages.get(0), properties)));
+
+		properties = new MessageProperties();
+		properties.setContentType(TaskEnvelopeMessageConverter.CONTENT_TYPE);
+		Object decoded = converter.fromMessage(converter.toMessage(messages, properties));
+		assertInstanceOf(List.class, decoded);
+		assertEquals(messages, decoded);
+
+		assertThrows(MessageConversionException.class,
+				() -> new TaskEnvelopeMessageConverter().toMessage("not a task", new MessageProperties()));
+	}
+
+	@Test
+	void isAtLeastFourTimesSmallerThanJson() {
+		Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+		TaskEnvelopeMessageConverter envelope = new TaskEnvelopeMessageConverter();
+		List<CreateTaskQueueMessageDto> messages = messages(1_000);
+
+		long jsonBytes = 0;
+		for (CreateTaskQueueMessageDto message : messages) {
+			Message converted = json.toMessage(message, new MessageProperties());
+			jsonBytes += converted.getBody().length + wireHeaderBytes(converted);
+		}
+		Message converted = envelope.toMessage(messages, new MessageProperties());
+		long envelopeBytes = converted.getBody().length + wireHeaderBytes(converted);
+
+		assertTrue(envelopeBytes * 4 < jsonBytes, "envelope should be at least 4 times smaller than JSON");
+	}
+
+	@Test
+	void rejectsTaskCountsTheEnvelopeCannotHold() {
+		// Version, then a varint count of 2^35 tasks with nothing after it.
+		byte[] huge = { TaskEnvelopeCodec.VERSION, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01 };
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(huge));
+
+		// Version, then a varint count with all 64 bits set, negative as a long.
+		byte[] negative = new byte[11];
+		negative[0] = TaskEnvelopeCodec.VERSION;
+		for (int i = 1; i < 10; i++) {
+			negative[i] = (byte) 0xFF;
+		}
+		negative[10] = 0x01;
+		assertThrows(IllegalArgumentException.class, () -> codec.decode(negative));
+	}
+
+	private long wireHeaderBytes(Message message) {
+		MessageProperties properties = message.getMessageProperties();
+		long bytes = properties.getContentType().length();
+		for (var header : properties.getHeaders().entrySet()) {
+			bytes += header.getKey().length() + String.valueOf(header.getValue()).length();
+		}
+		return bytes;
+	}
+
+	private List<CreateTaskQueueMessageDto> messages(int count) {
+		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+		LocalDateTime queuedAt = LocalDateTime.of(2025, 1, 1, 0, 0);
+		List<CreateTaskQueueMessageDto> messages = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			messages.add(message(UUID.randomUUID().toString(), "REPORT_DAILY_TRANSACTION", "merchant" + i + "@example.com",
+					queuedAt.plusNanos(i * 3_000_000L).format(formatter), false));
+		}
+		return messages;
+	}
+
+	private CreateTaskQueueMessageDto message(String messageId, String taskType, String subscriberEmail, String timestamp,
+			boolean speculative) {
+		CreateTaskQueueMessageDto message = new CreateTaskQueueMessageDto();
+		message.setMessageId(messageId);
+		message.setTaskType(taskType);
+		message.setSubscriberEmail(subscriberEmail);
+		message.setTimestamp(timestamp);
+		message.setSpeculative(speculative);
+		return message;
+	}
+}
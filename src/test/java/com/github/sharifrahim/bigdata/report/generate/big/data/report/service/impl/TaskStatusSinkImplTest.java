@@ -0,0 +1,190 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.constant.TaskEnum.TaskStatus;
+import com.github.sharifrahim.bigdata.report.generate.big.data.report.repository.MainTaskRepository;
+
+class TaskStatusSinkImplTest {
+
+	private JdbcTemplate jdbcTemplate;
+	private MainTaskRepository mainTaskRepository;
+	private TaskStatusSinkImpl sink;
+
+	// Parameters of every task update statement, in call order.
+	private final List<Object[]> statements = new ArrayList<>();
+
+	// Fails the statements it matches.
+	private Predicate<Object[]> failing = params -> false;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		mainTaskRepository = mock(MainTaskRepository.class);
+		when(mainTaskRepository.recordTaskOutcomes(any(), anyInt(), anyInt())).thenReturn(1);
+		when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class))).thenAnswer(invocation -> {
+			Object[] params = Arrays.copyOfRange(invocation.getArguments(), 2, invocation.getArguments().length);
+			statements.add(params);
+			if (failing.test(params)) {
+				throw new TransientDataAccessResourceException("connection reset");
+			}
+			List<Long> ids = new ArrayList<>();
+			for (int i = 0; i < params.length; i += 5) {
+				ids.add((Long) params[i]);
+			}
+			return ids;
+		});
+		sink = new TaskStatusSinkImpl(jdbcTemplate, mock(PlatformTransactionManager.class), mainTaskRepository);
+		ReflectionTestUtils.setField(sink, "durability", "async");
+		ReflectionTestUtils.setField(sink, "flushInterval", 10L);
+		ReflectionTestUtils.setField(sink, "statementSize", 500);
+		ReflectionTestUtils.setField(sink, "maxPending", 10_000);
+		ReflectionTestUtils.setField(sink, "maxFlushAttempts", 3);
+		sink.init();
+	}
+
+	@Test
+	void coalescesTheTransitionsOfATaskIntoOneRow() {
+		sink.processing(1L);
+		sink.finish(1L, 10L, TaskStatus.COMPLETED, 42L);
+		sink.flush();
+
+		assertEquals(1, statements.size());
+		Object[] row = statements.get(0);
+		assertEquals(5, row.length);
+		assertEquals(1L, row[0]);
+		assertEquals("COMPLETED", row[1]);
+		assertNotNull(row[2], "the execution start of the PROCESSING transition is kept");
+		assertNotNull(row[3]);
+		assertEquals(42L, row[4]);
+		verify(mainTaskRepository).recordTaskOutcomes(10L, 1, 0);
+	}
+
+	@Test
+	void neverMovesAFinalStatusBackToProcessing() {
+		sink.finish(1L, 10L, TaskStatus.FAILED, null);
+		sink.processing(1L);
+		sink.flush();
+
+		assertEquals("FAILED", statements.get(0)[1]);
+		verify(mainTaskRepository).recordTaskOutcomes(10L, 0, 1);
+	}
+
+	@Test
+	void writesTransitionsInRecordingOrderAndAddsUpOutcomes() {
+		sink.finish(2L, 10L, TaskStatus.COMPLETED, 1L);
+		sink.finish(1L, 10L, TaskStatus.FAILED, 1L);
+		sink.recordOutcome(10L, TaskStatus.COMPLETED);
+		sink.flush();
+
+		Object[] params = statements.get(0);
+		assertEquals(2L, params[0]);
+		assertEquals(1L, params[5]);
+		verify(mainTaskRepository).recordTaskOutcomes(10L, 2, 1);
+	}
+
+	@Test
+	void retriesAFailedFlushInFrontOfLaterTransitions() {
+		failing = params -> statements.size() == 1;
+		sink.processing(1L);
+		sink.flush();
+		sink.finish(1L, 10L, TaskStatus.COMPLETED, 5L);
+		sink.flush();
+
+		assertEquals(2, statements.size());
+		assertEquals("COMPLETED", statements.get(1)[1]);
+		assertNotNull(statements.get(1)[2]);
+		verify(mainTaskRepository).recordTaskOutcomes(10L, 1, 0);
+	}
+
+	@Test
+	void keepsCallersWaitingWhileTheirBatchIsRetried() {
+		ReflectionTestUtils.setField(sink, "durability", "sync");
+		failing = params -> statements.size() <= 2;
+
+		sink.finish(1L, 10L, TaskStatus.COMPLETED, 5L);
+
+		assertEquals(3, statements.size());
+		verify(mainTaskRepository).recordTaskOutcomes(10L, 1, 0);
+	}
+
+	@Test
+	void countsFailedFlushesPerTransition() {
+		failing = params -> contains(params, 1L);
+		sink.finish(1L, 10L, TaskStatus.COMPLETED, 1L);
+		sink.flush();
+		sink.flush();
+		// Task 1 has failed twice; task 2 joins it and fails once with it.
+		sink.finish(2L, 20L, TaskStatus.COMPLETED, 1L);
+		sink.flush();
+
+		// Task 1 exhausted its attempts: the batch was written one by one, dropping task 1 only.
+		assertEquals(5, statements.size());
+		assertEquals(1, statements.get(3).length / 5);
+		assertEquals(1, statements.get(4).length / 5);
+		verify(mainTaskRepository).recordTaskOutcomes(20L, 1, 0);
+		verify(mainTaskRepository, never()).recordTaskOutcomes(eq(10L), anyInt(), anyInt());
+
+		// Nothing is left pending.
+		sink.flush();
+		assertEquals(5, statements.size());
+	}
+
+	@Test
+	void requeuesEntriesWithAttemptsLeftWhenWritingOneByOne() {
+		ReflectionTestUtils.setField(sink, "maxFlushAttempts", 2);
+		// Task 1 always fails; task 2 fails along with it and on its first write alone.
+		failing = params -> contains(params, 1L) || statements.size() == 4;
+		sink.finish(1L, 10L, TaskStatus.COMPLETED, 1L);
+		sink.flush();
+		sink.finish(2L, 20L, TaskStatus.COMPLETED, 1L);
+		sink.flush();
+
+		verify(mainTaskRepository, never()).recordTaskOutcomes(eq(20L), anyInt(), anyInt());
+		sink.flush();
+
+		assertEquals(5, statements.size());
+		assertEquals(2L, statements.get(4)[0]);
+		verify(mainTaskRepository).recordTaskOutcomes(20L, 1, 0);
+	}
+
+	@Test
+	void failsCallersOfADroppedTransition() {
+		ReflectionTestUtils.setField(sink, "durability", "sync");
+		ReflectionTestUtils.setField(sink, "maxFlushAttempts", 1);
+		failing = params -> true;
+
+		assertThrows(IllegalStateException.class, () -> sink.finish(1L, 10L, TaskStatus.COMPLETED, 1L));
+	}
+
+	private static boolean contains(Object[] params, Long taskId) {
+		for (int i = 0; i < params.length; i += 5) {
+			if (taskId.equals(params[i])) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,87 @@
+package com.github.sharifrahim.bigdata.report.generate.big.data.report.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CsvUtilTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void truncatesRowsWrittenAfterTheCommittedLength() throws IOException {
+		Path file = write("report.csv", "\"id\"\n\"1\"\n\"2\"\n");
+
+		CsvUtil.truncate(file.toString(), 9);
+
+		assertEquals("\"id\"\n\"1\"\n", Files.readString(file));
+	}
+
+	@Test
+	void keepsAFileOfExactlyTheCommittedLength() throws IOException {
+		Path file = write("report.csv", "\"id\"\n\"1\"\n");
+
+		CsvUtil.truncate(file.toString(), 9);
+
+		assertEquals("\"id\"\n\"1\"\n", Files.readString(file));
+	}
+
+	@Test
+	void failsOnAFileShorterThanTheCommittedLength() throws IOException {
+		Path file = write("report.csv", "\"id\"\n");
+
+		assertThrows(IOException.class, () -> CsvUtil.truncate(file.toString(), 9));
+		assertEquals("\"id\"\n", Files.readString(file));
+	}
+
+	@Test
+	void failsOnAMissingFileWithCommittedRows() {
+		Path file = dir.resolve("report.csv");
+
+		assertThrows(NoSuchFileException.class, () -> CsvUtil.truncate(file.toString(), 9));
+	}
+
+	@Test
+	void leavesAMissingFileWithoutCommittedRowsToBeCreated() throws IOException {
+		Path file = dir.resolve("report.csv");
+
+		CsvUtil.truncate(file.toString(), 0);
+
+		assertFalse(Files.exists(file));
+	}
+
+	@Test
+	void concatenatesPartsKeepingTheFirstHeaderOnly() throws IOException {
+		Path first = write("part-0.csv", "\"id\"\n\"1\"\n");
+		Path empty = write("part-1.csv", "");
+		Path last = write("part-2.csv", "\"id\"\n\"2\"\n\"3\"\n");
+		Path file = dir.resolve("report.csv");
+
+		CsvUtil.concatenate(file.toString(), List.of(first.toString(), empty.toString(), last.toString()));
+
+		assertEquals("\"id\"\n\"1\"\n\"2\"\n\"3\"\n", Files.readString(file));
+	}
+
+	@Test
+	void failsOnAMissingPart() throws IOException {
+		Path first = write("part-0.csv", "\"id\"\n\"1\"\n");
+		Path file = dir.resolve("report.csv");
+
+		assertThrows(NoSuchFileException.class, () -> CsvUtil.concatenate(file.toString(),
+				List.of(first.toString(), dir.resolve("part-1.csv").toString())));
+	}
+
+	private Path write(String name, String content) throws IOException {
+		return Files.writeString(dir.resolve(name), content);
+	}
+}